@@ -1,13 +1,18 @@
 package com.deofis.tiendaapirest.autenticacion.repositories;
 
 import com.deofis.tiendaapirest.autenticacion.domain.Rol;
+import com.deofis.tiendaapirest.config.CacheConfig;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.Optional;
 
 @Repository
 public interface RolRepository extends JpaRepository<Rol, Long> {
 
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = CacheConfig.REGION_CONSULTAS_REFERENCIA)})
     Optional<Rol> findByNombre(String role);
 }
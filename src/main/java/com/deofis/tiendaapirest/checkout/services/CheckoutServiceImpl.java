@@ -6,6 +6,7 @@ import com.deofis.tiendaapirest.operaciones.domain.EventoOperacion;
 import com.deofis.tiendaapirest.operaciones.domain.Operacion;
 import com.deofis.tiendaapirest.operaciones.exceptions.OperacionException;
 import com.deofis.tiendaapirest.operaciones.repositories.OperacionRepository;
+import com.deofis.tiendaapirest.operaciones.services.ReservaStockService;
 import com.deofis.tiendaapirest.operaciones.services.StateMachineService;
 import com.deofis.tiendaapirest.pagos.PaymentException;
 import com.deofis.tiendaapirest.pagos.domain.MedioPagoEnum;
@@ -29,6 +30,7 @@ public class CheckoutServiceImpl implements CheckoutService {
 
     private final OperacionRepository operacionRepository;
     private final StateMachineService stateMachineService;
+    private final ReservaStockService reservaStockService;
 
     private final PagoStrategyFactory pagoStrategyFactory;
     private final OperacionPagoMapping operacionPagoMapping;
@@ -62,6 +64,9 @@ public class CheckoutServiceImpl implements CheckoutService {
                 operacion.getPago().getStatus().equalsIgnoreCase("approved"))
             throw new PaymentException("El pago para esta operación ya fue completado");
 
+        // Antes de cobrar, confirmamos la reserva del stock: si ya venció, no se completa el pago.
+        this.reservaStockService.confirmar(operacion);
+
         // Obtenemos esta fecha para asignarsela luego de completar el pago, para
         // que no se pierda al momento de crear el nuevo objeto de pago (son objetos distintos).
         Date fechaCreacionPago = operacion.getPago().getFechaCreacion();
@@ -0,0 +1,66 @@
+package com.deofis.tiendaapirest.config;
+
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Caché de segundo nivel de Hibernate (JCache / Ehcache) para los datos de referencia que casi no cambian:
+ * marcas, categorías, subcategorías, unidades de medida, propiedades, medios de pago y roles.
+ * <br>
+ * Las regiones se configuran acá (y no con missing_cache_strategy = create) para que tengan un tamaño acotado.
+ * Las escrituras hechas con JPA actualizan la región de entidades e invalidan las consultas cacheadas de las
+ * tablas modificadas, por lo que no hace falta evictar a mano desde los servicios.
+ */
+@Configuration
+public class CacheConfig {
+
+    /** Región de las entidades (y colecciones) de referencia. */
+    public static final String REGION_REFERENCIA = "referencia";
+    /** Región de las consultas cacheadas sobre entidades de referencia. */
+    public static final String REGION_CONSULTAS_REFERENCIA = "referencia-consultas";
+
+    private static final String REGION_CONSULTAS_DEFECTO = "default-query-results-region";
+    private static final String REGION_TIMESTAMPS = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching
+                .getCachingProvider(EhcacheCachingProvider.class.getName());
+
+        org.ehcache.config.Configuration configuracion = ConfigurationBuilder.newConfigurationBuilder()
+                .withCache(REGION_REFERENCIA, this.region(10_000, Duration.ofHours(6)))
+                .withCache(REGION_CONSULTAS_REFERENCIA, this.region(1_000, Duration.ofHours(6)))
+                .withCache(REGION_CONSULTAS_DEFECTO, this.region(1_000, Duration.ofMinutes(10)))
+                // Los timestamps de las tablas no deben expirar antes que las consultas que validan.
+                .withCache(REGION_TIMESTAMPS, CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                        Object.class, Object.class, ResourcePoolsBuilder.heap(1_000)).build())
+                .build();
+
+        return provider.getCacheManager(URI.create("urn:deofis:hibernate-cache"), configuracion);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private CacheConfiguration<Object, Object> region(long entradas, Duration ttl) {
+        return CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                ResourcePoolsBuilder.heap(entradas))
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl))
+                .build();
+    }
+}
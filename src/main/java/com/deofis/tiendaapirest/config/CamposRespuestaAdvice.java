@@ -0,0 +1,32 @@
+package com.deofis.tiendaapirest.config;
+
+import com.deofis.tiendaapirest.globalservices.FiltroCampos;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Set;
+
+/**
+ * Aplica el parámetro 'fields' a la respuesta de cualquier endpoint: si la request lo trae, la respuesta se
+ * serializa con un {@link FiltroCampos} con los campos pedidos. Sin el parámetro, se serializa completa.
+ */
+@ControllerAdvice
+public class CamposRespuestaAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest)) return;
+
+        Set<String> campos = FiltroCampos.parsear(((ServletServerHttpRequest) request).getServletRequest()
+                .getParameter(FiltroCampos.PARAMETRO));
+        if (!campos.isEmpty()) bodyContainer.setFilters(FiltroCampos.proveedor(campos));
+    }
+}
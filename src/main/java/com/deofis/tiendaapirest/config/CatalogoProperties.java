@@ -0,0 +1,143 @@
+package com.deofis.tiendaapirest.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "catalogo")
+@Component
+@Data
+public class CatalogoProperties {
+    private final Paginacion paginacion = new Paginacion();
+    private final Sugerencias sugerencias = new Sugerencias();
+    private final Cache cache = new Cache();
+    private final Feeds feeds = new Feeds();
+    private final Archivo archivo = new Archivo();
+    private final Cambios cambios = new Cambios();
+    private final Lotes lotes = new Lotes();
+    private final Respuestas respuestas = new Respuestas();
+
+    @Data
+    public static final class Paginacion {
+        private int tamanioDefecto = 24;
+        private int tamanioMaximo = 100;
+
+        /**
+         * Resuelve el tamaño de página a usar: el solicitado, acotado entre 1 y el máximo configurado,
+         * o el tamaño por defecto si no se solicitó ninguno.
+         * @param solicitado Integer tamaño solicitado por el cliente (puede ser null).
+         * @return int tamaño de página.
+         */
+        public int tamanioPagina(Integer solicitado) {
+            if (solicitado == null) return this.tamanioDefecto;
+            return Math.max(1, Math.min(solicitado, this.tamanioMaximo));
+        }
+    }
+
+    @Data
+    public static final class Sugerencias {
+        private int cantidadDefecto = 8;
+        private int cantidadMaxima = 20;
+
+        /**
+         * Resuelve la cantidad de sugerencias de autocompletado a devolver, con el mismo criterio que
+         * {@link Paginacion#tamanioPagina(Integer)}.
+         * @param solicitada Integer cantidad solicitada por el cliente (puede ser null).
+         * @return int cantidad de sugerencias.
+         */
+        public int cantidad(Integer solicitada) {
+            if (solicitada == null) return this.cantidadDefecto;
+            return Math.max(1, Math.min(solicitada, this.cantidadMaxima));
+        }
+    }
+
+    /**
+     * Caché de resultados de las consultas del catálogo. Se invalida con cada cambio del catálogo; el ttl solo
+     * acota cuánto vive una consulta que se dejó de pedir.
+     */
+    @Data
+    public static final class Cache {
+        private int entradasMaximas = 1_000;
+        private Duration ttl = Duration.ofMinutes(1);
+    }
+
+    /**
+     * Feeds de productos (Google Merchant, Meta) y sitemap, generados como archivos estáticos.
+     */
+    @Data
+    public static final class Feeds {
+        /** Directorio donde se escriben los feeds, servidos en ~/feeds/. */
+        private String directorio = "feeds";
+        /** URL pública de un producto; '{id}' se reemplaza por el id del producto. */
+        private String urlProducto;
+        private String moneda = "ARS";
+        /** Cantidad de ids por segmento: un cambio en un producto solo vuelve a generar su segmento. */
+        private int tamanioSegmento = 1_000;
+        private Duration intervalo = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Archivo binario con el catálogo completo, desde el que una instancia que inicia carga el catálogo en memoria
+     * sin leerlo de la base de datos.
+     */
+    @Data
+    public static final class Archivo {
+        private String ruta = "catalogo/catalogo.bin";
+        /** Cada cuánto se vuelve a escribir el archivo, si el catálogo cambió. */
+        private Duration intervalo = Duration.ofMinutes(10);
+        /** Al poner al día el catálogo leído, también se releen los cambios registrados este tiempo antes del archivo. */
+        private Duration margen = Duration.ofMinutes(2);
+    }
+
+    /**
+     * Log de cambios del catálogo: feed consultado por los clientes que sincronizan una copia local, y fuente de
+     * los cambios que cada instancia de la aplicación lee de las demás.
+     */
+    @Data
+    public static final class Cambios {
+        private int limiteDefecto = 500;
+        private int limiteMaximo = 5_000;
+        /**
+         * Los ids del log se asignan antes de confirmar la transacción: al leer desde una versión, también se
+         * vuelven a leer los cambios registrados este tiempo antes de ella, por si alguno se confirmó después.
+         */
+        private Duration margen = Duration.ofSeconds(5);
+        /** Cada cuánto cada instancia lee del log los cambios registrados por las demás. */
+        private Duration intervalo = Duration.ofSeconds(5);
+        /**
+         * Tiempo mínimo que se conserva un cambio en el log. Un cliente del feed que no sincroniza por más tiempo
+         * debe volver a descargar el catálogo completo.
+         */
+        private Duration retencion = Duration.ofDays(7);
+
+        /**
+         * Resuelve la cantidad máxima de cambios del log a leer por consulta, con el mismo criterio que
+         * {@link Paginacion#tamanioPagina(Integer)}.
+         * @param solicitado Integer límite solicitado por el cliente (puede ser null).
+         * @return int cantidad máxima de cambios.
+         */
+        public int limite(Integer solicitado) {
+            if (solicitado == null) return this.limiteDefecto;
+            return Math.max(1, Math.min(solicitado, this.limiteMaximo));
+        }
+    }
+
+    /**
+     * Consultas de productos y skus por lista de ids (carrito, favoritos, vistos recientemente).
+     */
+    @Data
+    public static final class Lotes {
+        private int idsMaximos = 200;
+    }
+
+    /**
+     * Respuestas ya serializadas (JSON y gzip) del detalle de producto y del árbol de categorías.
+     */
+    @Data
+    public static final class Respuestas {
+        /** Cantidad máxima de productos con su respuesta guardada; se descartan los pedidos hace más tiempo. */
+        private int productosMaximos = 5_000;
+    }
+}
@@ -0,0 +1,21 @@
+package com.deofis.tiendaapirest.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Las respuestas de la API se negocian por el header Accept (JSON, CBOR o Smile), pero el ETag del catálogo
+ * depende solo de su versión: 'Vary: Accept' evita que un cache entregue una representación guardada a un
+ * cliente que pidió otro formato.
+ */
+public class FormatoRespuestaInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return true;
+    }
+}
@@ -0,0 +1,38 @@
+package com.deofis.tiendaapirest.config;
+
+import com.deofis.tiendaapirest.pagos.domain.MedioPagoEnum;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "operaciones")
+@Component
+@Data
+public class OperacionesProperties {
+    private final Reservas reservas = new Reservas();
+
+    /**
+     * Reservas de stock de las operaciones pendientes de pago.
+     */
+    @Data
+    public static final class Reservas {
+        /** Tiempo que se mantiene reservado el stock de una operación sin pagar. */
+        private Duration ttl = Duration.ofMinutes(30);
+        /**
+         * Cuánto antes que la reserva vence el pago en el proveedor (Ej.: la preferencia de Mercado Pago, que se
+         * cobra antes de volver al checkout): un pago iniciado antes de vencer se confirma con la reserva activa.
+         * Debe ser menor que ttl.
+         */
+        private Duration gracia = Duration.ofMinutes(5);
+        /** Medios de pago cuyas reservas vencen. Las de los demás (Ej.: efectivo) se mantienen hasta cancelar. */
+        private Set<MedioPagoEnum> mediosConVencimiento = EnumSet.of(MedioPagoEnum.PAYPAL, MedioPagoEnum.MERCADO_PAGO);
+        /** Cada cuánto se liberan las reservas vencidas. */
+        private Duration intervalo = Duration.ofMinutes(1);
+        /** Cantidad de operaciones vencidas que se liberan por transacción. */
+        private int tamanioLote = 100;
+    }
+}
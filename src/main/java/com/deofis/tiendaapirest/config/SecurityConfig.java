@@ -76,6 +76,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                         "/**/*.js").permitAll()
                 .antMatchers("/api/auth/**", "/oauth2/**").permitAll()
                 .antMatchers("/api/catalogo/**").permitAll()
+                .antMatchers("/feeds/**").permitAll()
                 .antMatchers("/api/operaciones/**").permitAll()
                 .antMatchers("/api/**").permitAll()
                 .antMatchers("/v2/api-docs",
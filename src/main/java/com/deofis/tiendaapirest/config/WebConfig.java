@@ -1,15 +1,29 @@
 package com.deofis.tiendaapirest.config;
 
+import com.deofis.tiendaapirest.globalservices.FiltroCampos;
+import lombok.AllArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import javax.persistence.EntityManagerFactory;
+import java.nio.file.Paths;
+import java.util.List;
+
 @Configuration
 @EnableWebMvc
+@AllArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    private final EntityManagerFactory entityManagerFactory;
+    private final CatalogoProperties catalogoProperties;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -21,6 +35,39 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowCredentials(true);
     }
 
+    /**
+     * Open-session-in-view está desactivado (spring.jpa.open-in-view: false): los endpoints del catálogo, de
+     * productos y de categorías resuelven dentro de la transacción del servicio todo lo que serializan (ver
+     * GrafoProductoUtils). Los demás módulos todavía
+     * serializan asociaciones LAZY fuera de la transacción, por lo que se les mantiene la sesión abierta
+     * durante la vista hasta que definan sus propios planes de carga.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(this.entityManagerFactory);
+
+        registry.addWebRequestInterceptor(interceptor)
+                .excludePathPatterns("/api/catalogo/**", "/api/productos/**", "/api/categorias/**");
+        registry.addInterceptor(new FormatoRespuestaInterceptor())
+                .addPathPatterns("/api/**");
+    }
+
+    /**
+     * Con @EnableWebMvc los convertidores no pasan por la configuración de Jackson de Spring Boot: se registra
+     * acá el filtro de campos (parámetro 'fields', ver {@link CamposRespuestaAdvice}) en el ObjectMapper de cada
+     * convertidor Jackson. Además de JSON, Spring registra los de CBOR (application/cbor) y Smile
+     * (application/x-jackson-smile) por estar en el classpath: el cliente elige el formato con el header Accept.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (HttpMessageConverter<?> converter: converters) {
+            if (converter instanceof AbstractJackson2HttpMessageConverter) {
+                FiltroCampos.registrar(((AbstractJackson2HttpMessageConverter) converter).getObjectMapper());
+            }
+        }
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/swagger-ui.html")
@@ -28,5 +75,11 @@ public class WebConfig implements WebMvcConfigurer {
 
         registry.addResourceHandler("/webjars/**")
                 .addResourceLocations("classpath:/META-INF/resources/webjars/");
+
+        // Los feeds se sirven como archivos estáticos: Last-Modified es la fecha del archivo y los GET
+        // condicionales (If-Modified-Since) se responden con 304. Solo el primer nivel: los segmentos no se publican.
+        registry.addResourceHandler("/feeds/*")
+                .addResourceLocations("file:" + Paths.get(this.catalogoProperties.getFeeds().getDirectorio())
+                        .toAbsolutePath() + "/");
     }
 }
@@ -5,11 +5,14 @@ import com.deofis.tiendaapirest.ecommerce.dto.BannerDto;
 import com.deofis.tiendaapirest.ecommerce.exceptions.BannerException;
 import com.deofis.tiendaapirest.ecommerce.services.BannerService;
 import com.deofis.tiendaapirest.ecommerce.services.JsonBannerConverter;
+import com.deofis.tiendaapirest.productos.services.cambios.RecursoVersionado;
+import com.deofis.tiendaapirest.productos.services.cambios.VersionCatalogoService;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.HashMap;
@@ -23,6 +26,7 @@ public class BannerController {
 
     private final BannerService bannerService;
     private final JsonBannerConverter jsonBannerConverter;
+    private final VersionCatalogoService versionCatalogoService;
 
     /**
      * API que se encarga de crear un nuevo banner con sus datos correspondientes:
@@ -114,14 +118,18 @@ public class BannerController {
     }
 
     /**
-     * API que obtiene todos los Banners disponibles en la App.
+     * API que obtiene todos los Banners disponibles en la App. Soporta GET condicional: si el header
+     * If-None-Match coincide con la versión actual de los banners responde 304 Not Modified.
      * URL: ~/api/banners
      * HttpMethods: GET
-     * HttpStatus: OK
+     * HttpStatus: OK / NOT_MODIFIED
+     * @param request WebRequest para validar el ETag.
      * @return ResponseEntity con el List de Banners.
      */
     @GetMapping("/banners")
-    public ResponseEntity<?> obtenerBanners() {
+    public ResponseEntity<?> obtenerBanners(WebRequest request) {
+        if (request.checkNotModified(this.versionCatalogoService.etag(RecursoVersionado.BANNERS))) return null;
+
         Map<String, Object> response = new HashMap<>();
         List<Banner> banners;
 
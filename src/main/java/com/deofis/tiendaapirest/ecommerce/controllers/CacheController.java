@@ -0,0 +1,63 @@
+package com.deofis.tiendaapirest.ecommerce.controllers;
+
+import com.deofis.tiendaapirest.ecommerce.dto.EstadisticasCache;
+import com.deofis.tiendaapirest.ecommerce.services.CacheService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API's de administración de la caché de segundo nivel (datos de referencia) y de la caché de consultas del
+ * catálogo. Solo accesibles por administradores: 'ROLE_ADMIN'.
+ */
+
+@RestController
+@RequestMapping("/api")
+@AllArgsConstructor
+public class CacheController {
+
+    private final CacheService cacheService;
+
+    /**
+     * Obtiene las estadísticas de aciertos/fallos de la caché.
+     * URL: ~/api/cache/estadisticas
+     * HttpMethod: GET
+     * HttpStatus: OK
+     * @return ResponseEntity con las estadísticas por región.
+     */
+    @Secured("ROLE_ADMIN")
+    @GetMapping("/cache/estadisticas")
+    public ResponseEntity<?> obtenerEstadisticas() {
+        Map<String, Object> response = new HashMap<>();
+        List<EstadisticasCache> estadisticas = this.cacheService.obtenerEstadisticas();
+
+        response.put("regiones", estadisticas);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Vacía la caché de segundo nivel y la de consultas del catálogo.
+     * URL: ~/api/cache
+     * HttpMethod: DELETE
+     * HttpStatus: OK
+     * @return ResponseEntity con mensaje de éxito.
+     */
+    @Secured("ROLE_ADMIN")
+    @DeleteMapping("/cache")
+    public ResponseEntity<?> vaciarCache() {
+        Map<String, Object> response = new HashMap<>();
+        this.cacheService.vaciar();
+
+        response.put("mensaje", "Caché vaciada con éxito");
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,21 @@
+package com.deofis.tiendaapirest.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aciertos, fallos y escrituras de una región de la caché de segundo nivel.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EstadisticasCache {
+    private String region;
+    private Long aciertos;
+    private Long fallos;
+    private Long escrituras;
+    private Double tasaAciertos;
+}
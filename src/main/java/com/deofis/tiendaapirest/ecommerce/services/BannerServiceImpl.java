@@ -5,6 +5,8 @@ import com.deofis.tiendaapirest.ecommerce.dto.BannerDto;
 import com.deofis.tiendaapirest.ecommerce.exceptions.BannerException;
 import com.deofis.tiendaapirest.ecommerce.repositories.BannerRepository;
 import com.deofis.tiendaapirest.productos.domain.Imagen;
+import com.deofis.tiendaapirest.productos.services.cambios.RecursoVersionado;
+import com.deofis.tiendaapirest.productos.services.cambios.VersionCatalogoService;
 import com.deofis.tiendaapirest.productos.services.images.ImageService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +25,8 @@ public class BannerServiceImpl implements BannerService {
 
     private final ImageService imageService;
 
+    private final VersionCatalogoService versionCatalogoService;
+
     private final String clientUrl;
 
     @Override
@@ -139,6 +143,7 @@ public class BannerServiceImpl implements BannerService {
     @Transactional
     @Override
     public Banner save(Banner object) {
+        this.versionCatalogoService.registrarCambio(RecursoVersionado.BANNERS);
         return this.bannerRepository.save(object);
     }
 
@@ -146,12 +151,14 @@ public class BannerServiceImpl implements BannerService {
     @Override
     public void delete(Banner object) {
         this.bannerRepository.delete(object);
+        this.versionCatalogoService.registrarCambio(RecursoVersionado.BANNERS);
     }
 
     @Transactional
     @Override
     public void deleteById(Long aLong) {
         this.bannerRepository.deleteById(aLong);
+        this.versionCatalogoService.registrarCambio(RecursoVersionado.BANNERS);
     }
 
     private boolean existeOrden(Integer orden) {
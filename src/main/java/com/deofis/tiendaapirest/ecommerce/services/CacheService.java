@@ -0,0 +1,24 @@
+package com.deofis.tiendaapirest.ecommerce.services;
+
+import com.deofis.tiendaapirest.ecommerce.dto.EstadisticasCache;
+
+import java.util.List;
+
+/**
+ * Servicio de consulta y administración de la caché de segundo nivel de Hibernate (datos de referencia) y de
+ * la caché de resultados de las consultas del catálogo.
+ */
+public interface CacheService {
+
+    /**
+     * Obtiene las estadísticas de aciertos/fallos de cada región de la caché, incluida la de consultas.
+     * @return List con las estadísticas por región.
+     */
+    List<EstadisticasCache> obtenerEstadisticas();
+
+    /**
+     * Vacía todas las regiones de la caché. Las escrituras hechas con JPA ya mantienen la caché al día;
+     * esto solo es necesario si se modificaron datos directamente en la base de datos.
+     */
+    void vaciar();
+}
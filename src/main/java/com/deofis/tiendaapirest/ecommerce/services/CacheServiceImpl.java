@@ -0,0 +1,75 @@
+package com.deofis.tiendaapirest.ecommerce.services;
+
+import com.deofis.tiendaapirest.config.CacheConfig;
+import com.deofis.tiendaapirest.ecommerce.dto.EstadisticasCache;
+import com.deofis.tiendaapirest.productos.services.cache.CacheConsultasCatalogo;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@AllArgsConstructor
+@Slf4j
+public class CacheServiceImpl implements CacheService {
+
+    private static final String REGION_CONSULTAS_CATALOGO = "catalogo-consultas";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheConsultasCatalogo cacheConsultasCatalogo;
+
+    @Override
+    public List<EstadisticasCache> obtenerEstadisticas() {
+        Statistics statistics = this.sessionFactory().getStatistics();
+        List<EstadisticasCache> estadisticas = new ArrayList<>();
+
+        estadisticas.add(this.estadisticasRegion(CacheConfig.REGION_REFERENCIA,
+                statistics.getDomainDataRegionStatistics(CacheConfig.REGION_REFERENCIA)));
+        estadisticas.add(this.estadisticasRegion(CacheConfig.REGION_CONSULTAS_REFERENCIA,
+                statistics.getQueryRegionStatistics(CacheConfig.REGION_CONSULTAS_REFERENCIA)));
+        estadisticas.add(this.estadisticasConsultasCatalogo());
+
+        return estadisticas;
+    }
+
+    @Override
+    public void vaciar() {
+        this.sessionFactory().getCache().evictAllRegions();
+        this.cacheConsultasCatalogo.invalidar();
+        log.info("Caché de segundo nivel y de consultas del catálogo vaciadas");
+    }
+
+    private EstadisticasCache estadisticasConsultasCatalogo() {
+        long aciertos = this.cacheConsultasCatalogo.aciertos();
+        long fallos = this.cacheConsultasCatalogo.fallos();
+
+        return EstadisticasCache.builder()
+                .region(REGION_CONSULTAS_CATALOGO)
+                .aciertos(aciertos)
+                .fallos(fallos)
+                .escrituras(this.cacheConsultasCatalogo.escrituras())
+                .tasaAciertos(aciertos + fallos == 0 ? 0.0 : (double) aciertos / (aciertos + fallos)).build();
+    }
+
+    private EstadisticasCache estadisticasRegion(String region, CacheRegionStatistics statistics) {
+        if (statistics == null) return EstadisticasCache.builder().region(region).build();
+
+        long consultas = statistics.getHitCount() + statistics.getMissCount();
+        return EstadisticasCache.builder()
+                .region(region)
+                .aciertos(statistics.getHitCount())
+                .fallos(statistics.getMissCount())
+                .escrituras(statistics.getPutCount())
+                .tasaAciertos(consultas == 0 ? 0.0 : (double) statistics.getHitCount() / consultas).build();
+    }
+
+    private SessionFactory sessionFactory() {
+        return this.entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
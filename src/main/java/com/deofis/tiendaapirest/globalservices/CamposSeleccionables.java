@@ -0,0 +1,15 @@
+package com.deofis.tiendaapirest.globalservices;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un DTO cuyas propiedades se pueden seleccionar con el parámetro 'fields' (ver {@link FiltroCampos}). Las
+ * entidades (paquetes 'domain') ya son seleccionables sin marcarlas.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CamposSeleccionables {
+}
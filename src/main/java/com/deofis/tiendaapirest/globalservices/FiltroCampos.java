@@ -0,0 +1,141 @@
+package com.deofis.tiendaapirest.globalservices;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Filtro de Jackson que serializa solo los campos pedidos con el parámetro 'fields' (Ej.:
+ * 'id,nombre,marca.nombre'). Un campo se incluye si fue pedido, si es parte de la ruta a uno pedido ('marca' para
+ * 'marca.nombre') o si está dentro de uno pedido entero ('marca.id' para 'marca').
+ * <br>
+ * La ruta de un campo se arma con los nombres de las propiedades de los objetos seleccionables (entidades y DTOs
+ * con {@link CamposSeleccionables}) que lo contienen, sin contar las listas ni los envoltorios de la respuesta: en
+ * {"productos": [{"marca": {"nombre": ...}}]} la ruta de nombre es 'marca.nombre'.
+ * <br>
+ * Los getters de los campos no pedidos no se invocan, por lo que las asociaciones LAZY no pedidas no se cargan.
+ */
+public class FiltroCampos extends SimpleBeanPropertyFilter {
+
+    public static final String ID = "campos";
+    public static final String PARAMETRO = "fields";
+
+    private static final String PAQUETE_BASE = "com.deofis.tiendaapirest.";
+
+    private final Set<String> campos;
+
+    public FiltroCampos(Set<String> campos) {
+        this.campos = campos;
+    }
+
+    /**
+     * Separa el valor del parámetro 'fields' en campos.
+     * @param fields String campos separados por coma (puede ser null).
+     * @return Set de campos pedidos, vacío si no se pidió ninguno.
+     */
+    public static Set<String> parsear(String fields) {
+        if (fields == null || fields.isBlank()) return Collections.emptySet();
+
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(campo -> !campo.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * @return true si el campo en la ruta dada debe serializarse para los campos pedidos.
+     */
+    public static boolean incluye(Set<String> campos, String ruta) {
+        for (String campo: campos) {
+            if (campo.equals(ruta) || campo.startsWith(ruta + ".") || ruta.startsWith(campo + ".")) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return true si las propiedades de la clase se pueden seleccionar.
+     */
+    public static boolean seleccionable(Class<?> clase) {
+        String paquete = clase.getPackageName();
+        return paquete.startsWith(PAQUETE_BASE)
+                && (paquete.endsWith(".domain") || clase.isAnnotationPresent(CamposSeleccionables.class));
+    }
+
+    /**
+     * Registra el filtro en un ObjectMapper: asigna el filtro a las clases seleccionables y, sin parámetro
+     * 'fields', las serializa completas.
+     * @param mapper ObjectMapper a configurar.
+     * @return ObjectMapper configurado.
+     */
+    public static ObjectMapper registrar(ObjectMapper mapper) {
+        return mapper.setAnnotationIntrospector(new Introspector())
+                .setFilterProvider(proveedorPorDefecto());
+    }
+
+    /**
+     * Proveedor a registrar en el ObjectMapper: sin parámetro 'fields', todas las clases seleccionables se
+     * serializan completas.
+     */
+    public static SimpleFilterProvider proveedorPorDefecto() {
+        return new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+    }
+
+    public static SimpleFilterProvider proveedor(Set<String> campos) {
+        return proveedorPorDefecto().addFilter(ID, new FiltroCampos(campos));
+    }
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator jgen, SerializerProvider provider, PropertyWriter writer)
+            throws Exception {
+        if (incluye(this.campos, this.ruta(jgen, writer.getName())))
+            writer.serializeAsField(pojo, jgen, provider);
+        else if (!jgen.canOmitFields())
+            writer.serializeAsOmittedField(pojo, jgen, provider);
+    }
+
+    private String ruta(JsonGenerator jgen, String propiedad) {
+        StringBuilder ruta = new StringBuilder(propiedad);
+
+        // El contexto actual es el del objeto que se está escribiendo; hacia arriba, el nombre actual de cada
+        // objeto seleccionable es la propiedad que contiene al de abajo.
+        JsonStreamContext contexto = jgen.getOutputContext().getParent();
+        while (contexto != null) {
+            Object valor = contexto.getCurrentValue();
+            if (contexto.inObject() && valor != null && seleccionable(valor.getClass()) && contexto.getCurrentName() != null)
+                ruta.insert(0, contexto.getCurrentName() + ".");
+            contexto = contexto.getParent();
+        }
+
+        return ruta.toString();
+    }
+
+    /**
+     * Asigna el filtro a todas las clases seleccionables, sin tener que anotarlas con @JsonFilter.
+     */
+    public static class Introspector extends JacksonAnnotationIntrospector {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Object findFilterId(Annotated a) {
+            Object id = super.findFilterId(a);
+            if (id == null && a instanceof AnnotatedClass && seleccionable(((AnnotatedClass) a).getRawType()))
+                return ID;
+            return id;
+        }
+    }
+}
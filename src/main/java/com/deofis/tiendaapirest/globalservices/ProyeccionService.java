@@ -0,0 +1,50 @@
+package com.deofis.tiendaapirest.globalservices;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Servicio que resuelve los campos pedidos con el parámetro 'fields' directamente en la consulta: selecciona
+ * solo las columnas pedidas y hace join solo con las asociaciones pedidas, sin cargar las entidades.
+ * <br>
+ * Cada entidad publica sus columnas proyectables como un mapa de campo a ruta de atributo (Ej.: 'marca.nombre'
+ * --> 'marca.nombre', 'disponibilidad' --> 'disponibilidadGeneral'); solo se admiten asociaciones simples.
+ * Cada fila se devuelve como un mapa anidado: {"id": 1, "marca": {"nombre": "Samsung"}}.
+ */
+public interface ProyeccionService {
+
+    /**
+     * Resuelve las columnas a seleccionar para los campos pedidos. Un campo que es prefijo de columnas
+     * ('marca') selecciona todas ellas.
+     * @param columnas Map de campos proyectables de la entidad a su ruta de atributo.
+     * @param campos Set de campos pedidos.
+     * @return Map de las columnas a seleccionar, o null si algún campo pedido no es proyectable (se debe cargar
+     * la entidad y recortar la serialización).
+     */
+    Map<String, String> columnas(Map<String, String> columnas, Set<String> campos);
+
+    /**
+     * Obtiene una página de filas con las columnas dadas. El total se obtiene con una consulta count, solo si
+     * hace falta.
+     */
+    <T> Page<Map<String, Object>> proyectar(Class<T> entidad, Map<String, String> columnas,
+                                            Specification<T> especificacion, Pageable pageable);
+
+    /**
+     * Obtiene todas las filas con las columnas dadas, en el orden dado.
+     */
+    <T> List<Map<String, Object>> proyectar(Class<T> entidad, Map<String, String> columnas,
+                                            Specification<T> especificacion, Sort orden);
+
+    /**
+     * Suma un atributo numérico de las entidades que cumplen la especificación, sin cargarlas.
+     * @return Double suma, 0 si no hay ninguna.
+     */
+    <T> Double sumar(Class<T> entidad, String atributo, Specification<T> especificacion);
+}
@@ -0,0 +1,169 @@
+package com.deofis.tiendaapirest.globalservices;
+
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.util.*;
+
+@Service
+@AllArgsConstructor
+public class ProyeccionServiceImpl implements ProyeccionService {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Map<String, String> columnas(Map<String, String> columnas, Set<String> campos) {
+        Map<String, String> seleccionadas = new LinkedHashMap<>();
+
+        for (String campo: campos) {
+            boolean encontrado = false;
+            for (Map.Entry<String, String> columna: columnas.entrySet()) {
+                if (columna.getKey().equals(campo) || columna.getKey().startsWith(campo + ".")) {
+                    seleccionadas.put(columna.getKey(), columna.getValue());
+                    encontrado = true;
+                }
+            }
+
+            if (!encontrado) return null;
+        }
+
+        return seleccionadas;
+    }
+
+    @Override
+    public <T> Page<Map<String, Object>> proyectar(Class<T> entidad, Map<String, String> columnas,
+                                                   Specification<T> especificacion, Pageable pageable) {
+        TypedQuery<Tuple> query = this.consulta(entidad, columnas, especificacion, pageable.getSort());
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+
+        List<Map<String, Object>> filas = this.filas(query.getResultList(), columnas);
+        return PageableExecutionUtils.getPage(filas, pageable, () -> this.contar(entidad, especificacion));
+    }
+
+    @Override
+    public <T> List<Map<String, Object>> proyectar(Class<T> entidad, Map<String, String> columnas,
+                                                   Specification<T> especificacion, Sort orden) {
+        return this.filas(this.consulta(entidad, columnas, especificacion, orden).getResultList(), columnas);
+    }
+
+    @Override
+    public <T> Double sumar(Class<T> entidad, String atributo, Specification<T> especificacion) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Double> query = cb.createQuery(Double.class);
+        Root<T> root = query.from(entidad);
+
+        query.select(cb.coalesce(cb.sum(root.get(atributo)), 0.0));
+        this.filtrar(query, root, cb, especificacion);
+        return this.entityManager.createQuery(query).getSingleResult();
+    }
+
+    private <T> TypedQuery<Tuple> consulta(Class<T> entidad, Map<String, String> columnas,
+                                           Specification<T> especificacion, Sort orden) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entidad);
+
+        // Un left join por asociación pedida: una asociación vacía (sin foto, sin promoción) no descarta la fila.
+        Map<String, From<?, ?>> joins = new HashMap<>();
+        List<Selection<?>> selecciones = new ArrayList<>();
+        for (Map.Entry<String, String> columna: columnas.entrySet()) {
+            selecciones.add(this.atributo(root, joins, columna.getValue()).alias(columna.getKey()));
+        }
+
+        query.multiselect(selecciones);
+        this.filtrar(query, root, cb, especificacion);
+        if (orden.isSorted()) query.orderBy(QueryUtils.toOrders(orden, root, cb));
+
+        return this.entityManager.createQuery(query);
+    }
+
+    private <T> long contar(Class<T> entidad, Specification<T> especificacion) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entidad);
+
+        query.select(cb.count(root));
+        this.filtrar(query, root, cb, especificacion);
+        return this.entityManager.createQuery(query).getSingleResult();
+    }
+
+    private <T> void filtrar(CriteriaQuery<?> query, Root<T> root, CriteriaBuilder cb,
+                             Specification<T> especificacion) {
+        if (especificacion == null) return;
+
+        Predicate predicado = especificacion.toPredicate(root, query, cb);
+        if (predicado != null) query.where(predicado);
+    }
+
+    private Path<?> atributo(Root<?> root, Map<String, From<?, ?>> joins, String ruta) {
+        String[] partes = ruta.split("\\.");
+        From<?, ?> desde = root;
+        StringBuilder recorrido = new StringBuilder();
+
+        for (int i = 0; i < partes.length - 1; i++) {
+            recorrido.append(partes[i]).append('.');
+            From<?, ?> padre = desde;
+            String asociacion = partes[i];
+            desde = joins.computeIfAbsent(recorrido.toString(), r -> padre.join(asociacion, JoinType.LEFT));
+        }
+
+        return desde.get(partes[partes.length - 1]);
+    }
+
+    /**
+     * Arma cada fila como mapa anidado por los puntos del nombre del campo. Una asociación sin valores (left join
+     * sin fila) queda en null.
+     */
+    private List<Map<String, Object>> filas(List<Tuple> tuplas, Map<String, String> columnas) {
+        List<Map<String, Object>> filas = new ArrayList<>(tuplas.size());
+
+        for (Tuple tupla: tuplas) {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            for (String campo: columnas.keySet()) {
+                this.poner(fila, campo, tupla.get(campo));
+            }
+
+            this.vaciarAsociaciones(fila);
+            filas.add(fila);
+        }
+
+        return filas;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void poner(Map<String, Object> fila, String campo, Object valor) {
+        int punto = campo.indexOf('.');
+        if (punto < 0) {
+            fila.put(campo, valor);
+            return;
+        }
+
+        Map<String, Object> anidado = (Map<String, Object>) fila.computeIfAbsent(campo.substring(0, punto),
+                c -> new LinkedHashMap<String, Object>());
+        this.poner(anidado, campo.substring(punto + 1), valor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean vaciarAsociaciones(Map<String, Object> fila) {
+        boolean vacia = true;
+
+        for (Map.Entry<String, Object> entrada: fila.entrySet()) {
+            if (entrada.getValue() instanceof Map && this.vaciarAsociaciones((Map<String, Object>) entrada.getValue()))
+                entrada.setValue(null);
+            if (entrada.getValue() != null) vacia = false;
+        }
+
+        return vacia;
+    }
+}
@@ -4,6 +4,7 @@ import com.deofis.tiendaapirest.autenticacion.exceptions.AutenticacionException;
 import com.deofis.tiendaapirest.operaciones.domain.Operacion;
 import com.deofis.tiendaapirest.operaciones.dto.OperacionRequest;
 import com.deofis.tiendaapirest.operaciones.exceptions.OperacionException;
+import com.deofis.tiendaapirest.operaciones.exceptions.StockInsuficienteException;
 import com.deofis.tiendaapirest.operaciones.services.OperacionService;
 import com.deofis.tiendaapirest.pagos.factory.OperacionPagoInfo;
 import com.deofis.tiendaapirest.perfiles.exceptions.PerfilesException;
@@ -45,6 +46,11 @@ public class RegistrarOperacionController {
 
         try {
             pagoInfo = this.operacionService.registrarNuevaOperacion(operacion);
+        } catch (StockInsuficienteException e) {
+            response.put("mensaje", "Error al registrar la nueva compra");
+            response.put("error", e.getMessage());
+            response.put("faltantes", e.getFaltantes());
+            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         } catch (OperacionException | ProductoException | PerfilesException | AutenticacionException | SkuException e) {
             response.put("mensaje", "Error al registrar la nueva compra");
             response.put("error", e.getMessage());
@@ -71,6 +77,11 @@ public class RegistrarOperacionController {
 
         try {
             pagoInfo = this.operacionService.registrarComprarYa(operacionRequest);
+        } catch (StockInsuficienteException e) {
+            response.put("mensaje", "Error al registrar la nueva compra");
+            response.put("error", e.getMessage());
+            response.put("faltantes", e.getFaltantes());
+            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         } catch (OperacionException | ProductoException | PerfilesException | AutenticacionException | SkuException e) {
             response.put("mensaje", "Error al registrar la nueva compra");
             response.put("error", e.getMessage());
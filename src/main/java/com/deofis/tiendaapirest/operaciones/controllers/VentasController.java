@@ -1,5 +1,6 @@
 package com.deofis.tiendaapirest.operaciones.controllers;
 
+import com.deofis.tiendaapirest.globalservices.FiltroCampos;
 import com.deofis.tiendaapirest.operaciones.domain.EstadoOperacion;
 import com.deofis.tiendaapirest.operaciones.domain.Operacion;
 import com.deofis.tiendaapirest.operaciones.exceptions.OperacionException;
@@ -15,6 +16,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api")
@@ -29,17 +31,42 @@ public class VentasController {
      * URL: ~/api/ventas
      * HttpMethod: GET
      * HttpStatus: OK
+     * @param fields @RequestParam opcional con los campos a devolver de cada venta. Ej.: 'nroOperacion,total,cliente'.
      * @return ResponseEntity List de todas las operaciones ordenadas por fecha.
      */
     @Secured("ROLE_ADMIN")
     @GetMapping("/ventas")
     public ResponseEntity<?> listarVentas(@RequestParam(name = "estado", required = false) String estado,
                                           @RequestParam(name = "fechaDesde", required = false) Date fechaDesde,
-                                          @RequestParam(name = "fechaHasta", required = false) Date fechaHasta) {
+                                          @RequestParam(name = "fechaHasta", required = false) Date fechaHasta,
+                                          @RequestParam(name = "fields", required = false) String fields) {
         Map<String, Object> response = new HashMap<>();
         List<Operacion> ventas = null;
         Double montoTotal;
 
+        // Con 'fields' y solo columnas pedidas, las ventas y el monto se resuelven en la consulta, sin cargarlas.
+        Set<String> campos = FiltroCampos.parsear(fields);
+        if (!campos.isEmpty() && (fechaDesde == null) == (fechaHasta == null)) {
+            List<Map<String, Object>> ventasProyectadas;
+
+            try {
+                ventasProyectadas = this.ventaService.proyectarVentas(estado, fechaDesde, fechaHasta, campos);
+                if (ventasProyectadas != null) {
+                    response.put("totalVentas", ventasProyectadas.size());
+                    response.put("montoTotal", this.ventaService.montoVentas(estado, fechaDesde, fechaHasta));
+                    response.put("estado", estado);
+                    response.put("fechaDesde", fechaDesde);
+                    response.put("fechaHasta", fechaHasta);
+                    response.put("ventas", ventasProyectadas);
+                    return new ResponseEntity<>(response, HttpStatus.OK);
+                }
+            } catch (OperacionException e) {
+                response.put("mensaje", "Error al obtener el listado de ventas");
+                response.put("error", e.getMessage());
+                return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+        }
+
         log.info(estado);
         log.info(String.valueOf(fechaDesde));
         log.info(String.valueOf(fechaHasta));
@@ -0,0 +1,11 @@
+package com.deofis.tiendaapirest.operaciones.domain;
+
+/**
+ * Estado de la reserva de stock de una operación: el stock de sus items se descuenta al registrarla y queda
+ * reservado hasta que se paga (se confirma como venta) o se cancela o vence (se repone).
+ */
+public enum EstadoReserva {
+    ACTIVA,
+    CONFIRMADA,
+    LIBERADA
+}
@@ -9,6 +9,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -22,7 +24,13 @@ import java.util.List;
 
 @Entity
 @Data
-@Table(name = "operaciones")
+@Table(name = "operaciones", indexes = @Index(name = "idx_operaciones_reserva_vencimiento",
+        columnList = "reserva_stock, vencimiento_reserva"))
+// Solo se escriben las columnas modificadas: la reserva se actualiza con UPDATEs condicionados (ver
+// ReservaStockService) y una operación cargada antes no debe pisarla al guardarse.
+@DynamicUpdate
+@NamedEntityGraph(name = "Operacion.detalle", attributeNodes = {
+        @NamedAttributeNode("cliente"), @NamedAttributeNode("direccionEnvio"), @NamedAttributeNode("medioPago")})
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
@@ -74,10 +82,21 @@ public class Operacion implements Serializable {
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private OperacionPago pago;
 
+    @BatchSize(size = 50)
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "operacion_id")
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private List<DetalleOperacion> items;
 
     private Double total;
+
+    /** Estado de la reserva del stock de los items. Null en las operaciones anteriores a las reservas. */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reserva_stock")
+    private EstadoReserva reservaStock;
+
+    /** Instante en que vence la reserva activa si no se paga, o null si no vence. */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "vencimiento_reserva")
+    private Date vencimientoReserva;
 }
@@ -0,0 +1,21 @@
+package com.deofis.tiendaapirest.operaciones.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sku de una compra sin disponibilidad suficiente: la cantidad pedida y la disponible al momento de la compra.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FaltanteStock {
+
+    private Long skuId;
+    private String nombre;
+    private Integer cantidad;
+    private Integer disponibilidad;
+}
@@ -0,0 +1,22 @@
+package com.deofis.tiendaapirest.operaciones.exceptions;
+
+import com.deofis.tiendaapirest.operaciones.dto.FaltanteStock;
+
+import java.util.List;
+
+/**
+ * La compra tiene uno o más skus sin disponibilidad suficiente. Informa cada uno de ellos.
+ */
+public class StockInsuficienteException extends OperacionException {
+
+    private final List<FaltanteStock> faltantes;
+
+    public StockInsuficienteException(String exMensaje, List<FaltanteStock> faltantes) {
+        super(exMensaje);
+        this.faltantes = faltantes;
+    }
+
+    public List<FaltanteStock> getFaltantes() {
+        return this.faltantes;
+    }
+}
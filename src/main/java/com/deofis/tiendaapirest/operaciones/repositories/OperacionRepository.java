@@ -2,11 +2,16 @@ package com.deofis.tiendaapirest.operaciones.repositories;
 
 import com.deofis.tiendaapirest.clientes.domain.Cliente;
 import com.deofis.tiendaapirest.operaciones.domain.EstadoOperacion;
+import com.deofis.tiendaapirest.operaciones.domain.EstadoReserva;
 import com.deofis.tiendaapirest.operaciones.domain.Operacion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -14,16 +19,38 @@ import java.util.Optional;
 @Repository
 public interface OperacionRepository extends JpaRepository<Operacion, Long> {
 
+    @EntityGraph("Operacion.detalle")
     List<Operacion> findAllByOrderByFechaOperacionDesc();
 
+    @EntityGraph("Operacion.detalle")
     List<Operacion> findAllByClienteOrderByFechaOperacionAsc(Cliente cliente);
 
+    @EntityGraph("Operacion.detalle")
     Optional<Operacion> findByNroOperacionAndCliente(Long nroOperacion, Cliente cliente);
 
+    @EntityGraph("Operacion.detalle")
     List<Operacion> findAllByEstadoAndCliente(EstadoOperacion estado, Cliente cliente);
 
+    @EntityGraph("Operacion.detalle")
     List<Operacion> findAllByFechaOperacionBetween(Date date1, Date date2);
 
+    /**
+     * Obtiene los números de las operaciones en el estado dado cuya reserva de stock venció, de la más antigua a
+     * la más nueva.
+     */
+    @Query("select o.nroOperacion from Operacion o where o.reservaStock = :reserva and o.estado = :estado" +
+            " and o.vencimientoReserva < :fecha order by o.vencimientoReserva asc")
+    List<Long> findNrosReservaVencida(@Param("reserva") EstadoReserva reserva, @Param("estado") EstadoOperacion estado,
+                                      @Param("fecha") Date fecha, Pageable pageable);
+
+    /**
+     * Suma las cantidades de los items de las operaciones por sku.
+     * @return List de pares [id sku (Long), cantidad (Long)].
+     */
+    @Query("select d.sku.id, sum(d.cantidad) from Operacion o join o.items d where o.nroOperacion in :nros" +
+            " group by d.sku.id")
+    List<Object[]> sumarCantidadesPorSku(@Param("nros") Collection<Long> nros);
+
     @Query(value = "SELECT * FROM operaciones op WHERE cliente_id = ?1 AND YEAR(fecha_operacion) = ?2",
             nativeQuery = true)
     List<Operacion> operacionesByYear(Long clienteId, Integer year);
@@ -0,0 +1,53 @@
+package com.deofis.tiendaapirest.operaciones.repositories;
+
+import com.deofis.tiendaapirest.operaciones.domain.EstadoOperacion;
+import com.deofis.tiendaapirest.operaciones.domain.Operacion;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Criterios de los listados de ventas como una única consulta Criteria sobre {@link Operacion}.
+ */
+public class OperacionSpecifications {
+
+    /**
+     * Columnas proyectables de una venta (ver {@link com.deofis.tiendaapirest.globalservices.ProyeccionService}),
+     * con los mismos nombres con los que se serializa la entidad.
+     */
+    public static final Map<String, String> COLUMNAS = new LinkedHashMap<>();
+
+    static {
+        for (String atributo: new String[] {"nroOperacion", "fechaOperacion", "fechaEnviada", "fechaRecibida",
+                "estado", "total", "cliente.id", "cliente.nombre", "cliente.apellido", "cliente.email",
+                "medioPago.id", "medioPago.nombre", "pago.id", "pago.status", "pago.fechaPagado"}) {
+            COLUMNAS.put(atributo, atributo);
+        }
+    }
+
+    /**
+     * @param estado EstadoOperacion de las ventas, o null para todos.
+     * @param fechaDesde Date fecha desde (exclusive), o null.
+     * @param fechaHasta Date fecha hasta (exclusive), o null.
+     * @return Specification de las ventas que cumplen los criterios presentes.
+     */
+    public static Specification<Operacion> de(EstadoOperacion estado, Date fechaDesde, Date fechaHasta) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+
+            if (estado != null)
+                predicados.add(cb.equal(root.get("estado"), estado));
+            if (fechaDesde != null)
+                predicados.add(cb.greaterThan(root.get("fechaOperacion"), fechaDesde));
+            if (fechaHasta != null)
+                predicados.add(cb.lessThan(root.get("fechaOperacion"), fechaHasta));
+
+            return cb.and(predicados.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -13,8 +13,10 @@ import com.deofis.tiendaapirest.operaciones.domain.DetalleOperacion;
 import com.deofis.tiendaapirest.operaciones.domain.EstadoOperacion;
 import com.deofis.tiendaapirest.operaciones.domain.EventoOperacion;
 import com.deofis.tiendaapirest.operaciones.domain.Operacion;
+import com.deofis.tiendaapirest.operaciones.dto.FaltanteStock;
 import com.deofis.tiendaapirest.operaciones.dto.OperacionRequest;
 import com.deofis.tiendaapirest.operaciones.exceptions.OperacionException;
+import com.deofis.tiendaapirest.operaciones.exceptions.StockInsuficienteException;
 import com.deofis.tiendaapirest.operaciones.repositories.OperacionRepository;
 import com.deofis.tiendaapirest.pagos.domain.MedioPago;
 import com.deofis.tiendaapirest.pagos.factory.OperacionPagoInfo;
@@ -25,6 +27,7 @@ import com.deofis.tiendaapirest.perfiles.services.AdministradorService;
 import com.deofis.tiendaapirest.perfiles.services.PerfilService;
 import com.deofis.tiendaapirest.perfiles.services.ValidadorItems;
 import com.deofis.tiendaapirest.productos.domain.Sku;
+import com.deofis.tiendaapirest.productos.exceptions.SkuException;
 import com.deofis.tiendaapirest.productos.services.SkuService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,9 +35,9 @@ import org.springframework.statemachine.StateMachine;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
@@ -53,6 +56,7 @@ public class OperacionServiceImpl implements OperacionService {
     private final OperacionRepository operacionRepository;
     private final MedioPagoRepository medioPagoRepository;
     private final SkuService skuService;
+    private final ReservaStockService reservaStockService;
     private final PerfilService perfilService;
 
     private final CheckoutService checkoutService;
@@ -82,11 +86,20 @@ public class OperacionServiceImpl implements OperacionService {
                 .items(operacion.getItems())
                 .build();
 
-        boolean hayDisponibilidad = true;
+        // Todos los SKUs de la compra en una sola consulta.
+        List<Long> skuIds = operacion.getItems().stream()
+                .map(item -> item.getSku().getId())
+                .collect(Collectors.toList());
+        Map<Long, Sku> skus = this.skuService.obtenerSkus(skuIds).stream()
+                .collect(Collectors.toMap(Sku::getId, Function.identity()));
+        // Cantidad a descontar de cada SKU: un mismo SKU puede estar en más de un item.
+        Map<Long, Integer> cantidades = new HashMap<>();
+
         boolean hayItemSinCantidad = false;
         boolean itemNoVendible = false;
         for (DetalleOperacion item: operacion.getItems()) {
-            Sku sku = this.skuService.obtenerSku(item.getSku().getId());
+            Sku sku = skus.get(item.getSku().getId());
+            if (sku == null) throw new SkuException("No existe el sku con id: " + item.getSku().getId());
             // Validamos que el SKU no sea default sku si su producto NO es vendible sin propiedades (no tiene
             // skus adicionales)
             if (this.validadorItems.esItemNoVendible(sku)) {
@@ -97,11 +110,6 @@ public class OperacionServiceImpl implements OperacionService {
             // Seteamos el SKU completo al item (lo que esta guardado en la BD).
             item.setSku(sku);
 
-            if (sku.getDisponibilidad() - item.getCantidad() < 0) {
-                hayDisponibilidad = false;
-                break;
-            }
-
             if (item.getCantidad() <= 0) {
                 hayItemSinCantidad = true;
                 break;
@@ -110,8 +118,8 @@ public class OperacionServiceImpl implements OperacionService {
             // Calculamos el precio de venta el producto (sku) de acuerdo a si está en promoción o no.
             item.setPrecioVenta(this.calcularPrecioVenta(sku));
 
-            // Seteamos la nueva disponibilidad del SKU al finalizar la operación.
-            sku.setDisponibilidad(sku.getDisponibilidad() - item.getCantidad());
+            // Acumulamos la cantidad a descontar de la disponibilidad del SKU al finalizar la operación.
+            cantidades.merge(sku.getId(), item.getCantidad(), Integer::sum);
 
             // Calculamos y guardamos el subtotal del item.
             item.setSubtotal(item.getPrecioVenta() * item.getCantidad().doubleValue());
@@ -119,15 +127,8 @@ public class OperacionServiceImpl implements OperacionService {
             // a recorrer. Redondeamos el total y guardamos.
             nuevaOperacion.setTotal(this.roundService.round(this.calcularTotal(nuevaOperacion.getTotal(),
                     item.getSubtotal())));
-
-            // Se guarda el SKU con la disponibilidad actualizada.
-            this.skuService.save(sku);
         }
 
-        // Si no hay disponibilidad de un producto, se cancela la operación y tira excepción informando.
-        if (!hayDisponibilidad) throw new OperacionException("Error al completar la compra: " +
-                "La cantidad de productos vendidos no puede ser menor a la disponibilidad actual");
-
         if (hayItemSinCantidad)
             throw new OperacionException("Error al completar la compra: La cantidad de productos no puede ser" +
                     " menor o igual que 0");
@@ -136,6 +137,23 @@ public class OperacionServiceImpl implements OperacionService {
             throw new OperacionException("Hay al menos un item no vendible: algún item posee un sku por defecto y" +
                     " el producto tiene skus adicionales.");
 
+        // Descontamos la disponibilidad de los SKUs con UPDATEs condicionados: si no hay disponibilidad de algún
+        // SKU, se cancela la operación (se revierten los descuentos) y tira excepción informando cada uno.
+        Map<Long, Integer> sinDisponibilidad = this.skuService.descontarDisponibilidad(cantidades);
+        if (!sinDisponibilidad.isEmpty()) {
+            List<FaltanteStock> faltantes = new ArrayList<>();
+            sinDisponibilidad.forEach((skuId, disponibilidad) -> faltantes.add(FaltanteStock.builder()
+                    .skuId(skuId)
+                    .nombre(skus.get(skuId).getNombre())
+                    .cantidad(cantidades.get(skuId))
+                    .disponibilidad(disponibilidad).build()));
+
+            throw new StockInsuficienteException("Error al completar la compra: " +
+                    "La cantidad de productos vendidos no puede ser menor a la disponibilidad actual", faltantes);
+        }
+
+        // El stock descontado queda reservado hasta que se pague la operación (o vence, según el medio de pago).
+        this.reservaStockService.reservar(nuevaOperacion);
         this.save(nuevaOperacion);
 
         // Agregar nueva operación (COMPRA) al array de compras del perfil del usuario.
@@ -225,6 +243,8 @@ public class OperacionServiceImpl implements OperacionService {
         Operacion operacion = this.findById(nroOperacion);
         StateMachine<EstadoOperacion, EventoOperacion> sm = this.stateMachineService.build(nroOperacion);
 
+        sm.getExtendedState().getVariables().put("operacion", operacion);
+
         this.stateMachineService.enviarEvento(nroOperacion, sm, EventoOperacion.CANCEL);
         return operacion;
     }
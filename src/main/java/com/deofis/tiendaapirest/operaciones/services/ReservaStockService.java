@@ -0,0 +1,43 @@
+package com.deofis.tiendaapirest.operaciones.services;
+
+import com.deofis.tiendaapirest.operaciones.domain.Operacion;
+
+/**
+ * Reservas del stock de las operaciones pendientes de pago. El stock de los items se descuenta al registrar la
+ * operación (ver SkuService#descontarDisponibilidad) y queda reservado: al completarse el pago la reserva se
+ * confirma como venta; al cancelarse la operación, o si no se paga antes del vencimiento, se repone.
+ * <br>
+ * Como el stock reservado ya está descontado de la disponibilidad de los skus, las lecturas de disponibilidad
+ * (catálogo en memoria, carrito) no tienen que restar las reservas activas.
+ */
+public interface ReservaStockService {
+
+    /**
+     * Marca como reservado el stock ya descontado de una nueva operación, con el vencimiento que corresponde a su
+     * medio de pago. No escribe en la BD: se guarda junto con la operación.
+     * @param operacion Operacion nueva.
+     */
+    void reservar(Operacion operacion);
+
+    /**
+     * Confirma la reserva de la operación como venta, al completarse su pago: el stock queda descontado.
+     * @param operacion Operacion a pagar.
+     * @throws com.deofis.tiendaapirest.operaciones.exceptions.OperacionException si la reserva ya venció o se
+     * liberó: no se debe completar el pago.
+     */
+    void confirmar(Operacion operacion);
+
+    /**
+     * Libera la reserva activa de la operación, al cancelarse: repone el stock de sus items. No hace nada si la
+     * reserva ya se confirmó o se liberó.
+     * @param operacion Operacion cancelada.
+     */
+    void liberar(Operacion operacion);
+
+    /**
+     * Libera las reservas vencidas, en lotes de una transacción cada uno: repone el stock de sus items y cancela
+     * las operaciones.
+     * @return int cantidad de operaciones canceladas.
+     */
+    int liberarVencidas();
+}
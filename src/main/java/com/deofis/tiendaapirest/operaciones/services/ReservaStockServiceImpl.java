@@ -0,0 +1,171 @@
+package com.deofis.tiendaapirest.operaciones.services;
+
+import com.deofis.tiendaapirest.config.OperacionesProperties;
+import com.deofis.tiendaapirest.operaciones.domain.DetalleOperacion;
+import com.deofis.tiendaapirest.operaciones.domain.EstadoOperacion;
+import com.deofis.tiendaapirest.operaciones.domain.EstadoReserva;
+import com.deofis.tiendaapirest.operaciones.domain.Operacion;
+import com.deofis.tiendaapirest.operaciones.exceptions.OperacionException;
+import com.deofis.tiendaapirest.operaciones.repositories.OperacionRepository;
+import com.deofis.tiendaapirest.productos.services.SkuService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+@Service
+@Slf4j
+public class ReservaStockServiceImpl implements ReservaStockService {
+
+    /**
+     * Los cambios de la reserva son UPDATEs condicionados a su estado actual: entre una cancelación, un pago y el
+     * vencimiento que ocurren a la vez, solo el primero cambia la reserva.
+     */
+    private static final String CAMBIAR_RESERVA =
+            "update operaciones set reserva_stock = ? where nro_operacion = ? and reserva_stock = ?";
+    /**
+     * Cancela la operación sin pasar por la máquina de estados (StateMachineConfig), para hacerlo en lote: equivale
+     * al evento CANCEL desde PAYMENT_PENDING, cuya única acción es liberar la reserva. Un cambio en esa transición
+     * (Ej.: otra acción al cancelar) debe replicarse acá.
+     */
+    private static final String LIBERAR_VENCIDA = "update operaciones set reserva_stock = ?, estado = ?" +
+            " where nro_operacion = ? and reserva_stock = ? and vencimiento_reserva < ? and estado = ?";
+
+    private final OperacionRepository operacionRepository;
+    private final SkuService skuService;
+    private final JdbcTemplate jdbcTemplate;
+    private final OperacionesProperties.Reservas propiedades;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReservaStockServiceImpl(OperacionRepository operacionRepository,
+                                   SkuService skuService,
+                                   JdbcTemplate jdbcTemplate,
+                                   OperacionesProperties operacionesProperties,
+                                   PlatformTransactionManager transactionManager) {
+        this.operacionRepository = operacionRepository;
+        this.skuService = skuService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.propiedades = operacionesProperties.getReservas();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void reservar(Operacion operacion) {
+        boolean vence = this.propiedades.getMediosConVencimiento().contains(operacion.getMedioPago().getNombre());
+
+        operacion.setReservaStock(EstadoReserva.ACTIVA);
+        operacion.setVencimientoReserva(vence
+                ? new Date(System.currentTimeMillis() + this.propiedades.getTtl().toMillis()) : null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public void confirmar(Operacion operacion) {
+        // Operaciones anteriores a las reservas: su stock ya se descontó sin reserva.
+        if (operacion.getReservaStock() == null) return;
+
+        if (!this.cambiarReserva(operacion, EstadoReserva.ACTIVA, EstadoReserva.CONFIRMADA))
+            throw new OperacionException("La reserva de stock de la operación n° " + operacion.getNroOperacion() +
+                    " venció o fue cancelada: no se puede completar el pago");
+
+        operacion.setVencimientoReserva(null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public void liberar(Operacion operacion) {
+        if (operacion.getReservaStock() != EstadoReserva.ACTIVA
+                || !this.cambiarReserva(operacion, EstadoReserva.ACTIVA, EstadoReserva.LIBERADA)) return;
+
+        Map<Long, Integer> cantidades = new HashMap<>();
+        for (DetalleOperacion item: operacion.getItems()) {
+            cantidades.merge(item.getSku().getId(), item.getCantidad(), Integer::sum);
+        }
+
+        this.skuService.reponerDisponibilidad(cantidades);
+        log.info("Reserva de stock de la operación n° " + operacion.getNroOperacion() + " liberada");
+    }
+
+    @Scheduled(fixedDelayString = "#{@operacionesProperties.reservas.intervalo.toMillis()}")
+    public void liberarVencidasProgramado() {
+        try {
+            int liberadas = this.liberarVencidas();
+            if (liberadas > 0) log.info("Reservas de stock vencidas liberadas: " + liberadas + " operaciones canceladas");
+        } catch (RuntimeException e) {
+            log.error("Error al liberar las reservas de stock vencidas", e);
+        }
+    }
+
+    @Override
+    public int liberarVencidas() {
+        Date ahora = new Date();
+        List<Long> liberadas = new ArrayList<>();
+        int encontradas;
+
+        do {
+            encontradas = Objects.requireNonNull(this.transactionTemplate.execute(status ->
+                    this.liberarLote(ahora, liberadas)));
+        } while (encontradas == this.propiedades.getTamanioLote());
+
+        return liberadas.size();
+    }
+
+    /**
+     * Libera un lote de reservas vencidas: un UPDATE condicionado por operación (enviados en un solo lote) y la
+     * reposición del stock de las que efectivamente se liberaron, agrupado por sku.
+     * @return int cantidad de reservas vencidas encontradas.
+     */
+    private int liberarLote(Date ahora, List<Long> liberadas) {
+        List<Long> vencidas = this.operacionRepository.findNrosReservaVencida(EstadoReserva.ACTIVA,
+                EstadoOperacion.PAYMENT_PENDING, ahora,
+                PageRequest.of(0, this.propiedades.getTamanioLote()));
+        if (vencidas.isEmpty()) return 0;
+
+        Timestamp fecha = new Timestamp(ahora.getTime());
+        int[][] actualizadas = this.jdbcTemplate.batchUpdate(LIBERAR_VENCIDA, vencidas, vencidas.size(),
+                (ps, nroOperacion) -> {
+                    ps.setString(1, EstadoReserva.LIBERADA.name());
+                    ps.setString(2, EstadoOperacion.CANCELLED.name());
+                    ps.setLong(3, nroOperacion);
+                    ps.setString(4, EstadoReserva.ACTIVA.name());
+                    ps.setTimestamp(5, fecha);
+                    ps.setString(6, EstadoOperacion.PAYMENT_PENDING.name());
+                });
+
+        // 0 filas: la operación se pagó o se canceló mientras tanto (o ya no estaba pendiente de pago).
+        List<Long> lote = new ArrayList<>();
+        for (int i = 0; i < vencidas.size(); i++) {
+            if (actualizadas[0][i] == 1) lote.add(vencidas.get(i));
+        }
+
+        if (!lote.isEmpty()) {
+            Map<Long, Integer> cantidades = new HashMap<>();
+            for (Object[] fila: this.operacionRepository.sumarCantidadesPorSku(lote)) {
+                cantidades.put((Long) fila[0], ((Number) fila[1]).intValue());
+            }
+
+            this.skuService.reponerDisponibilidad(cantidades);
+            liberadas.addAll(lote);
+        }
+
+        return vencidas.size();
+    }
+
+    private boolean cambiarReserva(Operacion operacion, EstadoReserva desde, EstadoReserva hasta) {
+        int actualizadas = this.jdbcTemplate.update(CAMBIAR_RESERVA, hasta.name(), operacion.getNroOperacion(),
+                desde.name());
+        if (actualizadas == 0) return false;
+
+        // La operación cargada en la transacción queda igual que la BD (@DynamicUpdate solo escribe lo modificado).
+        operacion.setReservaStock(hasta);
+        return true;
+    }
+}
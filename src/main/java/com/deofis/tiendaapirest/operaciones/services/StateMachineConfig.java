@@ -22,6 +22,8 @@ import java.util.EnumSet;
 @Configuration
 public class StateMachineConfig extends StateMachineConfigurerAdapter<EstadoOperacion, EventoOperacion> {
 
+    private final ReservaStockService reservaStockService;
+
     @Override
     public void configure(StateMachineStateConfigurer<EstadoOperacion, EventoOperacion> states) throws Exception {
         states.withStates()
@@ -49,7 +51,11 @@ public class StateMachineConfig extends StateMachineConfigurerAdapter<EstadoOper
 
     private Action<EstadoOperacion, EventoOperacion> cancelarOperacion() {
         return stateContext -> {
-            // TODO --> Diseñar e implementar lógica de cancelación de operaciones. Tener en cuenta el pago.
+            StateMachine<EstadoOperacion, EventoOperacion> sm = stateContext.getStateMachine();
+            Operacion operacion = sm.getExtendedState().get("operacion", Operacion.class);
+
+            // Se repone el stock reservado de las operaciones no pagadas.
+            if (operacion != null) this.reservaStockService.liberar(operacion);
         };
     }
 
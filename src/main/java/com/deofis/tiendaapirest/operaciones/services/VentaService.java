@@ -1,9 +1,12 @@
 package com.deofis.tiendaapirest.operaciones.services;
 
 import com.deofis.tiendaapirest.operaciones.domain.Operacion;
+import com.deofis.tiendaapirest.operaciones.exceptions.OperacionException;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Este servicio se encarga de la lógica para el manejo de {@link Operacion}es desde el lado
@@ -58,6 +61,25 @@ public interface VentaService {
 
     List<Operacion> ventasFechaYEstado(String estado, Date fechaDesde, Date fechaHasta);
 
+    /**
+     * Lista las ventas seleccionando en la consulta solo las columnas de los campos pedidos, sin cargar las
+     * operaciones ni sus items, ordenadas por fecha de la más reciente a la más antigua.
+     * @param estado String nombre del estado, o null para todos.
+     * @param fechaDesde Date fecha desde, o null.
+     * @param fechaHasta Date fecha hasta, o null.
+     * @param campos Set de campos pedidos (Ej.: 'nroOperacion', 'total', 'cliente.email').
+     * @return List de filas con los campos pedidos, o null si algún campo no es proyectable.
+     * @throws OperacionException si el estado no existe.
+     */
+    List<Map<String, Object>> proyectarVentas(String estado, Date fechaDesde, Date fechaHasta, Set<String> campos);
+
+    /**
+     * Suma en la base de datos el total de las ventas que cumplen los criterios.
+     * @return Double monto total de las ventas.
+     * @throws OperacionException si el estado no existe.
+     */
+    Double montoVentas(String estado, Date fechaDesde, Date fechaHasta);
+
     /**
      * Como administrador quiero ver una venta en particular.
      * @param nroOperacion Long numero de operacion correspondiente a ver.
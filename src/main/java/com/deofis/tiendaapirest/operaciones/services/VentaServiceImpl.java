@@ -1,22 +1,28 @@
 package com.deofis.tiendaapirest.operaciones.services;
 
+import com.deofis.tiendaapirest.globalservices.ProyeccionService;
 import com.deofis.tiendaapirest.operaciones.domain.EstadoOperacion;
 import com.deofis.tiendaapirest.operaciones.domain.Operacion;
 import com.deofis.tiendaapirest.operaciones.exceptions.OperacionException;
 import com.deofis.tiendaapirest.operaciones.repositories.OperacionRepository;
+import com.deofis.tiendaapirest.operaciones.repositories.OperacionSpecifications;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @AllArgsConstructor
 public class VentaServiceImpl implements VentaService {
 
     private final OperacionRepository operacionRepository;
+    private final ProyeccionService proyeccionService;
 
     @Transactional(readOnly = true)
     @Override
@@ -123,6 +129,35 @@ public class VentaServiceImpl implements VentaService {
         return ventasTotales;
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public List<Map<String, Object>> proyectarVentas(String estado, Date fechaDesde, Date fechaHasta,
+                                                     Set<String> campos) {
+        Map<String, String> columnas = this.proyeccionService.columnas(OperacionSpecifications.COLUMNAS, campos);
+        if (columnas == null) return null;
+
+        return this.proyeccionService.proyectar(Operacion.class, columnas,
+                OperacionSpecifications.de(this.estado(estado), fechaDesde, fechaHasta),
+                Sort.by(Sort.Order.desc("fechaOperacion"), Sort.Order.desc("nroOperacion")));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Double montoVentas(String estado, Date fechaDesde, Date fechaHasta) {
+        return this.proyeccionService.sumar(Operacion.class, "total",
+                OperacionSpecifications.de(this.estado(estado), fechaDesde, fechaHasta));
+    }
+
+    private EstadoOperacion estado(String estado) {
+        if (estado == null) return null;
+
+        try {
+            return EstadoOperacion.valueOf(estado.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new OperacionException("El estado solicitado no existe, o ha sido tipeado de manera equivocada");
+        }
+    }
+
     @Transactional(readOnly = true)
     @Override
     public Operacion obtenerVenta(Long nroOperacion) {
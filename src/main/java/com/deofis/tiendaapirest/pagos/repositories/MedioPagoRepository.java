@@ -1,14 +1,24 @@
 package com.deofis.tiendaapirest.pagos.repositories;
 
+import com.deofis.tiendaapirest.config.CacheConfig;
 import com.deofis.tiendaapirest.pagos.domain.MedioPago;
 import com.deofis.tiendaapirest.pagos.domain.MedioPagoEnum;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MedioPagoRepository extends JpaRepository<MedioPago, Long> {
 
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = CacheConfig.REGION_CONSULTAS_REFERENCIA)})
+    List<MedioPago> findAll();
+
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = CacheConfig.REGION_CONSULTAS_REFERENCIA)})
     Optional<MedioPago> findByNombre(MedioPagoEnum medioPago);
 }
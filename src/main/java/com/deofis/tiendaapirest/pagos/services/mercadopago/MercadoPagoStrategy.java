@@ -1,5 +1,6 @@
 package com.deofis.tiendaapirest.pagos.services.mercadopago;
 
+import com.deofis.tiendaapirest.config.OperacionesProperties;
 import com.deofis.tiendaapirest.operaciones.domain.DetalleOperacion;
 import com.deofis.tiendaapirest.operaciones.domain.Operacion;
 import com.deofis.tiendaapirest.pagos.PaymentException;
@@ -19,6 +20,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +31,7 @@ import java.util.Map;
 public class MercadoPagoStrategy implements PagoStrategy {
 
     private final String clientUrl;
+    private final OperacionesProperties operacionesProperties;
 
     @Override
     public OperacionPagoInfo crearPago(Operacion operacion) {
@@ -141,6 +144,14 @@ public class MercadoPagoStrategy implements PagoStrategy {
 
         preference.setItems(mpItems);
 
+        // Mercado Pago cobra antes de volver al checkout: la preferencia vence antes que la reserva de stock, para
+        // que no se pueda pagar una operación cuya reserva ya se liberó.
+        if (operacion.getVencimientoReserva() != null) {
+            preference.setExpires(true)
+                    .setExpirationDateTo(new Date(operacion.getVencimientoReserva().getTime()
+                            - this.operacionesProperties.getReservas().getGracia().toMillis()));
+        }
+
         return preference;
     }
 }
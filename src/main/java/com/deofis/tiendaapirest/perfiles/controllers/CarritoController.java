@@ -13,6 +13,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -50,6 +51,32 @@ public class CarritoController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    /**
+     * Añade varios items con Sku al carrito del perfil actual en una sola llamada (Ej.: el carrito armado antes
+     * de iniciar sesión). Si alguno ya existe en el carrito, se suma la cantidad.
+     * URL: ~/api/carrito/items/agregar
+     * HttpMethod: POST
+     * HttpStatus: CREATED
+     * @param items @RequestBody Map de id de sku a cantidad. Ej.: {"12": 2, "15": 1}.
+     * @return ResponseEntity con el carrito actualizado.
+     */
+    @PostMapping("/carrito/items/agregar")
+    public ResponseEntity<?> agregarItems(@RequestBody LinkedHashMap<Long, Integer> items) {
+        Map<String, Object> response = new HashMap<>();
+        Carrito carrito;
+
+        try {
+            carrito = this.carritoService.agregarItems(items);
+        } catch (CarritoException | PerfilesException | SkuException | ClienteException | AutenticacionException e) {
+            response.put("mensaje", "Error al agregar items al carrito");
+            response.put("error", e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        response.put("carrito", carrito);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
     /**
      * Actualiza la cantidad de un item en el carrito.
      * URL: ~/api/carrito/item/actualizar
@@ -4,12 +4,14 @@ import com.deofis.tiendaapirest.autenticacion.exceptions.AutenticacionException;
 import com.deofis.tiendaapirest.perfiles.domain.Favorito;
 import com.deofis.tiendaapirest.perfiles.exceptions.PerfilesException;
 import com.deofis.tiendaapirest.perfiles.services.FavoritosService;
+import com.deofis.tiendaapirest.productos.exceptions.ProductoException;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -54,6 +56,32 @@ public class FavoritosController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    /**
+     * API que se encarga de agregar varios productos a favoritos del perfil actual en una sola llamada. Los que
+     * ya están en favoritos se ignoran.
+     * URL: ~/api/favoritos/productos/agregar?ids=1,2,3
+     * HttpMethod: POST
+     * HttpStatus: CREATED
+     * @param ids RequestParam List de ids de los productos a agregar.
+     * @return ResponseEntity con los favoritos actualizados.
+     */
+    @PostMapping("/favoritos/productos/agregar")
+    public ResponseEntity<?> agregarProductosAFavoritos(@RequestParam List<Long> ids) {
+        Map<String, Object> response = new HashMap<>();
+        Favorito favoritoActualizado;
+
+        try {
+            favoritoActualizado = this.favoritosService.agregarFavoritos(ids);
+        } catch (ProductoException | PerfilesException | AutenticacionException e) {
+            response.put("mensaje", "Error al agregar productos a favoritos");
+            response.put("error", e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        response.put("favoritos", favoritoActualizado);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
     /**
      * API que se encarga de quitar un item de producto de los favoritos del perfil actual.
      * URL: ~/api/favoritos/producto/1/quitar
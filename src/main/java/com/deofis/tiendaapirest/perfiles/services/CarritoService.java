@@ -2,6 +2,8 @@ package com.deofis.tiendaapirest.perfiles.services;
 
 import com.deofis.tiendaapirest.perfiles.domain.Carrito;
 
+import java.util.Map;
+
 public interface CarritoService {
 
     /**
@@ -14,6 +16,15 @@ public interface CarritoService {
      */
     Carrito agregarItem(Long skuId, Integer cantidad);
 
+    /**
+     * Agrega varios Skus al carrito de una vez (Ej.: el carrito armado antes de iniciar sesión), con el mismo
+     * criterio que {@link #agregarItem(Long, Integer)} para cada uno. Los skus se obtienen con una sola consulta.
+     * @param items Map de id de sku a cantidad, en el orden en que se agregan.
+     * @return Carrito actualizado.
+     * @throws CarritoException si algún sku no existe o no es vendible: en ese caso no se agrega ninguno.
+     */
+    Carrito agregarItems(Map<Long, Integer> items);
+
     /**
      * Actualizar la cantidad de skus de un carrito.
      * @param skuId Long id del sku a actualizar cantidad.
@@ -12,6 +12,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.*;
+
 @Service
 @AllArgsConstructor
 @Slf4j
@@ -27,10 +29,35 @@ public class CarritoServiceImpl implements CarritoService {
     @Transactional
     @Override
     public Carrito agregarItem(Long skuId, Integer cantidad) {
-        boolean existeItem = false;
         Carrito carrito = this.perfilService.obtenerCarrito();
         Sku sku = this.skuService.obtenerSku(skuId);
 
+        this.agregar(carrito, sku, cantidad);
+        return this.carritoRepository.save(carrito);
+    }
+
+    @Transactional
+    @Override
+    public Carrito agregarItems(Map<Long, Integer> items) {
+        Carrito carrito = this.perfilService.obtenerCarrito();
+        List<Sku> skus = this.skuService.obtenerSkus(new ArrayList<>(items.keySet()));
+
+        if (skus.size() < items.size()) {
+            Set<Long> faltantes = new LinkedHashSet<>(items.keySet());
+            skus.forEach(sku -> faltantes.remove(sku.getId()));
+            throw new CarritoException("No existen los skus con id: " + faltantes);
+        }
+
+        for (Sku sku: skus) {
+            this.agregar(carrito, sku, items.get(sku.getId()));
+        }
+
+        return this.carritoRepository.save(carrito);
+    }
+
+    private void agregar(Carrito carrito, Sku sku, Integer cantidad) {
+        boolean existeItem = false;
+
         if (this.validadorItems.esItemNoVendible(sku))
             throw new CarritoException("El item no es vendible: el item posee un sku por defecto y" +
                     " el producto tiene skus adicionales.");
@@ -51,8 +78,6 @@ public class CarritoServiceImpl implements CarritoService {
             detalleCarrito.setCantidad(cantidad);
             carrito.getItems().add(detalleCarrito);
         }
-
-        return this.carritoRepository.save(carrito);
     }
 
     @Transactional
@@ -2,6 +2,8 @@ package com.deofis.tiendaapirest.perfiles.services;
 
 import com.deofis.tiendaapirest.perfiles.domain.Favorito;
 
+import java.util.List;
+
 public interface FavoritosService {
 
     /**
@@ -11,6 +13,15 @@ public interface FavoritosService {
      */
     Favorito agregarFavorito(Long productoId);
 
+    /**
+     * Agrega varios productos al listado de favoritos del perfil. Los productos se obtienen con una sola
+     * consulta; los que ya están en favoritos se ignoran.
+     * @param productoIds List de ids de productos a agregar.
+     * @return Listado de favoritos actualizado.
+     * @throws ProductoException si algún producto no existe: en ese caso no se agrega ninguno.
+     */
+    Favorito agregarFavoritos(List<Long> productoIds);
+
     /**
      * Elimina un producto del listado de favoritos del perfil.
      * @param productoId Long id del producto a quitar.
@@ -5,12 +5,16 @@ import com.deofis.tiendaapirest.perfiles.domain.ItemFavorito;
 import com.deofis.tiendaapirest.perfiles.repositories.FavoritosRepository;
 import com.deofis.tiendaapirest.perfiles.repositories.ItemFavoritoRepository;
 import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.exceptions.ProductoException;
 import com.deofis.tiendaapirest.productos.services.ProductoService;
+import com.deofis.tiendaapirest.productos.utils.LoteUtils;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.*;
+
 @Service
 @AllArgsConstructor
 @Slf4j
@@ -46,6 +50,32 @@ public class FavoritosServiceImpl implements FavoritosService {
         return null;
     }
 
+    @Transactional
+    @Override
+    public Favorito agregarFavoritos(List<Long> productoIds) {
+        Favorito favorito = this.perfilService.obtenerFavoritos();
+        List<Long> solicitados = LoteUtils.distintos(productoIds);
+        List<Producto> productos = this.productoService.obtenerProductos(solicitados);
+
+        if (productos.size() < solicitados.size()) {
+            Set<Long> faltantes = new LinkedHashSet<>(solicitados);
+            productos.forEach(producto -> faltantes.remove(producto.getId()));
+            throw new ProductoException("No existen los productos con id: " + faltantes);
+        }
+
+        Set<Long> actuales = new HashSet<>();
+        favorito.getItems().forEach(item -> actuales.add(item.getProducto().getId()));
+
+        for (Producto producto: productos) {
+            if (actuales.add(producto.getId())) {
+                favorito.getItems().add(ItemFavorito.builder()
+                        .producto(producto).build());
+            }
+        }
+
+        return this.favoritosRepository.save(favorito);
+    }
+
     @Transactional
     @Override
     public Favorito quitarFavorito(Long productoId) {
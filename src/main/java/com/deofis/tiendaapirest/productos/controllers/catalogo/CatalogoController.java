@@ -1,17 +1,37 @@
 package com.deofis.tiendaapirest.productos.controllers.catalogo;
 
+import com.deofis.tiendaapirest.globalservices.FiltroCampos;
 import com.deofis.tiendaapirest.productos.domain.Marca;
 import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.dto.CambiosCatalogo;
+import com.deofis.tiendaapirest.productos.dto.ConsultaProductos;
+import com.deofis.tiendaapirest.productos.dto.DetalleProducto;
+import com.deofis.tiendaapirest.productos.dto.FiltroProductos;
+import com.deofis.tiendaapirest.productos.dto.PaginaProductos;
+import com.deofis.tiendaapirest.productos.dto.ProductoListado;
+import com.deofis.tiendaapirest.productos.dto.ResultadoBusqueda;
+import com.deofis.tiendaapirest.productos.dto.ResultadoConsulta;
+import com.deofis.tiendaapirest.productos.dto.ResultadoFiltro;
+import com.deofis.tiendaapirest.productos.dto.SugerenciaBusqueda;
 import com.deofis.tiendaapirest.productos.exceptions.ProductoException;
 import com.deofis.tiendaapirest.productos.services.CatalogoService;
+import com.deofis.tiendaapirest.productos.services.cache.RespuestaSerializada;
+import com.deofis.tiendaapirest.productos.services.cache.RespuestasSerializadas;
+import com.deofis.tiendaapirest.productos.services.cambios.RecursoVersionado;
+import com.deofis.tiendaapirest.productos.services.cambios.SincronizacionCatalogoService;
+import com.deofis.tiendaapirest.productos.services.cambios.VersionCatalogoService;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api")
@@ -19,15 +39,22 @@ import java.util.Map;
 public class CatalogoController {
 
     private final CatalogoService catalogoService;
+    private final VersionCatalogoService versionCatalogoService;
+    private final SincronizacionCatalogoService sincronizacionCatalogoService;
+    private final RespuestasSerializadas respuestasSerializadas;
 
     /**
-     * Obtiene los productos destacados a mostrar.
+     * Obtiene los productos destacados a mostrar. Soporta GET condicional: si el header If-None-Match coincide
+     * con la versión actual del catálogo responde 304 Not Modified sin consultar la base de datos.
      * URL: ~/api/catalogo/destacados
      *
+     * @param request WebRequest para validar el ETag.
      * @return ResponseEntity con lista de productos destacados.
      */
     @GetMapping("/catalogo/destacados")
-    public ResponseEntity<?> obtenerProductosDestacados() {
+    public ResponseEntity<?> obtenerProductosDestacados(WebRequest request) {
+        if (request.checkNotModified(this.versionCatalogoService.etag(RecursoVersionado.CATALOGO))) return null;
+
         Map<String, Object> response = new HashMap<>();
         List<Producto> productosDestacados;
 
@@ -54,27 +81,215 @@ public class CatalogoController {
      * HttpMethod: GET
      * HttpStatus: OK
      * @param termino Param 'termino' con el termino a buscar.
-     * @return Lista de productos encontrados.
+     * @param cursor @RequestParam opcional con el cursor 'siguiente' de la página anterior.
+     * @param tamanio @RequestParam opcional con el tamaño de página.
+     * @return Página de productos encontrados, de más a menos relevante, junto a las marcas, subcategorías y
+     * propiedades de todos los productos encontrados y, en 'facetasMarcas', 'facetasSubcategorias' y
+     * 'facetasPropiedades', la cantidad de productos de cada una. Si no hay resultados y la consulta parece mal
+     * escrita, incluye 'sugerencia' con la consulta corregida.
      */
     @GetMapping("/catalogo/buscar")
-    public ResponseEntity<Map<String, Object>> buscarProductos(@RequestParam String termino) {
-        Map<String, Object> response = this.catalogoService.buscarProductos(termino);
+    public ResponseEntity<Map<String, Object>> buscarProductos(@RequestParam String termino,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer tamanio) {
+        Map<String, Object> response = new HashMap<>();
+        ResultadoBusqueda resultado;
+
+        try {
+            resultado = this.catalogoService.buscarProductos(termino, cursor, tamanio);
+        } catch (ProductoException e) {
+            response.put("mensaje", "Error al buscar los productos");
+            response.put("error", e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        this.agregarPagina(response, resultado.getPagina());
+        response.put("totalProductos", resultado.getTotalProductos());
+        response.put("marcas", resultado.getMarcas());
+        response.put("subcategorias", resultado.getSubcategorias());
+        response.put("propiedades", resultado.getPropiedades());
+        response.put("facetasMarcas", resultado.getFacetasMarcas());
+        response.put("facetasSubcategorias", resultado.getFacetasSubcategorias());
+        response.put("facetasPropiedades", resultado.getFacetasPropiedades());
+
+        if (resultado.getTotalProductos() == 0) response.put("mensaje", "No se encontraron resultados de la búsqueda");
+        if (resultado.getSugerencia() != null) response.put("sugerencia", resultado.getSugerencia());
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
 
-        if (response.get("totalProductos").equals(0)) response.put("mensaje", "No se encontraron resultados de la búsqueda");
+    /**
+     * Autocompleta lo escrito en el buscador con nombres de productos, marcas y subcategorías, de más a menos
+     * popular. Pensado para llamarse en cada tecla: se resuelve en memoria, sin consultar la base de datos.
+     * URL: ~/api/catalogo/sugerencias?prefijo=sams
+     * HttpMethod: GET
+     * HttpStatus: OK
+     * @param prefijo @RequestParam texto escrito por el usuario.
+     * @param cantidad @RequestParam opcional con la cantidad máxima de sugerencias.
+     * @return ResponseEntity con las sugerencias.
+     */
+    @GetMapping("/catalogo/sugerencias")
+    public ResponseEntity<Map<String, Object>> obtenerSugerencias(@RequestParam String prefijo,
+                                                                  @RequestParam(required = false) Integer cantidad) {
+        List<SugerenciaBusqueda> sugerencias = this.catalogoService.obtenerSugerencias(prefijo, cantidad);
+        Map<String, Object> response = new HashMap<>();
 
+        response.put("sugerencias", sugerencias);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
     /**
-     * Obtiene un producto para ver en detalle por el usuario.
+     * Filtra el catálogo combinando cualquier cantidad de marcas, subcategorías y valores de propiedades, y un
+     * rango de precio. Las opciones de una misma faceta se combinan con OR y las facetas entre sí con AND.
+     * Se resuelve en memoria, sin consultar la base de datos.
+     * URL: ~/api/catalogo/filtrar?marcas=1,2&valores=7&precioMin=100&precioMax=500
+     * HttpMethod: GET
+     * HttpStatus: OK
+     * @param marcas @RequestParam opcional con ids de marcas.
+     * @param subcategorias @RequestParam opcional con ids de subcategorías.
+     * @param valores @RequestParam opcional con ids de valores de propiedades.
+     * @param precioMin @RequestParam opcional con el precio mínimo (inclusive).
+     * @param precioMax @RequestParam opcional con el precio máximo (inclusive).
+     * @param cursor @RequestParam opcional con el cursor 'siguiente' de la página anterior.
+     * @param tamanio @RequestParam opcional con el tamaño de página.
+     * @return ResponseEntity con la página de productos ordenados por precio de menor a mayor, el total de
+     * productos, la cantidad de productos de cada marca, subcategoría y valor de propiedad, y el histograma
+     * de precios.
+     */
+    @GetMapping("/catalogo/filtrar")
+    public ResponseEntity<?> filtrarProductos(@RequestParam(required = false) Set<Long> marcas,
+                                              @RequestParam(required = false) Set<Long> subcategorias,
+                                              @RequestParam(required = false) Set<Long> valores,
+                                              @RequestParam(required = false) Double precioMin,
+                                              @RequestParam(required = false) Double precioMax,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer tamanio) {
+        Map<String, Object> response = new HashMap<>();
+        FiltroProductos filtro = FiltroProductos.builder()
+                .marcas(marcas != null ? marcas : new HashSet<>())
+                .subcategorias(subcategorias != null ? subcategorias : new HashSet<>())
+                .valores(valores != null ? valores : new HashSet<>())
+                .precioMin(precioMin)
+                .precioMax(precioMax).build();
+        ResultadoFiltro resultado;
+
+        try {
+            resultado = this.catalogoService.filtrarProductos(filtro, cursor, tamanio);
+        } catch (ProductoException e) {
+            response.put("mensaje", "Error al filtrar los productos");
+            response.put("error", e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        this.agregarPagina(response, resultado.getPagina());
+        response.put("totalProductos", resultado.getTotalProductos());
+        response.put("marcas", resultado.getMarcas());
+        response.put("subcategorias", resultado.getSubcategorias());
+        response.put("propiedades", resultado.getPropiedades());
+        response.put("rangosPrecio", resultado.getRangosPrecio());
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Consulta los productos activos combinando filtros, con el orden solicitado y paginados por número de
+     * página. A diferencia de ~/api/catalogo/filtrar, se resuelve en la base de datos y permite cualquier orden.
+     * URL: ~/api/catalogo/consulta?marcas=1,2&enPromocion=true&orden=-precio&pagina=0
+     * HttpMethod: GET
+     * HttpStatus: OK
+     * @param termino @RequestParam opcional con texto a buscar en el nombre, la marca o la subcategoría.
+     * @param marcas @RequestParam opcional con ids de marcas.
+     * @param subcategorias @RequestParam opcional con ids de subcategorías.
+     * @param precioMin @RequestParam opcional con el precio mínimo (inclusive).
+     * @param precioMax @RequestParam opcional con el precio máximo (inclusive).
+     * @param destacado @RequestParam opcional: solo destacados (true) o no destacados (false).
+     * @param enPromocion @RequestParam opcional: solo productos con (true) o sin (false) promoción vigente.
+     * @param orden @RequestParam opcional con los campos de orden, '-' para descendente. Ej.: '-destacado,precio'.
+     * @param pagina @RequestParam opcional con el número de página, desde 0.
+     * @param tamanio @RequestParam opcional con el tamaño de página.
+     * @param fields @RequestParam opcional con los campos a devolver de cada producto. Ej.: 'id,nombre,marca'.
+     * @return ResponseEntity con la página de productos y el total de productos que cumplen los filtros.
+     */
+    @GetMapping("/catalogo/consulta")
+    public ResponseEntity<?> consultarProductos(@RequestParam(required = false) String termino,
+                                                @RequestParam(required = false) Set<Long> marcas,
+                                                @RequestParam(required = false) Set<Long> subcategorias,
+                                                @RequestParam(required = false) Double precioMin,
+                                                @RequestParam(required = false) Double precioMax,
+                                                @RequestParam(required = false) Boolean destacado,
+                                                @RequestParam(required = false) Boolean enPromocion,
+                                                @RequestParam(required = false) String orden,
+                                                @RequestParam(required = false) Integer pagina,
+                                                @RequestParam(required = false) Integer tamanio,
+                                                @RequestParam(required = false) String fields) {
+        Map<String, Object> response = new HashMap<>();
+        Set<String> campos = FiltroCampos.parsear(fields);
+        ConsultaProductos consulta = ConsultaProductos.builder()
+                .termino(termino)
+                .marcas(marcas != null ? marcas : new HashSet<>())
+                .subcategorias(subcategorias != null ? subcategorias : new HashSet<>())
+                .precioMin(precioMin)
+                .precioMax(precioMax)
+                .destacado(destacado)
+                .enPromocion(enPromocion)
+                .orden(orden).build();
+        ResultadoConsulta<?> resultado = null;
+
+        try {
+            // Si todos los campos pedidos son columnas, se seleccionan solo esas; si no, se recorta la serialización.
+            if (!campos.isEmpty()) resultado = this.catalogoService.proyectarProductos(consulta, campos, pagina, tamanio);
+            if (resultado == null) resultado = this.catalogoService.consultarProductos(consulta, pagina, tamanio);
+        } catch (ProductoException e) {
+            response.put("mensaje", "Error al consultar los productos");
+            response.put("error", e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        return new ResponseEntity<>(resultado, HttpStatus.OK);
+    }
+
+    /**
+     * Obtiene varios productos por id en una sola llamada, para las listas que arma el cliente (carrito,
+     * favoritos, vistos recientemente). Reemplaza llamar a ~/api/catalogo/productos/{id} por cada producto.
+     * URL: ~/api/catalogo/productos?ids=3,1,2
+     * HttpMethod: GET
+     * HttpStatus: OK
+     * @param ids @RequestParam List de ids de productos.
+     * @return ResponseEntity con los productos en el orden de los ids, sin los que no existen.
+     */
+    @GetMapping("/catalogo/productos")
+    public ResponseEntity<?> obtenerProductos(@RequestParam List<Long> ids) {
+        Map<String, Object> response = new HashMap<>();
+        List<Producto> productos;
+
+        try {
+            productos = this.catalogoService.obtenerProductos(ids);
+        } catch (ProductoException e) {
+            response.put("mensaje", "Error al obtener los productos");
+            response.put("error", e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        response.put("productos", productos);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Obtiene un producto para ver en detalle por el usuario. Si el cliente acepta JSON y no pide campos, se
+     * responde con la respuesta ya serializada del producto (comprimida con gzip si el cliente lo acepta).
      * URL: ~/api/catalogo/productos/1
      * HttpMethod: GET
      * HttpStatus: OK
      * @param productoId @PathVariable Long id del producto a obtener.
+     * @param request WebRequest para elegir el formato de la respuesta.
      * @return ResponseEntity Producto obtenido.
      */
     @GetMapping("/catalogo/productos/{productoId}")
-    public ResponseEntity<?> obtenerProducto(@PathVariable Long productoId) {
+    public ResponseEntity<?> obtenerProducto(@PathVariable Long productoId, WebRequest request) {
+        if (RespuestaSerializada.aplicable(request)) {
+            Optional<RespuestaSerializada> serializada = this.respuestasSerializadas.producto(productoId);
+            if (serializada.isPresent()) return serializada.get().responder(request);
+        }
+
         Map<String, Object> response = new HashMap<>();
         Producto producto;
 
@@ -90,6 +305,33 @@ public class CatalogoController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    /**
+     * Obtiene en una sola respuesta todo lo que muestra la página de un producto: el producto, sus imágenes y
+     * propiedades, el sku por defecto y los skus con sus valores, y las promociones vigentes con el precio a
+     * cobrar. Reemplaza llamar a ~/api/productos/1/propiedades, ~/api/productos/1/skus y
+     * ~/api/productos/1/skus/defecto por separado.
+     * URL: ~/api/catalogo/productos/1/detalle
+     * HttpMethod: GET
+     * HttpStatus: OK
+     * @param productoId @PathVariable Long id del producto.
+     * @return ResponseEntity con el detalle del producto.
+     */
+    @GetMapping("/catalogo/productos/{productoId}/detalle")
+    public ResponseEntity<?> obtenerDetalleProducto(@PathVariable Long productoId) {
+        Map<String, Object> response = new HashMap<>();
+        DetalleProducto detalle;
+
+        try {
+            detalle = this.catalogoService.obtenerDetalleProducto(productoId);
+        } catch (ProductoException e) {
+            response.put("mensaje", "Error al obtener el detalle del producto");
+            response.put("error", e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+        }
+
+        return new ResponseEntity<>(detalle, HttpStatus.OK);
+    }
+
     /**
      * Filtra los productos por categoría.
      * URL: ~/api/catalogo/filtrar/productos-por-categoria/1
@@ -97,23 +339,26 @@ public class CatalogoController {
      * HttpStatus: OK
      *
      * @param categoriaId @PathVariable Long con el id de la categoría.
-     * @return ResponseEntity con la List de los productos filtrados por categoría.
+     * @param cursor @RequestParam opcional con el cursor 'siguiente' de la página anterior.
+     * @param tamanio @RequestParam opcional con el tamaño de página.
+     * @return ResponseEntity con la página de productos filtrados por categoría.
      */
     @GetMapping("/catalogo/filtrar/productos-por-categoria/{categoriaId}")
-    public ResponseEntity<?> filtrarProductosPorCategoria(@PathVariable Long categoriaId) {
+    public ResponseEntity<?> filtrarProductosPorCategoria(@PathVariable Long categoriaId,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer tamanio) {
         Map<String, Object> response = new HashMap<>();
-        List<Producto> productosPorCategoria;
+        PaginaProductos<ProductoListado> productosPorCategoria;
 
         try {
-            productosPorCategoria = this.catalogoService.productosPorSubcategoria(categoriaId);
+            productosPorCategoria = this.catalogoService.productosPorSubcategoria(categoriaId, cursor, tamanio);
         } catch (ProductoException e) {
             response.put("mensaje", "Error al obtener los productos por categoría");
             response.put("error", e.getMessage());
             return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        response.put("cantidad", productosPorCategoria.size());
-        response.put("productos", productosPorCategoria);
+        this.agregarPagina(response, productosPorCategoria);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
@@ -124,33 +369,39 @@ public class CatalogoController {
      * HttpStatus: OK
      *
      * @param marcaId @PathVariable Long con el id de la marca.
-     * @return ResponseEntity List de los productos filtrados por marca.
+     * @param cursor @RequestParam opcional con el cursor 'siguiente' de la página anterior.
+     * @param tamanio @RequestParam opcional con el tamaño de página.
+     * @return ResponseEntity página de los productos filtrados por marca.
      */
     @GetMapping("/catalogo/filtrar/productos-por-marca/{marcaId}")
-    public ResponseEntity<?> filtrarProductosPorMarca(@PathVariable Long marcaId) {
+    public ResponseEntity<?> filtrarProductosPorMarca(@PathVariable Long marcaId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer tamanio) {
         Map<String, Object> response = new HashMap<>();
-        List<Producto> productosPorMarca;
+        PaginaProductos<ProductoListado> productosPorMarca;
 
         try {
-            productosPorMarca = this.catalogoService.productosPorMarca(marcaId);
+            productosPorMarca = this.catalogoService.productosPorMarca(marcaId, cursor, tamanio);
         } catch (ProductoException e) {
             response.put("mensaje", "Error al obtener los productos por marca");
             response.put("error", e.getMessage());
             return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        response.put("cantidad", productosPorMarca.size());
-        response.put("productos", productosPorMarca);
+        this.agregarPagina(response, productosPorMarca);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
     /**
-     * Lista las marcas.
+     * Lista las marcas. Soporta GET condicional con la versión del catálogo.
      *
+     * @param request WebRequest para validar el ETag.
      * @return List marcas.
      */
     @GetMapping("/catalogo/marcas")
-    public List<Marca> listarMarcas() {
+    public List<Marca> listarMarcas(WebRequest request) {
+        if (request.checkNotModified(this.versionCatalogoService.etag(RecursoVersionado.CATALOGO))) return null;
+
         return this.catalogoService.listarMarcas();
     }
 
@@ -159,22 +410,25 @@ public class CatalogoController {
      * URL: ~/api/catalogo/precio-menor
      * HttpMethod: GET
      * HttpStatus: OK
-     * @return ResponseEntity List de los productos ordenados por precio de menor a mayor.
+     * @param cursor @RequestParam opcional con el cursor 'siguiente' de la página anterior.
+     * @param tamanio @RequestParam opcional con el tamaño de página.
+     * @return ResponseEntity página de los productos ordenados por precio de menor a mayor.
      */
     @GetMapping("/catalogo/precio-menor")
-    public ResponseEntity<?> ordenarProductosPrecioMenorMayor() {
+    public ResponseEntity<?> ordenarProductosPrecioMenorMayor(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer tamanio) {
         Map<String, Object> response = new HashMap<>();
-        List<Producto> productosOrdenadosPrecioMenorAMayor;
+        PaginaProductos<ProductoListado> productosOrdenadosPrecioMenorAMayor;
 
         try {
-            productosOrdenadosPrecioMenorAMayor = this.catalogoService.productosPrecioMenorMayor();
+            productosOrdenadosPrecioMenorAMayor = this.catalogoService.productosPrecioMenorMayor(cursor, tamanio);
         } catch (ProductoException e) {
             response.put("mensaje", "Error al ordear los productos por precio de menor a mayor");
             response.put("error", e.getMessage());
             return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        response.put("productos", productosOrdenadosPrecioMenorAMayor);
+        this.agregarPagina(response, productosOrdenadosPrecioMenorAMayor);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
@@ -183,22 +437,25 @@ public class CatalogoController {
      * URL: ~/api/catalogo/precio-mayor
      * HttpMethod: GET
      * HttpStatus: OK
-     * @return ResponseEntity List de los productos ordenados por precio de mayor a menor.
+     * @param cursor @RequestParam opcional con el cursor 'siguiente' de la página anterior.
+     * @param tamanio @RequestParam opcional con el tamaño de página.
+     * @return ResponseEntity página de los productos ordenados por precio de mayor a menor.
      */
     @GetMapping("/catalogo/precio-mayor")
-    public ResponseEntity<?> ordenarProductosPrecioMayorMenor() {
+    public ResponseEntity<?> ordenarProductosPrecioMayorMenor(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer tamanio) {
         Map<String, Object> response = new HashMap<>();
-        List<Producto> productosOrdenadosPrecioMayorAMenor;
+        PaginaProductos<ProductoListado> productosOrdenadosPrecioMayorAMenor;
 
         try {
-            productosOrdenadosPrecioMayorAMenor = this.catalogoService.productosPrecioMayorMenor();
+            productosOrdenadosPrecioMayorAMenor = this.catalogoService.productosPrecioMayorMenor(cursor, tamanio);
         } catch (ProductoException e) {
             response.put("mensaje", "Error al ordenar los productos por precio de mayor a menor");
             response.put("error", e.getMessage());
             return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        response.put("productos", productosOrdenadosPrecioMayorAMenor);
+        this.agregarPagina(response, productosOrdenadosPrecioMayorAMenor);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
@@ -208,29 +465,60 @@ public class CatalogoController {
      * HttpMethod: GET
      * HttpStatus: OK
      * @param precioMax @RequestParam Double precio máximo a filtrar.
-     * @return ResponseEntity List de productos dentro del rango del precio requerido.
+     * @param cursor @RequestParam opcional con el cursor 'siguiente' de la página anterior.
+     * @param tamanio @RequestParam opcional con el tamaño de página.
+     * @return ResponseEntity página de productos dentro del rango del precio requerido.
      */
     @GetMapping("/catalogo/filtrar/productos-por-precio")
-    public ResponseEntity<?> filtrarProductosPorPrecioMaximo(@RequestParam Double precioMax) {
+    public ResponseEntity<?> filtrarProductosPorPrecioMaximo(@RequestParam Double precioMax,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer tamanio) {
         Map<String, Object> response = new HashMap<>();
-        List<Producto> productosPorPrecio;
+        PaginaProductos<ProductoListado> productosPorPrecio;
 
         try {
-            productosPorPrecio = this.catalogoService.productosPorPrecio(precioMax);
+            productosPorPrecio = this.catalogoService.productosPorPrecio(precioMax, cursor, tamanio);
         } catch (ProductoException e) {
             response.put("mensaje", "Error al filtrar los productos por precio máximo");
             response.put("error", e.getMessage());
             return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        if (productosPorPrecio.size() == 0) {
+        if (cursor == null && productosPorPrecio.getCantidad() == 0) {
             response.put("error", "No existen productos en el rango indicado");
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
         }
 
-        response.put("cantidad", productosPorPrecio.size());
-        response.put("productos", productosPorPrecio);
+        this.agregarPagina(response, productosPorPrecio);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    /**
+     * Obtiene los cambios del catálogo posteriores a una versión, para sincronizar una copia local sin volver a
+     * descargar el catálogo completo: el estado actual de cada producto, sku, promoción, marca y subcategoría
+     * modificados, y los ids de los eliminados. Se consulta de nuevo con 'desde' igual al 'hasta' recibido.
+     * URL: ~/api/catalogo/cambios?desde=1520&limite=500
+     * HttpMethod: GET
+     * HttpStatus: OK
+     * @param desde @RequestParam opcional con la versión ya sincronizada (0 o ausente para leer desde el principio).
+     * @param limite @RequestParam opcional con la cantidad máxima de cambios a leer.
+     * @return ResponseEntity con los cambios y la versión hasta la que se leyó.
+     */
+    @GetMapping("/catalogo/cambios")
+    public ResponseEntity<CambiosCatalogo> obtenerCambios(@RequestParam(required = false) Long desde,
+                                                          @RequestParam(required = false) Integer limite) {
+        CambiosCatalogo cambios = this.sincronizacionCatalogoService.obtenerCambios(desde, limite);
+        return new ResponseEntity<>(cambios, HttpStatus.OK);
+    }
+
+    /**
+     * Agrega al response los productos de la página, su cantidad y el cursor a la página siguiente
+     * (null si es la última).
+     */
+    private void agregarPagina(Map<String, Object> response, PaginaProductos<?> pagina) {
+        response.put("productos", pagina.getProductos());
+        response.put("cantidad", pagina.getCantidad());
+        response.put("siguiente", pagina.getSiguiente());
+    }
+
 }
@@ -1,23 +1,31 @@
 package com.deofis.tiendaapirest.productos.controllers.catalogoadmin.productos;
 
+import com.deofis.tiendaapirest.globalservices.FiltroCampos;
 import com.deofis.tiendaapirest.productos.domain.Producto;
 import com.deofis.tiendaapirest.productos.domain.PropiedadProducto;
 import com.deofis.tiendaapirest.productos.domain.Sku;
 import com.deofis.tiendaapirest.productos.domain.UnidadMedida;
+import com.deofis.tiendaapirest.productos.dto.ConsultaProductos;
+import com.deofis.tiendaapirest.productos.dto.PaginaProductos;
+import com.deofis.tiendaapirest.productos.dto.ResultadoConsulta;
 import com.deofis.tiendaapirest.productos.exceptions.ProductoException;
 import com.deofis.tiendaapirest.productos.exceptions.SkuException;
 import com.deofis.tiendaapirest.productos.services.ProductoService;
+import com.deofis.tiendaapirest.productos.services.SkuService;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Controlador que se encarga de obtener los productos de distintas formas.
@@ -29,36 +37,105 @@ import java.util.Map;
 public class ObtenerProductosController {
 
     private final ProductoService productoService;
+    private final SkuService skuService;
 
     /**
-     * Obtiene los productos ordenados alfabéticamente.
-     * URL: ~/api/productos
+     * Obtiene los productos ordenados alfabéticamente, paginados por cursor.
+     * URL: ~/api/productos?cursor=...&tamanio=24
      * HttpMethod: GET
      * HttpStatus: OK
-     * @return ResponseEntity con un listado de todos los productos.
+     * @param cursor @RequestParam opcional con el cursor 'siguiente' de la página anterior.
+     * @param tamanio @RequestParam opcional con el tamaño de página.
+     * @return ResponseEntity con una página de productos y el cursor a la siguiente.
      */
     @GetMapping("/productos")
-    public ResponseEntity<?> obtenerProductos() {
+    public ResponseEntity<?> obtenerProductos(@RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer tamanio) {
         Map<String, Object> response = new HashMap<>();
-        List<Producto> productos;
+        PaginaProductos<Producto> productos;
 
         try {
-            productos = this.productoService.obtenerProductos();
+            productos = this.productoService.obtenerProductos(cursor, tamanio);
         } catch (ProductoException e) {
             response.put("mensaje", "Error al obtener los productos de la Base de Datos");
             response.put("error", e.getMessage());
             return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        if (productos.size() == 0) {
+        if (cursor == null && productos.getCantidad() == 0) {
             response.put("error", "No existen productos registrados en la Base de Datos");
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
         }
 
-        response.put("productos", productos);
+        response.put("productos", productos.getProductos());
+        response.put("cantidad", productos.getCantidad());
+        response.put("siguiente", productos.getSiguiente());
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    /**
+     * Consulta los productos para la grilla del administrador, combinando filtros y con el orden solicitado. El
+     * filtrado, el orden y la paginación se resuelven en la base de datos.
+     * URL: ~/api/productos/consulta?termino=samsung&activo=true&stockMenorA=5&orden=-precio&pagina=0&tamanio=50
+     * HttpMethod: GET
+     * HttpStatus: OK
+     * @param termino @RequestParam opcional con texto a buscar en el nombre, la marca o la subcategoría.
+     * @param marcas @RequestParam opcional con ids de marcas.
+     * @param subcategorias @RequestParam opcional con ids de subcategorías.
+     * @param precioMin @RequestParam opcional con el precio mínimo (inclusive).
+     * @param precioMax @RequestParam opcional con el precio máximo (inclusive).
+     * @param activo @RequestParam opcional: solo activos (true) o inactivos (false).
+     * @param destacado @RequestParam opcional: solo destacados (true) o no destacados (false).
+     * @param stockMenorA @RequestParam opcional: solo productos con disponibilidad menor a este valor.
+     * @param enPromocion @RequestParam opcional: solo productos con (true) o sin (false) promoción vigente.
+     * @param orden @RequestParam opcional con los campos de orden, '-' para descendente. Ej.: 'destacado,-precio'.
+     * @param pagina @RequestParam opcional con el número de página, desde 0.
+     * @param tamanio @RequestParam opcional con el tamaño de página.
+     * @param fields @RequestParam opcional con los campos a devolver de cada producto. Ej.: 'id,nombre,marca'.
+     * @return ResponseEntity con la página de productos y el total de productos que cumplen los filtros.
+     */
+    @GetMapping("/productos/consulta")
+    public ResponseEntity<?> consultarProductos(@RequestParam(required = false) String termino,
+                                                @RequestParam(required = false) Set<Long> marcas,
+                                                @RequestParam(required = false) Set<Long> subcategorias,
+                                                @RequestParam(required = false) Double precioMin,
+                                                @RequestParam(required = false) Double precioMax,
+                                                @RequestParam(required = false) Boolean activo,
+                                                @RequestParam(required = false) Boolean destacado,
+                                                @RequestParam(required = false) Integer stockMenorA,
+                                                @RequestParam(required = false) Boolean enPromocion,
+                                                @RequestParam(required = false) String orden,
+                                                @RequestParam(required = false) Integer pagina,
+                                                @RequestParam(required = false) Integer tamanio,
+                                                @RequestParam(required = false) String fields) {
+        Map<String, Object> response = new HashMap<>();
+        Set<String> campos = FiltroCampos.parsear(fields);
+        ConsultaProductos consulta = ConsultaProductos.builder()
+                .termino(termino)
+                .marcas(marcas != null ? marcas : new HashSet<>())
+                .subcategorias(subcategorias != null ? subcategorias : new HashSet<>())
+                .precioMin(precioMin)
+                .precioMax(precioMax)
+                .activo(activo)
+                .destacado(destacado)
+                .stockMenorA(stockMenorA)
+                .enPromocion(enPromocion)
+                .orden(orden).build();
+        ResultadoConsulta<?> resultado = null;
+
+        try {
+            // Si todos los campos pedidos son columnas, se seleccionan solo esas; si no, se recorta la serialización.
+            if (!campos.isEmpty()) resultado = this.productoService.proyectarProductos(consulta, campos, pagina, tamanio);
+            if (resultado == null) resultado = this.productoService.consultarProductos(consulta, campos, pagina, tamanio);
+        } catch (ProductoException e) {
+            response.put("mensaje", "Error al consultar los productos");
+            response.put("error", e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        return new ResponseEntity<>(resultado, HttpStatus.OK);
+    }
+
     /**
      * Obtiene un producto específico.
      * URL: http://localhost:8080/api/productos/1
@@ -138,6 +215,31 @@ public class ObtenerProductosController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    /**
+     * Obtiene varios Skus por id en una sola llamada (Ej.: los items de un carrito armado en el cliente).
+     * URL: ~/api/skus?ids=12,15
+     * HttpMethod: GET
+     * HttpStatus: OK
+     * @param ids RequestParam List de ids de skus.
+     * @return ResponseEntity con los skus en el orden de los ids, sin los que no existen.
+     */
+    @GetMapping("/skus")
+    public ResponseEntity<?> obtenerSkus(@RequestParam List<Long> ids) {
+        Map<String, Object> response = new HashMap<>();
+        List<Sku> skus;
+
+        try {
+            skus = this.skuService.obtenerSkusConProducto(ids);
+        } catch (SkuException e) {
+            response.put("mensaje", "Error al obtener los skus");
+            response.put("error", e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        response.put("skus", skus);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     /**
      * Obtiene un Sku a partir de un producto.
      * URL: ~/api/productos/1/skus/1
@@ -5,21 +5,28 @@ import com.deofis.tiendaapirest.productos.domain.Categoria;
 import com.deofis.tiendaapirest.productos.domain.Imagen;
 import com.deofis.tiendaapirest.productos.domain.PropiedadProducto;
 import com.deofis.tiendaapirest.productos.domain.Subcategoria;
+import com.deofis.tiendaapirest.productos.dto.NodoCategoria;
 import com.deofis.tiendaapirest.productos.exceptions.CategoriaException;
 import com.deofis.tiendaapirest.productos.exceptions.FileException;
 import com.deofis.tiendaapirest.productos.exceptions.ProductoException;
 import com.deofis.tiendaapirest.productos.services.CategoriaService;
 import com.deofis.tiendaapirest.productos.services.SubcategoriaService;
+import com.deofis.tiendaapirest.productos.services.cache.RespuestaSerializada;
+import com.deofis.tiendaapirest.productos.services.cache.RespuestasSerializadas;
+import com.deofis.tiendaapirest.productos.services.cambios.RecursoVersionado;
+import com.deofis.tiendaapirest.productos.services.cambios.VersionCatalogoService;
 import lombok.AllArgsConstructor;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Controlador que se encarga de listar y obtener las categorías y subcategorías, así
@@ -33,16 +40,27 @@ public class CategoriasController {
 
     private final CategoriaService categoriaService;
     private final SubcategoriaService subcategoriaService;
+    private final VersionCatalogoService versionCatalogoService;
+    private final RespuestasSerializadas respuestasSerializadas;
 
     /**
-     * Obtener un todas las categorias ordenadas por nombre.
+     * Obtener un todas las categorias ordenadas por nombre. Soporta GET condicional con la versión del catálogo.
+     * Si el cliente acepta JSON y no pide campos, se responde con la respuesta ya serializada de las categorías.
      * URL: ~/api/categorias
      * HttpMethod: GET
-     * HttpStatus: OK
+     * HttpStatus: OK / NOT_MODIFIED
+     * @param request WebRequest para validar el ETag.
      * @return ResponseEntity con todas las categorias.
      */
     @GetMapping("/categorias")
-    public ResponseEntity<?> obtenerCategorias() {
+    public ResponseEntity<?> obtenerCategorias(WebRequest request) {
+        if (request.checkNotModified(this.versionCatalogoService.etag(RecursoVersionado.CATALOGO))) return null;
+
+        if (RespuestaSerializada.aplicable(request)) {
+            Optional<RespuestaSerializada> serializada = this.respuestasSerializadas.categorias();
+            if (serializada.isPresent()) return serializada.get().responder(request);
+        }
+
         Map<String, Object> response = new HashMap<>();
         List<Categoria> categorias;
 
@@ -63,6 +81,35 @@ public class CategoriasController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    /**
+     * Obtiene en una sola respuesta el árbol de categorías para armar el menú de la tienda: las categorías
+     * ordenadas por nombre con sus subcategorías, y la cantidad de productos activos de cada una (para saber
+     * qué nodos están vacíos sin consultar sus productos). Soporta GET condicional con la versión del catálogo.
+     * URL: ~/api/categorias/arbol
+     * HttpMethod: GET
+     * HttpStatus: OK / NOT_MODIFIED
+     * @param request WebRequest para validar el ETag.
+     * @return ResponseEntity con el árbol de categorías.
+     */
+    @GetMapping("/categorias/arbol")
+    public ResponseEntity<?> obtenerArbolCategorias(WebRequest request) {
+        if (request.checkNotModified(this.versionCatalogoService.etag(RecursoVersionado.CATALOGO))) return null;
+
+        Map<String, Object> response = new HashMap<>();
+        List<NodoCategoria> categorias;
+
+        try {
+            categorias = this.categoriaService.obtenerArbolCategorias();
+        } catch (CategoriaException e) {
+            response.put("mensaje", "Error al obtener el árbol de categorías");
+            response.put("error", e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        response.put("categorias", categorias);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     /**
      * Obtener una categoría específica.
      * URL: ~/api/categorias/ver/1
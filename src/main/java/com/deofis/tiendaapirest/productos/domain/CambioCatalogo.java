@@ -0,0 +1,48 @@
+package com.deofis.tiendaapirest.productos.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Registro persistente de un cambio confirmado sobre una entidad del catálogo ({@link EntidadCatalogo}). Se guarda
+ * en la misma transacción que el cambio, y su id creciente es la versión del catálogo: todo lo modificado luego de
+ * la versión N tiene un registro con id mayor a N.
+ * <br>
+ * Un cambio en un sku o en una promoción registra también un cambio de su producto.
+ */
+@Entity
+@Table(name = "cambios_catalogo", indexes = @Index(name = "idx_cambios_catalogo_fecha", columnList = "fecha"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CambioCatalogo implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EntidadCatalogo entidad;
+
+    @Column(name = "entidad_id", nullable = false)
+    private Long entidadId;
+
+    private boolean eliminado;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date fecha;
+
+    /** Instancia de la aplicación que registró el cambio: las demás lo leen del log para actualizarse. */
+    @Column(length = 36)
+    private String nodo;
+}
@@ -0,0 +1,12 @@
+package com.deofis.tiendaapirest.productos.domain;
+
+/**
+ * Entidades del catálogo cuyos cambios se registran en {@link CambioCatalogo}.
+ */
+public enum EntidadCatalogo {
+    PRODUCTO,
+    SKU,
+    PROMOCION,
+    MARCA,
+    SUBCATEGORIA
+}
@@ -4,12 +4,14 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import java.io.Serializable;
 
 @Entity
 @Table(name = "imagenes")
+@BatchSize(size = 50)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
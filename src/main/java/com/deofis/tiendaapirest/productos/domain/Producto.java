@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -13,9 +14,35 @@ import java.io.Serializable;
 import java.util.Date;
 import java.util.List;
 
+/**
+ * El grafo "Producto.detalle" trae en la misma consulta las asociaciones simples que se serializan con el
+ * producto. Las colecciones (imágenes, skus, propiedades y sus valores) no pueden traerse juntas en un mismo
+ * join, por lo que se cargan en lotes ({@link BatchSize}): una consulta por colección, no por producto.
+ * <br>
+ * Los índices compuestos cubren los filtros más comunes de las consultas de productos (activos por subcategoría
+ * o marca y rango de precio) y el orden por nombre del listado del administrador.
+ */
 @Entity
 @Data
-@Table(name = "productos")
+@Table(name = "productos", indexes = {
+        @Index(name = "idx_productos_activo_subcategoria_precio", columnList = "activo, subcategoria_id, precio"),
+        @Index(name = "idx_productos_activo_marca_precio", columnList = "activo, marca_id, precio"),
+        @Index(name = "idx_productos_activo_precio", columnList = "activo, precio"),
+        @Index(name = "idx_productos_activo_destacado", columnList = "activo, destacado"),
+        @Index(name = "idx_productos_nombre", columnList = "nombre, id"),
+        @Index(name = "idx_productos_disponibilidad", columnList = "disponibilidad_general")})
+@NamedEntityGraph(name = "Producto.detalle",
+        attributeNodes = {
+                @NamedAttributeNode("foto"),
+                @NamedAttributeNode("unidadMedida"),
+                @NamedAttributeNode("marca"),
+                @NamedAttributeNode("promocion"),
+                @NamedAttributeNode(value = "subcategoria", subgraph = "subcategoria"),
+                @NamedAttributeNode(value = "defaultSku", subgraph = "defaultSku")},
+        subgraphs = {
+                @NamedSubgraph(name = "subcategoria", attributeNodes = @NamedAttributeNode("foto")),
+                @NamedSubgraph(name = "defaultSku", attributeNodes = {
+                        @NamedAttributeNode("foto"), @NamedAttributeNode("promocion")})})
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
@@ -54,6 +81,7 @@ public class Producto implements Serializable {
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private Imagen foto;
 
+    @BatchSize(size = 50)
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
     @JoinColumn(name = "producto_id")
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
@@ -79,6 +107,7 @@ public class Producto implements Serializable {
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private UnidadMedida unidadMedida;
 
+    @BatchSize(size = 50)
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(name = "productos_x_propiedades",
             joinColumns = @JoinColumn(name = "producto_id"),
@@ -91,6 +120,7 @@ public class Producto implements Serializable {
     @JsonIgnoreProperties(value = {"producto", "defaultProducto" , "hibernateLazyInitializer", "handler"}, allowSetters = true)
     private Sku defaultSku;
 
+    @BatchSize(size = 50)
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "producto", cascade = CascadeType.ALL)
     @JsonIgnoreProperties(value = {"producto", "defaultProducto", "hibernateLazyInitializer", "handler"}, allowSetters = true)
     private List<Sku> skus;
@@ -5,6 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -12,6 +15,8 @@ import java.io.Serializable;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referencia")
 @Table(name = "producto_propiedades")
 @Data
 @AllArgsConstructor
@@ -31,6 +36,8 @@ public class PropiedadProducto implements Serializable {
      * que será solo una propiedad visible, pero no será seleccionable para vender.
      */
     private boolean variable;
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referencia")
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "producto_propiedad_id")
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
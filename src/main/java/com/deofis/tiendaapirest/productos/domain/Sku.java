@@ -3,6 +3,7 @@ package com.deofis.tiendaapirest.productos.domain;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.sun.istack.Nullable;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -12,6 +13,9 @@ import java.util.List;
 
 @Entity
 @Table(name = "skus")
+@NamedEntityGraph(name = "Sku.detalle", attributeNodes = {
+        @NamedAttributeNode("foto"), @NamedAttributeNode("promocion"), @NamedAttributeNode("valores")})
+@BatchSize(size = 50)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -52,6 +56,7 @@ public class Sku implements Serializable {
     @Column(name = "valores_data")
     private String valoresData;
 
+    @BatchSize(size = 50)
     @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.REFRESH})
     @JoinTable(name = "sku_x_valores_propiedades_producto",
             joinColumns = @JoinColumn(name = "sku_id"),
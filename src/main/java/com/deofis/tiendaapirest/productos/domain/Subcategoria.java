@@ -5,12 +5,17 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.io.Serializable;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referencia")
 @Table(name = "subcategorias")
 @Data
 @AllArgsConstructor
@@ -28,6 +33,8 @@ public class Subcategoria implements Serializable {
     @JoinColumn(name = "foto_id")
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private Imagen foto;
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referencia")
     @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.REFRESH, CascadeType.MERGE})
     @JoinTable(name = "subcategorias_x_propiedades",
             joinColumns = @JoinColumn(name = "subcategoria_id"),
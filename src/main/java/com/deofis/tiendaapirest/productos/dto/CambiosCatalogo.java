@@ -0,0 +1,41 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import com.deofis.tiendaapirest.productos.domain.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cambios del catálogo entre dos versiones: el estado actual de cada entidad creada o modificada y los ids de las
+ * eliminadas. Cada entidad aparece una sola vez, aunque haya cambiado varias veces en el intervalo.
+ * <br>
+ * 'hasta' es la versión a enviar como 'desde' en la próxima consulta; si 'hayMas' es true, ya hay más cambios
+ * para leer. Cada consulta vuelve a incluir lo registrado poco antes de 'desde' (ver
+ * {@link com.deofis.tiendaapirest.config.CatalogoProperties.Cambios#getMargen()}), por lo que una entidad puede
+ * repetirse entre consultas seguidas: el cliente debe aplicar cada una como alta o reemplazo.
+ * <br>
+ * Si 'reiniciar' es true, los cambios posteriores a 'desde' ya se depuraron del log: el cliente debe volver a
+ * descargar el catálogo completo y seguir consultando desde 'hasta'.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CambiosCatalogo {
+
+    private Long desde;
+    private Long hasta;
+    private boolean hayMas;
+    private boolean reiniciar;
+    private List<Producto> productos;
+    private List<Sku> skus;
+    private List<Promocion> promociones;
+    private List<Marca> marcas;
+    private List<Subcategoria> subcategorias;
+    private Map<EntidadCatalogo, Set<Long>> eliminados;
+}
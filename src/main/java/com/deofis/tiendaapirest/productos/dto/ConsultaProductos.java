@@ -0,0 +1,39 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Criterios combinables de una consulta de productos (ver
+ * {@link com.deofis.tiendaapirest.productos.repositories.ProductoSpecifications}). Todos son opcionales: los ids
+ * de una misma lista se combinan con OR y los criterios entre sí con AND.
+ * <br>
+ * El orden es una lista de campos separados por coma, descendentes con '-' adelante. Ej.: "-destacado,precio".
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ConsultaProductos {
+
+    /** Texto a buscar en el nombre del producto, su marca o su subcategoría. */
+    private String termino;
+    @Builder.Default
+    private Set<Long> marcas = new HashSet<>();
+    @Builder.Default
+    private Set<Long> subcategorias = new HashSet<>();
+    private Double precioMin;
+    private Double precioMax;
+    private Boolean activo;
+    private Boolean destacado;
+    /** Solo productos con disponibilidad menor a este valor. */
+    private Integer stockMenorA;
+    /** Solo productos con (true) o sin (false) una promoción vigente. */
+    private Boolean enPromocion;
+    private String orden;
+}
@@ -0,0 +1,73 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import com.deofis.tiendaapirest.productos.exceptions.ProductoException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor de paginación por clave (keyset) sobre productos: el valor del criterio de orden y el id del
+ * último producto de la página. La página siguiente empieza estrictamente después de ese par, por lo que
+ * su costo no depende de cuán profunda sea la página.
+ * <br>
+ * Se envía al cliente como un String opaco (Base64 URL-safe).
+ */
+@Data
+@AllArgsConstructor
+public class CursorProducto {
+
+    private static final String SEPARADOR = ":";
+
+    /** Valor del criterio de orden del último producto (precio, nombre, etc.). Null si se ordena solo por id. */
+    private String clave;
+    private Long id;
+
+    public String codificar() {
+        String valor = this.id + SEPARADOR + (this.clave != null ? this.clave : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     * @param cursor String cursor codificado, o null/vacío para la primera página.
+     * @return CursorProducto decodificado, o null si se pide la primera página.
+     * @throws ProductoException si el cursor no es válido.
+     */
+    public static CursorProducto decodificar(String cursor) {
+        if (cursor == null || cursor.isEmpty()) return null;
+
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.indexOf(SEPARADOR);
+            String clave = valor.substring(separador + 1);
+
+            return new CursorProducto(clave.isEmpty() ? null : clave, Long.valueOf(valor.substring(0, separador)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ProductoException("Cursor de paginación inválido: " + cursor);
+        }
+    }
+
+    public Double claveComoPrecio() {
+        try {
+            return Double.valueOf(this.clave);
+        } catch (NullPointerException | NumberFormatException e) {
+            throw new ProductoException("Cursor de paginación inválido para ordenar por precio");
+        }
+    }
+
+    /**
+     * Los resultados por relevancia se paginan por posición: la clave es la posición del primer producto de la
+     * página siguiente.
+     */
+    public int claveComoPosicion() {
+        try {
+            int posicion = Integer.parseInt(this.clave);
+            if (posicion < 0) throw new NumberFormatException();
+            return posicion;
+        } catch (NumberFormatException e) {
+            throw new ProductoException("Cursor de paginación inválido para ordenar por relevancia");
+        }
+    }
+}
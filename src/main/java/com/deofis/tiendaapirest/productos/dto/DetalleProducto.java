@@ -0,0 +1,88 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import com.deofis.tiendaapirest.globalservices.CamposSeleccionables;
+import com.deofis.tiendaapirest.productos.domain.*;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Todo lo que necesita la página de un producto en un único documento: datos del producto, imágenes,
+ * propiedades, sku por defecto y skus con sus valores, y las promociones vigentes con el precio a cobrar ya
+ * resuelto. Reemplaza consultar por separado el producto, sus propiedades, sus skus y su sku por defecto.
+ */
+@CamposSeleccionables
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DetalleProducto {
+
+    private Long id;
+    private String nombre;
+    private String descripcion;
+    private Double precio;
+    /** Precio a cobrar: el de oferta si el producto tiene una promoción vigente, si no el precio base. */
+    private Double precioEfectivo;
+    /** Promoción vigente del producto, o null si no tiene. */
+    private Promocion promocion;
+    private Integer disponibilidadGeneral;
+    private boolean disponible;
+    private boolean activo;
+    private boolean destacado;
+    private Marca marca;
+    private Subcategoria subcategoria;
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+    private UnidadMedida unidadMedida;
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+    private Imagen foto;
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+    private List<Imagen> imagenes;
+    private List<PropiedadProducto> propiedades;
+    private DetalleSku defaultSku;
+    private List<DetalleSku> skus;
+
+    /**
+     * Arma el detalle a partir de la entidad.
+     * @param producto Producto con su grafo inicializado (ver GrafoProductoUtils).
+     * @return DetalleProducto del producto.
+     */
+    public static DetalleProducto de(Producto producto) {
+        Promocion promocion = vigente(producto.getPromocion());
+        List<Sku> skus = producto.getSkus() != null ? producto.getSkus() : new ArrayList<>();
+
+        return DetalleProducto.builder()
+                .id(producto.getId())
+                .nombre(producto.getNombre())
+                .descripcion(producto.getDescripcion())
+                .precio(producto.getPrecio())
+                .precioEfectivo(promocion != null ? promocion.getPrecioOferta() : producto.getPrecio())
+                .promocion(promocion)
+                .disponibilidadGeneral(producto.getDisponibilidadGeneral())
+                .disponible(producto.getDisponibilidadGeneral() != null && producto.getDisponibilidadGeneral() > 0)
+                .activo(producto.isActivo())
+                .destacado(producto.isDestacado())
+                .marca(producto.getMarca())
+                .subcategoria(producto.getSubcategoria())
+                .unidadMedida(producto.getUnidadMedida())
+                .foto(producto.getFoto())
+                .imagenes(producto.getImagenes() != null ? producto.getImagenes() : new ArrayList<>())
+                .propiedades(producto.getPropiedades() != null ? producto.getPropiedades() : new ArrayList<>())
+                .defaultSku(DetalleSku.de(producto.getDefaultSku()))
+                .skus(skus.stream().map(DetalleSku::de).collect(Collectors.toList())).build();
+    }
+
+    /**
+     * @return la promoción si está vigente, o null.
+     */
+    static Promocion vigente(Promocion promocion) {
+        return promocion != null && promocion.getPrecioOferta() != null && promocion.getEstaVigente()
+                ? promocion : null;
+    }
+}
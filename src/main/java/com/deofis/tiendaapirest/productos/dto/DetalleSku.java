@@ -0,0 +1,59 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import com.deofis.tiendaapirest.globalservices.CamposSeleccionables;
+import com.deofis.tiendaapirest.productos.domain.Imagen;
+import com.deofis.tiendaapirest.productos.domain.Promocion;
+import com.deofis.tiendaapirest.productos.domain.Sku;
+import com.deofis.tiendaapirest.productos.domain.ValorPropiedadProducto;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sku dentro de {@link DetalleProducto}: sin la referencia a su producto, y con el precio a cobrar ya resuelto.
+ */
+@CamposSeleccionables
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DetalleSku {
+
+    private Long id;
+    private String nombre;
+    private Double precio;
+    /** Precio a cobrar: el de oferta si el sku tiene una promoción vigente, si no el precio base. */
+    private Double precioEfectivo;
+    /** Promoción vigente del sku, o null si no tiene. */
+    private Promocion promocion;
+    private Integer disponibilidad;
+    private boolean disponible;
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+    private Imagen foto;
+    private List<ValorPropiedadProducto> valores;
+
+    /**
+     * @param sku Sku con su foto y valores inicializados.
+     * @return DetalleSku del sku, o null si el sku es null.
+     */
+    public static DetalleSku de(Sku sku) {
+        if (sku == null) return null;
+        Promocion promocion = DetalleProducto.vigente(sku.getPromocion());
+
+        return DetalleSku.builder()
+                .id(sku.getId())
+                .nombre(sku.getNombre())
+                .precio(sku.getPrecio())
+                .precioEfectivo(promocion != null ? promocion.getPrecioOferta() : sku.getPrecio())
+                .promocion(promocion)
+                .disponibilidad(sku.getDisponibilidad())
+                .disponible(sku.getDisponibilidad() != null && sku.getDisponibilidad() > 0)
+                .foto(sku.getFoto())
+                .valores(sku.getValores() != null ? sku.getValores() : new ArrayList<>()).build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Faceta de una búsqueda de productos: una marca o subcategoría presente en el resultado, junto con la
+ * cantidad de productos encontrados que le pertenecen.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FacetaBusqueda {
+
+    private Long id;
+    private String nombre;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String codigo;
+    private Integer cantidad;
+}
@@ -0,0 +1,35 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Faceta de una búsqueda de productos para una propiedad: cantidad de productos encontrados que la tienen
+ * y cantidad por cada uno de sus valores.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FacetaPropiedad {
+
+    private Long id;
+    private String nombre;
+    private boolean variable;
+    private Integer cantidad;
+    private List<FacetaValor> valores;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class FacetaValor {
+        private Long id;
+        private String valor;
+        private Integer cantidad;
+    }
+}
@@ -0,0 +1,30 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Criterios de filtrado del catálogo. Los ids de una misma faceta se combinan con OR (marca 1 o marca 2) y las
+ * facetas entre sí con AND (marca y subcategoría y rango de precio). Los valores de propiedades se agrupan por
+ * propiedad: 'Rojo' o 'Azul' (Color) y 'XL' (Talle).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FiltroProductos {
+
+    @Builder.Default
+    private Set<Long> marcas = new HashSet<>();
+    @Builder.Default
+    private Set<Long> subcategorias = new HashSet<>();
+    @Builder.Default
+    private Set<Long> valores = new HashSet<>();
+    private Double precioMin;
+    private Double precioMax;
+}
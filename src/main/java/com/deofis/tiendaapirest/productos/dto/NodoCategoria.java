@@ -0,0 +1,25 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Categoría del árbol de categorías del menú de la tienda, con sus subcategorías y la cantidad de productos
+ * activos que contiene (la suma de las de sus subcategorías).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class NodoCategoria {
+
+    private Long id;
+    private String nombre;
+    private String fotoUrl;
+    private Integer productosActivos;
+    private List<NodoSubcategoria> subcategorias;
+}
@@ -0,0 +1,22 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Subcategoría del árbol de categorías, con la cantidad de productos activos que contiene.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class NodoSubcategoria {
+
+    private Long id;
+    private String nombre;
+    private String codigo;
+    private String fotoUrl;
+    private Integer productosActivos;
+}
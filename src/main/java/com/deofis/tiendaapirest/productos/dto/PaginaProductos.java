@@ -0,0 +1,48 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de un listado de productos paginado por clave. Si hay más productos, 'siguiente' contiene el
+ * cursor a enviar para obtener la próxima página; si no, es null.
+ * @param <T> tipo de los productos listados: entidad Producto o ProductoListado.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PaginaProductos<T> {
+
+    private List<T> productos;
+    private Integer cantidad;
+    private String siguiente;
+
+    /**
+     * Arma la página a partir del Slice obtenido del repositorio.
+     * @param slice Slice de productos de la página.
+     * @param id Function que obtiene el id de un producto.
+     * @param clave Function que obtiene el valor del criterio de orden de un producto (null si se ordena por id).
+     * @return PaginaProductos con el cursor a la página siguiente, si existe.
+     */
+    public static <T> PaginaProductos<T> de(Slice<T> slice, Function<T, Long> id, Function<T, String> clave) {
+        List<T> productos = slice.getContent();
+        String siguiente = null;
+
+        if (slice.hasNext() && !productos.isEmpty()) {
+            T ultimo = productos.get(productos.size() - 1);
+            siguiente = new CursorProducto(clave.apply(ultimo), id.apply(ultimo)).codificar();
+        }
+
+        return PaginaProductos.<T>builder()
+                .productos(productos)
+                .cantidad(productos.size())
+                .siguiente(siguiente).build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import com.deofis.tiendaapirest.globalservices.CamposSeleccionables;
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.domain.Promocion;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Modelo de solo lectura de un producto para listados del catálogo (tarjeta de producto). Se obtiene
+ * directamente con una proyección JPQL (ver ProductoRepository), sin cargar la entidad Producto ni sus
+ * asociaciones.
+ */
+@CamposSeleccionables
+@Data
+@NoArgsConstructor
+public class ProductoListado {
+
+    private Long id;
+    private String nombre;
+    private Double precio;
+    /** Precio a cobrar: el de oferta si el producto tiene una promoción vigente, si no el precio base. */
+    private Double precioEfectivo;
+    /** Porcentaje de descuento de la promoción vigente, o null si no tiene. */
+    private Double porcentajeOferta;
+    private boolean enPromocion;
+    private String fotoUrl;
+    private String marca;
+    private boolean disponible;
+
+    public ProductoListado(Long id, String nombre, Double precio, Integer disponibilidadGeneral, String fotoUrl,
+                           String marca, Double precioOferta, Double porcentaje, Date promocionDesde,
+                           Date promocionHasta) {
+        Date ahora = new Date();
+
+        this.id = id;
+        this.nombre = nombre;
+        this.precio = precio;
+        this.fotoUrl = fotoUrl;
+        this.marca = marca;
+        this.disponible = disponibilidadGeneral != null && disponibilidadGeneral > 0;
+        this.enPromocion = precioOferta != null && promocionDesde != null && promocionHasta != null
+                && ahora.after(promocionDesde) && ahora.before(promocionHasta);
+        this.precioEfectivo = this.enPromocion ? precioOferta : precio;
+        this.porcentajeOferta = this.enPromocion ? porcentaje : null;
+    }
+
+    /**
+     * Arma el listado a partir de la entidad, para los listados que se resuelven en memoria.
+     * @param producto Producto con su foto, marca y promoción inicializadas.
+     * @return ProductoListado del producto.
+     */
+    public static ProductoListado de(Producto producto) {
+        Promocion promocion = producto.getPromocion();
+
+        return new ProductoListado(producto.getId(), producto.getNombre(), producto.getPrecio(),
+                producto.getDisponibilidadGeneral(),
+                producto.getFoto() != null ? producto.getFoto().getImageUrl() : null,
+                producto.getMarca() != null ? producto.getMarca().getNombre() : null,
+                promocion != null ? promocion.getPrecioOferta() : null,
+                promocion != null ? promocion.getPorcentaje() : null,
+                promocion != null ? promocion.getFechaDesde() : null,
+                promocion != null ? promocion.getFechaHasta() : null);
+    }
+}
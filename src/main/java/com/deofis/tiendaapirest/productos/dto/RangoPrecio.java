@@ -0,0 +1,20 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Barra del histograma de precios de un filtrado: cantidad de productos con precio entre 'desde' y 'hasta'.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RangoPrecio {
+
+    private Double desde;
+    private Double hasta;
+    private Integer cantidad;
+}
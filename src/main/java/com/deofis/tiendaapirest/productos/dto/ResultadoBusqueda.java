@@ -0,0 +1,37 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import com.deofis.tiendaapirest.productos.domain.Marca;
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.domain.PropiedadProducto;
+import com.deofis.tiendaapirest.productos.domain.Subcategoria;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de una búsqueda de productos con sus facetas (marcas, subcategorías y propiedades), calculadas
+ * en una única pasada sobre todos los productos encontrados, aunque solo se devuelva una página.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ResultadoBusqueda {
+
+    private Integer totalProductos;
+    /** Página de productos encontrados, de más a menos relevante. */
+    private PaginaProductos<Producto> pagina;
+    /** Marcas, subcategorías y propiedades de los productos encontrados, sin repetir. */
+    private List<Marca> marcas;
+    private List<Subcategoria> subcategorias;
+    private List<PropiedadProducto> propiedades;
+    /** Las mismas marcas, subcategorías y propiedades con su cantidad de productos, de mayor a menor. */
+    private List<FacetaBusqueda> facetasMarcas;
+    private List<FacetaBusqueda> facetasSubcategorias;
+    private List<FacetaPropiedad> facetasPropiedades;
+    /** Consulta corregida ("¿Quisiste decir...?") cuando la búsqueda no encontró productos. */
+    private String sugerencia;
+}
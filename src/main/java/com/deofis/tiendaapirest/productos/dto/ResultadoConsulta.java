@@ -0,0 +1,37 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Página de una consulta de productos por número de página, con el total de productos que cumplen los criterios.
+ * @param <T> tipo de los productos de la página (Producto o ProductoListado).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ResultadoConsulta<T> {
+
+    private List<T> productos;
+    private Integer pagina;
+    private Integer tamanio;
+    private Long totalProductos;
+    private Integer totalPaginas;
+
+    public static <E, T> ResultadoConsulta<T> de(Page<E> pagina, Function<E, T> convertir) {
+        return ResultadoConsulta.<T>builder()
+                .productos(pagina.getContent().stream().map(convertir).collect(Collectors.toList()))
+                .pagina(pagina.getNumber())
+                .tamanio(pagina.getSize())
+                .totalProductos(pagina.getTotalElements())
+                .totalPaginas(pagina.getTotalPages()).build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de filtrar el catálogo: la página de productos que cumplen todos los filtros, y para cada faceta la
+ * cantidad de productos que se obtendría al elegir cada opción (manteniendo los filtros de las demás facetas).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ResultadoFiltro {
+
+    private Integer totalProductos;
+    private PaginaProductos<ProductoListado> pagina;
+    private List<FacetaBusqueda> marcas;
+    private List<FacetaBusqueda> subcategorias;
+    private List<FacetaPropiedad> propiedades;
+    private List<RangoPrecio> rangosPrecio;
+}
@@ -0,0 +1,27 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sugerencia de autocompletado del buscador: el nombre de un producto, marca o subcategoría que empieza con
+ * lo escrito por el usuario.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SugerenciaBusqueda {
+
+    private String texto;
+    private TipoSugerencia tipo;
+    private Long id;
+
+    public enum TipoSugerencia {
+        PRODUCTO,
+        MARCA,
+        SUBCATEGORIA
+    }
+}
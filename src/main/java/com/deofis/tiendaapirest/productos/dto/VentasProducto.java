@@ -0,0 +1,18 @@
+package com.deofis.tiendaapirest.productos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Unidades vendidas de un producto (sumando todos sus skus) en operaciones no canceladas. Se obtiene con una
+ * proyección JPQL (ver ProductoRepository).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VentasProducto {
+
+    private Long productoId;
+    private Long vendidos;
+}
@@ -0,0 +1,72 @@
+package com.deofis.tiendaapirest.productos.repositories;
+
+import com.deofis.tiendaapirest.productos.domain.CambioCatalogo;
+import com.deofis.tiendaapirest.productos.domain.EntidadCatalogo;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface CambioCatalogoRepository extends JpaRepository<CambioCatalogo, Long> {
+
+    /**
+     * @return Long versión actual del catálogo: id del último cambio registrado, o null si no hay ninguno.
+     */
+    @Query("select max(c.id) from CambioCatalogo c")
+    Long findUltimaVersion();
+
+    Slice<CambioCatalogo> findAllByIdGreaterThanOrderByIdAsc(Long version, Pageable pageable);
+
+    List<CambioCatalogo> findAllByIdLessThanEqualAndFechaGreaterThanEqualOrderByIdAsc(Long version, Date fecha);
+
+    /**
+     * @return Date fecha de registro de la versión: la del último cambio con id menor o igual, o null si no hay.
+     */
+    @Query("select max(c.fecha) from CambioCatalogo c where c.id <= :version")
+    Date findFechaVersion(@Param("version") Long version);
+
+    /**
+     * Cambios posteriores a la versión o registrados desde la fecha (ver
+     * {@link #findProductosModificadosDesde(Long, Date)}), paginados por id a partir de 'desdeId'.
+     */
+    @Query("select c from CambioCatalogo c where c.id > :desdeId and (c.id > :version or c.fecha >= :fecha) " +
+            "order by c.id")
+    Slice<CambioCatalogo> findRecientes(@Param("desdeId") Long desdeId, @Param("version") Long version,
+                                        @Param("fecha") Date fecha, Pageable pageable);
+
+    /**
+     * @return Long id del cambio más antiguo que todavía está en el log, o null si está vacío.
+     */
+    @Query("select min(c.id) from CambioCatalogo c")
+    Long findPrimeraVersion();
+
+    @Modifying
+    @Query("delete from CambioCatalogo c where c.id <= :version and c.fecha < :fecha")
+    int deleteAnteriores(@Param("version") Long version, @Param("fecha") Date fecha);
+
+    /**
+     * Ids de los productos modificados o eliminados luego de la versión, o registrados desde la fecha. Los ids se
+     * asignan al insertar y no al confirmar, por lo que una transacción larga puede confirmar un cambio con id
+     * menor a una versión ya leída: la fecha cubre ese margen.
+     */
+    @Query("select distinct c.entidadId from CambioCatalogo c " +
+            "where c.entidad = com.deofis.tiendaapirest.productos.domain.EntidadCatalogo.PRODUCTO " +
+            "and (c.id > :version or c.fecha >= :fecha)")
+    List<Long> findProductosModificadosDesde(@Param("version") Long version, @Param("fecha") Date fecha);
+
+    /**
+     * Igual que {@link #findProductosModificadosDesde(Long, Date)}, para las entidades del tipo dadas de alta o
+     * modificadas (no eliminadas).
+     */
+    @Query("select distinct c.entidadId from CambioCatalogo c " +
+            "where c.entidad = :entidad and c.eliminado = false and (c.id > :version or c.fecha >= :fecha)")
+    List<Long> findModificadosDesde(@Param("entidad") EntidadCatalogo entidad, @Param("version") Long version,
+                                    @Param("fecha") Date fecha);
+}
@@ -1,16 +1,21 @@
 package com.deofis.tiendaapirest.productos.repositories;
 
+import com.deofis.tiendaapirest.config.CacheConfig;
 import com.deofis.tiendaapirest.productos.domain.Categoria;
 import com.deofis.tiendaapirest.productos.domain.Subcategoria;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
 
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = CacheConfig.REGION_CONSULTAS_REFERENCIA)})
     List<Categoria> findAllByOrderByNombreAsc();
 
     Optional<Categoria> findByNombre(String nombre);
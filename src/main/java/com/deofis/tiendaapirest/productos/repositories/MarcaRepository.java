@@ -1,15 +1,24 @@
 package com.deofis.tiendaapirest.productos.repositories;
 
+import com.deofis.tiendaapirest.config.CacheConfig;
 import com.deofis.tiendaapirest.productos.domain.Marca;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MarcaRepository extends JpaRepository<Marca, Long> {
 
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = CacheConfig.REGION_CONSULTAS_REFERENCIA)})
+    List<Marca> findAll();
+
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = CacheConfig.REGION_CONSULTAS_REFERENCIA)})
     List<Marca> findAllByOrderByNombreAsc();
 
     Optional<Marca> findByNombre(String nombre);
@@ -1,31 +1,135 @@
 package com.deofis.tiendaapirest.productos.repositories;
 
-import com.deofis.tiendaapirest.productos.domain.Marca;
 import com.deofis.tiendaapirest.productos.domain.Producto;
 import com.deofis.tiendaapirest.productos.domain.Subcategoria;
+import com.deofis.tiendaapirest.productos.dto.ProductoListado;
+import com.deofis.tiendaapirest.productos.dto.VentasProducto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Los listados del catálogo se paginan por clave (keyset): cada consulta recibe el par (criterio de orden, id)
+ * del último producto de la página anterior y devuelve los siguientes, ordenados por ese mismo par. Se usa
+ * siempre la primera página del {@link Pageable}, que solo aporta el tamaño.
+ * <br>
+ * Las consultas con criterios combinables se arman con {@link ProductoSpecifications}.
+ */
 @Repository
-public interface ProductoRepository extends JpaRepository<Producto, Long> {
+public interface ProductoRepository extends JpaRepository<Producto, Long>, JpaSpecificationExecutor<Producto> {
 
-    List<Producto> findAllByOrderByNombreAsc();
+    /**
+     * Página de productos que cumplen la especificación, con el grafo "Producto.detalle" (solo asociaciones
+     * simples, por lo que la paginación se resuelve en la base de datos). El total se obtiene con una consulta
+     * count sobre la misma especificación.
+     */
+    @Override
+    @EntityGraph("Producto.detalle")
+    Page<Producto> findAll(@Nullable Specification<Producto> spec, Pageable pageable);
 
+    @EntityGraph("Producto.detalle")
+    Optional<Producto> findDetalleById(Long id);
+
+    @EntityGraph("Producto.detalle")
+    List<Producto> findAllDetalleBy();
+
+    @EntityGraph("Producto.detalle")
     List<Producto> findAllByDestacadoIsTrueAndActivoIsTrue();
 
-    List<Producto> findAllByNombreContainingIgnoringCaseAndActivoIsTrueOrderByNombreAsc(String termino);
+    @EntityGraph("Producto.detalle")
+    Slice<Producto> findDetalleByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 
-    List<Producto> findAllBySubcategoriaAndActivoIsTrue(Subcategoria subcategoria);
+    @EntityGraph("Producto.detalle")
+    List<Producto> findAllDetalleByIdBetweenOrderByIdAsc(Long desde, Long hasta);
 
-    List<Producto> findAllByMarcaAndActivoIsTrue(Marca marca);
+    @EntityGraph("Producto.detalle")
+    List<Producto> findAllDetalleByIdIn(Collection<Long> ids);
 
-    List<Producto> findAllByOrderByPrecioAsc();
+    @Query("select p.id from Producto p where p.marca.id in :marcas")
+    List<Long> findIdsByMarcaIdIn(@Param("marcas") Collection<Long> marcas);
 
-    List<Producto> findAllByOrderByPrecioDesc();
+    @Query("select p.id from Producto p where p.subcategoria.id in :subcategorias")
+    List<Long> findIdsBySubcategoriaIdIn(@Param("subcategorias") Collection<Long> subcategorias);
 
-    List<Producto> findAllByPrecioBetween(Double min, Double max);
+    /**
+     * Ids de los productos con alguna de las promociones, propia o de alguno de sus skus.
+     */
+    @Query("select distinct p.id from Producto p left join p.defaultSku d left join p.skus s " +
+            "where p.promocion.id in :promociones or d.promocion.id in :promociones or s.promocion.id in :promociones")
+    List<Long> findIdsByPromocionIdIn(@Param("promociones") Collection<Long> promociones);
+
+    List<Producto> findAllByNombreContainingIgnoringCaseAndActivoIsTrueOrderByNombreAsc(String termino);
 
     List<Producto> findAllBySubcategoria(Subcategoria subcategoria);
+
+    Slice<Producto> findAllByOrderByNombreAscIdAsc(Pageable pageable);
+
+    @Query("select p from Producto p where p.nombre > :nombre or (p.nombre = :nombre and p.id > :id) " +
+            "order by p.nombre asc, p.id asc")
+    Slice<Producto> findNombreAscDespuesDe(@Param("nombre") String nombre, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Proyección de los listados del catálogo: solo lo que necesita una tarjeta de producto, en una única
+     * consulta por página y sin cargar la entidad ni sus asociaciones EAGER.
+     */
+    String SELECT_LISTADO = "select new com.deofis.tiendaapirest.productos.dto.ProductoListado(" +
+            "p.id, p.nombre, p.precio, p.disponibilidadGeneral, f.imageUrl, m.nombre, " +
+            "pr.precioOferta, pr.porcentaje, pr.fechaDesde, pr.fechaHasta) " +
+            "from Producto p join p.marca m left join p.foto f left join p.promocion pr ";
+
+    @Query(SELECT_LISTADO + "order by p.precio asc, p.id asc")
+    Slice<ProductoListado> findListadoPrecioAsc(Pageable pageable);
+
+    @Query(SELECT_LISTADO + "where p.precio > :precio or (p.precio = :precio and p.id > :id) " +
+            "order by p.precio asc, p.id asc")
+    Slice<ProductoListado> findListadoPrecioAscDespuesDe(@Param("precio") Double precio, @Param("id") Long id,
+                                                         Pageable pageable);
+
+    @Query(SELECT_LISTADO + "order by p.precio desc, p.id desc")
+    Slice<ProductoListado> findListadoPrecioDesc(Pageable pageable);
+
+    @Query(SELECT_LISTADO + "where p.precio < :precio or (p.precio = :precio and p.id < :id) " +
+            "order by p.precio desc, p.id desc")
+    Slice<ProductoListado> findListadoPrecioDescDespuesDe(@Param("precio") Double precio, @Param("id") Long id,
+                                                          Pageable pageable);
+
+    @Query(SELECT_LISTADO + "where p.subcategoria.id = :subcategoriaId and p.activo = true and p.id > :id " +
+            "order by p.id asc")
+    Slice<ProductoListado> findListadoPorSubcategoria(@Param("subcategoriaId") Long subcategoriaId,
+                                                      @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_LISTADO + "where m.id = :marcaId and p.activo = true and p.id > :id order by p.id asc")
+    Slice<ProductoListado> findListadoPorMarca(@Param("marcaId") Long marcaId, @Param("id") Long id,
+                                               Pageable pageable);
+
+    @Query(SELECT_LISTADO + "where p.precio between :min and :max and p.id > :id order by p.id asc")
+    Slice<ProductoListado> findListadoPorPrecio(@Param("min") Double min, @Param("max") Double max,
+                                                @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Unidades vendidas por producto en operaciones no canceladas. Un producto puede devolver una fila por su
+     * sku por defecto y otra por sus skus variantes.
+     */
+    String SELECT_VENTAS = "select new com.deofis.tiendaapirest.productos.dto.VentasProducto(" +
+            "coalesce(p.id, dp.id), sum(d.cantidad)) " +
+            "from Operacion o join o.items d join d.sku s left join s.producto p left join s.defaultProducto dp " +
+            "where o.estado <> com.deofis.tiendaapirest.operaciones.domain.EstadoOperacion.CANCELLED ";
+
+    @Query(SELECT_VENTAS + "group by p.id, dp.id")
+    List<VentasProducto> findVentas();
+
+    @Query(SELECT_VENTAS + "and (p.id in :productos or dp.id in :productos) group by p.id, dp.id")
+    List<VentasProducto> findVentasDeProductos(@Param("productos") Collection<Long> productos);
 }
@@ -0,0 +1,154 @@
+package com.deofis.tiendaapirest.productos.repositories;
+
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.domain.Promocion;
+import com.deofis.tiendaapirest.productos.dto.ConsultaProductos;
+import com.deofis.tiendaapirest.productos.exceptions.ProductoException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arma, a partir de una {@link ConsultaProductos}, una única consulta Criteria sobre {@link Producto}: cada
+ * criterio presente agrega un predicado, y los ausentes no agregan nada. Reemplaza tener una consulta derivada
+ * por cada combinación de filtro y orden.
+ */
+public class ProductoSpecifications {
+
+    private static final char ESCAPE = '\\';
+
+    /** Campos por los que se puede ordenar, por el nombre que usa el cliente. */
+    private static final Map<String, String> CAMPOS_ORDEN = new LinkedHashMap<>();
+
+    static {
+        CAMPOS_ORDEN.put("nombre", "nombre");
+        CAMPOS_ORDEN.put("precio", "precio");
+        CAMPOS_ORDEN.put("disponibilidad", "disponibilidadGeneral");
+        CAMPOS_ORDEN.put("fecha", "fechaCreacion");
+        CAMPOS_ORDEN.put("destacado", "destacado");
+        CAMPOS_ORDEN.put("activo", "activo");
+        CAMPOS_ORDEN.put("id", "id");
+    }
+
+    /**
+     * Columnas proyectables de un producto (ver {@link com.deofis.tiendaapirest.globalservices.ProyeccionService}),
+     * con los mismos nombres con los que se serializa la entidad.
+     */
+    public static final Map<String, String> COLUMNAS = columnas(
+            "id", "nombre", "descripcion", "precio", "disponibilidadGeneral", "activo", "destacado", "fechaCreacion",
+            "marca.id", "marca.nombre",
+            "subcategoria.id", "subcategoria.nombre", "subcategoria.codigo",
+            "unidadMedida.id", "unidadMedida.nombre", "unidadMedida.codigo",
+            "foto.id", "foto.imageUrl",
+            "promocion.id", "promocion.fechaDesde", "promocion.fechaHasta", "promocion.precioOferta",
+            "promocion.porcentaje",
+            "defaultSku.id", "defaultSku.nombre", "defaultSku.precio", "defaultSku.disponibilidad");
+
+    /**
+     * Columnas proyectables con los nombres de {@link com.deofis.tiendaapirest.productos.dto.ProductoListado}. Los
+     * campos calculados (precio efectivo, promoción vigente) no son proyectables: se resuelven con la entidad.
+     */
+    public static final Map<String, String> COLUMNAS_LISTADO = new LinkedHashMap<>();
+
+    static {
+        COLUMNAS_LISTADO.put("id", "id");
+        COLUMNAS_LISTADO.put("nombre", "nombre");
+        COLUMNAS_LISTADO.put("precio", "precio");
+        COLUMNAS_LISTADO.put("fotoUrl", "foto.imageUrl");
+        COLUMNAS_LISTADO.put("marca", "marca.nombre");
+    }
+
+    public static Specification<Producto> de(ConsultaProductos consulta) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+
+            if (consulta.getTermino() != null && !consulta.getTermino().isBlank()) {
+                String patron = "%" + escapar(consulta.getTermino().trim().toLowerCase()) + "%";
+                predicados.add(cb.or(
+                        cb.like(cb.lower(root.get("nombre")), patron, ESCAPE),
+                        cb.like(cb.lower(root.get("marca").get("nombre")), patron, ESCAPE),
+                        cb.like(cb.lower(root.get("subcategoria").get("nombre")), patron, ESCAPE)));
+            }
+
+            if (consulta.getMarcas() != null && !consulta.getMarcas().isEmpty())
+                predicados.add(root.get("marca").get("id").in(consulta.getMarcas()));
+            if (consulta.getSubcategorias() != null && !consulta.getSubcategorias().isEmpty())
+                predicados.add(root.get("subcategoria").get("id").in(consulta.getSubcategorias()));
+            if (consulta.getPrecioMin() != null)
+                predicados.add(cb.greaterThanOrEqualTo(root.get("precio"), consulta.getPrecioMin()));
+            if (consulta.getPrecioMax() != null)
+                predicados.add(cb.lessThanOrEqualTo(root.get("precio"), consulta.getPrecioMax()));
+            if (consulta.getActivo() != null)
+                predicados.add(cb.equal(root.get("activo"), consulta.getActivo()));
+            if (consulta.getDestacado() != null)
+                predicados.add(cb.equal(root.get("destacado"), consulta.getDestacado()));
+            if (consulta.getStockMenorA() != null)
+                predicados.add(cb.lessThan(root.get("disponibilidadGeneral"), consulta.getStockMenorA()));
+
+            if (consulta.getEnPromocion() != null) {
+                Predicate vigente = promocionVigente(root.join("promocion", JoinType.LEFT), cb);
+                predicados.add(consulta.getEnPromocion() ? vigente : cb.not(vigente));
+            }
+
+            return cb.and(predicados.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Traduce el orden solicitado ("-destacado,precio") a un {@link Sort}, agregando siempre el id al final para
+     * que el orden sea total y las páginas no repitan ni salteen productos.
+     * @param orden String campos separados por coma, con '-' para orden descendente. Null ordena por nombre.
+     * @return Sort a aplicar a la consulta.
+     * @throws ProductoException si se pide un campo por el que no se puede ordenar.
+     */
+    public static Sort ordenar(String orden) {
+        List<Sort.Order> ordenes = new ArrayList<>();
+        String campos = orden == null || orden.isBlank() ? "nombre" : orden;
+
+        for (String campo: campos.split(",")) {
+            String nombre = campo.trim();
+            boolean descendente = nombre.startsWith("-");
+            if (descendente) nombre = nombre.substring(1);
+
+            String propiedad = CAMPOS_ORDEN.get(nombre);
+            if (propiedad == null) throw new ProductoException("No se puede ordenar por '" + nombre
+                    + "'. Campos disponibles: " + String.join(", ", CAMPOS_ORDEN.keySet()));
+
+            ordenes.add(descendente ? Sort.Order.desc(propiedad) : Sort.Order.asc(propiedad));
+        }
+
+        if (ordenes.stream().noneMatch(o -> o.getProperty().equals("id"))) ordenes.add(Sort.Order.asc("id"));
+        return Sort.by(ordenes);
+    }
+
+    /**
+     * Mismo criterio que {@link Promocion#getEstaVigente()}.
+     */
+    private static Predicate promocionVigente(Join<Producto, Promocion> promocion, CriteriaBuilder cb) {
+        Date ahora = new Date();
+
+        return cb.and(
+                cb.isNotNull(promocion.get("id")),
+                cb.lessThan(promocion.get("fechaDesde"), ahora),
+                cb.greaterThan(promocion.get("fechaHasta"), ahora));
+    }
+
+    private static Map<String, String> columnas(String... atributos) {
+        Map<String, String> columnas = new LinkedHashMap<>();
+        for (String atributo: atributos) {
+            columnas.put(atributo, atributo);
+        }
+
+        return columnas;
+    }
+
+    private static String escapar(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,10 +1,30 @@
 package com.deofis.tiendaapirest.productos.repositories;
 
 import com.deofis.tiendaapirest.productos.domain.Sku;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface SkuRepository extends JpaRepository<Sku, Long> {
 
+    @EntityGraph("Sku.detalle")
+    List<Sku> findAllByProductoId(Long productoId);
+
+    @EntityGraph("Sku.detalle")
+    List<Sku> findAllDetalleByIdIn(Collection<Long> ids);
+
+    /**
+     * Obtiene un sku de un producto, sea uno de sus skus o su sku por defecto.
+     */
+    @EntityGraph("Sku.detalle")
+    @Query("select s from Sku s where s.id = :skuId and (s.producto.id = :productoId or s.defaultProducto.id = :productoId)")
+    Optional<Sku> findDeProducto(@Param("productoId") Long productoId, @Param("skuId") Long skuId);
+
 }
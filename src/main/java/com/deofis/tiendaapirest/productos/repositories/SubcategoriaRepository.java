@@ -1,13 +1,20 @@
 package com.deofis.tiendaapirest.productos.repositories;
 
+import com.deofis.tiendaapirest.config.CacheConfig;
 import com.deofis.tiendaapirest.productos.domain.Subcategoria;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
 @Repository
 public interface SubcategoriaRepository extends JpaRepository<Subcategoria, Long> {
 
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = CacheConfig.REGION_CONSULTAS_REFERENCIA)})
+    List<Subcategoria> findAll();
+
     List<Subcategoria> findAllByNombreContainingIgnoringCase(String nombre);
 }
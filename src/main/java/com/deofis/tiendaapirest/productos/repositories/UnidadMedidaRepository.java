@@ -1,13 +1,21 @@
 package com.deofis.tiendaapirest.productos.repositories;
 
+import com.deofis.tiendaapirest.config.CacheConfig;
 import com.deofis.tiendaapirest.productos.domain.UnidadMedida;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UnidadMedidaRepository extends JpaRepository<UnidadMedida, Long> {
 
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = CacheConfig.REGION_CONSULTAS_REFERENCIA)})
+    List<UnidadMedida> findAll();
+
     Optional<UnidadMedida> findByNombre(String nombre);
 }
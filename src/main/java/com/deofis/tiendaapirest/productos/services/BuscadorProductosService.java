@@ -1,9 +1,7 @@
 package com.deofis.tiendaapirest.productos.services;
 
-import com.deofis.tiendaapirest.productos.domain.Marca;
 import com.deofis.tiendaapirest.productos.domain.Producto;
-import com.deofis.tiendaapirest.productos.domain.PropiedadProducto;
-import com.deofis.tiendaapirest.productos.domain.Subcategoria;
+import com.deofis.tiendaapirest.productos.dto.ResultadoBusqueda;
 
 import java.util.List;
 
@@ -14,43 +12,33 @@ import java.util.List;
 public interface BuscadorProductosService {
 
     /**
-     * Busca productos por término. Este término debe coincidir con nombres de productos, marcas o
-     * subcategorias del mismo y el listado de productos debe contener productos sin repetirse.
+     * Busca productos por término. Este término debe coincidir con nombres de productos, marcas,
+     * subcategorias, valores de propiedades o descripción del mismo y el listado de productos debe contener
+     * productos sin repetirse, ordenados de más a menos relevante. La búsqueda se resuelve sobre el índice en
+     * memoria, sin consultar la base de datos.
      * @param termino String termino a buscar. Puede contener: nombre, marca o subcategoría de producto.
      * @return List listado de productos encontrados.
      */
     List<Producto> buscarProductos(String termino);
 
     /**
-     * Busca los productos por término, y devuelve un listado con las marcas pertenecientes a productos
-     * encontrados.
+     * Busca productos por término (igual que {@link #buscarProductos(String)}) y devuelve una página de los
+     * productos más relevantes. Recorriendo una única vez los productos encontrados, arma las facetas del
+     * resultado: marcas, subcategorías y propiedades con sus valores, cada una con la cantidad de productos
+     * encontrados que la tienen.
      * <br>
-     * Ej.: Termino = 'celulares' --> Del array de productos encontrados al término, genera un listado
-     * con las marcas de esos productos: 'Samsung', 'Apple', etc...
-     * @param termino String consulta sobre los productos a buscar (mismo que buscar productos).
-     * @return List listado de marcas que son de productos encontrados.
-     */
-    List<Marca> marcasDeProductosEncontrados(String termino);
-
-    /**
-     * Busca los productos por término, y devuelve un listado con las subcategorías pertenecientes a productos
-     * encontrados.
+     * Ej.: Termino = 'celulares' --> Productos encontrados, marcas: 'Samsung' (3), 'Apple' (2), subcategorías:
+     * 'Celulares' (5), propiedades: 'Color' (5) con valores 'Negro' (4), 'Blanco' (1), etc...
      * <br>
-     * Ej.: Termino = 'celulares' --> Del array de productos encontrados al término, genera un listado
-     * con las subcategorías de esos productos: 'Celulares'.
-     * @param termino String consulta sobre los productos a buscar (mismo que buscar productos).
-     * @return List listado de subcategorías que son de productos encontrados.
-     */
-    List<Subcategoria> subcategoriasDeProductosEncontrados(String termino);
-
-    /**
-     * Busca los productos por término, y devuelve un listado con las propiedades pertenecientes a productos
-     * encontrados.
+     * El resultado incluye también las marcas, subcategorías y propiedades encontradas (sin cantidades), en el
+     * orden en que aparecen en los productos.
      * <br>
-     * Ej.: Termino = 'celulares' --> Del array de productos encontrados al término, genera un listado
-     * con las propiedades de esos productos: 'Color', 'Modelo', etc...
-     * @param termino String consulta sobre los productos a buscar (mismo que buscar productos).
-     * @return List listado de propiedades que son de productos encontrados.
+     * Las facetas se ordenan por cantidad de productos, de mayor a menor. Si no se encontraron productos, se
+     * incluye una sugerencia de corrección de la consulta (ver {@link com.deofis.tiendaapirest.productos.services.busqueda.CorrectorTerminos}).
+     * @param termino String consulta sobre los productos a buscar.
+     * @param cursor String cursor 'siguiente' de la página anterior (null para la primera).
+     * @param tamanio int tamaño de página.
+     * @return ResultadoBusqueda con la página de productos encontrados y las facetas de todo el resultado.
      */
-    List<PropiedadProducto> propiedadesDeProductosEncontrados(String termino);
+    ResultadoBusqueda buscarConFacetas(String termino, String cursor, int tamanio);
 }
@@ -1,127 +1,135 @@
 package com.deofis.tiendaapirest.productos.services;
 
-import com.deofis.tiendaapirest.productos.domain.Marca;
-import com.deofis.tiendaapirest.productos.domain.Producto;
-import com.deofis.tiendaapirest.productos.domain.PropiedadProducto;
-import com.deofis.tiendaapirest.productos.domain.Subcategoria;
-import com.deofis.tiendaapirest.productos.repositories.MarcaRepository;
-import com.deofis.tiendaapirest.productos.repositories.ProductoRepository;
-import com.deofis.tiendaapirest.productos.repositories.SubcategoriaRepository;
+import com.deofis.tiendaapirest.productos.domain.*;
+import com.deofis.tiendaapirest.productos.dto.FacetaBusqueda;
+import com.deofis.tiendaapirest.productos.dto.FacetaPropiedad;
+import com.deofis.tiendaapirest.productos.dto.PaginaProductos;
+import com.deofis.tiendaapirest.productos.dto.ResultadoBusqueda;
+import com.deofis.tiendaapirest.productos.services.busqueda.CorrectorTerminos;
+import com.deofis.tiendaapirest.productos.services.busqueda.IndiceProductos;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 @Service
 @AllArgsConstructor
 public class BuscadorProductosServiceImpl implements BuscadorProductosService {
 
-    private final ProductoRepository productoRepository;
-    private final MarcaRepository marcaRepository;
-    private final SubcategoriaRepository subcategoriaRepository;
+    private static final Comparator<FacetaBusqueda> POR_CANTIDAD = Comparator
+            .comparing(FacetaBusqueda::getCantidad, Comparator.reverseOrder())
+            .thenComparing(FacetaBusqueda::getNombre, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final IndiceProductos indiceProductos;
+    private final CorrectorTerminos correctorTerminos;
 
-    @Transactional(readOnly = true)
     @Override
     public List<Producto> buscarProductos(String termino) {
-        List<Producto> productosTotal = new ArrayList<>();
-
-        List<Producto> productosEncontradosPorNombre = this.encontrarProductosPorNombre(termino);
-        List<Producto> productosEncontradosPorMarca = this.encontrarProductosPorMarca(termino);
-        List<Producto> productosEncontradosPorSubcategoria = this.encontrarProductosPorSubcategoria(termino);
-
-        if (productosEncontradosPorNombre.size() != 0) productosTotal.addAll(productosEncontradosPorNombre);
-        if (productosEncontradosPorMarca.size() != 0) productosTotal.addAll(productosEncontradosPorMarca);
-        if (productosEncontradosPorSubcategoria.size() != 0) productosTotal.addAll(productosEncontradosPorSubcategoria);
-
-
-
-        return this.eliminarDuplicados(productosTotal);
+        return this.indiceProductos.buscar(termino);
     }
 
-    @Transactional(readOnly = true)
     @Override
-    public List<Marca> marcasDeProductosEncontrados(String termino) {
-        List<Producto> productos = this.buscarProductos(termino);
-        List<Marca> marcasDeProductos = new ArrayList<>();
-
-        for (Producto producto: productos) {
-            marcasDeProductos.add(producto.getMarca());
+    public ResultadoBusqueda buscarConFacetas(String termino, String cursor, int tamanio) {
+        Map<Long, FacetaBusqueda> marcas = new LinkedHashMap<>();
+        Map<Long, FacetaBusqueda> subcategorias = new LinkedHashMap<>();
+        Map<Long, FacetaPropiedad> propiedades = new LinkedHashMap<>();
+        Map<Long, Map<Long, FacetaPropiedad.FacetaValor>> valoresPorPropiedad = new HashMap<>();
+        Map<Long, PropiedadProducto> entidadesPropiedades = new LinkedHashMap<>();
+        Map<Long, Marca> entidadesMarcas = new LinkedHashMap<>();
+        Map<Long, Subcategoria> entidadesSubcategorias = new LinkedHashMap<>();
+        int[] totalProductos = {0};
+
+        PaginaProductos<Producto> pagina = this.indiceProductos.buscar(termino, cursor, tamanio, producto -> {
+            totalProductos[0]++;
+            this.contarFacetas(producto, marcas, subcategorias, propiedades, valoresPorPropiedad);
+
+            if (producto.getMarca() != null) entidadesMarcas.putIfAbsent(producto.getMarca().getId(), producto.getMarca());
+            if (producto.getSubcategoria() != null)
+                entidadesSubcategorias.putIfAbsent(producto.getSubcategoria().getId(), producto.getSubcategoria());
+            if (producto.getPropiedades() != null)
+                producto.getPropiedades().forEach(propiedad -> entidadesPropiedades.putIfAbsent(propiedad.getId(), propiedad));
+        });
+
+        List<FacetaPropiedad> facetasPropiedades = new ArrayList<>(propiedades.values());
+        for (FacetaPropiedad facetaPropiedad: facetasPropiedades) {
+            List<FacetaPropiedad.FacetaValor> valores = new ArrayList<>(valoresPorPropiedad
+                    .getOrDefault(facetaPropiedad.getId(), Collections.emptyMap()).values());
+            valores.sort(Comparator.comparing(FacetaPropiedad.FacetaValor::getCantidad, Comparator.reverseOrder()));
+            facetaPropiedad.setValores(valores);
         }
-
-        return this.eliminarDuplicados(marcasDeProductos);
+        facetasPropiedades.sort(Comparator.comparing(FacetaPropiedad::getCantidad, Comparator.reverseOrder()));
+
+        return ResultadoBusqueda.builder()
+                .totalProductos(totalProductos[0])
+                .pagina(pagina)
+                .marcas(new ArrayList<>(entidadesMarcas.values()))
+                .subcategorias(new ArrayList<>(entidadesSubcategorias.values()))
+                .propiedades(new ArrayList<>(entidadesPropiedades.values()))
+                .facetasMarcas(this.ordenar(marcas))
+                .facetasSubcategorias(this.ordenar(subcategorias))
+                .facetasPropiedades(facetasPropiedades)
+                .sugerencia(totalProductos[0] == 0 ? this.sugerir(termino) : null).build();
     }
 
-    @Transactional(readOnly = true)
-    @Override
-    public List<Subcategoria> subcategoriasDeProductosEncontrados(String termino) {
-        List<Producto> productos = this.buscarProductos(termino);
-        List<Subcategoria> subcategoriasDeProductos = new ArrayList<>();
-
-        for (Producto producto: productos) {
-            subcategoriasDeProductos.add(producto.getSubcategoria());
+    private void contarFacetas(Producto producto, Map<Long, FacetaBusqueda> marcas, Map<Long, FacetaBusqueda> subcategorias,
+                               Map<Long, FacetaPropiedad> propiedades,
+                               Map<Long, Map<Long, FacetaPropiedad.FacetaValor>> valoresPorPropiedad) {
+        Marca marca = producto.getMarca();
+        if (marca != null)
+            this.contar(marcas, marca.getId(), marca.getNombre(), null);
+
+        Subcategoria subcategoria = producto.getSubcategoria();
+        if (subcategoria != null)
+            this.contar(subcategorias, subcategoria.getId(), subcategoria.getNombre(), subcategoria.getCodigo());
+
+        if (producto.getPropiedades() == null) return;
+
+        for (PropiedadProducto propiedad: new LinkedHashSet<>(producto.getPropiedades())) {
+            FacetaPropiedad facetaPropiedad = propiedades.computeIfAbsent(propiedad.getId(), id -> FacetaPropiedad.builder()
+                    .id(id)
+                    .nombre(propiedad.getNombre())
+                    .variable(propiedad.isVariable())
+                    .cantidad(0)
+                    .valores(new ArrayList<>()).build());
+            facetaPropiedad.setCantidad(facetaPropiedad.getCantidad() + 1);
+
+            if (propiedad.getValores() == null) continue;
+
+            Map<Long, FacetaPropiedad.FacetaValor> valores = valoresPorPropiedad
+                    .computeIfAbsent(propiedad.getId(), id -> new LinkedHashMap<>());
+            for (ValorPropiedadProducto valor: new LinkedHashSet<>(propiedad.getValores())) {
+                FacetaPropiedad.FacetaValor facetaValor = valores.computeIfAbsent(valor.getId(), id -> FacetaPropiedad.FacetaValor.builder()
+                        .id(id)
+                        .valor(valor.getValor())
+                        .cantidad(0).build());
+                facetaValor.setCantidad(facetaValor.getCantidad() + 1);
+            }
         }
-
-        return this.eliminarDuplicados(subcategoriasDeProductos);
     }
 
-    @Transactional(readOnly = true)
-    @Override
-    public List<PropiedadProducto> propiedadesDeProductosEncontrados(String termino) {
-        List<Producto> productos = this.buscarProductos(termino);
-        List<PropiedadProducto> propiedadesDeProductos = new ArrayList<>();
-
-        for (Producto producto: productos) {
-            propiedadesDeProductos.addAll(producto.getPropiedades());
-        }
+    /**
+     * Sugiere una corrección de la consulta solo si la consulta corregida encuentra productos.
+     */
+    private String sugerir(String termino) {
+        String sugerencia = this.correctorTerminos.sugerir(termino);
 
-        return this.eliminarDuplicados(propiedadesDeProductos);
+        if (sugerencia == null || this.indiceProductos.buscar(sugerencia, null, 1, producto -> {})
+                .getProductos().isEmpty()) return null;
+        return sugerencia;
     }
 
-    private List<Producto> encontrarProductosPorNombre(String termino) {
-        return this.productoRepository
-                .findAllByNombreContainingIgnoringCaseAndActivoIsTrueOrderByNombreAsc(termino);
+    private void contar(Map<Long, FacetaBusqueda> facetas, Long id, String nombre, String codigo) {
+        FacetaBusqueda faceta = facetas.computeIfAbsent(id, clave -> FacetaBusqueda.builder()
+                .id(clave)
+                .nombre(nombre)
+                .codigo(codigo)
+                .cantidad(0).build());
+        faceta.setCantidad(faceta.getCantidad() + 1);
     }
 
-    private List<Producto> encontrarProductosPorMarca(String termino) {
-        List<Producto> productos = new ArrayList<>();
-        List<Marca> marcas = this.marcaRepository.findAllByNombreContainingIgnoringCase(termino);
-        /*
-        this.marcaRepository.findByNombreContainingIgnoringCase(termino).ifPresent(marca -> productos
-                .addAll(this.productoRepository.findAllByMarcaAndActivoIsTrue(marca)));
-         */
-
-        for (Marca marca: marcas) {
-            productos.addAll(this.productoRepository.findAllByMarcaAndActivoIsTrue(marca));
-        }
-
-        return productos;
-    }
-
-    private List<Producto> encontrarProductosPorSubcategoria(String termino) {
-        List<Producto> productos = new ArrayList<>();
-        List<Subcategoria> subcategorias = this.subcategoriaRepository.findAllByNombreContainingIgnoringCase(termino);
-        /*
-        this.subcategoriaRepository.findByNombreContainingIgnoringCase(termino).ifPresent(subcategoria -> productos
-                .addAll(this.productoRepository.findAllBySubcategoriaAndActivoIsTrue(subcategoria)));
-         */
-
-        for (Subcategoria subcategoria: subcategorias) {
-            productos.addAll(this.productoRepository.findAllBySubcategoriaAndActivoIsTrue(subcategoria));
-        }
-
-        return productos;
-    }
-
-    private <T> List<T> eliminarDuplicados(List<T> lista) {
-        ArrayList<T> nuevaLista = new ArrayList<>();
-
-        for (T elemento: lista) {
-            if (!nuevaLista.contains(elemento))
-                nuevaLista.add(elemento);
-        }
-
-        return nuevaLista;
+    private List<FacetaBusqueda> ordenar(Map<Long, FacetaBusqueda> facetas) {
+        List<FacetaBusqueda> ordenadas = new ArrayList<>(facetas.values());
+        ordenadas.sort(POR_CANTIDAD);
+        return ordenadas;
     }
 }
@@ -2,8 +2,8 @@ package com.deofis.tiendaapirest.productos.services;
 
 import com.deofis.tiendaapirest.productos.domain.*;
 import com.deofis.tiendaapirest.productos.exceptions.ProductoException;
-import com.deofis.tiendaapirest.productos.repositories.SkuRepository;
 import com.deofis.tiendaapirest.productos.repositories.SubcategoriaRepository;
+import com.deofis.tiendaapirest.productos.services.cambios.NotificadorCambiosCatalogo;
 import com.deofis.tiendaapirest.productos.services.images.ImageService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,11 +21,11 @@ public class CatalogoAdminServiceImpl implements CatalogoAdminService {
 
     private final ProductoService productoService;
     private final SkuService skuService;
-    private final SkuRepository skuRepository;
     private final PropiedadProductoService propiedadProductoService;
     private final SubcategoriaService subcategoriaService;
     private final SubcategoriaRepository subcategoriaRepository;
     private final ImageService imageService;
+    private final NotificadorCambiosCatalogo notificadorCambiosCatalogo;
 
     @Transactional
     @Override
@@ -184,6 +184,7 @@ public class CatalogoAdminServiceImpl implements CatalogoAdminService {
 
         this.imageService.eliminarImagen(imgSecundaria);
         producto.getImagenes().remove(imgSecundaria);
+        this.productoService.save(producto);
     }
 
     private Imagen encontrarImgSecundaria(List<Imagen> imagenesSecundarias, Long imagenId) {
@@ -223,7 +224,7 @@ public class CatalogoAdminServiceImpl implements CatalogoAdminService {
 
         Imagen fotoSku = this.imageService.subirImagen(foto);
         sku.setFoto(fotoSku);
-        this.skuRepository.save(sku);
+        this.skuService.save(sku);
 
         return fotoSku;
     }
@@ -257,7 +258,7 @@ public class CatalogoAdminServiceImpl implements CatalogoAdminService {
 
         Imagen fotoProducto = sku.getFoto();
         sku.setFoto(null);
-        this.skuRepository.save(sku);
+        this.skuService.save(sku);
         this.imageService.eliminarImagen(fotoProducto);
     }
 
@@ -305,6 +306,7 @@ public class CatalogoAdminServiceImpl implements CatalogoAdminService {
 
         subcategoria.getPropiedades().add(propiedadNueva);
         this.subcategoriaRepository.save(subcategoria);
+        this.notificadorCambiosCatalogo.entidadModificada(EntidadCatalogo.SUBCATEGORIA, subcategoriaId);
         return propiedadNueva;
     }
 
@@ -371,6 +373,7 @@ public class CatalogoAdminServiceImpl implements CatalogoAdminService {
 
         subcategoria.getPropiedades().add(propiedad);
         this.subcategoriaRepository.save(subcategoria);
+        this.notificadorCambiosCatalogo.entidadModificada(EntidadCatalogo.SUBCATEGORIA, subcategoriaId);
     }
 
     @Transactional(readOnly = true)
@@ -2,9 +2,19 @@ package com.deofis.tiendaapirest.productos.services;
 
 import com.deofis.tiendaapirest.productos.domain.Marca;
 import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.dto.ConsultaProductos;
+import com.deofis.tiendaapirest.productos.dto.DetalleProducto;
+import com.deofis.tiendaapirest.productos.dto.FiltroProductos;
+import com.deofis.tiendaapirest.productos.dto.PaginaProductos;
+import com.deofis.tiendaapirest.productos.dto.ProductoListado;
+import com.deofis.tiendaapirest.productos.dto.ResultadoBusqueda;
+import com.deofis.tiendaapirest.productos.dto.ResultadoConsulta;
+import com.deofis.tiendaapirest.productos.dto.ResultadoFiltro;
+import com.deofis.tiendaapirest.productos.dto.SugerenciaBusqueda;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Este servicio tiene la lógica relacionada con el catálogo de productos para mostrar,
@@ -19,10 +29,68 @@ public interface CatalogoService {
      * <br>
      * Ej.: Termino = 'celulares' --> Busca todos los productos que contengan 'celulares' en su
      * nombre, marca o subcategoría, y si los encuentra, los agrega al listado a devolver.
+     * <br>
+     * Los productos se ordenan por relevancia (coincidencias en el nombre pesan más que en la marca, la
+     * subcategoría o la descripción, y los más vendidos suben) y se devuelven paginados. Las facetas (marcas,
+     * subcategorías y propiedades) se calculan sobre todos los productos encontrados, sin repetir la búsqueda.
      * @param termino String consulta sobre los productos a buscar.
-     * @return List listado de productos que coinciden con el término de búsqueda.
+     * @param cursor String cursor 'siguiente' de la página anterior (null para la primera).
+     * @param tamanio Integer tamaño de página (null para el tamaño por defecto).
+     * @return ResultadoBusqueda con la página de productos que coinciden con el término y sus facetas.
+     */
+    ResultadoBusqueda buscarProductos(String termino, String cursor, Integer tamanio);
+
+    /**
+     * Autocompleta lo escrito en el buscador con nombres de productos, marcas y subcategorías, ordenados por
+     * popularidad.
+     * <br>
+     * Ej.: Prefijo = 'sams' --> 'Samsung' (marca), 'Samsung Galaxy S20' (producto), etc...
+     * @param prefijo String texto escrito por el usuario.
+     * @param cantidad Integer cantidad máxima de sugerencias (null para usar la cantidad por defecto).
+     * @return List sugerencias de autocompletado.
+     */
+    List<SugerenciaBusqueda> obtenerSugerencias(String prefijo, Integer cantidad);
+
+    /**
+     * Filtra el catálogo combinando marcas, subcategorías, valores de propiedades y rango de precio, y devuelve
+     * junto a la página de productos la cantidad de productos de cada opción de filtro y un histograma de precios.
+     * <br>
+     * Ej.: Marcas = 1,2 y Valores = 'Rojo' --> Productos rojos de la marca 1 o de la marca 2.
+     * @param filtro FiltroProductos criterios de filtrado.
+     * @param cursor String cursor 'siguiente' de la página anterior (null para la primera).
+     * @param tamanio Integer tamaño de página (null para el tamaño por defecto).
+     * @return ResultadoFiltro con la página de productos, ordenados por precio de menor a mayor, y las facetas.
+     */
+    ResultadoFiltro filtrarProductos(FiltroProductos filtro, String cursor, Integer tamanio);
+
+    /**
+     * Consulta los productos activos combinando criterios (texto, marcas, subcategorías, rango de precio,
+     * destacados, stock, promoción vigente) con el orden solicitado, en una única consulta a la base de datos
+     * paginada por número de página y con el total de resultados.
+     * <br>
+     * Ej.: Marcas = 1,2 y enPromocion = true y orden = '-precio' --> Productos en oferta de la marca 1 o de la
+     * marca 2, de mayor a menor precio.
+     * @param consulta ConsultaProductos criterios y orden. El criterio 'activo' se ignora: siempre son activos.
+     * @param pagina Integer número de página, desde 0 (null para la primera).
+     * @param tamanio Integer tamaño de página (null para el tamaño por defecto).
+     * @return ResultadoConsulta con la página de productos y el total.
+     */
+    ResultadoConsulta<ProductoListado> consultarProductos(ConsultaProductos consulta, Integer pagina, Integer tamanio);
+
+    /**
+     * Igual que {@link #consultarProductos(ConsultaProductos, Integer, Integer)}, pero seleccionando en la consulta
+     * solo las columnas de los campos pedidos, con los nombres de {@link ProductoListado}.
+     * <br>
+     * Ej.: Campos = id,nombre,fotoUrl --> [{"id": 1, "nombre": "...", "fotoUrl": "..."}]
+     * @param consulta ConsultaProductos criterios y orden. El criterio 'activo' se ignora: siempre son activos.
+     * @param campos Set de campos pedidos.
+     * @param pagina Integer número de página, desde 0 (null para la primera).
+     * @param tamanio Integer tamaño de página (null para el tamaño por defecto).
+     * @return ResultadoConsulta con la página de filas y el total, o null si algún campo pedido se calcula en
+     * memoria (precioEfectivo, enPromocion, porcentajeOferta, disponible) y se debe usar consultarProductos.
      */
-    Map<String, Object> buscarProductos(String termino);
+    ResultadoConsulta<Map<String, Object>> proyectarProductos(ConsultaProductos consulta, Set<String> campos,
+                                                              Integer pagina, Integer tamanio);
 
     /**
      * Obtiene un listado desordenado de todas las marcas.
@@ -45,35 +113,63 @@ public interface CatalogoService {
     Producto obtenerProducto(Long id);
 
     /**
-     * Obtiene los producots ordenados por precio de menor a mayor.
-     * @return List productos ordenados por precio
+     * Obtiene varios productos por id en una sola llamada, para listas armadas por el cliente (carrito,
+     * favoritos, vistos recientemente). Con la réplica cargada no consulta la base de datos; si no, usa una
+     * sola consulta.
+     * @param ids List de ids de productos. Los repetidos se devuelven una vez.
+     * @return List de productos en el orden de los ids solicitados, sin los que no existen.
+     * @throws ProductoException si se solicitan más ids de los permitidos por consulta.
+     */
+    List<Producto> obtenerProductos(List<Long> ids);
+
+    /**
+     * Obtiene todo lo necesario para la página de un producto (imágenes, propiedades, skus con sus valores y
+     * promociones vigentes) en un único documento, con el grafo ya cargado del producto.
+     * @param id Long id del producto.
+     * @return DetalleProducto del producto.
+     */
+    DetalleProducto obtenerDetalleProducto(Long id);
+
+    /**
+     * Obtiene una página de los productos ordenados por precio de menor a mayor.
+     * @param cursor String cursor de la página anterior ('siguiente'), o null para la primera página.
+     * @param tamanio Integer tamaño de página solicitado, o null para el tamaño por defecto.
+     * @return PaginaProductos listado de productos ordenados por precio.
      */
-    List<Producto> productosPrecioMenorMayor();
+    PaginaProductos<ProductoListado> productosPrecioMenorMayor(String cursor, Integer tamanio);
 
     /**
-     * Obtiene los producots ordenados por precio de mayor a menor.
-     * @return List productos ordenados por precio
+     * Obtiene una página de los productos ordenados por precio de mayor a menor.
+     * @param cursor String cursor de la página anterior ('siguiente'), o null para la primera página.
+     * @param tamanio Integer tamaño de página solicitado, o null para el tamaño por defecto.
+     * @return PaginaProductos listado de productos ordenados por precio.
      */
-    List<Producto> productosPrecioMayorMenor();
+    PaginaProductos<ProductoListado> productosPrecioMayorMenor(String cursor, Integer tamanio);
 
     /**
-     * Obtiene un listado de los productos que pertenecen a una categoría.
+     * Obtiene una página de los productos que pertenecen a una categoría.
      * @param subcategoriaId Long id de la categoría.
-     * @return List listado de productos filtrados por categoria.
+     * @param cursor String cursor de la página anterior ('siguiente'), o null para la primera página.
+     * @param tamanio Integer tamaño de página solicitado, o null para el tamaño por defecto.
+     * @return PaginaProductos listado de productos filtrados por categoria.
      */
-    List<Producto> productosPorSubcategoria(Long subcategoriaId);
+    PaginaProductos<ProductoListado> productosPorSubcategoria(Long subcategoriaId, String cursor, Integer tamanio);
 
     /**
-     * Obtiene un listado de los productos de una marca.
+     * Obtiene una página de los productos de una marca.
      * @param marcaId Long id de la marca.
-     * @return List de los productos filtrados por marca.
+     * @param cursor String cursor de la página anterior ('siguiente'), o null para la primera página.
+     * @param tamanio Integer tamaño de página solicitado, o null para el tamaño por defecto.
+     * @return PaginaProductos listado de productos filtrados por marca.
      */
-    List<Producto> productosPorMarca(Long marcaId);
+    PaginaProductos<ProductoListado> productosPorMarca(Long marcaId, String cursor, Integer tamanio);
 
     /**
-     * Obtiene los productos que van de $0 a un máximo precio.
+     * Obtiene una página de los productos que van de $0 a un máximo precio.
      * @param precioMax Double precio máximo a filtrar.
-     * @return List productos.
+     * @param cursor String cursor de la página anterior ('siguiente'), o null para la primera página.
+     * @param tamanio Integer tamaño de página solicitado, o null para el tamaño por defecto.
+     * @return PaginaProductos listado de productos.
      */
-    List<Producto> productosPorPrecio(Double precioMax);
+    PaginaProductos<ProductoListado> productosPorPrecio(Double precioMax, String cursor, Integer tamanio);
 }
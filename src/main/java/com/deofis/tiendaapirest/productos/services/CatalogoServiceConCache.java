@@ -0,0 +1,158 @@
+package com.deofis.tiendaapirest.productos.services;
+
+import com.deofis.tiendaapirest.config.CatalogoProperties;
+import com.deofis.tiendaapirest.productos.domain.Marca;
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.dto.ConsultaProductos;
+import com.deofis.tiendaapirest.productos.dto.DetalleProducto;
+import com.deofis.tiendaapirest.productos.dto.FiltroProductos;
+import com.deofis.tiendaapirest.productos.dto.PaginaProductos;
+import com.deofis.tiendaapirest.productos.dto.ProductoListado;
+import com.deofis.tiendaapirest.productos.dto.ResultadoBusqueda;
+import com.deofis.tiendaapirest.productos.dto.ResultadoConsulta;
+import com.deofis.tiendaapirest.productos.dto.ResultadoFiltro;
+import com.deofis.tiendaapirest.productos.dto.SugerenciaBusqueda;
+import com.deofis.tiendaapirest.productos.services.cache.CacheConsultasCatalogo;
+import com.deofis.tiendaapirest.productos.utils.TextoUtils;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * {@link CatalogoService} que resuelve las consultas desde {@link CacheConsultasCatalogo} y solo delega en
+ * {@link CatalogoServiceImpl} (y en su transacción) cuando el resultado no está en la caché.
+ * <br>
+ * Las claves se arman con los parámetros ya normalizados: término tokenizado, filtros ordenados y tamaño de
+ * página resuelto, para que variantes equivalentes de la misma consulta compartan la entrada.
+ * <br>
+ * Lo que ya se resuelve en memoria sin consultas (autocompletado y lo que se lee de
+ * {@link com.deofis.tiendaapirest.productos.services.replica.ReplicaCatalogo}) se delega directamente.
+ */
+@Service
+@Primary
+@AllArgsConstructor
+public class CatalogoServiceConCache implements CatalogoService {
+
+    private final CatalogoServiceImpl catalogoService;
+    private final CacheConsultasCatalogo cacheConsultasCatalogo;
+    private final CatalogoProperties catalogoProperties;
+
+    @Override
+    public ResultadoBusqueda buscarProductos(String termino, String cursor, Integer tamanio) {
+        String consulta = String.join(" ", TextoUtils.tokenizar(termino));
+
+        return this.cacheConsultasCatalogo.obtener(this.clave("buscar", consulta, cursor, this.tamanio(tamanio)),
+                () -> this.catalogoService.buscarProductos(termino, cursor, tamanio));
+    }
+
+    @Override
+    public List<SugerenciaBusqueda> obtenerSugerencias(String prefijo, Integer cantidad) {
+        // El autocompletado ya se resuelve en memoria y cada tecla es una consulta distinta: no se cachea.
+        return this.catalogoService.obtenerSugerencias(prefijo, cantidad);
+    }
+
+    @Override
+    public ResultadoFiltro filtrarProductos(FiltroProductos filtro, String cursor, Integer tamanio) {
+        String clave = this.clave("filtrar", new TreeSet<>(filtro.getMarcas()), new TreeSet<>(filtro.getSubcategorias()),
+                new TreeSet<>(filtro.getValores()), filtro.getPrecioMin(), filtro.getPrecioMax(), cursor,
+                this.tamanio(tamanio));
+
+        return this.cacheConsultasCatalogo.obtener(clave,
+                () -> this.catalogoService.filtrarProductos(filtro, cursor, tamanio));
+    }
+
+    @Override
+    public ResultadoConsulta<ProductoListado> consultarProductos(ConsultaProductos consulta, Integer pagina, Integer tamanio) {
+        return this.cacheConsultasCatalogo.obtener(this.clave("consultar", this.claveConsulta(consulta, pagina, tamanio)),
+                () -> this.catalogoService.consultarProductos(consulta, pagina, tamanio));
+    }
+
+    @Override
+    public ResultadoConsulta<Map<String, Object>> proyectarProductos(ConsultaProductos consulta, Set<String> campos,
+                                                                     Integer pagina, Integer tamanio) {
+        String clave = this.clave("proyectar", new TreeSet<>(campos), this.claveConsulta(consulta, pagina, tamanio));
+
+        return this.cacheConsultasCatalogo.obtener(clave,
+                () -> this.catalogoService.proyectarProductos(consulta, campos, pagina, tamanio));
+    }
+
+    @Override
+    public List<Marca> listarMarcas() {
+        return this.cacheConsultasCatalogo.obtener("marcas", this.catalogoService::listarMarcas);
+    }
+
+    @Override
+    public List<Producto> obtenerProductosDestacados() {
+        // Se lee de la réplica del catálogo, sin consultas: cachearlo solo duplicaría el resultado.
+        return this.catalogoService.obtenerProductosDestacados();
+    }
+
+    @Override
+    public Producto obtenerProducto(Long id) {
+        return this.catalogoService.obtenerProducto(id);
+    }
+
+    @Override
+    public List<Producto> obtenerProductos(List<Long> ids) {
+        return this.catalogoService.obtenerProductos(ids);
+    }
+
+    @Override
+    public DetalleProducto obtenerDetalleProducto(Long id) {
+        return this.catalogoService.obtenerDetalleProducto(id);
+    }
+
+    @Override
+    public PaginaProductos<ProductoListado> productosPrecioMenorMayor(String cursor, Integer tamanio) {
+        return this.cacheConsultasCatalogo.obtener(this.clave("precio-asc", cursor, this.tamanio(tamanio)),
+                () -> this.catalogoService.productosPrecioMenorMayor(cursor, tamanio));
+    }
+
+    @Override
+    public PaginaProductos<ProductoListado> productosPrecioMayorMenor(String cursor, Integer tamanio) {
+        return this.cacheConsultasCatalogo.obtener(this.clave("precio-desc", cursor, this.tamanio(tamanio)),
+                () -> this.catalogoService.productosPrecioMayorMenor(cursor, tamanio));
+    }
+
+    @Override
+    public PaginaProductos<ProductoListado> productosPorSubcategoria(Long subcategoriaId, String cursor, Integer tamanio) {
+        return this.catalogoService.productosPorSubcategoria(subcategoriaId, cursor, tamanio);
+    }
+
+    @Override
+    public PaginaProductos<ProductoListado> productosPorMarca(Long marcaId, String cursor, Integer tamanio) {
+        return this.catalogoService.productosPorMarca(marcaId, cursor, tamanio);
+    }
+
+    @Override
+    public PaginaProductos<ProductoListado> productosPorPrecio(Double precioMax, String cursor, Integer tamanio) {
+        return this.cacheConsultasCatalogo.obtener(this.clave("precio-max", precioMax, cursor, this.tamanio(tamanio)),
+                () -> this.catalogoService.productosPorPrecio(precioMax, cursor, tamanio));
+    }
+
+    private int tamanio(Integer tamanio) {
+        return this.catalogoProperties.getPaginacion().tamanioPagina(tamanio);
+    }
+
+    private String claveConsulta(ConsultaProductos consulta, Integer pagina, Integer tamanio) {
+        String termino = consulta.getTermino() != null ? consulta.getTermino().trim().toLowerCase() : null;
+        return this.clave("", termino, new TreeSet<>(consulta.getMarcas()),
+                new TreeSet<>(consulta.getSubcategorias()), consulta.getPrecioMin(), consulta.getPrecioMax(),
+                consulta.getDestacado(), consulta.getStockMenorA(), consulta.getEnPromocion(), consulta.getOrden(),
+                pagina != null ? Math.max(pagina, 0) : 0, this.tamanio(tamanio));
+    }
+
+    private String clave(String consulta, Object... parametros) {
+        StringBuilder clave = new StringBuilder(consulta);
+        for (Object parametro: parametros) {
+            clave.append('|').append(parametro);
+        }
+
+        return clave.toString();
+    }
+}
@@ -1,45 +1,127 @@
 package com.deofis.tiendaapirest.productos.services;
 
+import com.deofis.tiendaapirest.config.CatalogoProperties;
+import com.deofis.tiendaapirest.globalservices.ProyeccionService;
 import com.deofis.tiendaapirest.productos.domain.Marca;
 import com.deofis.tiendaapirest.productos.domain.Producto;
-import com.deofis.tiendaapirest.productos.domain.PropiedadProducto;
-import com.deofis.tiendaapirest.productos.domain.Subcategoria;
+import com.deofis.tiendaapirest.productos.dto.ConsultaProductos;
+import com.deofis.tiendaapirest.productos.dto.CursorProducto;
+import com.deofis.tiendaapirest.productos.dto.DetalleProducto;
+import com.deofis.tiendaapirest.productos.dto.FiltroProductos;
+import com.deofis.tiendaapirest.productos.dto.PaginaProductos;
+import com.deofis.tiendaapirest.productos.dto.ProductoListado;
+import com.deofis.tiendaapirest.productos.dto.ResultadoBusqueda;
+import com.deofis.tiendaapirest.productos.dto.ResultadoConsulta;
+import com.deofis.tiendaapirest.productos.dto.ResultadoFiltro;
+import com.deofis.tiendaapirest.productos.dto.SugerenciaBusqueda;
 import com.deofis.tiendaapirest.productos.exceptions.ProductoException;
 import com.deofis.tiendaapirest.productos.repositories.MarcaRepository;
 import com.deofis.tiendaapirest.productos.repositories.ProductoRepository;
+import com.deofis.tiendaapirest.productos.repositories.ProductoSpecifications;
 import com.deofis.tiendaapirest.productos.repositories.SubcategoriaRepository;
-import lombok.AllArgsConstructor;
+import com.deofis.tiendaapirest.productos.services.busqueda.Autocompletador;
+import com.deofis.tiendaapirest.productos.services.busqueda.FiltradorProductos;
+import com.deofis.tiendaapirest.productos.services.replica.ReplicaCatalogo;
+import com.deofis.tiendaapirest.productos.services.replica.SnapshotCatalogo;
+import com.deofis.tiendaapirest.productos.utils.GrafoProductoUtils;
+import com.deofis.tiendaapirest.productos.utils.LoteUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * El detalle, los destacados y los listados por subcategoría y por marca se leen de {@link ReplicaCatalogo}, sin
+ * transacción. Solo van a la base de datos mientras la réplica no está cargada, al iniciar la aplicación.
+ */
 @Service
-@AllArgsConstructor
 public class CatalogoServiceImpl implements CatalogoService {
 
     private final ProductoRepository productoRepository;
     private final SubcategoriaRepository subcategoriaRepository;
     private final MarcaRepository marcaRepository;
     private final BuscadorProductosService buscadorProductosService;
+    private final Autocompletador autocompletador;
+    private final FiltradorProductos filtradorProductos;
+    private final ReplicaCatalogo replicaCatalogo;
+    private final ProyeccionService proyeccionService;
+    private final CatalogoProperties catalogoProperties;
+    private final TransactionTemplate transactionTemplate;
 
+    public CatalogoServiceImpl(ProductoRepository productoRepository,
+                               SubcategoriaRepository subcategoriaRepository,
+                               MarcaRepository marcaRepository,
+                               BuscadorProductosService buscadorProductosService,
+                               Autocompletador autocompletador,
+                               FiltradorProductos filtradorProductos,
+                               ReplicaCatalogo replicaCatalogo,
+                               ProyeccionService proyeccionService,
+                               CatalogoProperties catalogoProperties,
+                               PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.subcategoriaRepository = subcategoriaRepository;
+        this.marcaRepository = marcaRepository;
+        this.buscadorProductosService = buscadorProductosService;
+        this.autocompletador = autocompletador;
+        this.filtradorProductos = filtradorProductos;
+        this.replicaCatalogo = replicaCatalogo;
+        this.proyeccionService = proyeccionService;
+        this.catalogoProperties = catalogoProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public ResultadoBusqueda buscarProductos(String termino, String cursor, Integer tamanio) {
+        return this.buscadorProductosService.buscarConFacetas(termino, cursor,
+                this.catalogoProperties.getPaginacion().tamanioPagina(tamanio));
+    }
+
+    @Override
+    public List<SugerenciaBusqueda> obtenerSugerencias(String prefijo, Integer cantidad) {
+        return this.autocompletador.completar(prefijo, this.catalogoProperties.getSugerencias().cantidad(cantidad));
+    }
+
+    @Override
+    public ResultadoFiltro filtrarProductos(FiltroProductos filtro, String cursor, Integer tamanio) {
+        return this.filtradorProductos.filtrar(filtro, cursor, this.catalogoProperties.getPaginacion().tamanioPagina(tamanio));
+    }
+
+    @Override
     @Transactional(readOnly = true)
+    public ResultadoConsulta<ProductoListado> consultarProductos(ConsultaProductos consulta, Integer pagina, Integer tamanio) {
+        consulta.setActivo(true);
+        Page<Producto> productos = this.productoRepository.findAll(ProductoSpecifications.de(consulta),
+                this.paginacion(consulta, pagina, tamanio));
+        return ResultadoConsulta.de(productos, ProductoListado::de);
+    }
+
     @Override
-    public Map<String, Object> buscarProductos(String termino) {
-        Map<String, Object> resultadoBusqueda = new HashMap<>();
-        List<Producto> productos = this.buscadorProductosService.buscarProductos(termino);
-        List<Marca> marcas = this.buscadorProductosService.marcasDeProductosEncontrados(termino);
-        List<Subcategoria> subcategorias = this.buscadorProductosService.subcategoriasDeProductosEncontrados(termino);
-        List<PropiedadProducto> propiedades = this.buscadorProductosService.propiedadesDeProductosEncontrados(termino);
+    @Transactional(readOnly = true)
+    public ResultadoConsulta<Map<String, Object>> proyectarProductos(ConsultaProductos consulta, Set<String> campos,
+                                                                     Integer pagina, Integer tamanio) {
+        Map<String, String> columnas = this.proyeccionService.columnas(ProductoSpecifications.COLUMNAS_LISTADO, campos);
+        if (columnas == null) return null;
+
+        consulta.setActivo(true);
+        Page<Map<String, Object>> productos = this.proyeccionService.proyectar(Producto.class, columnas,
+                ProductoSpecifications.de(consulta), this.paginacion(consulta, pagina, tamanio));
+        return ResultadoConsulta.de(productos, producto -> producto);
+    }
 
-        resultadoBusqueda.put("totalProductos", productos.size());
-        resultadoBusqueda.put("productos", productos);
-        resultadoBusqueda.put("marcas", marcas);
-        resultadoBusqueda.put("subcategorias", subcategorias);
-        resultadoBusqueda.put("propiedades", propiedades);
-        return resultadoBusqueda;
+    private Pageable paginacion(ConsultaProductos consulta, Integer pagina, Integer tamanio) {
+        return PageRequest.of(pagina != null ? Math.max(pagina, 0) : 0,
+                this.catalogoProperties.getPaginacion().tamanioPagina(tamanio),
+                ProductoSpecifications.ordenar(consulta.getOrden()));
     }
 
     @Transactional(readOnly = true)
@@ -48,52 +130,131 @@ public class CatalogoServiceImpl implements CatalogoService {
         return this.marcaRepository.findAll();
     }
 
-    @Transactional(readOnly = true)
     @Override
     public List<Producto> obtenerProductosDestacados() {
-        return this.productoRepository
-                .findAllByDestacadoIsTrueAndActivoIsTrue();
+        SnapshotCatalogo catalogo = this.replicaCatalogo.snapshot();
+        if (catalogo != null) return catalogo.destacados();
+
+        return this.transactionTemplate.execute(status -> {
+            List<Producto> destacados = this.productoRepository.findAllByDestacadoIsTrueAndActivoIsTrue();
+            destacados.forEach(GrafoProductoUtils::inicializar);
+            return destacados;
+        });
     }
 
-    @Transactional(readOnly = true)
     @Override
     public Producto obtenerProducto(Long id) {
-        return this.productoRepository.findById(id)
-                .orElseThrow(() -> new ProductoException("No existe el producto con id: " + id));
+        SnapshotCatalogo catalogo = this.replicaCatalogo.snapshot();
+        Producto producto = catalogo != null
+                ? catalogo.producto(id).orElse(null)
+                : this.transactionTemplate.execute(status -> this.productoRepository.findDetalleById(id)
+                        .map(GrafoProductoUtils::inicializar).orElse(null));
+
+        if (producto == null) throw new ProductoException("No existe el producto con id: " + id);
+        return producto;
     }
 
-    @Transactional(readOnly = true)
     @Override
-    public List<Producto> productosPrecioMenorMayor() {
-        return this.productoRepository.findAllByOrderByPrecioAsc();
+    public List<Producto> obtenerProductos(List<Long> ids) {
+        List<Long> solicitados = LoteUtils.distintos(ids);
+        int maximo = this.catalogoProperties.getLotes().getIdsMaximos();
+        if (solicitados.size() > maximo)
+            throw new ProductoException("Se pueden obtener hasta " + maximo + " productos por consulta");
+        if (solicitados.isEmpty()) return new ArrayList<>();
+
+        SnapshotCatalogo catalogo = this.replicaCatalogo.snapshot();
+        if (catalogo != null) {
+            List<Producto> productos = new ArrayList<>(solicitados.size());
+            solicitados.forEach(id -> catalogo.producto(id).ifPresent(productos::add));
+            return productos;
+        }
+
+        return this.transactionTemplate.execute(status -> {
+            List<Producto> productos = this.productoRepository.findAllDetalleByIdIn(solicitados);
+            productos.forEach(GrafoProductoUtils::inicializar);
+            return LoteUtils.enOrden(solicitados, productos, Producto::getId);
+        });
     }
 
-    @Transactional(readOnly = true)
     @Override
-    public List<Producto> productosPrecioMayorMenor() {
-        return this.productoRepository.findAllByOrderByPrecioDesc();
+    public DetalleProducto obtenerDetalleProducto(Long id) {
+        // El producto de la réplica ya tiene todo su grafo: armar el detalle no consulta la base de datos.
+        return DetalleProducto.de(this.obtenerProducto(id));
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<Producto> productosPorSubcategoria(Long subcategoriaId) {
-        Subcategoria subcategoria = this.subcategoriaRepository.findById(subcategoriaId)
-                .orElseThrow(() -> new ProductoException("No se encontró la categoria con id: " + subcategoriaId));
+    public PaginaProductos<ProductoListado> productosPrecioMenorMayor(String cursor, Integer tamanio) {
+        CursorProducto desde = CursorProducto.decodificar(cursor);
+        Pageable pagina = this.pagina(tamanio);
+
+        Slice<ProductoListado> productos = desde == null
+                ? this.productoRepository.findListadoPrecioAsc(pagina)
+                : this.productoRepository.findListadoPrecioAscDespuesDe(desde.claveComoPrecio(), desde.getId(), pagina);
 
-        return this.productoRepository.findAllBySubcategoriaAndActivoIsTrue(subcategoria);
+        return PaginaProductos.de(productos, ProductoListado::getId, producto -> String.valueOf(producto.getPrecio()));
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<Producto> productosPorMarca(Long marcaId) {
-        Marca marca = this.marcaRepository.findById(marcaId)
-                .orElseThrow(() -> new ProductoException("No se encontró la marca con id: " + marcaId));
+    public PaginaProductos<ProductoListado> productosPrecioMayorMenor(String cursor, Integer tamanio) {
+        CursorProducto desde = CursorProducto.decodificar(cursor);
+        Pageable pagina = this.pagina(tamanio);
+
+        Slice<ProductoListado> productos = desde == null
+                ? this.productoRepository.findListadoPrecioDesc(pagina)
+                : this.productoRepository.findListadoPrecioDescDespuesDe(desde.claveComoPrecio(), desde.getId(), pagina);
+
+        return PaginaProductos.de(productos, ProductoListado::getId, producto -> String.valueOf(producto.getPrecio()));
+    }
+
+    @Override
+    public PaginaProductos<ProductoListado> productosPorSubcategoria(Long subcategoriaId, String cursor, Integer tamanio) {
+        SnapshotCatalogo catalogo = this.replicaCatalogo.snapshot();
+        // La réplica solo conoce las subcategorías con productos activos: las demás se buscan en la base de datos.
+        boolean existe = catalogo != null && catalogo.tieneSubcategoria(subcategoriaId);
+        if (!existe && !this.subcategoriaRepository.existsById(subcategoriaId))
+            throw new ProductoException("No se encontró la categoria con id: " + subcategoriaId);
+
+        if (catalogo != null) return catalogo.productosPorSubcategoria(subcategoriaId, this.idDesde(cursor),
+                this.catalogoProperties.getPaginacion().tamanioPagina(tamanio));
 
-        return this.productoRepository.findAllByMarcaAndActivoIsTrue(marca);
+        return this.transactionTemplate.execute(status -> PaginaProductos.de(this.productoRepository
+                .findListadoPorSubcategoria(subcategoriaId, this.idDesde(cursor), this.pagina(tamanio)),
+                ProductoListado::getId, producto -> null));
     }
 
     @Override
-    public List<Producto> productosPorPrecio(Double precioMax) {
-        return this.productoRepository.findAllByPrecioBetween(0.00, precioMax);
+    public PaginaProductos<ProductoListado> productosPorMarca(Long marcaId, String cursor, Integer tamanio) {
+        SnapshotCatalogo catalogo = this.replicaCatalogo.snapshot();
+        boolean existe = catalogo != null && catalogo.tieneMarca(marcaId);
+        if (!existe && !this.marcaRepository.existsById(marcaId))
+            throw new ProductoException("No se encontró la marca con id: " + marcaId);
+
+        if (catalogo != null) return catalogo.productosPorMarca(marcaId, this.idDesde(cursor),
+                this.catalogoProperties.getPaginacion().tamanioPagina(tamanio));
+
+        return this.transactionTemplate.execute(status -> PaginaProductos.de(this.productoRepository
+                .findListadoPorMarca(marcaId, this.idDesde(cursor), this.pagina(tamanio)),
+                ProductoListado::getId, producto -> null));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public PaginaProductos<ProductoListado> productosPorPrecio(Double precioMax, String cursor, Integer tamanio) {
+        return PaginaProductos.de(this.productoRepository.findListadoPorPrecio(
+                0.00, precioMax, this.idDesde(cursor), this.pagina(tamanio)), ProductoListado::getId, producto -> null);
+    }
+
+    private Pageable pagina(Integer tamanio) {
+        return PageRequest.of(0, this.catalogoProperties.getPaginacion().tamanioPagina(tamanio));
+    }
+
+    /**
+     * Id a partir del cual continuar un listado ordenado por id. Para la primera página es 0 (los ids empiezan en 1).
+     */
+    private Long idDesde(String cursor) {
+        CursorProducto desde = CursorProducto.decodificar(cursor);
+        return desde != null ? desde.getId() : 0L;
     }
 }
@@ -3,6 +3,8 @@ package com.deofis.tiendaapirest.productos.services;
 import com.deofis.tiendaapirest.productos.domain.Categoria;
 import com.deofis.tiendaapirest.productos.domain.Imagen;
 import com.deofis.tiendaapirest.productos.domain.Subcategoria;
+import com.deofis.tiendaapirest.productos.dto.NodoCategoria;
+import com.deofis.tiendaapirest.productos.exceptions.CategoriaException;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -32,6 +34,14 @@ public interface CategoriaService {
      */
     List<Categoria> obtenerCategorias();
 
+    /**
+     * Obtiene el árbol de categorías ordenadas por nombre, cada una con sus subcategorías y la cantidad de
+     * productos activos de cada nodo. Las cantidades salen de los contadores en memoria, no de la BD.
+     * @return List con el árbol de categorías.
+     * @throws CategoriaException si el catálogo todavía no terminó de cargarse al iniciar la aplicación.
+     */
+    List<NodoCategoria> obtenerArbolCategorias();
+
     /**
      * Método para obtener una categoría.
      * @param id Long id de la categoría a obtener de la BD.
@@ -3,16 +3,24 @@ package com.deofis.tiendaapirest.productos.services;
 import com.deofis.tiendaapirest.productos.domain.Categoria;
 import com.deofis.tiendaapirest.productos.domain.Imagen;
 import com.deofis.tiendaapirest.productos.domain.Subcategoria;
+import com.deofis.tiendaapirest.productos.dto.NodoCategoria;
+import com.deofis.tiendaapirest.productos.dto.NodoSubcategoria;
 import com.deofis.tiendaapirest.productos.exceptions.CategoriaException;
 import com.deofis.tiendaapirest.productos.repositories.CategoriaRepository;
 import com.deofis.tiendaapirest.productos.repositories.SubcategoriaRepository;
+import com.deofis.tiendaapirest.productos.services.cambios.RecursoVersionado;
+import com.deofis.tiendaapirest.productos.services.cambios.VersionCatalogoService;
+import com.deofis.tiendaapirest.productos.services.categorias.ContadorProductosCategorias;
 import com.deofis.tiendaapirest.productos.services.images.ImageService;
+import com.deofis.tiendaapirest.productos.utils.GrafoProductoUtils;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @AllArgsConstructor
@@ -21,6 +29,8 @@ public class CategoriaServiceImpl implements CategoriaService {
     private final CategoriaRepository categoriaRepository;
     private final SubcategoriaRepository subcategoriaRepository;
     private final ImageService imageService;
+    private final VersionCatalogoService versionCatalogoService;
+    private final ContadorProductosCategorias contadorProductosCategorias;
 
     @Override
     @Transactional
@@ -29,30 +39,70 @@ public class CategoriaServiceImpl implements CategoriaService {
                 .nombre(categoria.getNombre())
                 .build();
 
+        this.versionCatalogoService.registrarCambio(RecursoVersionado.CATALOGO);
         return this.categoriaRepository.save(categoriaNueva);
     }
 
     @Override
     @Transactional
     public Categoria actualizar(Categoria categoria, Long id) {
-        Categoria categoriaActual = this.obtenerCategoria(id);
+        Categoria categoriaActual = this.encontrarCategoria(id);
 
         categoriaActual.setNombre(categoria.getNombre());
 
+        this.versionCatalogoService.registrarCambio(RecursoVersionado.CATALOGO);
         return this.categoriaRepository.save(categoriaActual);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Categoria> obtenerCategorias() {
-        return this.categoriaRepository.findAllByOrderByNombreAsc();
+        List<Categoria> categorias = this.categoriaRepository.findAllByOrderByNombreAsc();
+        categorias.forEach(GrafoProductoUtils::inicializar);
+        return categorias;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<NodoCategoria> obtenerArbolCategorias() {
+        if (!this.contadorProductosCategorias.cargado())
+            throw new CategoriaException("El catálogo todavía se está cargando");
+
+        Map<Long, Integer> cantidades = this.contadorProductosCategorias.productosActivosPorSubcategoria();
+        List<NodoCategoria> arbol = new ArrayList<>();
+
+        for (Categoria categoria: this.categoriaRepository.findAllByOrderByNombreAsc()) {
+            List<NodoSubcategoria> subcategorias = new ArrayList<>();
+            int productosActivos = 0;
+
+            if (categoria.getSubcategorias() != null) {
+                for (Subcategoria subcategoria: categoria.getSubcategorias()) {
+                    int cantidad = cantidades.getOrDefault(subcategoria.getId(), 0);
+                    productosActivos += cantidad;
+                    subcategorias.add(NodoSubcategoria.builder()
+                            .id(subcategoria.getId())
+                            .nombre(subcategoria.getNombre())
+                            .codigo(subcategoria.getCodigo())
+                            .fotoUrl(this.url(subcategoria.getFoto()))
+                            .productosActivos(cantidad).build());
+                }
+            }
+
+            arbol.add(NodoCategoria.builder()
+                    .id(categoria.getId())
+                    .nombre(categoria.getNombre())
+                    .fotoUrl(this.url(categoria.getFoto()))
+                    .productosActivos(productosActivos)
+                    .subcategorias(subcategorias).build());
+        }
+
+        return arbol;
     }
 
     @Override
     @Transactional(readOnly = true)
     public Categoria obtenerCategoria(Long id) {
-        return this.categoriaRepository.findById(id)
-                .orElseThrow(() -> new CategoriaException("Categoría no existente con id: " + id));
+        return GrafoProductoUtils.inicializar(this.encontrarCategoria(id));
     }
 
     @Override
@@ -62,13 +112,14 @@ public class CategoriaServiceImpl implements CategoriaService {
                 .orElseThrow(() -> new CategoriaException("Categoria no existente con id: " + categoriaId));
 
 
+        categoria.getSubcategorias().forEach(GrafoProductoUtils::inicializar);
         return categoria.getSubcategorias();
     }
 
     @Override
     @Transactional(readOnly = true)
     public Subcategoria obtenerSubcategoriaDeCategoria(Long categoriaId, Long subcategoriaId) {
-        Categoria categoria = this.obtenerCategoria(categoriaId);
+        Categoria categoria = this.encontrarCategoria(categoriaId);
         Subcategoria subcategoria = null;
 
         boolean existeSub = false;
@@ -82,13 +133,13 @@ public class CategoriaServiceImpl implements CategoriaService {
 
         if (!existeSub) throw new CategoriaException("La subcategoría no pertenece a la categoría: ".concat(categoria.getNombre()));
 
-        return subcategoria;
+        return GrafoProductoUtils.inicializar(subcategoria);
     }
 
     @Transactional
     @Override
     public Imagen subirFotoCategoria(Long categoriaId, MultipartFile foto) {
-        Categoria categoria = this.obtenerCategoria(categoriaId);
+        Categoria categoria = this.encontrarCategoria(categoriaId);
 
         if (categoria.getFoto() != null)
             this.eliminarFotoCategoria(categoria.getId());
@@ -96,13 +147,14 @@ public class CategoriaServiceImpl implements CategoriaService {
         Imagen fotoCategoria = this.imageService.subirImagen(foto);
         categoria.setFoto(fotoCategoria);
         this.categoriaRepository.save(categoria);
+        this.versionCatalogoService.registrarCambio(RecursoVersionado.CATALOGO);
         return fotoCategoria;
     }
 
     @Transactional(readOnly = true)
     @Override
     public byte[] obtenerFotoCategoria(Long categoriaId) {
-        Categoria categoria = this.obtenerCategoria(categoriaId);
+        Categoria categoria = this.encontrarCategoria(categoriaId);
         Imagen fotoCategoria = categoria.getFoto();
 
         if (fotoCategoria == null) throw new CategoriaException("La categoría: " + categoria.getNombre()
@@ -114,14 +166,14 @@ public class CategoriaServiceImpl implements CategoriaService {
     @Transactional(readOnly = true)
     @Override
     public String obtenerPathFotoCategoria(Long categoriaId) {
-        Categoria categoria = this.obtenerCategoria(categoriaId);
+        Categoria categoria = this.encontrarCategoria(categoriaId);
         return categoria.getFoto().getPath();
     }
 
     @Transactional
     @Override
     public void eliminarFotoCategoria(Long categoriaId) {
-        Categoria categoria = this.obtenerCategoria(categoriaId);
+        Categoria categoria = this.encontrarCategoria(categoriaId);
 
         if (categoria.getFoto() == null) throw new CategoriaException("La categoría: " + categoria.getNombre()
                 + " no tiene foto");
@@ -129,6 +181,7 @@ public class CategoriaServiceImpl implements CategoriaService {
         Imagen fotoCategoria = categoria.getFoto();
         categoria.setFoto(null);
         this.categoriaRepository.save(categoria);
+        this.versionCatalogoService.registrarCambio(RecursoVersionado.CATALOGO);
         this.imageService.eliminarImagen(fotoCategoria);
     }
 
@@ -136,6 +189,16 @@ public class CategoriaServiceImpl implements CategoriaService {
     @Override
     public Categoria obtenerCategoriaPorSubcategoria(Subcategoria subcategoria) {
         return this.categoriaRepository.findBySubcategoriasContaining(subcategoria)
+                .map(GrafoProductoUtils::inicializar)
                 .orElseThrow(() -> new CategoriaException("La subcategoría no pertenece a ninguna categoría"));
     }
+
+    private Categoria encontrarCategoria(Long id) {
+        return this.categoriaRepository.findById(id)
+                .orElseThrow(() -> new CategoriaException("Categoría no existente con id: " + id));
+    }
+
+    private String url(Imagen foto) {
+        return foto != null ? foto.getImageUrl() : null;
+    }
 }
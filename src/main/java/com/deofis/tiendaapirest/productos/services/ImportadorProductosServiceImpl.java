@@ -10,6 +10,8 @@ import com.deofis.tiendaapirest.productos.repositories.MarcaRepository;
 import com.deofis.tiendaapirest.productos.repositories.ProductoRepository;
 import com.deofis.tiendaapirest.productos.repositories.SubcategoriaRepository;
 import com.deofis.tiendaapirest.productos.repositories.UnidadMedidaRepository;
+import com.deofis.tiendaapirest.productos.services.cambios.NotificadorCambiosCatalogo;
+import com.deofis.tiendaapirest.productos.utils.GrafoProductoUtils;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,6 +30,7 @@ public class ImportadorProductosServiceImpl implements ImportadorProductosServic
     private final SubcategoriaRepository subcategoriaRepository;
     private final UnidadMedidaRepository unidadMedidaRepository;
     private final ProductoArchivosHandler productoArchivosHandler;
+    private final NotificadorCambiosCatalogo notificadorCambiosCatalogo;
 
     @Transactional
     @Override
@@ -40,7 +43,7 @@ public class ImportadorProductosServiceImpl implements ImportadorProductosServic
             productos.add(this.mapProductoDto(productoDTO));
         }
 
-        return this.productoRepository.saveAll(productos);
+        return this.guardarImportados(productos);
     }
 
     @Transactional
@@ -54,7 +57,7 @@ public class ImportadorProductosServiceImpl implements ImportadorProductosServic
             productos.add(this.mapProductoDto(productoDTO));
         }
 
-        return this.productoRepository.saveAll(productos);
+        return this.guardarImportados(productos);
     }
 
     @Transactional
@@ -69,12 +72,21 @@ public class ImportadorProductosServiceImpl implements ImportadorProductosServic
 
             productoBD.setDisponibilidadGeneral(productoDTO.getDisponibilidad());
             Producto productoActuzliado = this.productoRepository.save(productoBD);
-            productosActualizados.add(productoActuzliado);
+            this.notificadorCambiosCatalogo.productoModificado(productoActuzliado.getId());
+            productosActualizados.add(GrafoProductoUtils.inicializar(productoActuzliado));
         }
 
         return productosActualizados;
     }
 
+    private List<Producto> guardarImportados(List<Producto> productos) {
+        List<Producto> productosGuardados = this.productoRepository.saveAll(productos);
+        productosGuardados.forEach(producto -> this.notificadorCambiosCatalogo.productoModificado(producto.getId()));
+        // Los productos nuevos no tienen colecciones cargadas: solo la subcategoría viene de la BD.
+        productosGuardados.forEach(producto -> GrafoProductoUtils.inicializar(producto.getSubcategoria()));
+        return productosGuardados;
+    }
+
     private Producto mapProductoDto(ProductoDTO productoDTO) {
         Subcategoria subcategoria = this.subcategoriaRepository.findById(productoDTO.getSubcategoriaId())
                 .orElseThrow(() -> new ProductoException("No se encontro la categoría con id: " +
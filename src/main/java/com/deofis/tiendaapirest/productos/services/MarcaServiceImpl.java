@@ -1,8 +1,12 @@
 package com.deofis.tiendaapirest.productos.services;
 
+import com.deofis.tiendaapirest.productos.domain.EntidadCatalogo;
 import com.deofis.tiendaapirest.productos.domain.Marca;
 import com.deofis.tiendaapirest.productos.exceptions.ProductoException;
 import com.deofis.tiendaapirest.productos.repositories.MarcaRepository;
+import com.deofis.tiendaapirest.productos.services.cambios.NotificadorCambiosCatalogo;
+import com.deofis.tiendaapirest.productos.services.cambios.RecursoVersionado;
+import com.deofis.tiendaapirest.productos.services.cambios.VersionCatalogoService;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -15,6 +19,8 @@ import java.util.List;
 public class MarcaServiceImpl implements MarcaService {
 
     private final MarcaRepository marcaRepository;
+    private final VersionCatalogoService versionCatalogoService;
+    private final NotificadorCambiosCatalogo notificadorCambiosCatalogo;
 
     @Override
     public Marca crearMarca(Marca marca) {
@@ -69,7 +75,10 @@ public class MarcaServiceImpl implements MarcaService {
     @Transactional
     @Override
     public Marca save(Marca object) {
-        return this.marcaRepository.save(object);
+        this.versionCatalogoService.registrarCambio(RecursoVersionado.CATALOGO);
+        Marca marca = this.marcaRepository.save(object);
+        this.notificadorCambiosCatalogo.entidadModificada(EntidadCatalogo.MARCA, marca.getId());
+        return marca;
     }
 
     @Transactional
@@ -86,6 +95,8 @@ public class MarcaServiceImpl implements MarcaService {
 
         try {
             this.marcaRepository.deleteById(aLong);
+            this.versionCatalogoService.registrarCambio(RecursoVersionado.CATALOGO);
+            this.notificadorCambiosCatalogo.entidadEliminada(EntidadCatalogo.MARCA, aLong);
         } catch (DataIntegrityViolationException e) {
             throw new ProductoException("No se pudo eliminar la marca con id ".concat(String.valueOf(aLong)) +
                     " ya que tiene referencias con otros objetos : " + e.getMessage());
@@ -2,8 +2,13 @@ package com.deofis.tiendaapirest.productos.services;
 
 import com.deofis.tiendaapirest.globalservices.CrudService;
 import com.deofis.tiendaapirest.productos.domain.*;
+import com.deofis.tiendaapirest.productos.dto.ConsultaProductos;
+import com.deofis.tiendaapirest.productos.dto.PaginaProductos;
+import com.deofis.tiendaapirest.productos.dto.ResultadoConsulta;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Servicio que se encarga de los {@link Producto}. Maneja la creación, actualización y obtención de productos,
@@ -22,10 +27,38 @@ public interface ProductoService extends CrudService<Producto, Long> {
     Producto crearProducto(Producto producto);
 
     /**
-     * Método que lista todos los productos registrados.
-     * @return List de Productos.
+     * Método que lista los productos registrados, ordenados alfabéticamente y paginados por clave.
+     * @param cursor String cursor de la página anterior ('siguiente'), o null para la primera página.
+     * @param tamanio Integer tamaño de página solicitado, o null para el tamaño por defecto.
+     * @return PaginaProductos página de Productos.
      */
-    List<Producto> obtenerProductos();
+    PaginaProductos<Producto> obtenerProductos(String cursor, Integer tamanio);
+
+    /**
+     * Método que consulta los productos registrados combinando cualquier cantidad de criterios, ordenados y
+     * paginados en la base de datos en una única consulta (más otra para el total).
+     * @param consulta ConsultaProductos criterios y orden de la consulta.
+     * @param campos Set de campos pedidos: solo se inicializan las asociaciones LAZY que incluyen (vacío para
+     *               inicializar el producto completo).
+     * @param pagina Integer número de página, desde 0 (null para la primera).
+     * @param tamanio Integer tamaño de página solicitado, o null para el tamaño por defecto.
+     * @return ResultadoConsulta página de Productos y total de productos que cumplen los criterios.
+     */
+    ResultadoConsulta<Producto> consultarProductos(ConsultaProductos consulta, Set<String> campos,
+                                                   Integer pagina, Integer tamanio);
+
+    /**
+     * Igual que {@link #consultarProductos(ConsultaProductos, Set, Integer, Integer)}, pero seleccionando en la consulta
+     * solo las columnas de los campos pedidos, sin cargar las entidades.
+     * @param consulta ConsultaProductos criterios y orden de la consulta.
+     * @param campos Set de campos pedidos (Ej.: 'id', 'nombre', 'marca.nombre').
+     * @param pagina Integer número de página, desde 0 (null para la primera).
+     * @param tamanio Integer tamaño de página solicitado, o null para el tamaño por defecto.
+     * @return ResultadoConsulta página de filas con los campos pedidos, o null si algún campo no es proyectable
+     * (se debe usar consultarProductos).
+     */
+    ResultadoConsulta<Map<String, Object>> proyectarProductos(ConsultaProductos consulta, Set<String> campos,
+                                                              Integer pagina, Integer tamanio);
 
     /**
      * Método que obtiene un producto guardado a través del Id.
@@ -34,6 +67,14 @@ public interface ProductoService extends CrudService<Producto, Long> {
      */
     Producto obtenerProducto(Long id);
 
+    /**
+     * Método que obtiene varios productos por id con una sola consulta, con sus asociaciones inicializadas.
+     * @param ids List de ids de productos. Los repetidos se devuelven una vez.
+     * @return List de Productos en el orden de los ids solicitados, sin los que no existen.
+     * @throws ProductoException si se solicitan más ids de los permitidos por consulta.
+     */
+    List<Producto> obtenerProductos(List<Long> ids);
+
     /**
      * Método que modifica algún dato del producto, lo guarda y devuelve actualizado.
      * @param producto Producto ya modificado.
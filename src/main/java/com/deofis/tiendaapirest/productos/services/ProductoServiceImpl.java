@@ -1,20 +1,37 @@
 package com.deofis.tiendaapirest.productos.services;
 
+import com.deofis.tiendaapirest.config.CatalogoProperties;
+import com.deofis.tiendaapirest.globalservices.ProyeccionService;
 import com.deofis.tiendaapirest.globalservices.RoundService;
 import com.deofis.tiendaapirest.productos.domain.*;
+import com.deofis.tiendaapirest.productos.dto.ConsultaProductos;
+import com.deofis.tiendaapirest.productos.dto.CursorProducto;
+import com.deofis.tiendaapirest.productos.dto.PaginaProductos;
+import com.deofis.tiendaapirest.productos.dto.ResultadoConsulta;
 import com.deofis.tiendaapirest.productos.exceptions.ProductoException;
 import com.deofis.tiendaapirest.productos.repositories.ProductoRepository;
+import com.deofis.tiendaapirest.productos.repositories.ProductoSpecifications;
+import com.deofis.tiendaapirest.productos.repositories.SkuRepository;
 import com.deofis.tiendaapirest.productos.repositories.UnidadMedidaRepository;
+import com.deofis.tiendaapirest.productos.services.cambios.NotificadorCambiosCatalogo;
+import com.deofis.tiendaapirest.productos.utils.GrafoProductoUtils;
+import com.deofis.tiendaapirest.productos.utils.LoteUtils;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @AllArgsConstructor
@@ -23,8 +40,12 @@ public class ProductoServiceImpl implements ProductoService {
 
     private final ProductoRepository productoRepository;
     private final UnidadMedidaRepository unidadMedidaRepository;
+    private final SkuRepository skuRepository;
+    private final NotificadorCambiosCatalogo notificadorCambiosCatalogo;
 
     private final RoundService roundService;
+    private final ProyeccionService proyeccionService;
+    private final CatalogoProperties catalogoProperties;
 
     @Override
     @Transactional
@@ -70,14 +91,63 @@ public class ProductoServiceImpl implements ProductoService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Producto> obtenerProductos() {
-        return this.productoRepository.findAllByOrderByNombreAsc();
+    public PaginaProductos<Producto> obtenerProductos(String cursor, Integer tamanio) {
+        CursorProducto desde = CursorProducto.decodificar(cursor);
+        Pageable pagina = PageRequest.of(0, this.catalogoProperties.getPaginacion().tamanioPagina(tamanio));
+
+        Slice<Producto> productos = desde == null
+                ? this.productoRepository.findAllByOrderByNombreAscIdAsc(pagina)
+                : this.productoRepository.findNombreAscDespuesDe(desde.getClave(), desde.getId(), pagina);
+        productos.forEach(GrafoProductoUtils::inicializar);
+
+        return PaginaProductos.de(productos, Producto::getId, Producto::getNombre);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResultadoConsulta<Producto> consultarProductos(ConsultaProductos consulta, Set<String> campos,
+                                                         Integer pagina, Integer tamanio) {
+        Page<Producto> productos = this.productoRepository.findAll(ProductoSpecifications.de(consulta),
+                this.paginacion(consulta, pagina, tamanio));
+        return ResultadoConsulta.de(productos, producto -> GrafoProductoUtils.inicializar(producto, campos));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResultadoConsulta<Map<String, Object>> proyectarProductos(ConsultaProductos consulta, Set<String> campos,
+                                                                     Integer pagina, Integer tamanio) {
+        Map<String, String> columnas = this.proyeccionService.columnas(ProductoSpecifications.COLUMNAS, campos);
+        if (columnas == null) return null;
+
+        Page<Map<String, Object>> productos = this.proyeccionService.proyectar(Producto.class, columnas,
+                ProductoSpecifications.de(consulta), this.paginacion(consulta, pagina, tamanio));
+        return ResultadoConsulta.de(productos, producto -> producto);
+    }
+
+    private Pageable paginacion(ConsultaProductos consulta, Integer pagina, Integer tamanio) {
+        return PageRequest.of(pagina != null ? Math.max(pagina, 0) : 0,
+                this.catalogoProperties.getPaginacion().tamanioPagina(tamanio),
+                ProductoSpecifications.ordenar(consulta.getOrden()));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Producto obtenerProducto(Long id) {
-        return this.findById(id);
+        return GrafoProductoUtils.inicializar(this.findById(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Producto> obtenerProductos(List<Long> ids) {
+        List<Long> solicitados = LoteUtils.distintos(ids);
+        int maximo = this.catalogoProperties.getLotes().getIdsMaximos();
+        if (solicitados.size() > maximo)
+            throw new ProductoException("Se pueden obtener hasta " + maximo + " productos por consulta");
+        if (solicitados.isEmpty()) return new ArrayList<>();
+
+        List<Producto> productos = this.productoRepository.findAllDetalleByIdIn(solicitados);
+        productos.forEach(GrafoProductoUtils::inicializar);
+        return LoteUtils.enOrden(solicitados, productos, Producto::getId);
     }
 
     @Override
@@ -134,7 +204,7 @@ public class ProductoServiceImpl implements ProductoService {
     @Override
     @Transactional
     public void darDeBaja(Producto producto, Long id) {
-        Producto productoActual = this.obtenerProducto(id);
+        Producto productoActual = this.findById(id);
 
         if (!productoActual.isActivo()) {
             throw new ProductoException("Este producto ya está dado de baja");
@@ -147,7 +217,7 @@ public class ProductoServiceImpl implements ProductoService {
     @Override
     @Transactional
     public void darDeAlta(Producto producto, Long id) {
-        Producto productoActual = this.obtenerProducto(id);
+        Producto productoActual = this.findById(id);
 
         if (productoActual.isActivo()) {
             throw new ProductoException("Este producto ya está activo");
@@ -160,7 +230,7 @@ public class ProductoServiceImpl implements ProductoService {
     @Override
     @Transactional
     public void destacar(Producto producto, Long id) {
-        Producto productoActual = this.obtenerProducto(id);
+        Producto productoActual = this.findById(id);
 
         productoActual.setDestacado(!producto.isDestacado());
         this.save(productoActual);
@@ -183,42 +253,30 @@ public class ProductoServiceImpl implements ProductoService {
     @Transactional(readOnly = true)
     @Override
     public List<Sku> obtenerSkusProducto(Long productoId) {
-        Producto producto = this.obtenerProducto(productoId);
+        if (!this.productoRepository.existsById(productoId))
+            throw new ProductoException("No existe el producto con id: " + productoId);
 
-        return producto.getSkus();
+        List<Sku> skus = this.skuRepository.findAllByProductoId(productoId);
+        skus.forEach(GrafoProductoUtils::inicializarConProducto);
+        return skus;
     }
 
     @Transactional(readOnly = true)
     @Override
     public Sku obtenerSkuProducto(Long productoId, Long skuId) {
-        Producto producto = this.obtenerProducto(productoId);
-        Sku sku = null;
-
-        boolean existeSku = false;
-        //Verificamos si no es el default sku
-        if (producto.getDefaultSku().getId().equals(skuId)) {
-            sku = producto.getDefaultSku();
-            existeSku = true;
-        }
-        for (Sku skuEnProducto: producto.getSkus()) {
-            if (skuEnProducto.getId().equals(skuId)) {
-                sku = skuEnProducto;
-                existeSku = true;
-                break;
-            }
-        }
-
-        if (!existeSku) throw new ProductoException("El sku con id: " + skuId + " no pertenece " +
-                "al producto: " + producto.getNombre().concat(" (ID: ")
-                .concat(String.valueOf(producto.getId())).concat(")"));
+        Producto producto = this.findById(productoId);
 
-        return sku;
+        return this.skuRepository.findDeProducto(productoId, skuId)
+                .map(GrafoProductoUtils::inicializarConProducto)
+                .orElseThrow(() -> new ProductoException("El sku con id: " + skuId + " no pertenece " +
+                        "al producto: " + producto.getNombre().concat(" (ID: ")
+                        .concat(String.valueOf(producto.getId())).concat(")")));
     }
 
     @Transactional(readOnly = true)
     @Override
     public Sku obtenerSkuDefectoProducto(Long productoId) {
-        return this.obtenerProducto(productoId).getDefaultSku();
+        return GrafoProductoUtils.inicializarConProducto(this.obtenerProducto(productoId).getDefaultSku());
     }
 
     @Transactional(readOnly = true)
@@ -243,7 +301,9 @@ public class ProductoServiceImpl implements ProductoService {
     @Transactional
     @Override
     public Producto save(Producto object) {
-        return this.productoRepository.save(object);
+        Producto producto = this.productoRepository.save(object);
+        this.notificadorCambiosCatalogo.productoModificado(producto.getId());
+        return producto;
     }
 
     @Transactional
@@ -260,6 +320,7 @@ public class ProductoServiceImpl implements ProductoService {
 
         try {
             this.productoRepository.deleteById(aLong);
+            this.notificadorCambiosCatalogo.productoEliminado(aLong);
         } catch (DataAccessException e) {
             throw new ProductoException("No se pudo eliminar el producto " + aLong + "ya que posee referencias" +
                     " con otros objetos del sistema : " + e.getMessage());
@@ -1,12 +1,15 @@
 package com.deofis.tiendaapirest.productos.services;
 
 import com.deofis.tiendaapirest.globalservices.RoundService;
+import com.deofis.tiendaapirest.productos.domain.EntidadCatalogo;
 import com.deofis.tiendaapirest.productos.domain.Producto;
 import com.deofis.tiendaapirest.productos.domain.Promocion;
 import com.deofis.tiendaapirest.productos.domain.Sku;
 import com.deofis.tiendaapirest.productos.domain.Subcategoria;
 import com.deofis.tiendaapirest.productos.exceptions.PromocionException;
 import com.deofis.tiendaapirest.productos.repositories.PromocionRepository;
+import com.deofis.tiendaapirest.productos.services.cambios.NotificadorCambiosCatalogo;
+import com.deofis.tiendaapirest.productos.utils.GrafoProductoUtils;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,13 +26,15 @@ public class PromocionServiceImpl implements PromocionService {
     private final PromocionRepository promocionRepository;
 
     private final RoundService roundService;
+    private final NotificadorCambiosCatalogo notificadorCambiosCatalogo;
 
-    public PromocionServiceImpl(ProductoService productoService, SkuService skuService, SubcategoriaService subcategoriaService, PromocionRepository promocionRepository, RoundService roundService) {
+    public PromocionServiceImpl(ProductoService productoService, SkuService skuService, SubcategoriaService subcategoriaService, PromocionRepository promocionRepository, RoundService roundService, NotificadorCambiosCatalogo notificadorCambiosCatalogo) {
         this.productoService = productoService;
         this.skuService = skuService;
         this.subcategoriaService = subcategoriaService;
         this.promocionRepository = promocionRepository;
         this.roundService = roundService;
+        this.notificadorCambiosCatalogo = notificadorCambiosCatalogo;
     }
 
     @Transactional
@@ -41,7 +46,7 @@ public class PromocionServiceImpl implements PromocionService {
         // Eliminamos de la base de datos la promoción anterior, para no cargar la base de datos
         // con datos que ya NO sirven.
         if (promoActual != null) {
-            this.promocionRepository.deleteById(promoActual.getId());
+            this.eliminarPromocion(promoActual);
             producto.setPromocion(null);
         }
 
@@ -61,7 +66,7 @@ public class PromocionServiceImpl implements PromocionService {
 
         for (Sku sku: producto.getSkus()) {
             if (sku.getPromocion() != null) {
-                this.promocionRepository.deleteById(sku.getPromocion().getId());
+                this.eliminarPromocion(sku.getPromocion());
                 sku.setPromocion(null);
             }
 
@@ -79,7 +84,11 @@ public class PromocionServiceImpl implements PromocionService {
 
         producto.setPromocion(promoProducto);
         producto.getDefaultSku().setPromocion(promoProducto);
-        return this.productoService.save(producto);
+        Producto productoGuardado = this.productoService.save(producto);
+
+        this.registrarPromocion(productoGuardado.getPromocion());
+        productoGuardado.getSkus().forEach(skuGuardado -> this.registrarPromocion(skuGuardado.getPromocion()));
+        return productoGuardado;
     }
 
     /**
@@ -102,7 +111,7 @@ public class PromocionServiceImpl implements PromocionService {
         Promocion promoActual = sku.getPromocion();
 
         if (promoActual != null) {
-            this.promocionRepository.deleteById(promoActual.getId());
+            this.eliminarPromocion(promoActual);
             sku.setPromocion(null);
         }
 
@@ -115,7 +124,10 @@ public class PromocionServiceImpl implements PromocionService {
                 .porcentaje(promocion.getPorcentaje()).build();
 
         sku.setPromocion(nuevaPromocion);
-        return this.skuService.save(sku);
+        Sku skuGuardado = this.skuService.save(sku);
+
+        this.registrarPromocion(skuGuardado.getPromocion());
+        return GrafoProductoUtils.inicializarConProducto(skuGuardado);
     }
 
     @Transactional
@@ -183,6 +195,16 @@ public class PromocionServiceImpl implements PromocionService {
         return this.skuService.obtenerSku(skuId).getPromocion();
     }
 
+    private void eliminarPromocion(Promocion promocion) {
+        this.promocionRepository.deleteById(promocion.getId());
+        this.notificadorCambiosCatalogo.entidadEliminada(EntidadCatalogo.PROMOCION, promocion.getId());
+    }
+
+    private void registrarPromocion(Promocion promocion) {
+        if (promocion != null && promocion.getId() != null)
+            this.notificadorCambiosCatalogo.entidadModificada(EntidadCatalogo.PROMOCION, promocion.getId());
+    }
+
     private Double calcularPrecioOferta(Double porcentaje, Double precioBase) {
         return precioBase - (precioBase * porcentaje);
     }
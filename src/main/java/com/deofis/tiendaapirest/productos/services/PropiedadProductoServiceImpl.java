@@ -5,6 +5,9 @@ import com.deofis.tiendaapirest.productos.domain.ValorPropiedadProducto;
 import com.deofis.tiendaapirest.productos.exceptions.ProductoException;
 import com.deofis.tiendaapirest.productos.repositories.PropiedadProductoRepository;
 import com.deofis.tiendaapirest.productos.repositories.ValorPropiedadProductoRepository;
+import com.deofis.tiendaapirest.productos.services.cambios.RecursoVersionado;
+import com.deofis.tiendaapirest.productos.services.cambios.VersionCatalogoService;
+import com.deofis.tiendaapirest.productos.utils.GrafoProductoUtils;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
@@ -22,6 +25,7 @@ public class PropiedadProductoServiceImpl implements PropiedadProductoService {
 
     private final PropiedadProductoRepository propiedadProductoRepository;
     private final ValorPropiedadProductoRepository valorPropiedadProductoRepository;
+    private final VersionCatalogoService versionCatalogoService;
 
     @Transactional
     @Override
@@ -39,13 +43,15 @@ public class PropiedadProductoServiceImpl implements PropiedadProductoService {
     @Transactional(readOnly = true)
     @Override
     public List<PropiedadProducto> obtenerPropiedadesProducto() {
-        return this.findAll();
+        List<PropiedadProducto> propiedades = this.findAll();
+        propiedades.forEach(GrafoProductoUtils::inicializar);
+        return propiedades;
     }
 
     @Transactional(readOnly = true)
     @Override
     public PropiedadProducto obtenerPropiedadProducto(Long propiedadId) {
-        return this.findById(propiedadId);
+        return GrafoProductoUtils.inicializar(this.findById(propiedadId));
     }
 
     @Transactional
@@ -123,6 +129,7 @@ public class PropiedadProductoServiceImpl implements PropiedadProductoService {
         for (ValorPropiedadProducto valorPropiedadProducto: propiedad.getValores()) {
             if (valorPropiedadProducto.getId().equals(valorId)) {
                 this.valorPropiedadProductoRepository.deleteById(valorId);
+                this.versionCatalogoService.registrarCambio(RecursoVersionado.CATALOGO);
                 existeValor = true;
                 break;
             }
@@ -148,6 +155,7 @@ public class PropiedadProductoServiceImpl implements PropiedadProductoService {
     @Transactional
     @Override
     public PropiedadProducto save(PropiedadProducto object) {
+        this.versionCatalogoService.registrarCambio(RecursoVersionado.CATALOGO);
         return this.propiedadProductoRepository.save(object);
     }
 
@@ -165,6 +173,7 @@ public class PropiedadProductoServiceImpl implements PropiedadProductoService {
 
         try {
             this.propiedadProductoRepository.deleteById(aLong);
+            this.versionCatalogoService.registrarCambio(RecursoVersionado.CATALOGO);
         } catch (DataIntegrityViolationException e) {
             throw new ProductoException("No se pudo eliminar la propiedad con id ".concat(String.valueOf(aLong)) +
                     " ya que tiene referencias con otros objetos : " + e.getMessage());
@@ -4,6 +4,7 @@ import com.deofis.tiendaapirest.globalservices.CrudService;
 import com.deofis.tiendaapirest.productos.domain.Producto;
 import com.deofis.tiendaapirest.productos.domain.Sku;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -41,6 +42,44 @@ public interface SkuService extends CrudService<Sku, Long> {
      */
     Sku obtenerSku(Long skuId);
 
+    /**
+     * Obtiene varios SKUs por id con una sola consulta, con su foto y valores inicializados.
+     * @param skuIds List de ids de skus. Los repetidos se devuelven una vez.
+     * @return List de Skus en el orden de los ids solicitados, sin los que no existen.
+     * @throws SkuException si se solicitan más ids de los permitidos por consulta.
+     */
+    List<Sku> obtenerSkus(List<Long> skuIds);
+
+    /**
+     * Igual que {@link #obtenerSkus(List)}, con el producto de cada sku inicializado: para devolver los skus en
+     * una respuesta, que los serializa junto con su producto.
+     * @param skuIds List de ids de skus.
+     * @return List de Skus en el orden de los ids solicitados, sin los que no existen.
+     */
+    List<Sku> obtenerSkusConProducto(List<Long> skuIds);
+
+    /**
+     * Descuenta la disponibilidad de varios SKUs sin leerla ni escribirla desde Java: cada sku se actualiza con
+     * un UPDATE condicionado a que alcance la disponibilidad (disponibilidad >= cantidad), por lo que dos compras
+     * simultáneas no pueden vender más de lo disponible. Los UPDATE se envían en un solo lote y en orden de id,
+     * para que dos compras con los mismos skus los bloqueen en el mismo orden.
+     * <br>
+     * Debe llamarse dentro de la transacción de la compra: si algún sku no tiene disponibilidad suficiente, la
+     * compra debe lanzar una excepción para revertir los descuentos que sí se aplicaron.
+     * @param cantidades Map de id de sku a cantidad a descontar.
+     * @return Map de id de sku a disponibilidad actual de los skus sin disponibilidad suficiente; vacío si se
+     * descontaron todos.
+     */
+    Map<Long, Integer> descontarDisponibilidad(Map<Long, Integer> cantidades);
+
+    /**
+     * Repone la disponibilidad descontada con {@link #descontarDisponibilidad(Map)} (Ej.: al liberar una reserva
+     * de stock), con UPDATEs relativos enviados en un solo lote y en orden de id. Debe llamarse dentro de una
+     * transacción.
+     * @param cantidades Map de id de sku a cantidad a reponer.
+     */
+    void reponerDisponibilidad(Map<Long, Integer> cantidades);
+
     /**
      * Actualiza por completo los datos de un SKU.
      * @param skuId Long id del sku a actualizar.
@@ -1,6 +1,8 @@
 package com.deofis.tiendaapirest.productos.services;
 
+import com.deofis.tiendaapirest.config.CatalogoProperties;
 import com.deofis.tiendaapirest.globalservices.RoundService;
+import com.deofis.tiendaapirest.productos.domain.EntidadCatalogo;
 import com.deofis.tiendaapirest.productos.domain.Producto;
 import com.deofis.tiendaapirest.productos.domain.Sku;
 import com.deofis.tiendaapirest.productos.domain.ValorPropiedadProducto;
@@ -8,10 +10,16 @@ import com.deofis.tiendaapirest.productos.exceptions.ProductoException;
 import com.deofis.tiendaapirest.productos.exceptions.SkuException;
 import com.deofis.tiendaapirest.productos.repositories.SkuRepository;
 import com.deofis.tiendaapirest.productos.repositories.ValorPropiedadProductoRepository;
+import com.deofis.tiendaapirest.productos.services.cambios.NotificadorCambiosCatalogo;
+import com.deofis.tiendaapirest.productos.utils.GrafoProductoUtils;
+import com.deofis.tiendaapirest.productos.utils.LoteUtils;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
@@ -21,11 +29,19 @@ import java.util.*;
 @Slf4j
 public class SkuServiceImpl implements SkuService {
 
+    private static final String DESCONTAR_DISPONIBILIDAD =
+            "update skus set disponibilidad = disponibilidad - ? where id = ? and disponibilidad >= ?";
+    private static final String REPONER_DISPONIBILIDAD =
+            "update skus set disponibilidad = disponibilidad + ? where id = ?";
+
     private final SkuRepository skuRepository;
     private final ValorPropiedadProductoRepository valorPropiedadProductoRepository;
     private final GeneradorSkus generadorSkus;
+    private final NotificadorCambiosCatalogo notificadorCambiosCatalogo;
 
     private final RoundService roundService;
+    private final CatalogoProperties catalogoProperties;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
 
     @Transactional
     @Override
@@ -81,6 +97,7 @@ public class SkuServiceImpl implements SkuService {
                     "seleccionado no poseen valores asociados");
         }
 
+        this.notificadorCambiosCatalogo.productoModificado(producto.getId());
         map.put("combinaciones", cantCombinacionesGeneradas);
         map.put("skus", producto.getSkus());
         return map;
@@ -92,6 +109,27 @@ public class SkuServiceImpl implements SkuService {
         return this.findById(skuId);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public List<Sku> obtenerSkus(List<Long> skuIds) {
+        List<Long> solicitados = LoteUtils.distintos(skuIds);
+        int maximo = this.catalogoProperties.getLotes().getIdsMaximos();
+        if (solicitados.size() > maximo)
+            throw new SkuException("Se pueden obtener hasta " + maximo + " skus por consulta");
+        if (solicitados.isEmpty()) return new ArrayList<>();
+
+        List<Sku> skus = this.skuRepository.findAllDetalleByIdIn(solicitados);
+        return LoteUtils.enOrden(solicitados, skus, Sku::getId);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<Sku> obtenerSkusConProducto(List<Long> skuIds) {
+        List<Sku> skus = this.obtenerSkus(skuIds);
+        skus.forEach(GrafoProductoUtils::inicializarConProducto);
+        return skus;
+    }
+
     @Transactional
     @Override
     public Sku actualizarSku(Long skuId, Sku sku) {
@@ -101,7 +139,7 @@ public class SkuServiceImpl implements SkuService {
         skuActual.setDescripcion(sku.getDescripcion());
         skuActual.setPrecio(this.roundService.truncate(sku.getPrecio()));
         skuActual.setDisponibilidad(sku.getDisponibilidad());
-        return this.save(skuActual);
+        return GrafoProductoUtils.inicializarConProducto(this.save(skuActual));
     }
 
     @Transactional
@@ -110,7 +148,7 @@ public class SkuServiceImpl implements SkuService {
         Sku skuActual = this.obtenerSku(skuId);
 
         skuActual.setDisponibilidad(disponibilidad);
-        return this.save(skuActual);
+        return GrafoProductoUtils.inicializarConProducto(this.save(skuActual));
     }
 
     @Transactional
@@ -118,13 +156,15 @@ public class SkuServiceImpl implements SkuService {
     public Sku actualizarPrecio(Long skuId, Double precio) {
         Sku sku = this.obtenerSku(skuId);
         sku.setPrecio(this.roundService.truncate(precio));
-        return this.save(sku);
+        return GrafoProductoUtils.inicializarConProducto(this.save(sku));
     }
 
     @Transactional
     @Override
     public void eliminarSku(Long skuId) {
+        this.skuRepository.findById(skuId).ifPresent(this.notificadorCambiosCatalogo::skuModificado);
         this.skuRepository.deleteById(skuId);
+        this.notificadorCambiosCatalogo.entidadEliminada(EntidadCatalogo.SKU, skuId);
     }
 
     private ValorPropiedadProducto getValor(Long valorId) {
@@ -145,10 +185,76 @@ public class SkuServiceImpl implements SkuService {
                 .orElseThrow(() -> new SkuException("No existe el sku con id: " + aLong));
     }
 
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public Map<Long, Integer> descontarDisponibilidad(Map<Long, Integer> cantidades) {
+        Map<Long, Integer> faltantes = new TreeMap<>();
+        if (cantidades.isEmpty()) return faltantes;
+
+        List<Map.Entry<Long, Integer>> descuentos = this.enOrden(cantidades);
+        int[][] actualizados = this.jdbcTemplate.getJdbcTemplate().batchUpdate(DESCONTAR_DISPONIBILIDAD, descuentos,
+                descuentos.size(), (ps, descuento) -> {
+                    ps.setInt(1, descuento.getValue());
+                    ps.setLong(2, descuento.getKey());
+                    ps.setInt(3, descuento.getValue());
+                });
+
+        for (int i = 0; i < descuentos.size(); i++) {
+            // 0 filas: el sku no tenía disponibilidad suficiente (o no existe).
+            if (actualizados[0][i] == 0) faltantes.put(descuentos.get(i).getKey(), 0);
+        }
+
+        if (!faltantes.isEmpty()) {
+            this.jdbcTemplate.query("select id, disponibilidad from skus where id in (:ids)",
+                    new MapSqlParameterSource("ids", faltantes.keySet()),
+                    fila -> { faltantes.put(fila.getLong("id"), fila.getInt("disponibilidad")); });
+            return faltantes;
+        }
+
+        this.notificarDisponibilidad(descuentos, 1);
+        return faltantes;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public void reponerDisponibilidad(Map<Long, Integer> cantidades) {
+        if (cantidades.isEmpty()) return;
+
+        List<Map.Entry<Long, Integer>> reposiciones = this.enOrden(cantidades);
+        this.jdbcTemplate.getJdbcTemplate().batchUpdate(REPONER_DISPONIBILIDAD, reposiciones, reposiciones.size(),
+                (ps, reposicion) -> {
+                    ps.setInt(1, reposicion.getValue());
+                    ps.setLong(2, reposicion.getKey());
+                });
+
+        this.notificarDisponibilidad(reposiciones, -1);
+    }
+
+    /**
+     * En orden de id: dos transacciones con skus en común toman los bloqueos de fila en el mismo orden.
+     */
+    private List<Map.Entry<Long, Integer>> enOrden(Map<Long, Integer> cantidades) {
+        return new ArrayList<>(new TreeMap<>(cantidades).entrySet());
+    }
+
+    /**
+     * La disponibilidad se actualizó por fuera de Hibernate: se notifica el cambio de cada sku para que el
+     * catálogo en memoria lo relea, junto con las unidades vendidas (signo 1) o repuestas (signo -1). Los skus se
+     * cargan en lotes (@BatchSize), o ya están cargados en la transacción.
+     */
+    private void notificarDisponibilidad(List<Map.Entry<Long, Integer>> cambios, int signo) {
+        for (Map.Entry<Long, Integer> cambio: cambios) {
+            this.notificadorCambiosCatalogo.ventaRegistrada(this.skuRepository.getOne(cambio.getKey()),
+                    signo * cambio.getValue());
+        }
+    }
+
     @Transactional
     @Override
     public Sku save(Sku object) {
-        return this.skuRepository.save(object);
+        Sku sku = this.skuRepository.save(object);
+        this.notificadorCambiosCatalogo.skuModificado(sku);
+        return sku;
     }
 
     @Transactional
@@ -160,11 +266,13 @@ public class SkuServiceImpl implements SkuService {
     @Transactional
     @Override
     public void deleteById(Long aLong) {
-        if (this.skuRepository.findById(aLong).isEmpty())
-            throw new SkuException("No existe el sku con id: " + aLong);
+        Sku sku = this.skuRepository.findById(aLong)
+                .orElseThrow(() -> new SkuException("No existe el sku con id: " + aLong));
 
+        this.notificadorCambiosCatalogo.skuModificado(sku);
         try {
             this.skuRepository.deleteById(aLong);
+            this.notificadorCambiosCatalogo.entidadEliminada(EntidadCatalogo.SKU, aLong);
         } catch (DataAccessException e) {
             throw new SkuException("No se pudo eliminar el sku con id: " + aLong + " porque" +
                     " tiene referencias con otros objetos : " + e.getMessage());
@@ -1,11 +1,15 @@
 package com.deofis.tiendaapirest.productos.services;
 
+import com.deofis.tiendaapirest.productos.domain.EntidadCatalogo;
 import com.deofis.tiendaapirest.productos.domain.Imagen;
 import com.deofis.tiendaapirest.productos.domain.PropiedadProducto;
 import com.deofis.tiendaapirest.productos.domain.Subcategoria;
 import com.deofis.tiendaapirest.productos.exceptions.CategoriaException;
 import com.deofis.tiendaapirest.productos.exceptions.ProductoException;
 import com.deofis.tiendaapirest.productos.repositories.SubcategoriaRepository;
+import com.deofis.tiendaapirest.productos.services.cambios.NotificadorCambiosCatalogo;
+import com.deofis.tiendaapirest.productos.services.cambios.RecursoVersionado;
+import com.deofis.tiendaapirest.productos.services.cambios.VersionCatalogoService;
 import com.deofis.tiendaapirest.productos.services.images.ImageService;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -20,6 +24,8 @@ public class SubcategoriaServiceImpl implements SubcategoriaService {
 
     private final SubcategoriaRepository subcategoriaRepository;
     private final ImageService imageService;
+    private final VersionCatalogoService versionCatalogoService;
+    private final NotificadorCambiosCatalogo notificadorCambiosCatalogo;
 
     @Transactional(readOnly = true)
     @Override
@@ -75,6 +81,8 @@ public class SubcategoriaServiceImpl implements SubcategoriaService {
         Imagen fotoSubcategoria = this.imageService.subirImagen(foto);
         subcategoria.setFoto(fotoSubcategoria);
         this.subcategoriaRepository.save(subcategoria);
+        this.versionCatalogoService.registrarCambio(RecursoVersionado.CATALOGO);
+        this.notificadorCambiosCatalogo.entidadModificada(EntidadCatalogo.SUBCATEGORIA, subcategoriaId);
         return fotoSubcategoria;
     }
 
@@ -108,6 +116,8 @@ public class SubcategoriaServiceImpl implements SubcategoriaService {
         Imagen fotoSubcategoria = subcategoria.getFoto();
         subcategoria.setFoto(null);
         this.subcategoriaRepository.save(subcategoria);
+        this.versionCatalogoService.registrarCambio(RecursoVersionado.CATALOGO);
+        this.notificadorCambiosCatalogo.entidadModificada(EntidadCatalogo.SUBCATEGORIA, subcategoriaId);
         this.imageService.eliminarImagen(fotoSubcategoria);
     }
 }
@@ -0,0 +1,23 @@
+package com.deofis.tiendaapirest.productos.services.busqueda;
+
+import com.deofis.tiendaapirest.productos.dto.SugerenciaBusqueda;
+
+import java.util.List;
+
+/**
+ * Autocompletado en memoria del buscador sobre los nombres de productos activos, sus marcas y subcategorías.
+ * <br>
+ * Cada nombre se indexa por todas sus palabras en un mapa ordenado, por lo que "gal" completa tanto
+ * "Galaxy S20" como "Samsung Galaxy S20". No consulta la base de datos al completar.
+ */
+public interface Autocompletador {
+
+    /**
+     * Obtiene los nombres que empiezan con el prefijo (en cualquiera de sus palabras), ordenados por
+     * popularidad: unidades vendidas para los productos y la suma de sus productos para marcas y subcategorías.
+     * @param prefijo String texto escrito por el usuario (no distingue mayúsculas ni acentos).
+     * @param cantidad int cantidad máxima de sugerencias.
+     * @return List sugerencias más populares, de mayor a menor.
+     */
+    List<SugerenciaBusqueda> completar(String prefijo, int cantidad);
+}
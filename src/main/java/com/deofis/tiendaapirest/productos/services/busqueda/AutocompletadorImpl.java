@@ -0,0 +1,272 @@
+package com.deofis.tiendaapirest.productos.services.busqueda;
+
+import com.deofis.tiendaapirest.config.CatalogoProperties;
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.dto.SugerenciaBusqueda;
+import com.deofis.tiendaapirest.productos.dto.SugerenciaBusqueda.TipoSugerencia;
+import com.deofis.tiendaapirest.productos.services.cambios.ObservadorCatalogo;
+import com.deofis.tiendaapirest.productos.utils.TextoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class AutocompletadorImpl implements Autocompletador, ObservadorCatalogo {
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+    /** Separa el texto de la clave del identificador de la entrada; ordena antes que cualquier letra. */
+    private static final char FIN_TEXTO = '\u0000';
+
+    /**
+     * Un prefijo corto ('s', 'pro') puede abarcar gran parte del catálogo. Si su rango supera esta cantidad de
+     * claves, las mejores sugerencias se guardan hasta que cambie alguna entrada que empiece con ese prefijo.
+     * Como solo se guardan los prefijos "anchos", la cantidad guardada queda acotada por claves / este valor
+     * por cada longitud de prefijo.
+     */
+    private static final int MINIMO_RANGO_GUARDADO = 1000;
+
+    /** Mayor popularidad primero; a igual popularidad, el nombre más corto (la completación más directa). */
+    private static final Comparator<Entrada> POR_RELEVANCIA = Comparator
+            .comparingLong((Entrada entrada) -> entrada.peso).reversed()
+            .thenComparingInt(entrada -> entrada.texto.length())
+            .thenComparing(entrada -> entrada.texto)
+            .thenComparing(entrada -> entrada.tipo)
+            .thenComparing(entrada -> entrada.id);
+
+    private final VentasProductos ventasProductos;
+    private final CatalogoProperties catalogoProperties;
+
+    /** Sufijo normalizado del nombre a partir de cada palabra (+ tipo e id) --> entrada. */
+    private final NavigableMap<String, Entrada> claves = new TreeMap<>();
+    private final Map<Long, Entrada> productos = new HashMap<>();
+    private final Map<Long, Entrada> marcas = new HashMap<>();
+    private final Map<Long, Entrada> subcategorias = new HashMap<>();
+    /** Prefijo normalizado --> mejores entradas (hasta la cantidad máxima de sugerencias), ordenadas. */
+    private final Map<String, List<Entrada>> prefijosAnchos = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public AutocompletadorImpl(VentasProductos ventasProductos, CatalogoProperties catalogoProperties) {
+        this.ventasProductos = ventasProductos;
+        this.catalogoProperties = catalogoProperties;
+    }
+
+    @Override
+    public List<SugerenciaBusqueda> completar(String prefijo, int cantidad) {
+        String clave = String.join(" ", this.palabras(prefijo));
+        if (clave.isEmpty() || cantidad <= 0) return new ArrayList<>();
+
+        this.lock.readLock().lock();
+        try {
+            List<Entrada> mejores = this.prefijosAnchos.get(clave);
+            if (mejores == null || mejores.size() < Math.min(cantidad, this.cantidadGuardada()))
+                mejores = this.completarPorRango(clave, Math.max(cantidad, this.cantidadGuardada()));
+
+            return mejores.stream()
+                    .limit(cantidad)
+                    .map(entrada -> SugerenciaBusqueda.builder()
+                            .texto(entrada.texto)
+                            .tipo(entrada.tipo)
+                            .id(entrada.id).build())
+                    .collect(Collectors.toList());
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recorre las claves que empiezan con el prefijo quedándose con las más relevantes. Si el rango es ancho, el
+     * resultado se guarda para las próximas consultas del mismo prefijo.
+     */
+    private List<Entrada> completarPorRango(String clave, int cantidad) {
+        // Min-heap de tamaño acotado: la cabeza es la peor de las mejores encontradas hasta el momento.
+        PriorityQueue<Entrada> mejores = new PriorityQueue<>(cantidad + 1, POR_RELEVANCIA.reversed());
+        Set<Entrada> vistas = Collections.newSetFromMap(new IdentityHashMap<>());
+        int recorridas = 0;
+
+        for (Entrada entrada: this.claves.subMap(clave, true, clave + Character.MAX_VALUE, false).values()) {
+            recorridas++;
+            if (!vistas.add(entrada)) continue;
+
+            mejores.offer(entrada);
+            if (mejores.size() > cantidad) mejores.poll();
+        }
+
+        List<Entrada> ordenadas = new ArrayList<>(mejores);
+        ordenadas.sort(POR_RELEVANCIA);
+
+        if (recorridas >= MINIMO_RANGO_GUARDADO && cantidad >= this.cantidadGuardada())
+            this.prefijosAnchos.put(clave, ordenadas);
+
+        return ordenadas;
+    }
+
+    private int cantidadGuardada() {
+        return this.catalogoProperties.getSugerencias().getCantidadMaxima();
+    }
+
+    @Override
+    public void catalogoCargado(List<Producto> productos) {
+        this.lock.writeLock().lock();
+        try {
+            this.claves.clear();
+            this.productos.clear();
+            this.marcas.clear();
+            this.subcategorias.clear();
+            this.prefijosAnchos.clear();
+            productos.forEach(this::agregar);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        log.info("Autocompletado construido: " + this.productos.size() + " productos, " + this.marcas.size()
+                + " marcas, " + this.subcategorias.size() + " subcategorías");
+    }
+
+    @Override
+    public void productoActualizado(Producto producto) {
+        // Cada venta modifica el stock de un sku y llega aquí, con las ventas ya sumadas: la popularidad se
+        // mantiene al día sin consultar la base de datos.
+        this.lock.writeLock().lock();
+        try {
+            this.quitar(producto.getId());
+            this.agregar(producto);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productoEliminado(Long productoId) {
+        this.lock.writeLock().lock();
+        try {
+            this.quitar(productoId);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private void agregar(Producto producto) {
+        if (!producto.isActivo()) return;
+
+        // Un producto sin ventas pesa 1 para que marcas y subcategorías con más productos queden primero.
+        Entrada entrada = new Entrada(TipoSugerencia.PRODUCTO, producto.getId(), producto.getNombre());
+        entrada.peso = 1 + this.ventasProductos.vendidos(producto.getId());
+        this.indexar(entrada);
+        this.productos.put(producto.getId(), entrada);
+
+        if (producto.getMarca() != null)
+            entrada.marca = this.sumar(this.marcas, TipoSugerencia.MARCA, producto.getMarca().getId(),
+                    producto.getMarca().getNombre(), entrada.peso);
+
+        if (producto.getSubcategoria() != null)
+            entrada.subcategoria = this.sumar(this.subcategorias, TipoSugerencia.SUBCATEGORIA,
+                    producto.getSubcategoria().getId(), producto.getSubcategoria().getNombre(), entrada.peso);
+    }
+
+    private void quitar(Long productoId) {
+        Entrada entrada = this.productos.remove(productoId);
+        if (entrada == null) return;
+
+        this.desindexar(entrada);
+        if (entrada.marca != null) this.restar(this.marcas, entrada.marca, entrada.peso);
+        if (entrada.subcategoria != null) this.restar(this.subcategorias, entrada.subcategoria, entrada.peso);
+    }
+
+    /** Suma un producto a la entrada de su marca/subcategoría, creándola (o renombrándola) si hace falta. */
+    private Entrada sumar(Map<Long, Entrada> entradas, TipoSugerencia tipo, Long id, String nombre, long peso) {
+        Entrada entrada = entradas.get(id);
+
+        if (entrada == null) {
+            entrada = new Entrada(tipo, id, nombre);
+            entradas.put(id, entrada);
+            this.indexar(entrada);
+        } else if (!Objects.equals(entrada.texto, nombre)) {
+            this.desindexar(entrada);
+            entrada.texto = nombre;
+            this.indexar(entrada);
+        }
+
+        entrada.peso += peso;
+        entrada.productos++;
+        this.invalidarPrefijos(entrada);
+        return entrada;
+    }
+
+    /** Una marca/subcategoría sin productos activos se deja de sugerir. */
+    private void restar(Map<Long, Entrada> entradas, Entrada entrada, long peso) {
+        entrada.peso -= peso;
+        this.invalidarPrefijos(entrada);
+        if (--entrada.productos > 0) return;
+
+        entradas.remove(entrada.id);
+        this.desindexar(entrada);
+    }
+
+    private void indexar(Entrada entrada) {
+        List<String> palabras = this.palabras(entrada.texto);
+        String sufijoId = FIN_TEXTO + entrada.tipo.name() + ":" + entrada.id;
+
+        for (int i = 0; i < palabras.size(); i++) {
+            String clave = String.join(" ", palabras.subList(i, palabras.size())) + sufijoId;
+            this.claves.put(clave, entrada);
+            entrada.claves.add(clave);
+        }
+
+        this.invalidarPrefijos(entrada);
+    }
+
+    private void desindexar(Entrada entrada) {
+        this.invalidarPrefijos(entrada);
+        entrada.claves.forEach(this.claves::remove);
+        entrada.claves.clear();
+    }
+
+    /** Descarta las sugerencias guardadas de todos los prefijos que abarcan a la entrada. */
+    private void invalidarPrefijos(Entrada entrada) {
+        if (this.prefijosAnchos.isEmpty()) return;
+
+        for (String clave: entrada.claves) {
+            int finTexto = clave.indexOf(FIN_TEXTO);
+            for (int longitud = 1; longitud <= finTexto; longitud++) {
+                this.prefijosAnchos.remove(clave.substring(0, longitud));
+            }
+        }
+    }
+
+    private List<String> palabras(String texto) {
+        List<String> palabras = new ArrayList<>();
+
+        for (String palabra: SEPARADORES.split(TextoUtils.normalizar(texto))) {
+            if (!palabra.isEmpty()) palabras.add(palabra);
+        }
+
+        return palabras;
+    }
+
+    private static class Entrada {
+        private final TipoSugerencia tipo;
+        private final Long id;
+        private final List<String> claves = new ArrayList<>();
+        private String texto;
+        private long peso;
+        /** Productos activos que suman a la entrada (solo marcas y subcategorías). */
+        private int productos;
+        /** Marca y subcategoría a las que sumó el producto (solo productos). */
+        private Entrada marca;
+        private Entrada subcategoria;
+
+        private Entrada(TipoSugerencia tipo, Long id, String texto) {
+            this.tipo = tipo;
+            this.id = id;
+            this.texto = texto;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.deofis.tiendaapirest.productos.services.busqueda;
+
+/**
+ * Campos de un {@link com.deofis.tiendaapirest.productos.domain.Producto} que se indexan para la búsqueda,
+ * ordenados de mayor a menor relevancia. El peso de cada campo multiplica las apariciones de un término en él
+ * al calcular la relevancia (BM25F).
+ */
+public enum CampoProducto {
+    NOMBRE(3.0),
+    MARCA(2.0),
+    SUBCATEGORIA(1.5),
+    PROPIEDADES(1.0),
+    DESCRIPCION(0.5);
+
+    private final double peso;
+
+    CampoProducto(double peso) {
+        this.peso = peso;
+    }
+
+    public double peso() {
+        return this.peso;
+    }
+}
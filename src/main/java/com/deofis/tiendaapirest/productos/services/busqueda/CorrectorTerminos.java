@@ -0,0 +1,18 @@
+package com.deofis.tiendaapirest.productos.services.busqueda;
+
+/**
+ * Corrector ortográfico en memoria para las búsquedas del catálogo ("¿Quisiste decir...?"). Su vocabulario son
+ * los términos de los nombres de productos activos, sus marcas y subcategorías, indexados por trigramas.
+ */
+public interface CorrectorTerminos {
+
+    /**
+     * Sugiere una corrección de la consulta reemplazando cada término que no existe en el vocabulario por el
+     * término más cercano (menor distancia de edición y, a igual distancia, el que aparece en más productos).
+     * Ej.: "zapatilas" --> "zapatillas", "remra" --> "remera".
+     * @param termino String consulta original.
+     * @return String consulta corregida, o null si todos los términos existen o alguno no tiene un candidato
+     * suficientemente cercano.
+     */
+    String sugerir(String termino);
+}
@@ -0,0 +1,201 @@
+package com.deofis.tiendaapirest.productos.services.busqueda;
+
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.services.cambios.ObservadorCatalogo;
+import com.deofis.tiendaapirest.productos.utils.TextoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+@Slf4j
+public class CorrectorTerminosImpl implements CorrectorTerminos, ObservadorCatalogo {
+
+    /** Cantidad máxima de candidatos (los de más trigramas en común) sobre los que se calcula la distancia. */
+    private static final int MAXIMO_CANDIDATOS = 50;
+    private static final char DELIMITADOR = '$';
+
+    /** Término --> cantidad de productos activos que lo contienen. */
+    private final NavigableMap<String, Integer> frecuencias = new TreeMap<>();
+    /** Término --> palabra original (en minúsculas) con la que se muestra en las sugerencias. */
+    private final Map<String, String> formas = new HashMap<>();
+    private final Map<String, Set<String>> terminosPorTrigrama = new HashMap<>();
+    private final Map<Long, Set<String>> terminosPorProducto = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public String sugerir(String termino) {
+        if (termino == null) return null;
+
+        this.lock.readLock().lock();
+        try {
+            List<String> sugerencia = new ArrayList<>();
+            boolean corregido = false;
+
+            for (String palabra: termino.trim().split("\\s+")) {
+                List<String> terminos = TextoUtils.tokenizar(palabra);
+                if (terminos.isEmpty()) continue;
+
+                if (terminos.stream().allMatch(this::existePrefijo)) {
+                    sugerencia.add(palabra);
+                    continue;
+                }
+
+                for (String terminoPalabra: terminos) {
+                    String correccion = this.existePrefijo(terminoPalabra) ? terminoPalabra : this.corregir(terminoPalabra);
+                    if (correccion == null) return null;
+
+                    sugerencia.add(this.formas.getOrDefault(correccion, correccion));
+                }
+                corregido = true;
+            }
+
+            return corregido ? String.join(" ", sugerencia) : null;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void catalogoCargado(List<Producto> productos) {
+        this.lock.writeLock().lock();
+        try {
+            this.frecuencias.clear();
+            this.formas.clear();
+            this.terminosPorTrigrama.clear();
+            this.terminosPorProducto.clear();
+            productos.forEach(this::agregar);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        log.info("Vocabulario del corrector construido: " + this.frecuencias.size() + " términos");
+    }
+
+    @Override
+    public void productoActualizado(Producto producto) {
+        this.lock.writeLock().lock();
+        try {
+            this.quitar(producto.getId());
+            this.agregar(producto);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productoEliminado(Long productoId) {
+        this.lock.writeLock().lock();
+        try {
+            this.quitar(productoId);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /** Las búsquedas comparan por prefijo, por lo que un término incompleto ('zapat') no es un error. */
+    private boolean existePrefijo(String termino) {
+        String siguiente = this.frecuencias.ceilingKey(termino);
+        return siguiente != null && siguiente.startsWith(termino);
+    }
+
+    /**
+     * Busca el término del vocabulario más cercano: primero se preseleccionan los que comparten más trigramas y
+     * luego se ordenan por distancia de edición acotada (1 para términos de hasta 4 letras, 2 para el resto).
+     */
+    private String corregir(String termino) {
+        int maximaDistancia = termino.length() <= 4 ? 1 : 2;
+
+        Map<String, Integer> trigramasEnComun = new HashMap<>();
+        for (String trigrama: this.trigramas(termino)) {
+            for (String candidato: this.terminosPorTrigrama.getOrDefault(trigrama, Collections.emptySet())) {
+                if (Math.abs(candidato.length() - termino.length()) <= maximaDistancia)
+                    trigramasEnComun.merge(candidato, 1, Integer::sum);
+            }
+        }
+
+        List<String> candidatos = new ArrayList<>(trigramasEnComun.keySet());
+        candidatos.sort(Comparator.comparing(trigramasEnComun::get, Comparator.reverseOrder()));
+
+        String mejor = null;
+        int mejorDistancia = maximaDistancia + 1;
+        for (String candidato: candidatos.subList(0, Math.min(MAXIMO_CANDIDATOS, candidatos.size()))) {
+            int distancia = TextoUtils.distanciaEdicion(termino, candidato, maximaDistancia);
+
+            if (distancia < mejorDistancia || (distancia == mejorDistancia && mejor != null
+                    && this.frecuencias.get(candidato) > this.frecuencias.get(mejor))) {
+                mejor = candidato;
+                mejorDistancia = distancia;
+            }
+        }
+
+        return mejor;
+    }
+
+    private void agregar(Producto producto) {
+        if (!producto.isActivo()) return;
+
+        Set<String> terminos = new HashSet<>();
+        this.agregarTerminos(terminos, producto.getNombre());
+        if (producto.getMarca() != null) this.agregarTerminos(terminos, producto.getMarca().getNombre());
+        if (producto.getSubcategoria() != null) this.agregarTerminos(terminos, producto.getSubcategoria().getNombre());
+
+        for (String termino: terminos) {
+            if (this.frecuencias.merge(termino, 1, Integer::sum) > 1) continue;
+
+            for (String trigrama: this.trigramas(termino)) {
+                this.terminosPorTrigrama.computeIfAbsent(trigrama, t -> new HashSet<>()).add(termino);
+            }
+        }
+
+        this.terminosPorProducto.put(producto.getId(), terminos);
+    }
+
+    private void agregarTerminos(Set<String> terminos, String texto) {
+        if (texto == null) return;
+
+        for (String palabra: texto.trim().split("\\s+")) {
+            List<String> terminosPalabra = TextoUtils.tokenizar(palabra);
+            terminos.addAll(terminosPalabra);
+
+            // Solo las palabras que generan un único término tienen una forma legible inequívoca.
+            if (terminosPalabra.size() == 1)
+                this.formas.putIfAbsent(terminosPalabra.get(0), palabra.toLowerCase().replaceAll("^[^\\p{L}\\p{N}]+|[^\\p{L}\\p{N}]+$", ""));
+        }
+    }
+
+    private void quitar(Long productoId) {
+        Set<String> terminos = this.terminosPorProducto.remove(productoId);
+        if (terminos == null) return;
+
+        for (String termino: terminos) {
+            if (this.frecuencias.merge(termino, -1, Integer::sum) > 0) continue;
+
+            this.frecuencias.remove(termino);
+            this.formas.remove(termino);
+            for (String trigrama: this.trigramas(termino)) {
+                Set<String> terminosTrigrama = this.terminosPorTrigrama.get(trigrama);
+                if (terminosTrigrama == null) continue;
+
+                terminosTrigrama.remove(termino);
+                if (terminosTrigrama.isEmpty()) this.terminosPorTrigrama.remove(trigrama);
+            }
+        }
+    }
+
+    /** Trigramas del término delimitado: "sol" --> "$so", "sol", "ol$". */
+    private Set<String> trigramas(String termino) {
+        String delimitado = DELIMITADOR + termino + DELIMITADOR;
+        Set<String> trigramas = new HashSet<>();
+
+        for (int i = 0; i + 3 <= delimitado.length(); i++) {
+            trigramas.add(delimitado.substring(i, i + 3));
+        }
+
+        return trigramas;
+    }
+}
@@ -0,0 +1,25 @@
+package com.deofis.tiendaapirest.productos.services.busqueda;
+
+import com.deofis.tiendaapirest.productos.dto.FiltroProductos;
+import com.deofis.tiendaapirest.productos.dto.ResultadoFiltro;
+
+/**
+ * Motor de filtros del catálogo en memoria. Cada producto activo tiene un ordinal denso, y cada marca,
+ * subcategoría y valor de propiedad un {@link java.util.BitSet} con los ordinales de sus productos. Filtrar es
+ * combinar esos bitsets; contar cada faceta es intersectarlos. No consulta la base de datos.
+ */
+public interface FiltradorProductos {
+
+    /**
+     * Filtra los productos activos y calcula las facetas y el histograma de precios del resultado.
+     * <br>
+     * Las cantidades de cada faceta son "disyuntivas": se calculan con los filtros de las demás facetas pero no
+     * con los de la propia, así elegir la marca 'Samsung' no hace desaparecer a 'Apple' de las opciones.
+     * @param filtro FiltroProductos criterios a aplicar.
+     * @param cursor String cursor 'siguiente' de la página anterior, o null para la primera página.
+     * @param tamanio int tamaño de página.
+     * @return ResultadoFiltro con la página de productos ordenados por precio ascendente, las facetas y el
+     * histograma de precios.
+     */
+    ResultadoFiltro filtrar(FiltroProductos filtro, String cursor, int tamanio);
+}
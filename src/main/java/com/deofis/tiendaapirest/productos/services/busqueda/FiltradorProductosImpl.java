@@ -0,0 +1,451 @@
+package com.deofis.tiendaapirest.productos.services.busqueda;
+
+import com.deofis.tiendaapirest.globalservices.RoundService;
+import com.deofis.tiendaapirest.productos.domain.*;
+import com.deofis.tiendaapirest.productos.dto.*;
+import com.deofis.tiendaapirest.productos.services.cambios.ObservadorCatalogo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+@Component
+@Slf4j
+public class FiltradorProductosImpl implements FiltradorProductos, ObservadorCatalogo {
+
+    private static final int CANTIDAD_RANGOS_PRECIO = 10;
+
+    private final RoundService roundService;
+
+    /** Id producto --> ordinal denso: posición en los arreglos y bit en los bitsets. */
+    private final Map<Long, Integer> ordinales = new HashMap<>();
+    /** Ordinales de productos quitados, para reutilizarlos y mantener los bitsets compactos. */
+    private final Deque<Integer> ordinalesLibres = new ArrayDeque<>();
+    private int siguienteOrdinal = 0;
+    private Producto[] productos = new Producto[64];
+    private double[] precios = new double[64];
+
+    private final BitSet activos = new BitSet();
+    private final Map<Long, BitSet> porMarca = new HashMap<>();
+    private final Map<Long, BitSet> porSubcategoria = new HashMap<>();
+    private final Map<Long, BitSet> porValor = new HashMap<>();
+
+    private final Map<Long, Marca> marcas = new HashMap<>();
+    private final Map<Long, Subcategoria> subcategorias = new HashMap<>();
+    private final Map<Long, PropiedadProducto> propiedades = new HashMap<>();
+    private final Map<Long, ValorPropiedadProducto> valores = new HashMap<>();
+    /** Id valor --> id propiedad, para combinar con OR los valores de una misma propiedad. */
+    private final Map<Long, Long> propiedadDeValor = new HashMap<>();
+    private final Map<Long, Set<Long>> valoresDePropiedad = new HashMap<>();
+
+    /** Columna de precios: ordinales ordenados por (precio, id), para rangos de precio y para paginar. */
+    private int[] porPrecio = new int[64];
+    private int cantidadPorPrecio = 0;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public FiltradorProductosImpl(RoundService roundService) {
+        this.roundService = roundService;
+    }
+
+    @Override
+    public ResultadoFiltro filtrar(FiltroProductos filtro, String cursor, int tamanio) {
+        CursorProducto desde = CursorProducto.decodificar(cursor);
+
+        this.lock.readLock().lock();
+        try {
+            BitSet filtroMarcas = this.union(this.porMarca, filtro.getMarcas());
+            BitSet filtroSubcategorias = this.union(this.porSubcategoria, filtro.getSubcategorias());
+            BitSet filtroPrecio = this.rangoPrecio(filtro.getPrecioMin(), filtro.getPrecioMax());
+
+            Map<Long, Set<Long>> valoresPorPropiedad = new HashMap<>();
+            for (Long valorId: filtro.getValores()) {
+                // Un valor inexistente forma su propio grupo (vacío), por lo que el filtro no encuentra productos.
+                Long propiedadId = this.propiedadDeValor.getOrDefault(valorId, -valorId);
+                valoresPorPropiedad.computeIfAbsent(propiedadId, id -> new HashSet<>()).add(valorId);
+            }
+            Map<Long, BitSet> filtrosPropiedades = new HashMap<>();
+            valoresPorPropiedad.forEach((propiedadId, valoresPropiedad) ->
+                    filtrosPropiedades.put(propiedadId, this.union(this.porValor, valoresPropiedad)));
+
+            List<BitSet> filtros = new ArrayList<>(filtrosPropiedades.values());
+            filtros.add(filtroMarcas);
+            filtros.add(filtroSubcategorias);
+            filtros.add(filtroPrecio);
+            BitSet resultado = this.interseccion(filtros, null);
+
+            return ResultadoFiltro.builder()
+                    .totalProductos(resultado.cardinality())
+                    .pagina(this.pagina(resultado, desde, tamanio))
+                    .marcas(this.facetas(this.porMarca, filtro.getMarcas(), this.mascara(filtros, filtroMarcas, resultado),
+                            id -> this.marcas.get(id).getNombre(), id -> null))
+                    .subcategorias(this.facetas(this.porSubcategoria, filtro.getSubcategorias(),
+                            this.mascara(filtros, filtroSubcategorias, resultado),
+                            id -> this.subcategorias.get(id).getNombre(), id -> this.subcategorias.get(id).getCodigo()))
+                    .propiedades(this.facetasPropiedades(filtros, filtrosPropiedades, filtro.getValores(), resultado))
+                    .rangosPrecio(this.histograma(this.mascara(filtros, filtroPrecio, resultado))).build();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void catalogoCargado(List<Producto> productos) {
+        this.lock.writeLock().lock();
+        try {
+            this.ordinales.clear();
+            this.ordinalesLibres.clear();
+            this.siguienteOrdinal = 0;
+            this.productos = new Producto[Math.max(64, productos.size())];
+            this.precios = new double[this.productos.length];
+            this.porPrecio = new int[this.productos.length];
+            this.cantidadPorPrecio = 0;
+            this.activos.clear();
+            this.porMarca.clear();
+            this.porSubcategoria.clear();
+            this.porValor.clear();
+            this.marcas.clear();
+            this.subcategorias.clear();
+            this.propiedades.clear();
+            this.valores.clear();
+            this.propiedadDeValor.clear();
+            this.valoresDePropiedad.clear();
+            productos.forEach(this::agregar);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        log.info("Filtros del catálogo construidos: " + this.ordinales.size() + " productos, "
+                + this.porMarca.size() + " marcas, " + this.porSubcategoria.size() + " subcategorías, "
+                + this.porValor.size() + " valores de propiedades");
+    }
+
+    @Override
+    public void productoActualizado(Producto producto) {
+        this.lock.writeLock().lock();
+        try {
+            this.quitar(producto.getId());
+            this.agregar(producto);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productoEliminado(Long productoId) {
+        this.lock.writeLock().lock();
+        try {
+            this.quitar(productoId);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recorre la columna de precios desde el cursor quedándose con los productos del resultado, hasta completar
+     * la página (más uno, para saber si hay página siguiente).
+     */
+    private PaginaProductos<ProductoListado> pagina(BitSet resultado, CursorProducto desde, int tamanio) {
+        int inicio = desde == null ? 0 : this.posicionPosterior(desde.claveComoPrecio(), desde.getId());
+        List<ProductoListado> pagina = new ArrayList<>(tamanio);
+        boolean hayMas = false;
+
+        for (int i = inicio; i < this.cantidadPorPrecio; i++) {
+            int ordinal = this.porPrecio[i];
+            if (!resultado.get(ordinal)) continue;
+
+            if (pagina.size() == tamanio) {
+                hayMas = true;
+                break;
+            }
+            pagina.add(ProductoListado.de(this.productos[ordinal]));
+        }
+
+        return PaginaProductos.de(new SliceImpl<>(pagina, PageRequest.of(0, tamanio), hayMas),
+                ProductoListado::getId, producto -> String.valueOf(producto.getPrecio()));
+    }
+
+    private List<FacetaBusqueda> facetas(Map<Long, BitSet> bitsets, Set<Long> elegidos, BitSet mascara,
+                                         Function<Long, String> nombre, Function<Long, String> codigo) {
+        List<FacetaBusqueda> facetas = new ArrayList<>();
+
+        bitsets.forEach((id, productos) -> {
+            int cantidad = this.cardinalidadInterseccion(productos, mascara);
+            if (cantidad == 0 && !elegidos.contains(id)) return;
+
+            facetas.add(FacetaBusqueda.builder()
+                    .id(id)
+                    .nombre(nombre.apply(id))
+                    .codigo(codigo.apply(id))
+                    .cantidad(cantidad).build());
+        });
+
+        facetas.sort(Comparator.comparing(FacetaBusqueda::getCantidad, Comparator.reverseOrder())
+                .thenComparing(FacetaBusqueda::getNombre, Comparator.nullsLast(Comparator.naturalOrder())));
+        return facetas;
+    }
+
+    private List<FacetaPropiedad> facetasPropiedades(List<BitSet> filtros, Map<Long, BitSet> filtrosPropiedades,
+                                                     Set<Long> valoresElegidos, BitSet resultado) {
+        List<FacetaPropiedad> facetas = new ArrayList<>();
+
+        this.valoresDePropiedad.forEach((propiedadId, valoresPropiedad) -> {
+            BitSet mascara = this.mascara(filtros, filtrosPropiedades.get(propiedadId), resultado);
+            BitSet conPropiedad = new BitSet();
+            List<FacetaPropiedad.FacetaValor> facetasValores = new ArrayList<>();
+
+            for (Long valorId: valoresPropiedad) {
+                BitSet productosValor = this.porValor.get(valorId);
+                int cantidad = this.cardinalidadInterseccion(productosValor, mascara);
+                if (cantidad == 0 && !valoresElegidos.contains(valorId)) continue;
+
+                conPropiedad.or(productosValor);
+                facetasValores.add(FacetaPropiedad.FacetaValor.builder()
+                        .id(valorId)
+                        .valor(this.valores.get(valorId).getValor())
+                        .cantidad(cantidad).build());
+            }
+
+            if (facetasValores.isEmpty()) return;
+
+            conPropiedad.and(mascara);
+            facetasValores.sort(Comparator.comparing(FacetaPropiedad.FacetaValor::getCantidad, Comparator.reverseOrder()));
+
+            PropiedadProducto propiedad = this.propiedades.get(propiedadId);
+            facetas.add(FacetaPropiedad.builder()
+                    .id(propiedadId)
+                    .nombre(propiedad.getNombre())
+                    .variable(propiedad.isVariable())
+                    .cantidad(conPropiedad.cardinality())
+                    .valores(facetasValores).build());
+        });
+
+        facetas.sort(Comparator.comparing(FacetaPropiedad::getCantidad, Comparator.reverseOrder()));
+        return facetas;
+    }
+
+    /**
+     * Divide el rango de precios de los productos de la máscara en {@link #CANTIDAD_RANGOS_PRECIO} rangos de
+     * igual ancho. El mínimo y el máximo se obtienen de los extremos de la columna de precios.
+     */
+    private List<RangoPrecio> histograma(BitSet mascara) {
+        int primero = 0;
+        while (primero < this.cantidadPorPrecio && !mascara.get(this.porPrecio[primero])) primero++;
+        if (primero == this.cantidadPorPrecio) return new ArrayList<>();
+
+        int ultimo = this.cantidadPorPrecio - 1;
+        while (!mascara.get(this.porPrecio[ultimo])) ultimo--;
+
+        double minimo = this.precios[this.porPrecio[primero]];
+        double maximo = this.precios[this.porPrecio[ultimo]];
+        int cantidadRangos = minimo == maximo ? 1 : CANTIDAD_RANGOS_PRECIO;
+        double ancho = (maximo - minimo) / cantidadRangos;
+
+        int[] cantidades = new int[cantidadRangos];
+        for (int ordinal = mascara.nextSetBit(0); ordinal >= 0; ordinal = mascara.nextSetBit(ordinal + 1)) {
+            int rango = ancho == 0 ? 0 : (int) ((this.precios[ordinal] - minimo) / ancho);
+            cantidades[Math.min(rango, cantidadRangos - 1)]++;
+        }
+
+        List<RangoPrecio> rangos = new ArrayList<>(cantidadRangos);
+        for (int i = 0; i < cantidadRangos; i++) {
+            rangos.add(RangoPrecio.builder()
+                    .desde(this.roundService.truncate(minimo + i * ancho))
+                    .hasta(i == cantidadRangos - 1 ? maximo : this.roundService.truncate(minimo + (i + 1) * ancho))
+                    .cantidad(cantidades[i]).build());
+        }
+
+        return rangos;
+    }
+
+    /** Productos activos de cualquiera de los ids (OR), o null si no se filtra por la faceta. */
+    private BitSet union(Map<Long, BitSet> bitsets, Set<Long> ids) {
+        if (ids == null || ids.isEmpty()) return null;
+
+        BitSet union = new BitSet();
+        for (Long id: ids) {
+            BitSet productos = bitsets.get(id);
+            if (productos != null) union.or(productos);
+        }
+
+        return union;
+    }
+
+    /** Productos activos con precio entre mínimo y máximo (inclusive), o null si no se filtra por precio. */
+    private BitSet rangoPrecio(Double minimo, Double maximo) {
+        if (minimo == null && maximo == null) return null;
+
+        int inicio = minimo == null ? 0 : this.posicionPosterior(Math.nextDown(minimo), Long.MAX_VALUE);
+        int fin = maximo == null ? this.cantidadPorPrecio : this.posicionPosterior(maximo, Long.MAX_VALUE);
+
+        BitSet rango = new BitSet();
+        for (int i = inicio; i < fin; i++) {
+            rango.set(this.porPrecio[i]);
+        }
+
+        return rango;
+    }
+
+    /** Intersección de los productos activos con todos los filtros (los null no filtran), salvo el excluido. */
+    private BitSet interseccion(List<BitSet> filtros, BitSet excluido) {
+        BitSet interseccion = (BitSet) this.activos.clone();
+
+        for (BitSet filtro: filtros) {
+            if (filtro != null && filtro != excluido) interseccion.and(filtro);
+        }
+
+        return interseccion;
+    }
+
+    /** Máscara para contar una faceta: todos los filtros salvo el de la propia faceta. */
+    private BitSet mascara(List<BitSet> filtros, BitSet filtroFaceta, BitSet resultado) {
+        return filtroFaceta == null ? resultado : this.interseccion(filtros, filtroFaceta);
+    }
+
+    private int cardinalidadInterseccion(BitSet productos, BitSet mascara) {
+        // and() y cardinality() operan de a 64 productos por palabra.
+        BitSet interseccion = (BitSet) productos.clone();
+        interseccion.and(mascara);
+        return interseccion.cardinality();
+    }
+
+    private void agregar(Producto producto) {
+        if (!producto.isActivo()) return;
+
+        int ordinal = this.ordinalesLibres.isEmpty() ? this.siguienteOrdinal++ : this.ordinalesLibres.pop();
+        if (ordinal >= this.productos.length) {
+            this.productos = Arrays.copyOf(this.productos, this.productos.length * 2);
+            this.precios = Arrays.copyOf(this.precios, this.productos.length);
+            this.porPrecio = Arrays.copyOf(this.porPrecio, this.productos.length);
+        }
+
+        this.ordinales.put(producto.getId(), ordinal);
+        this.productos[ordinal] = producto;
+        this.precios[ordinal] = producto.getPrecio() != null ? producto.getPrecio() : 0.0;
+        this.activos.set(ordinal);
+
+        if (producto.getMarca() != null) {
+            this.marcas.put(producto.getMarca().getId(), producto.getMarca());
+            this.porMarca.computeIfAbsent(producto.getMarca().getId(), id -> new BitSet()).set(ordinal);
+        }
+
+        if (producto.getSubcategoria() != null) {
+            this.subcategorias.put(producto.getSubcategoria().getId(), producto.getSubcategoria());
+            this.porSubcategoria.computeIfAbsent(producto.getSubcategoria().getId(), id -> new BitSet()).set(ordinal);
+        }
+
+        for (ValorPropiedadProducto valor: this.valoresDe(producto)) {
+            this.valores.put(valor.getId(), valor);
+            this.porValor.computeIfAbsent(valor.getId(), id -> new BitSet()).set(ordinal);
+        }
+
+        this.insertarPorPrecio(ordinal);
+    }
+
+    private void quitar(Long productoId) {
+        Integer ordinal = this.ordinales.remove(productoId);
+        if (ordinal == null) return;
+
+        Producto producto = this.productos[ordinal];
+        this.quitarPorPrecio(ordinal);
+
+        if (producto.getMarca() != null && this.limpiar(this.porMarca, producto.getMarca().getId(), ordinal))
+            this.marcas.remove(producto.getMarca().getId());
+
+        if (producto.getSubcategoria() != null
+                && this.limpiar(this.porSubcategoria, producto.getSubcategoria().getId(), ordinal))
+            this.subcategorias.remove(producto.getSubcategoria().getId());
+
+        for (ValorPropiedadProducto valor: this.valoresDe(producto)) {
+            if (!this.limpiar(this.porValor, valor.getId(), ordinal)) continue;
+
+            this.valores.remove(valor.getId());
+            Long propiedadId = this.propiedadDeValor.remove(valor.getId());
+            Set<Long> valoresPropiedad = this.valoresDePropiedad.get(propiedadId);
+            if (valoresPropiedad == null) continue;
+
+            valoresPropiedad.remove(valor.getId());
+            if (valoresPropiedad.isEmpty()) {
+                this.valoresDePropiedad.remove(propiedadId);
+                this.propiedades.remove(propiedadId);
+            }
+        }
+
+        this.activos.clear(ordinal);
+        this.productos[ordinal] = null;
+        this.ordinalesLibres.push(ordinal);
+    }
+
+    /**
+     * Valores de las propiedades del producto, registrando a qué propiedad pertenece cada uno (al quitar, el
+     * registro ya existe y no cambia).
+     */
+    private List<ValorPropiedadProducto> valoresDe(Producto producto) {
+        List<ValorPropiedadProducto> valoresProducto = new ArrayList<>();
+        if (producto.getPropiedades() == null) return valoresProducto;
+
+        for (PropiedadProducto propiedad: new LinkedHashSet<>(producto.getPropiedades())) {
+            if (propiedad.getValores() == null) continue;
+
+            for (ValorPropiedadProducto valor: new LinkedHashSet<>(propiedad.getValores())) {
+                this.propiedades.put(propiedad.getId(), propiedad);
+                this.propiedadDeValor.put(valor.getId(), propiedad.getId());
+                this.valoresDePropiedad.computeIfAbsent(propiedad.getId(), id -> new HashSet<>()).add(valor.getId());
+                valoresProducto.add(valor);
+            }
+        }
+
+        return valoresProducto;
+    }
+
+    /** Quita el ordinal del bitset. @return true si el bitset quedó vacío (y se descartó). */
+    private boolean limpiar(Map<Long, BitSet> bitsets, Long id, int ordinal) {
+        BitSet productos = bitsets.get(id);
+        if (productos == null) return false;
+
+        productos.clear(ordinal);
+        if (!productos.isEmpty()) return false;
+
+        bitsets.remove(id);
+        return true;
+    }
+
+    private void insertarPorPrecio(int ordinal) {
+        int posicion = this.posicionPosterior(this.precios[ordinal], this.productos[ordinal].getId());
+
+        System.arraycopy(this.porPrecio, posicion, this.porPrecio, posicion + 1, this.cantidadPorPrecio - posicion);
+        this.porPrecio[posicion] = ordinal;
+        this.cantidadPorPrecio++;
+    }
+
+    private void quitarPorPrecio(int ordinal) {
+        // La posición del ordinal es la anterior a la primera posterior a su propio (precio, id).
+        int posicion = this.posicionPosterior(this.precios[ordinal], this.productos[ordinal].getId()) - 1;
+
+        System.arraycopy(this.porPrecio, posicion + 1, this.porPrecio, posicion, this.cantidadPorPrecio - posicion - 1);
+        this.cantidadPorPrecio--;
+    }
+
+    /** Búsqueda binaria en la columna de precios de la primera posición con (precio, id) mayor al indicado. */
+    private int posicionPosterior(double precio, long id) {
+        int desde = 0;
+        int hasta = this.cantidadPorPrecio;
+
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            int ordinal = this.porPrecio[medio];
+            int comparacion = Double.compare(this.precios[ordinal], precio);
+            if (comparacion == 0) comparacion = Long.compare(this.productos[ordinal].getId(), id);
+
+            if (comparacion <= 0) desde = medio + 1;
+            else hasta = medio;
+        }
+
+        return desde;
+    }
+}
@@ -0,0 +1,50 @@
+package com.deofis.tiendaapirest.productos.services.busqueda;
+
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.dto.PaginaProductos;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Índice invertido en memoria sobre los productos activos del catálogo. Indexa nombre, descripción, marca,
+ * subcategoría y valores de propiedades, normalizados sin acentos (ver
+ * {@link com.deofis.tiendaapirest.productos.utils.TextoUtils}).
+ * <br>
+ * Se construye al iniciar la aplicación y se actualiza con cada cambio del catálogo, por lo que las búsquedas
+ * no consultan la base de datos.
+ */
+public interface IndiceProductos {
+
+    /**
+     * Busca los productos activos que contienen todos los términos de la consulta. Cada término se compara como
+     * prefijo, por lo que 'celu' encuentra 'Celulares'.
+     * <br>
+     * El resultado se ordena por relevancia: BM25 con un peso por campo (nombre, marca, subcategoría,
+     * propiedades, descripción, ver {@link CampoProducto}), aumentado según las unidades vendidas del producto.
+     * @param termino String consulta a buscar.
+     * @return List productos encontrados, sin repetir.
+     */
+    List<Producto> buscar(String termino);
+
+    /**
+     * Busca igual que {@link #buscar(String)}, pero solo ordena y devuelve una página: los productos más
+     * relevantes hasta el final de la página se seleccionan con un heap acotado, sin ordenar el resto.
+     * <br>
+     * La página siguiente se ubica por posición en el orden vigente al pedirla: si el índice cambió entretanto,
+     * un producto puede aparecer en dos páginas o en ninguna, como en una paginación por offset.
+     * @param termino String consulta a buscar.
+     * @param cursor String cursor 'siguiente' de la página anterior (null para la primera).
+     * @param tamanio int tamaño de página.
+     * @param coincidencia Consumer que recibe cada producto encontrado, en cualquier orden (p. ej. para contar
+     *                     facetas sobre todo el resultado).
+     * @return PaginaProductos con los productos de la página, de más a menos relevante.
+     */
+    PaginaProductos<Producto> buscar(String termino, String cursor, int tamanio, Consumer<Producto> coincidencia);
+
+    /**
+     * Obtiene la cantidad de productos indexados actualmente.
+     * @return int total de productos en el índice.
+     */
+    int totalProductos();
+}
@@ -0,0 +1,315 @@
+package com.deofis.tiendaapirest.productos.services.busqueda;
+
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.domain.PropiedadProducto;
+import com.deofis.tiendaapirest.productos.domain.ValorPropiedadProducto;
+import com.deofis.tiendaapirest.productos.dto.CursorProducto;
+import com.deofis.tiendaapirest.productos.dto.PaginaProductos;
+import com.deofis.tiendaapirest.productos.services.cambios.ObservadorCatalogo;
+import com.deofis.tiendaapirest.productos.utils.TextoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class IndiceProductosImpl implements IndiceProductos, ObservadorCatalogo {
+
+    /** Parámetros de BM25: saturación de la frecuencia y normalización por longitud del campo. */
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    /** Un término que solo coincide como prefijo ('celu' con 'celular') vale menos que uno completo. */
+    private static final double FACTOR_PREFIJO = 0.7;
+    /** Aumento por popularidad: relevancia * (1 + PESO_POPULARIDAD * ln(1 + unidades vendidas)). */
+    private static final double PESO_POPULARIDAD = 0.05;
+
+    private static final CampoProducto[] CAMPOS = CampoProducto.values();
+    private static final int CANTIDAD_CAMPOS = CAMPOS.length;
+
+    /** De más a menos relevante; a igual relevancia, por id. */
+    private static final Comparator<ProductoPuntuado> POR_RELEVANCIA = Comparator
+            .comparingDouble((ProductoPuntuado puntuado) -> puntuado.puntaje).reversed()
+            .thenComparingLong(puntuado -> puntuado.producto.getId());
+
+    private final VentasProductos ventasProductos;
+
+    /** Término --> (id producto --> apariciones del término en cada campo, por ordinal de CampoProducto). */
+    private final NavigableMap<String, Map<Long, int[]>> postings = new TreeMap<>();
+    private final Map<Long, Producto> productos = new HashMap<>();
+    private final Map<Long, Set<String>> terminosPorProducto = new HashMap<>();
+    /** Id producto --> cantidad de términos de cada campo, para normalizar por longitud. */
+    private final Map<Long, int[]> longitudes = new HashMap<>();
+    private final long[] longitudesTotales = new long[CANTIDAD_CAMPOS];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public IndiceProductosImpl(VentasProductos ventasProductos) {
+        this.ventasProductos = ventasProductos;
+    }
+
+    @Override
+    public List<Producto> buscar(String termino) {
+        this.lock.readLock().lock();
+        try {
+            List<ProductoPuntuado> puntuados = new ArrayList<>();
+            this.puntuar(termino, (producto, puntaje) -> puntuados.add(new ProductoPuntuado(producto, puntaje)));
+            puntuados.sort(POR_RELEVANCIA);
+
+            return puntuados.stream().map(puntuado -> puntuado.producto).collect(Collectors.toList());
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public PaginaProductos<Producto> buscar(String termino, String cursor, int tamanio, Consumer<Producto> coincidencia) {
+        // La relevancia de un producto cambia con las ventas y con el resto del índice (idf, longitudes promedio):
+        // entre página y página, un cursor por (puntaje, id) puede saltear o repetir productos de forma arbitraria.
+        // Por eso la página siguiente se ubica por su posición en el orden actual.
+        CursorProducto desde = CursorProducto.decodificar(cursor);
+        int inicio = desde == null ? 0 : desde.claveComoPosicion();
+        int limite = (int) Math.min((long) inicio + tamanio, Integer.MAX_VALUE - 1);
+
+        // Heap con el menos relevante en la cabeza: guarda hasta el final de la página más uno, para saber si hay
+        // página siguiente.
+        PriorityQueue<ProductoPuntuado> mejores = new PriorityQueue<>(tamanio + 1, POR_RELEVANCIA.reversed());
+
+        this.lock.readLock().lock();
+        try {
+            this.puntuar(termino, (producto, puntaje) -> {
+                coincidencia.accept(producto);
+
+                ProductoPuntuado puntuado = new ProductoPuntuado(producto, puntaje);
+                if (mejores.size() <= limite) mejores.add(puntuado);
+                else if (POR_RELEVANCIA.compare(puntuado, mejores.peek()) < 0) {
+                    mejores.poll();
+                    mejores.add(puntuado);
+                }
+            });
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        boolean hayMas = mejores.size() > limite;
+        if (hayMas) mejores.poll();
+
+        Producto[] ordenados = new Producto[mejores.size()];
+        for (int i = ordenados.length - 1; i >= 0; i--) {
+            ordenados[i] = mejores.poll().producto;
+        }
+
+        List<Producto> productosPagina = inicio < ordenados.length
+                ? Arrays.asList(ordenados).subList(inicio, ordenados.length) : new ArrayList<>();
+        String siguiente = String.valueOf(inicio + productosPagina.size());
+
+        return PaginaProductos.de(new SliceImpl<>(productosPagina, PageRequest.of(0, tamanio), hayMas),
+                Producto::getId, producto -> siguiente);
+    }
+
+    @Override
+    public int totalProductos() {
+        this.lock.readLock().lock();
+        try {
+            return this.productos.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void catalogoCargado(List<Producto> productos) {
+        this.lock.writeLock().lock();
+        try {
+            this.postings.clear();
+            this.productos.clear();
+            this.terminosPorProducto.clear();
+            this.longitudes.clear();
+            Arrays.fill(this.longitudesTotales, 0);
+            productos.forEach(this::indexar);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        log.info("Índice de productos construido: " + this.productos.size() + " productos, "
+                + this.postings.size() + " términos");
+    }
+
+    @Override
+    public void productoActualizado(Producto producto) {
+        this.lock.writeLock().lock();
+        try {
+            this.desindexar(producto.getId());
+            this.indexar(producto);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productoEliminado(Long productoId) {
+        this.lock.writeLock().lock();
+        try {
+            this.desindexar(productoId);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Calcula la relevancia de cada producto que contiene todos los términos de la consulta y se la pasa al
+     * receptor, en cualquier orden. Debe llamarse con el lock de lectura tomado.
+     */
+    private void puntuar(String termino, ReceptorPuntaje receptor) {
+        List<String> terminos = TextoUtils.tokenizar(termino);
+        if (terminos.isEmpty()) return;
+
+        Map<Long, Double> puntajes = null;
+
+        for (String terminoConsulta: new LinkedHashSet<>(terminos)) {
+            Map<Long, Double> puntajesTermino = this.puntajesPorPrefijo(terminoConsulta);
+            puntajes = puntajes == null ? puntajesTermino : this.intersectar(puntajes, puntajesTermino);
+
+            if (puntajes.isEmpty()) return;
+        }
+
+        puntajes.forEach((productoId, puntaje) -> receptor.recibir(this.productos.get(productoId),
+                puntaje * (1 + PESO_POPULARIDAD * Math.log1p(this.ventasProductos.vendidos(productoId)))));
+    }
+
+    /**
+     * Puntaje BM25F de un término de la consulta en cada producto que contiene algún término del índice que
+     * empieza con él. Si varios términos del producto coinciden, cuenta el mejor.
+     */
+    private Map<Long, Double> puntajesPorPrefijo(String prefijo) {
+        Map<Long, Double> puntajes = new HashMap<>();
+        int totalProductos = this.productos.size();
+
+        double[] longitudesPromedio = new double[CANTIDAD_CAMPOS];
+        for (int campo = 0; campo < CANTIDAD_CAMPOS; campo++) {
+            longitudesPromedio[campo] = Math.max(1.0, (double) this.longitudesTotales[campo] / totalProductos);
+        }
+
+        for (Map.Entry<String, Map<Long, int[]>> entrada: this.postings
+                .subMap(prefijo, true, prefijo + Character.MAX_VALUE, false).entrySet()) {
+            Map<Long, int[]> posting = entrada.getValue();
+            double factor = entrada.getKey().equals(prefijo) ? 1.0 : FACTOR_PREFIJO;
+            double idf = Math.log(1 + (totalProductos - posting.size() + 0.5) / (posting.size() + 0.5));
+
+            posting.forEach((productoId, frecuencias) -> {
+                int[] longitudesProducto = this.longitudes.get(productoId);
+                double frecuencia = 0;
+
+                for (int campo = 0; campo < CANTIDAD_CAMPOS; campo++) {
+                    if (frecuencias[campo] == 0) continue;
+                    frecuencia += CAMPOS[campo].peso() * frecuencias[campo]
+                            / (1 - B + B * longitudesProducto[campo] / longitudesPromedio[campo]);
+                }
+
+                double puntaje = factor * idf * frecuencia * (K1 + 1) / (frecuencia + K1);
+                puntajes.merge(productoId, puntaje, Math::max);
+            });
+        }
+
+        return puntajes;
+    }
+
+    private Map<Long, Double> intersectar(Map<Long, Double> acumulados, Map<Long, Double> nuevos) {
+        Map<Long, Double> interseccion = new HashMap<>();
+
+        acumulados.forEach((productoId, puntaje) -> {
+            Double puntajeNuevo = nuevos.get(productoId);
+            if (puntajeNuevo != null) interseccion.put(productoId, puntaje + puntajeNuevo);
+        });
+
+        return interseccion;
+    }
+
+    private void indexar(Producto producto) {
+        if (!producto.isActivo()) return;
+
+        Map<String, int[]> terminos = new HashMap<>();
+        int[] longitudesProducto = new int[CANTIDAD_CAMPOS];
+
+        this.agregarTerminos(terminos, longitudesProducto, producto.getNombre(), CampoProducto.NOMBRE);
+        this.agregarTerminos(terminos, longitudesProducto, producto.getDescripcion(), CampoProducto.DESCRIPCION);
+
+        if (producto.getMarca() != null)
+            this.agregarTerminos(terminos, longitudesProducto, producto.getMarca().getNombre(), CampoProducto.MARCA);
+
+        if (producto.getSubcategoria() != null)
+            this.agregarTerminos(terminos, longitudesProducto, producto.getSubcategoria().getNombre(),
+                    CampoProducto.SUBCATEGORIA);
+
+        if (producto.getPropiedades() != null) {
+            for (PropiedadProducto propiedad: producto.getPropiedades()) {
+                if (propiedad.getValores() == null) continue;
+
+                for (ValorPropiedadProducto valor: propiedad.getValores()) {
+                    this.agregarTerminos(terminos, longitudesProducto, valor.getValor(), CampoProducto.PROPIEDADES);
+                }
+            }
+        }
+
+        terminos.forEach((termino, frecuencias) -> this.postings
+                .computeIfAbsent(termino, t -> new HashMap<>())
+                .put(producto.getId(), frecuencias));
+
+        for (int campo = 0; campo < CANTIDAD_CAMPOS; campo++) {
+            this.longitudesTotales[campo] += longitudesProducto[campo];
+        }
+
+        this.productos.put(producto.getId(), producto);
+        this.terminosPorProducto.put(producto.getId(), terminos.keySet());
+        this.longitudes.put(producto.getId(), longitudesProducto);
+    }
+
+    private void agregarTerminos(Map<String, int[]> terminos, int[] longitudesProducto, String texto, CampoProducto campo) {
+        for (String termino: TextoUtils.tokenizar(texto)) {
+            terminos.computeIfAbsent(termino, t -> new int[CANTIDAD_CAMPOS])[campo.ordinal()]++;
+            longitudesProducto[campo.ordinal()]++;
+        }
+    }
+
+    private void desindexar(Long productoId) {
+        Set<String> terminos = this.terminosPorProducto.remove(productoId);
+        this.productos.remove(productoId);
+
+        int[] longitudesProducto = this.longitudes.remove(productoId);
+        if (longitudesProducto != null) {
+            for (int campo = 0; campo < CANTIDAD_CAMPOS; campo++) {
+                this.longitudesTotales[campo] -= longitudesProducto[campo];
+            }
+        }
+
+        if (terminos == null) return;
+
+        for (String termino: terminos) {
+            Map<Long, int[]> posting = this.postings.get(termino);
+            if (posting == null) continue;
+
+            posting.remove(productoId);
+            if (posting.isEmpty()) this.postings.remove(termino);
+        }
+    }
+
+    private interface ReceptorPuntaje {
+        void recibir(Producto producto, double puntaje);
+    }
+
+    private static final class ProductoPuntuado {
+        private final Producto producto;
+        private final double puntaje;
+
+        private ProductoPuntuado(Producto producto, double puntaje) {
+            this.producto = producto;
+            this.puntaje = puntaje;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.deofis.tiendaapirest.productos.services.busqueda;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Unidades vendidas de cada producto (sumando todos sus skus) en operaciones no canceladas, mantenidas en memoria
+ * para ponderar la popularidad en la búsqueda y el autocompletado.
+ * <br>
+ * Se leen completas de la base de datos al cargar el catálogo y luego se actualizan con las ventas y reposiciones
+ * que registra el {@link com.deofis.tiendaapirest.productos.services.cambios.NotificadorCambiosCatalogo}, antes de
+ * avisar a los observadores del cambio de los productos. Las ventas registradas en otras instancias se releen al
+ * leer sus cambios del log.
+ */
+public interface VentasProductos {
+
+    /**
+     * Vuelve a leer las unidades vendidas de todos los productos.
+     */
+    void cargar();
+
+    /**
+     * Suma unidades vendidas (o resta, si son negativas) a cada producto.
+     * @param unidadesPorProducto Map de id de producto a unidades vendidas desde el último cambio.
+     */
+    void sumar(Map<Long, Long> unidadesPorProducto);
+
+    /**
+     * Vuelve a leer las unidades vendidas de los productos, con una sola consulta. Se usa para los productos
+     * modificados por otras instancias de la aplicación, cuyas ventas no pasan por esta.
+     * @param productoIds Collection ids de los productos.
+     */
+    void recalcular(Collection<Long> productoIds);
+
+    /**
+     * @param productoId Long id del producto.
+     * @return long unidades vendidas del producto (0 si no tiene ventas).
+     */
+    long vendidos(Long productoId);
+}
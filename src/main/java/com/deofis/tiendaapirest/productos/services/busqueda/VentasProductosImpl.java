@@ -0,0 +1,60 @@
+package com.deofis.tiendaapirest.productos.services.busqueda;
+
+import com.deofis.tiendaapirest.productos.dto.VentasProducto;
+import com.deofis.tiendaapirest.productos.repositories.ProductoRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class VentasProductosImpl implements VentasProductos {
+
+    private final ProductoRepository productoRepository;
+
+    private final Map<Long, Long> vendidos = new ConcurrentHashMap<>();
+
+    public VentasProductosImpl(ProductoRepository productoRepository) {
+        this.productoRepository = productoRepository;
+    }
+
+    @Override
+    public void cargar() {
+        Map<Long, Long> vendidos = new ConcurrentHashMap<>();
+        for (VentasProducto ventas: this.productoRepository.findVentas()) {
+            vendidos.merge(ventas.getProductoId(), ventas.getVendidos(), Long::sum);
+        }
+
+        this.vendidos.keySet().retainAll(vendidos.keySet());
+        this.vendidos.putAll(vendidos);
+    }
+
+    @Override
+    public void sumar(Map<Long, Long> unidadesPorProducto) {
+        unidadesPorProducto.forEach((productoId, unidades) -> this.vendidos.compute(productoId,
+                (id, actuales) -> Math.max((actuales != null ? actuales : 0L) + unidades, 0L)));
+    }
+
+    @Override
+    public void recalcular(Collection<Long> productoIds) {
+        if (productoIds.isEmpty()) return;
+
+        Map<Long, Long> vendidos = new HashMap<>();
+        for (VentasProducto ventas: this.productoRepository.findVentasDeProductos(productoIds)) {
+            vendidos.merge(ventas.getProductoId(), ventas.getVendidos(), Long::sum);
+        }
+
+        productoIds.forEach(productoId -> {
+            Long cantidad = vendidos.get(productoId);
+            if (cantidad != null) this.vendidos.put(productoId, cantidad);
+            else this.vendidos.remove(productoId);
+        });
+    }
+
+    @Override
+    public long vendidos(Long productoId) {
+        return this.vendidos.getOrDefault(productoId, 0L);
+    }
+}
@@ -0,0 +1,37 @@
+package com.deofis.tiendaapirest.productos.services.cache;
+
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria de los resultados de las consultas públicas del catálogo, acotada (LRU) y con vencimiento.
+ * <br>
+ * Si varias solicitudes piden a la vez una consulta que no está en la caché, solo la primera la ejecuta y el
+ * resto espera su resultado, en lugar de ir todas juntas a la base de datos.
+ * <br>
+ * Los resultados se descartan cuando cambia el catálogo: productos, skus, promociones (ver
+ * {@link com.deofis.tiendaapirest.productos.services.cambios.NotificadorCambiosCatalogo}) o cualquier otro dato
+ * versionado por {@link com.deofis.tiendaapirest.productos.services.cambios.VersionCatalogoService}.
+ */
+public interface CacheConsultasCatalogo {
+
+    /**
+     * Obtiene el resultado de una consulta, cargándolo si no está en la caché o está vencido. Si la carga
+     * lanza una excepción, no se guarda nada y la excepción se propaga a todos los que esperaban la consulta.
+     * @param consulta String clave de la consulta, ya normalizada (mismos parámetros --> misma clave).
+     * @param carga Supplier que ejecuta la consulta.
+     * @return T resultado de la consulta. Se comparte entre solicitudes: no debe modificarse.
+     */
+    <T> T obtener(String consulta, Supplier<T> carga);
+
+    /**
+     * Descarta todos los resultados guardados. Las cargas en curso entregan su resultado a quienes ya lo
+     * esperaban, pero no se guardan.
+     */
+    void invalidar();
+
+    long aciertos();
+
+    long fallos();
+
+    long escrituras();
+}
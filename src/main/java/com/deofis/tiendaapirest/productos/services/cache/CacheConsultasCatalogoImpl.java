@@ -0,0 +1,145 @@
+package com.deofis.tiendaapirest.productos.services.cache;
+
+import com.deofis.tiendaapirest.config.CatalogoProperties;
+import com.deofis.tiendaapirest.productos.services.cambios.RecursoVersionado;
+import com.deofis.tiendaapirest.productos.services.cambios.VersionCatalogoService;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+@Component
+public class CacheConsultasCatalogoImpl implements CacheConsultasCatalogo {
+
+    private final VersionCatalogoService versionCatalogoService;
+    private final CatalogoProperties.Cache propiedades;
+
+    /** LinkedHashMap en orden de acceso: la primera entrada es la usada hace más tiempo. */
+    private final Map<String, Entrada> entradas;
+    /** Versión del catálogo a la que corresponden las entradas guardadas. */
+    private String version;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder escrituras = new LongAdder();
+
+    public CacheConsultasCatalogoImpl(VersionCatalogoService versionCatalogoService,
+                                      CatalogoProperties catalogoProperties) {
+        this.versionCatalogoService = versionCatalogoService;
+        this.propiedades = catalogoProperties.getCache();
+        this.entradas = new LinkedHashMap<String, Entrada>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return this.size() > propiedades.getEntradasMaximas();
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T obtener(String consulta, Supplier<T> carga) {
+        String versionActual = this.versionCatalogoService.etag(RecursoVersionado.CATALOGO);
+        Entrada entrada;
+        boolean cargar = false;
+
+        synchronized (this.entradas) {
+            if (!versionActual.equals(this.version)) {
+                this.entradas.clear();
+                this.version = versionActual;
+            }
+
+            entrada = this.entradas.get(consulta);
+            if (entrada != null && entrada.vencida()) {
+                this.entradas.remove(consulta);
+                entrada = null;
+            }
+
+            if (entrada == null) {
+                entrada = new Entrada();
+                this.entradas.put(consulta, entrada);
+                cargar = true;
+            }
+        }
+
+        if (!cargar) {
+            // También cuenta como acierto esperar una carga en curso: la consulta se ejecuta una sola vez.
+            this.aciertos.increment();
+            return (T) entrada.esperar();
+        }
+
+        this.fallos.increment();
+        try {
+            T resultado = carga.get();
+            entrada.completar(resultado, System.nanoTime() + this.propiedades.getTtl().toNanos());
+
+            synchronized (this.entradas) {
+                // Si se invalidó durante la carga, la entrada ya no está y el resultado no se guarda.
+                if (this.entradas.get(consulta) == entrada) this.escrituras.increment();
+            }
+
+            return resultado;
+        } catch (RuntimeException | Error e) {
+            // Quienes esperan la carga reciben la misma excepción; la próxima solicitud vuelve a intentar.
+            entrada.fallar(e);
+
+            synchronized (this.entradas) {
+                this.entradas.remove(consulta, entrada);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void invalidar() {
+        synchronized (this.entradas) {
+            this.entradas.clear();
+        }
+    }
+
+    @Override
+    public long aciertos() {
+        return this.aciertos.sum();
+    }
+
+    @Override
+    public long fallos() {
+        return this.fallos.sum();
+    }
+
+    @Override
+    public long escrituras() {
+        return this.escrituras.sum();
+    }
+
+    private static final class Entrada {
+        private final CompletableFuture<Object> resultado = new CompletableFuture<>();
+        /** Instante (System.nanoTime) en que vence, una vez cargada. */
+        private volatile long vencimiento;
+
+        private boolean vencida() {
+            return this.resultado.isDone() && System.nanoTime() - this.vencimiento > 0;
+        }
+
+        private void completar(Object resultado, long vencimiento) {
+            this.vencimiento = vencimiento;
+            this.resultado.complete(resultado);
+        }
+
+        private void fallar(Throwable e) {
+            this.resultado.completeExceptionally(e);
+        }
+
+        private Object esperar() {
+            try {
+                return this.resultado.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error) throw (Error) e.getCause();
+                throw (RuntimeException) e.getCause();
+            }
+        }
+    }
+}
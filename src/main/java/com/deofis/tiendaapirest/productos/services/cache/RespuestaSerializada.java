@@ -0,0 +1,119 @@
+package com.deofis.tiendaapirest.productos.services.cache;
+
+import com.deofis.tiendaapirest.globalservices.FiltroCampos;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuesta JSON ya serializada en UTF-8, junto con su versión comprimida con gzip. Se escribe tal cual en la
+ * respuesta HTTP (ByteArrayHttpMessageConverter escribe el arreglo guardado, sin copiarlo ni volver a
+ * serializar), por lo que solo se puede usar cuando el cliente acepta JSON y no pidió un subconjunto de campos.
+ */
+public final class RespuestaSerializada {
+
+    private static final MediaType JSON_UTF8 = new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8);
+
+    private final byte[] json;
+    private final byte[] gzip;
+    /** Instante (ms) desde el que la respuesta deja de ser válida, por ejemplo porque empieza una promoción. */
+    private final long validaHasta;
+
+    public RespuestaSerializada(byte[] json, long validaHasta) {
+        this.json = json;
+        this.gzip = comprimir(json);
+        this.validaHasta = validaHasta;
+    }
+
+    public boolean vencida(long ahora) {
+        return ahora >= this.validaHasta;
+    }
+
+    public int tamanio() {
+        return this.json.length;
+    }
+
+    public int tamanioComprimido() {
+        return this.gzip.length;
+    }
+
+    /**
+     * @return true si la solicitud se puede responder con una respuesta serializada: no pide campos con 'fields'
+     * y el formato preferido del header Accept es JSON (o no lo indica).
+     */
+    public static boolean aplicable(WebRequest request) {
+        if (request.getParameter(FiltroCampos.PARAMETRO) != null) return false;
+
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) return true;
+
+        try {
+            List<MediaType> aceptados = MediaType.parseMediaTypes(accept);
+            MediaType.sortBySpecificityAndQuality(aceptados);
+            return !aceptados.isEmpty() && aceptados.get(0).isCompatibleWith(MediaType.APPLICATION_JSON)
+                    && aceptados.get(0).getQualityValue() > 0;
+        } catch (InvalidMediaTypeException e) {
+            // La negociación normal responde el error correspondiente.
+            return false;
+        }
+    }
+
+    /**
+     * Arma la respuesta HTTP, comprimida si el cliente acepta gzip.
+     * @param request WebRequest con el header Accept-Encoding.
+     * @return ResponseEntity con el cuerpo ya serializado.
+     */
+    public ResponseEntity<byte[]> responder(WebRequest request) {
+        boolean comprimida = aceptaGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        byte[] cuerpo = comprimida ? this.gzip : this.json;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(JSON_UTF8);
+        headers.setContentLength(cuerpo.length);
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (comprimida) headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        return new ResponseEntity<>(cuerpo, headers, HttpStatus.OK);
+    }
+
+    private static boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+
+        for (String codificacion: acceptEncoding.split(",")) {
+            String[] partes = codificacion.trim().split(";");
+            String nombre = partes[0].trim();
+            if (!nombre.equalsIgnoreCase("gzip") && !nombre.equals("*")) continue;
+
+            boolean rechazada = false;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].replace(" ", "");
+                if (parametro.matches("q=0(\\.0*)?")) rechazada = true;
+            }
+
+            if (!rechazada) return true;
+        }
+
+        return false;
+    }
+
+    private static byte[] comprimir(byte[] json) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,31 @@
+package com.deofis.tiendaapirest.productos.services.cache;
+
+import java.util.Optional;
+
+/**
+ * Respuestas de ~/api/catalogo/productos/{id} y ~/api/categorias ya serializadas, para escribirlas sin volver a
+ * recorrer el grafo de entidades en cada solicitud.
+ * <br>
+ * Las respuestas se reconstruyen en segundo plano: las de los productos cuando se confirma un cambio de un
+ * producto, sus skus o su promoción (ver
+ * {@link com.deofis.tiendaapirest.productos.services.cambios.NotificadorCambiosCatalogo}), y la de las
+ * categorías cuando cambia la versión del catálogo. Mientras no haya una respuesta vigente, las solicitudes se
+ * resuelven de la forma habitual.
+ */
+public interface RespuestasSerializadas {
+
+    /**
+     * Obtiene la respuesta serializada del producto ({"producto": ...}). Si no está, o quedó vencida, programa
+     * su construcción.
+     * @param productoId Long id del producto.
+     * @return Optional con la respuesta, vacío si todavía no está construida.
+     */
+    Optional<RespuestaSerializada> producto(Long productoId);
+
+    /**
+     * Obtiene la respuesta serializada de las categorías ordenadas por nombre ({"categorias": [...]}). Si
+     * corresponde a una versión anterior del catálogo, programa su reconstrucción.
+     * @return Optional con la respuesta, vacío si todavía no está construida o no hay categorías.
+     */
+    Optional<RespuestaSerializada> categorias();
+}
@@ -0,0 +1,283 @@
+package com.deofis.tiendaapirest.productos.services.cache;
+
+import com.deofis.tiendaapirest.config.CatalogoProperties;
+import com.deofis.tiendaapirest.globalservices.FiltroCampos;
+import com.deofis.tiendaapirest.productos.domain.Categoria;
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.domain.Promocion;
+import com.deofis.tiendaapirest.productos.domain.Sku;
+import com.deofis.tiendaapirest.productos.repositories.CategoriaRepository;
+import com.deofis.tiendaapirest.productos.services.cambios.ObservadorCatalogo;
+import com.deofis.tiendaapirest.productos.services.cambios.RecursoVersionado;
+import com.deofis.tiendaapirest.productos.services.cambios.VersionCatalogoService;
+import com.deofis.tiendaapirest.productos.services.replica.ReplicaCatalogo;
+import com.deofis.tiendaapirest.productos.services.replica.SnapshotCatalogo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+@Slf4j
+public class RespuestasSerializadasImpl implements RespuestasSerializadas, ObservadorCatalogo {
+
+    private final ReplicaCatalogo replicaCatalogo;
+    private final CategoriaRepository categoriaRepository;
+    private final VersionCatalogoService versionCatalogoService;
+    private final CatalogoProperties.Respuestas propiedades;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Mismo ObjectMapper que arma Spring MVC para los convertidores JSON (ver WebConfig): la respuesta guardada es
+     * idéntica a la que se serializaría en la solicitud.
+     */
+    private final ObjectMapper objectMapper = FiltroCampos.registrar(Jackson2ObjectMapperBuilder.json().build());
+
+    /** Un único hilo: las construcciones se hacen en el orden en que se pidieron. */
+    private final ExecutorService constructor = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "respuestas-serializadas");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    /** LinkedHashMap en orden de acceso: la primera entrada es la pedida hace más tiempo. */
+    private final Map<Long, RespuestaSerializada> productos;
+    /**
+     * Construcción pendiente de cada producto. Un cambio reemplaza la marca: una construcción que empezó con los
+     * datos anteriores encuentra otra marca y no guarda su resultado.
+     */
+    private final Map<Long, Object> pendientes = new ConcurrentHashMap<>();
+
+    private volatile Categorias categorias;
+    private final AtomicBoolean construyendoCategorias = new AtomicBoolean();
+
+    public RespuestasSerializadasImpl(ReplicaCatalogo replicaCatalogo,
+                                      CategoriaRepository categoriaRepository,
+                                      VersionCatalogoService versionCatalogoService,
+                                      CatalogoProperties catalogoProperties,
+                                      PlatformTransactionManager transactionManager) {
+        this.replicaCatalogo = replicaCatalogo;
+        this.categoriaRepository = categoriaRepository;
+        this.versionCatalogoService = versionCatalogoService;
+        this.propiedades = catalogoProperties.getRespuestas();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.productos = new LinkedHashMap<Long, RespuestaSerializada>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, RespuestaSerializada> eldest) {
+                return this.size() > propiedades.getProductosMaximos();
+            }
+        };
+    }
+
+    @Override
+    public Optional<RespuestaSerializada> producto(Long productoId) {
+        RespuestaSerializada respuesta;
+
+        synchronized (this.productos) {
+            respuesta = this.productos.get(productoId);
+            if (respuesta != null && respuesta.vencida(System.currentTimeMillis())) {
+                this.productos.remove(productoId);
+                respuesta = null;
+            }
+        }
+
+        if (respuesta == null) this.programar(productoId, null, false);
+        return Optional.ofNullable(respuesta);
+    }
+
+    @Override
+    public Optional<RespuestaSerializada> categorias() {
+        // La versión se lee antes de construir: un cambio durante la construcción deja la respuesta desactualizada.
+        String version = this.versionCatalogoService.etag(RecursoVersionado.CATALOGO);
+        Categorias actuales = this.categorias;
+
+        if (actuales != null && actuales.version.equals(version)) return Optional.of(actuales.respuesta);
+
+        if (this.construyendoCategorias.compareAndSet(false, true)) {
+            try {
+                this.constructor.execute(() -> this.construirCategorias(version));
+            } catch (RejectedExecutionException e) {
+                this.construyendoCategorias.set(false);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public void catalogoCargado(List<Producto> productos) {
+        synchronized (this.productos) {
+            this.pendientes.clear();
+            this.productos.clear();
+        }
+
+        productos.stream()
+                .limit(this.propiedades.getProductosMaximos())
+                .forEach(producto -> this.programar(producto.getId(), producto, true));
+    }
+
+    @Override
+    public void productoActualizado(Producto producto) {
+        this.productosCambiados(Collections.singletonList(producto), Collections.emptyList());
+    }
+
+    @Override
+    public void productoEliminado(Long productoId) {
+        this.productosCambiados(Collections.emptyList(), Collections.singletonList(productoId));
+    }
+
+    /**
+     * Las respuestas sin promociones por empezar o terminar no vencen (validaHasta Long.MAX_VALUE): dependen de que
+     * todo cambio que las afecta, incluidos los de su marca, subcategoría o promoción, republique el producto. Se
+     * reconstruyen solo las respuestas guardadas; las demás se descartan, junto con las construcciones en curso, y
+     * se construyen desde la réplica (ya actualizada) cuando se vuelvan a pedir. Así una republicación de muchos
+     * productos no desplaza a los más pedidos.
+     */
+    @Override
+    public void productosCambiados(List<Producto> actualizados, Collection<Long> eliminados) {
+        List<Producto> guardados = new ArrayList<>();
+
+        synchronized (this.productos) {
+            for (Long productoId: eliminados) {
+                this.pendientes.remove(productoId);
+                this.productos.remove(productoId);
+            }
+            for (Producto producto: actualizados) {
+                this.pendientes.remove(producto.getId());
+                if (this.productos.remove(producto.getId()) != null) guardados.add(producto);
+            }
+        }
+
+        guardados.forEach(producto -> this.programar(producto.getId(), producto, true));
+    }
+
+    @PreDestroy
+    public void detener() {
+        this.constructor.shutdownNow();
+    }
+
+    /**
+     * Programa la construcción de la respuesta de un producto.
+     * @param producto Producto a serializar, o null para tomarlo de la réplica del catálogo al construir.
+     * @param reemplazar boolean true si el producto cambió: descarta la respuesta guardada y cualquier
+     *                   construcción en curso. Si es false y ya hay una construcción pendiente, no hace nada.
+     */
+    private void programar(Long productoId, Producto producto, boolean reemplazar) {
+        Object marca = new Object();
+
+        if (reemplazar) {
+            synchronized (this.productos) {
+                this.pendientes.put(productoId, marca);
+                this.productos.remove(productoId);
+            }
+        } else if (this.pendientes.putIfAbsent(productoId, marca) != null) {
+            return;
+        }
+
+        try {
+            this.constructor.execute(() -> this.construirProducto(productoId, producto, marca));
+        } catch (RejectedExecutionException e) {
+            this.pendientes.remove(productoId, marca);
+        }
+    }
+
+    private void construirProducto(Long productoId, Producto producto, Object marca) {
+        try {
+            if (this.pendientes.get(productoId) != marca) return;
+
+            Producto actual = producto;
+            if (actual == null) {
+                SnapshotCatalogo catalogo = this.replicaCatalogo.snapshot();
+                actual = catalogo != null ? catalogo.producto(productoId).orElse(null) : null;
+            }
+            if (actual == null) return;
+
+            RespuestaSerializada respuesta = new RespuestaSerializada(this.serializar("producto", actual),
+                    this.validaHasta(actual));
+
+            synchronized (this.productos) {
+                if (this.pendientes.get(productoId) == marca) this.productos.put(productoId, respuesta);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error al serializar la respuesta del producto " + productoId, e);
+        } finally {
+            this.pendientes.remove(productoId, marca);
+        }
+    }
+
+    private void construirCategorias(String version) {
+        try {
+            // Las categorías se serializan dentro de la transacción: sus asociaciones LAZY se cargan al recorrerlas.
+            RespuestaSerializada respuesta = this.transactionTemplate.execute(status -> {
+                List<Categoria> categorias = this.categoriaRepository.findAllByOrderByNombreAsc();
+                return categorias.isEmpty() ? null
+                        : new RespuestaSerializada(this.serializar("categorias", categorias), Long.MAX_VALUE);
+            });
+
+            this.categorias = respuesta != null ? new Categorias(version, respuesta) : null;
+        } catch (RuntimeException e) {
+            log.error("Error al serializar la respuesta de las categorías", e);
+        } finally {
+            this.construyendoCategorias.set(false);
+        }
+    }
+
+    private byte[] serializar(String clave, Object valor) {
+        try {
+            return this.objectMapper.writeValueAsBytes(Collections.singletonMap(clave, valor));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * La vigencia de las promociones se serializa (Promocion#getEstaVigente): la respuesta vale hasta que alguna
+     * promoción del producto o de sus skus empiece o termine.
+     */
+    private long validaHasta(Producto producto) {
+        long ahora = System.currentTimeMillis();
+        List<Promocion> promociones = new ArrayList<>();
+        promociones.add(producto.getPromocion());
+        if (producto.getDefaultSku() != null) promociones.add(producto.getDefaultSku().getPromocion());
+        if (producto.getSkus() != null) {
+            for (Sku sku: producto.getSkus()) {
+                promociones.add(sku.getPromocion());
+            }
+        }
+
+        long validaHasta = Long.MAX_VALUE;
+        for (Promocion promocion: promociones) {
+            if (promocion == null || promocion.getFechaDesde() == null || promocion.getFechaHasta() == null) continue;
+
+            // Mismos límites que VersionCatalogoServiceImpl: primer instante vigente y primero no vigente.
+            for (long limite: new long[] {promocion.getFechaDesde().getTime() + 1, promocion.getFechaHasta().getTime()}) {
+                if (limite > ahora) validaHasta = Math.min(validaHasta, limite);
+            }
+        }
+
+        return validaHasta;
+    }
+
+    private static final class Categorias {
+        private final String version;
+        private final RespuestaSerializada respuesta;
+
+        private Categorias(String version, RespuestaSerializada respuesta) {
+            this.version = version;
+            this.respuesta = respuesta;
+        }
+    }
+}
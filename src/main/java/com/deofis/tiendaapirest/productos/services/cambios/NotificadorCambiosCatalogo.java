@@ -0,0 +1,64 @@
+package com.deofis.tiendaapirest.productos.services.cambios;
+
+import com.deofis.tiendaapirest.productos.domain.EntidadCatalogo;
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.domain.Sku;
+
+/**
+ * Servicio que registra los cambios sobre el catálogo realizados por los servicios de escritura
+ * ({@link com.deofis.tiendaapirest.productos.services.ProductoService},
+ * {@link com.deofis.tiendaapirest.productos.services.SkuService}, etc.) y los propaga a los
+ * {@link ObservadorCatalogo}s una vez confirmada la transacción.
+ * <br>
+ * Los cambios de una misma transacción se agrupan: cada producto se vuelve a leer una sola vez. Además, todos
+ * los cambios se guardan en el log persistente del catálogo
+ * ({@link com.deofis.tiendaapirest.productos.domain.CambioCatalogo}) dentro de la misma transacción. Cada
+ * instancia de la aplicación lee periódicamente del log los cambios de las demás y los propaga a sus observadores.
+ */
+public interface NotificadorCambiosCatalogo {
+
+    /**
+     * Registra que un {@link Producto} fue creado o modificado.
+     * @param productoId Long id del producto.
+     */
+    void productoModificado(Long productoId);
+
+    /**
+     * Registra que un {@link Sku} fue creado o modificado, lo que implica una modificación de su producto. Para
+     * un sku eliminado, además debe registrarse {@link #entidadEliminada(EntidadCatalogo, Long)}.
+     * @param sku Sku modificado.
+     */
+    void skuModificado(Sku sku);
+
+    /**
+     * Registra que se vendieron unidades de un {@link Sku} (o que se repusieron, si son negativas), lo que además
+     * implica una modificación del sku. Las unidades se suman a las ventas en memoria del producto
+     * ({@link com.deofis.tiendaapirest.productos.services.busqueda.VentasProductos}) antes de avisar a los
+     * observadores.
+     * @param sku Sku vendido o repuesto.
+     * @param unidades int unidades vendidas (negativas si se repusieron).
+     */
+    void ventaRegistrada(Sku sku, int unidades);
+
+    /**
+     * Registra que un {@link Producto} fue eliminado.
+     * @param productoId Long id del producto eliminado.
+     */
+    void productoEliminado(Long productoId);
+
+    /**
+     * Registra en el log del catálogo que una entidad (marca, subcategoría, promoción, etc.) fue creada o
+     * modificada. Los productos que la muestran se vuelven a publicar a los observadores. Para productos y skus
+     * usar los métodos propios.
+     * @param entidad EntidadCatalogo tipo de la entidad.
+     * @param id Long id de la entidad.
+     */
+    void entidadModificada(EntidadCatalogo entidad, Long id);
+
+    /**
+     * Registra en el log del catálogo que una entidad fue eliminada.
+     * @param entidad EntidadCatalogo tipo de la entidad.
+     * @param id Long id de la entidad eliminada.
+     */
+    void entidadEliminada(EntidadCatalogo entidad, Long id);
+}
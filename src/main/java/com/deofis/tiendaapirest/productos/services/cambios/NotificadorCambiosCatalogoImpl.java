@@ -0,0 +1,422 @@
+package com.deofis.tiendaapirest.productos.services.cambios;
+
+import com.deofis.tiendaapirest.config.CatalogoProperties;
+import com.deofis.tiendaapirest.productos.domain.CambioCatalogo;
+import com.deofis.tiendaapirest.productos.domain.EntidadCatalogo;
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.domain.Sku;
+import com.deofis.tiendaapirest.productos.repositories.CambioCatalogoRepository;
+import com.deofis.tiendaapirest.productos.repositories.ProductoRepository;
+import com.deofis.tiendaapirest.productos.services.busqueda.VentasProductos;
+import com.deofis.tiendaapirest.productos.services.cache.CacheConsultasCatalogo;
+import com.deofis.tiendaapirest.productos.services.replica.ArchivoCatalogo;
+import com.deofis.tiendaapirest.productos.services.replica.CatalogoArchivado;
+import com.deofis.tiendaapirest.productos.utils.GrafoProductoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.ListUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+@Service
+@Slf4j
+public class NotificadorCambiosCatalogoImpl implements NotificadorCambiosCatalogo {
+
+    /** Productos releídos por consulta al publicar los cambios. */
+    private static final int TAMANIO_LOTE = 100;
+    /** Entidades que se muestran dentro de los productos: un cambio en ellas cambia a sus productos. */
+    private static final Set<EntidadCatalogo> ENTIDADES_DE_PRODUCTOS = EnumSet.of(EntidadCatalogo.MARCA,
+            EntidadCatalogo.SUBCATEGORIA, EntidadCatalogo.PROMOCION);
+
+    private final ProductoRepository productoRepository;
+    private final CambioCatalogoRepository cambioCatalogoRepository;
+    private final ObjectProvider<ObservadorCatalogo> observadores;
+    private final VentasProductos ventasProductos;
+    private final CacheConsultasCatalogo cacheConsultasCatalogo;
+    private final ArchivoCatalogo archivoCatalogo;
+    private final CatalogoProperties.Archivo propiedadesArchivo;
+    private final CatalogoProperties.Cambios propiedadesCambios;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Identifica en el log los cambios registrados por esta instancia, que no hace falta volver a leer. */
+    private final String nodo = UUID.randomUUID().toString();
+    /** Última versión del log leída; null hasta cargar el catálogo. */
+    private Long versionLeida;
+    /** Id --> fecha de los cambios ya leídos que todavía están dentro del margen y se vuelven a consultar. */
+    private final Map<Long, Date> leidosRecientes = new HashMap<>();
+
+    public NotificadorCambiosCatalogoImpl(ProductoRepository productoRepository,
+                                          CambioCatalogoRepository cambioCatalogoRepository,
+                                          ObjectProvider<ObservadorCatalogo> observadores,
+                                          VentasProductos ventasProductos,
+                                          CacheConsultasCatalogo cacheConsultasCatalogo,
+                                          ArchivoCatalogo archivoCatalogo,
+                                          CatalogoProperties catalogoProperties,
+                                          PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.cambioCatalogoRepository = cambioCatalogoRepository;
+        this.observadores = observadores;
+        this.ventasProductos = ventasProductos;
+        this.cacheConsultasCatalogo = cacheConsultasCatalogo;
+        this.archivoCatalogo = archivoCatalogo;
+        this.propiedadesArchivo = catalogoProperties.getArchivo();
+        this.propiedadesCambios = catalogoProperties.getCambios();
+        // Las lecturas posteriores al commit deben correr en una transacción propia (ver TransactionSynchronization#afterCommit).
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Carga el catálogo desde el archivo del catálogo, si existe, releyendo de la base de datos solo los productos
+     * modificados desde su versión; si no, lo carga completo de la base de datos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void cargarCatalogo() {
+        // Antes de leer el catálogo: lo que se registre mientras tanto se lee luego del log (a lo sumo, dos veces).
+        Long version = this.transactionTemplate.execute(status -> this.cambioCatalogoRepository.findUltimaVersion());
+        this.versionLeida = version != null ? version : 0L;
+        this.leidosRecientes.clear();
+
+        List<Producto> productos = this.archivoCatalogo.leer()
+                .filter(this::vigente)
+                .map(this::ponerAlDia)
+                .orElseGet(() -> this.transactionTemplate.execute(status -> {
+                    List<Producto> todos = this.productoRepository.findAllDetalleBy();
+                    todos.forEach(GrafoProductoUtils::inicializar);
+                    return todos;
+                }));
+
+        this.ventasProductos.cargar();
+        log.info("Catálogo cargado para observadores: " + Objects.requireNonNull(productos).size() + " productos");
+        this.notificarObservadores(observador -> observador.catalogoCargado(productos));
+        this.cacheConsultasCatalogo.invalidar();
+    }
+
+    @Scheduled(fixedDelayString = "#{@catalogoProperties.cambios.intervalo.toMillis()}",
+            initialDelayString = "#{@catalogoProperties.cambios.intervalo.toMillis()}")
+    public void leerCambiosProgramado() {
+        try {
+            this.leerCambios();
+        } catch (RuntimeException e) {
+            log.error("Error al leer del log los cambios del catálogo de otras instancias", e);
+        }
+    }
+
+    /**
+     * Lee del log los cambios registrados por otras instancias de la aplicación y los publica a los observadores
+     * de esta, igual que los propios. Los ids del log se asignan antes de confirmar la transacción, por lo que
+     * además de lo posterior a la última versión leída se vuelve a consultar lo registrado dentro del margen
+     * ({@link CatalogoProperties.Cambios#getMargen()}, que también cubre la diferencia de reloj entre instancias),
+     * salteando lo ya leído.
+     */
+    public synchronized void leerCambios() {
+        if (this.versionLeida == null) return;
+
+        Date ventana = new Date(System.currentTimeMillis() - this.propiedadesCambios.getMargen().toMillis());
+        this.leidosRecientes.values().removeIf(fecha -> fecha.before(ventana));
+
+        CambiosPendientes cambios = new CambiosPendientes();
+        boolean depurado = Objects.requireNonNull(this.transactionTemplate.execute(status -> {
+            Long primera = this.cambioCatalogoRepository.findPrimeraVersion();
+            if (primera != null && this.versionLeida < primera - 1) return true;
+
+            this.leerLog(ventana, cambios);
+            // Las ventas de los productos que modificaron otras instancias no pasaron por esta.
+            this.ventasProductos.recalcular(cambios.modificados.getOrDefault(EntidadCatalogo.PRODUCTO,
+                    Collections.emptySet()));
+            return false;
+        }));
+
+        if (depurado) {
+            log.warn("Los cambios del catálogo posteriores a la versión " + this.versionLeida + " ya se depuraron " +
+                    "del log: se vuelve a cargar el catálogo completo");
+            this.cargarCatalogo();
+            return;
+        }
+
+        cambios.publicar();
+    }
+
+    private void leerLog(Date ventana, CambiosPendientes cambios) {
+        long desdeId = 0L;
+        long version = this.versionLeida;
+        Slice<CambioCatalogo> pagina;
+
+        do {
+            pagina = this.cambioCatalogoRepository.findRecientes(desdeId, this.versionLeida, ventana,
+                    PageRequest.of(0, TAMANIO_LOTE));
+
+            for (CambioCatalogo cambio: pagina) {
+                desdeId = cambio.getId();
+                version = Math.max(version, cambio.getId());
+                if (this.leidosRecientes.containsKey(cambio.getId())) continue;
+
+                if (!cambio.getFecha().before(ventana)) this.leidosRecientes.put(cambio.getId(), cambio.getFecha());
+                if (this.nodo.equals(cambio.getNodo())) continue;
+
+                if (cambio.isEliminado()) cambios.eliminar(cambio.getEntidad(), cambio.getEntidadId());
+                else cambios.modificar(cambio.getEntidad(), cambio.getEntidadId());
+            }
+        } while (pagina.hasNext());
+
+        this.versionLeida = version;
+    }
+
+    @Override
+    public void productoModificado(Long productoId) {
+        if (productoId == null) return;
+
+        this.registrarCambio(cambios -> cambios.modificar(EntidadCatalogo.PRODUCTO, productoId));
+    }
+
+    @Override
+    public void skuModificado(Sku sku) {
+        if (sku.getId() != null) this.entidadModificada(EntidadCatalogo.SKU, sku.getId());
+
+        Producto producto = sku.getProducto() != null ? sku.getProducto() : sku.getDefaultProducto();
+        if (producto != null) this.productoModificado(producto.getId());
+    }
+
+    @Override
+    public void ventaRegistrada(Sku sku, int unidades) {
+        this.skuModificado(sku);
+
+        Producto producto = sku.getProducto() != null ? sku.getProducto() : sku.getDefaultProducto();
+        if (producto != null && unidades != 0)
+            this.registrarCambio(cambios -> cambios.vender(producto.getId(), unidades));
+    }
+
+    @Override
+    public void productoEliminado(Long productoId) {
+        this.registrarCambio(cambios -> cambios.eliminar(EntidadCatalogo.PRODUCTO, productoId));
+    }
+
+    @Override
+    public void entidadModificada(EntidadCatalogo entidad, Long id) {
+        if (id == null) return;
+
+        this.registrarCambio(cambios -> cambios.modificar(entidad, id));
+    }
+
+    @Override
+    public void entidadEliminada(EntidadCatalogo entidad, Long id) {
+        this.registrarCambio(cambios -> cambios.eliminar(entidad, id));
+    }
+
+    /**
+     * Agrega el cambio a los de la transacción actual, o si no hay transacción activa, lo registra y publica en
+     * el momento.
+     */
+    private void registrarCambio(Consumer<CambiosPendientes> cambio) {
+        CambiosPendientes cambios = this.cambiosPendientes();
+        if (cambios != null) {
+            cambio.accept(cambios);
+            return;
+        }
+
+        CambiosPendientes inmediatos = new CambiosPendientes();
+        cambio.accept(inmediatos);
+        inmediatos.registrar();
+        inmediatos.publicar();
+    }
+
+    /**
+     * Obtiene los cambios acumulados en la transacción actual, registrando la sincronización la primera vez.
+     * @return CambiosPendientes de la transacción, o null si no hay transacción activa (se publica en el momento).
+     */
+    private CambiosPendientes cambiosPendientes() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+
+        for (TransactionSynchronization sincronizacion: TransactionSynchronizationManager.getSynchronizations()) {
+            if (sincronizacion instanceof CambiosPendientes) return (CambiosPendientes) sincronizacion;
+        }
+
+        CambiosPendientes cambios = new CambiosPendientes();
+        TransactionSynchronizationManager.registerSynchronization(cambios);
+        return cambios;
+    }
+
+    /**
+     * El archivo solo sirve si el log todavía tiene todos los cambios posteriores a su versión (ver
+     * {@link ArchivoCatalogo#depurarCambios()}).
+     */
+    private boolean vigente(CatalogoArchivado archivado) {
+        Long primera = this.transactionTemplate.execute(status -> this.cambioCatalogoRepository.findPrimeraVersion());
+        if (primera == null || archivado.getVersion() >= primera - 1) return true;
+
+        log.info("El archivo del catálogo (versión " + archivado.getVersion() + ") es anterior a los cambios " +
+                "conservados en el log: se ignora");
+        return false;
+    }
+
+    /**
+     * Reemplaza en el catálogo archivado los productos modificados desde su versión (o cuya marca, subcategoría o
+     * promoción se modificó) por su estado actual, y quita los eliminados.
+     */
+    private List<Producto> ponerAlDia(CatalogoArchivado archivado) {
+        Date desde = new Date(archivado.getFecha().getTime() - this.propiedadesArchivo.getMargen().toMillis());
+
+        return this.transactionTemplate.execute(status -> {
+            Set<Long> modificados = new LinkedHashSet<>(this.cambioCatalogoRepository.findProductosModificadosDesde(
+                    archivado.getVersion(), desde));
+
+            Map<EntidadCatalogo, Set<Long>> entidades = new EnumMap<>(EntidadCatalogo.class);
+            for (EntidadCatalogo entidad: ENTIDADES_DE_PRODUCTOS) {
+                entidades.put(entidad, new HashSet<>(this.cambioCatalogoRepository.findModificadosDesde(entidad,
+                        archivado.getVersion(), desde)));
+            }
+            modificados.addAll(this.productosAfectados(entidades));
+
+            Map<Long, Producto> productos = new LinkedHashMap<>();
+            archivado.getProductos().forEach(producto -> productos.put(producto.getId(), producto));
+            modificados.forEach(productos::remove);
+
+            List<Producto> actuales = modificados.isEmpty()
+                    ? Collections.emptyList() : this.productoRepository.findAllDetalleByIdIn(modificados);
+            actuales.forEach(producto -> productos.put(producto.getId(), GrafoProductoUtils.inicializar(producto)));
+
+            log.info("Catálogo leído del archivo (versión " + archivado.getVersion() + "): "
+                    + archivado.getProductos().size() + " productos, " + modificados.size()
+                    + " releídos de la base de datos");
+            return new ArrayList<>(productos.values());
+        });
+    }
+
+    /**
+     * Ids de los productos que muestran alguna de las marcas, subcategorías o promociones modificadas: deben
+     * volver a publicarse para que los observadores vean el nombre, la foto o el precio de oferta nuevos. Debe
+     * llamarse dentro de una transacción.
+     */
+    private Set<Long> productosAfectados(Map<EntidadCatalogo, Set<Long>> modificados) {
+        Set<Long> productos = new LinkedHashSet<>();
+
+        Set<Long> marcas = modificados.getOrDefault(EntidadCatalogo.MARCA, Collections.emptySet());
+        if (!marcas.isEmpty()) productos.addAll(this.productoRepository.findIdsByMarcaIdIn(marcas));
+
+        Set<Long> subcategorias = modificados.getOrDefault(EntidadCatalogo.SUBCATEGORIA, Collections.emptySet());
+        if (!subcategorias.isEmpty()) productos.addAll(this.productoRepository.findIdsBySubcategoriaIdIn(subcategorias));
+
+        Set<Long> promociones = modificados.getOrDefault(EntidadCatalogo.PROMOCION, Collections.emptySet());
+        if (!promociones.isEmpty()) productos.addAll(this.productoRepository.findIdsByPromocionIdIn(promociones));
+
+        return productos;
+    }
+
+    private void publicar(Map<EntidadCatalogo, Set<Long>> modificados, Set<Long> eliminados, Map<Long, Long> ventas) {
+        // Antes de avisar a los observadores, que ponderan la popularidad de los productos modificados.
+        if (!ventas.isEmpty()) this.ventasProductos.sumar(ventas);
+
+        Set<Long> productos = new LinkedHashSet<>(modificados.getOrDefault(EntidadCatalogo.PRODUCTO,
+                Collections.emptySet()));
+        if (modificados.keySet().stream().anyMatch(ENTIDADES_DE_PRODUCTOS::contains))
+            productos.addAll(Objects.requireNonNull(this.transactionTemplate.execute(status ->
+                    this.productosAfectados(modificados))));
+        productos.removeAll(eliminados);
+
+        List<Long> pendientes = new ArrayList<>(eliminados);
+        for (List<Long> lote: ListUtils.partition(new ArrayList<>(productos), TAMANIO_LOTE)) {
+            List<Producto> actualizados = Objects.requireNonNull(this.transactionTemplate.execute(status -> {
+                List<Producto> encontrados = this.productoRepository.findAllDetalleByIdIn(lote);
+                encontrados.forEach(GrafoProductoUtils::inicializar);
+                return encontrados;
+            }));
+
+            // Un producto que ya no existe se eliminó luego del cambio.
+            Set<Long> encontrados = new HashSet<>();
+            actualizados.forEach(producto -> encontrados.add(producto.getId()));
+            lote.stream().filter(productoId -> !encontrados.contains(productoId)).forEach(pendientes::add);
+
+            this.notificarCambios(actualizados, pendientes);
+            pendientes = new ArrayList<>();
+        }
+
+        if (!pendientes.isEmpty()) this.notificarCambios(Collections.emptyList(), pendientes);
+
+        // Recién ahora los índices en memoria reflejan los cambios: lo cacheado antes puede estar desactualizado.
+        this.cacheConsultasCatalogo.invalidar();
+    }
+
+    private void notificarCambios(List<Producto> actualizados, List<Long> eliminados) {
+        this.notificarObservadores(observador -> observador.productosCambiados(actualizados, eliminados));
+    }
+
+    private void notificarObservadores(Consumer<ObservadorCatalogo> accion) {
+        this.observadores.orderedStream().forEach(observador -> {
+            // Un observador que falla no debe impedir que el resto se actualice: la transacción ya fue confirmada.
+            try {
+                accion.accept(observador);
+            } catch (RuntimeException e) {
+                log.error("Error al notificar cambios del catálogo a " + observador.getClass().getSimpleName(), e);
+            }
+        });
+    }
+
+    /**
+     * Cambios de una transacción, con el último estado de cada entidad: si se modifica y luego se elimina, queda
+     * solo como eliminada.
+     */
+    private class CambiosPendientes implements TransactionSynchronization {
+        private final Map<EntidadCatalogo, Set<Long>> modificados = new EnumMap<>(EntidadCatalogo.class);
+        private final Map<EntidadCatalogo, Set<Long>> eliminados = new EnumMap<>(EntidadCatalogo.class);
+        /** Id producto --> unidades vendidas en la transacción (negativas si se repusieron). */
+        private final Map<Long, Long> ventas = new HashMap<>();
+
+        private void modificar(EntidadCatalogo entidad, Long id) {
+            if (this.eliminados.getOrDefault(entidad, Collections.emptySet()).contains(id)) return;
+            this.modificados.computeIfAbsent(entidad, e -> new LinkedHashSet<>()).add(id);
+        }
+
+        private void eliminar(EntidadCatalogo entidad, Long id) {
+            this.modificados.getOrDefault(entidad, new HashSet<>()).remove(id);
+            this.eliminados.computeIfAbsent(entidad, e -> new LinkedHashSet<>()).add(id);
+        }
+
+        private void vender(Long productoId, int unidades) {
+            this.ventas.merge(productoId, (long) unidades, Long::sum);
+        }
+
+        /**
+         * Guarda los cambios en el log persistente del catálogo ({@link CambioCatalogo}).
+         */
+        private void registrar() {
+            Date fecha = new Date();
+            List<CambioCatalogo> cambios = new ArrayList<>();
+
+            this.modificados.forEach((entidad, ids) -> ids.forEach(id -> cambios.add(CambioCatalogo.builder()
+                    .entidad(entidad).entidadId(id).eliminado(false).fecha(fecha).nodo(nodo).build())));
+            this.eliminados.forEach((entidad, ids) -> ids.forEach(id -> cambios.add(CambioCatalogo.builder()
+                    .entidad(entidad).entidadId(id).eliminado(true).fecha(fecha).nodo(nodo).build())));
+
+            if (!cambios.isEmpty()) cambioCatalogoRepository.saveAll(cambios);
+        }
+
+        private void publicar() {
+            NotificadorCambiosCatalogoImpl.this.publicar(this.modificados,
+                    this.eliminados.getOrDefault(EntidadCatalogo.PRODUCTO, Collections.emptySet()), this.ventas);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Todavía dentro de la transacción: el registro se confirma junto con el cambio.
+            this.registrar();
+        }
+
+        @Override
+        public void afterCommit() {
+            this.publicar();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.deofis.tiendaapirest.productos.services.cambios;
+
+import com.deofis.tiendaapirest.productos.domain.Producto;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Componente que mantiene alguna estructura en memoria derivada del catálogo (índices, cachés, etc.) y
+ * necesita enterarse de los cambios de {@link Producto}s.
+ * <br>
+ * Los productos recibidos están desvinculados de la sesión de Hibernate y con su grafo completamente
+ * inicializado. Son compartidos entre todos los observadores, por lo que deben tratarse como de solo lectura.
+ */
+public interface ObservadorCatalogo {
+
+    /**
+     * Se llama una única vez al iniciar la aplicación con todos los productos (activos e inactivos).
+     * @param productos List todos los productos del catálogo.
+     */
+    void catalogoCargado(List<Producto> productos);
+
+    /**
+     * Se llama luego de confirmarse una transacción que creó o modificó el producto, sus skus, su promoción, su
+     * marca o su subcategoría.
+     * @param producto Producto en su estado actual.
+     */
+    void productoActualizado(Producto producto);
+
+    /**
+     * Se llama luego de confirmarse una transacción que eliminó el producto.
+     * @param productoId Long id del producto eliminado.
+     */
+    void productoEliminado(Long productoId);
+
+    /**
+     * Se llama luego de confirmarse una transacción con todos sus productos modificados y eliminados (en lotes, si
+     * son muchos). Por defecto avisa cada producto por separado; un observador que arma una estructura nueva en
+     * cada cambio puede sobreescribirlo para aplicar el lote de una vez.
+     * @param actualizados List productos creados o modificados, en su estado actual.
+     * @param eliminados Collection ids de los productos eliminados.
+     */
+    default void productosCambiados(List<Producto> actualizados, Collection<Long> eliminados) {
+        eliminados.forEach(this::productoEliminado);
+        actualizados.forEach(this::productoActualizado);
+    }
+}
@@ -0,0 +1,12 @@
+package com.deofis.tiendaapirest.productos.services.cambios;
+
+/**
+ * Recursos públicos cuyas respuestas se versionan para responder GETs condicionales (ETag / If-None-Match).
+ * <br>
+ * CATALOGO agrupa productos, marcas, categorías, subcategorías y propiedades, ya que las respuestas de
+ * unos embeben a los otros (un producto destacado incluye su marca y subcategoría, etc.).
+ */
+public enum RecursoVersionado {
+    CATALOGO,
+    BANNERS
+}
@@ -0,0 +1,21 @@
+package com.deofis.tiendaapirest.productos.services.cambios;
+
+import com.deofis.tiendaapirest.productos.dto.CambiosCatalogo;
+
+/**
+ * Servicio que expone el log persistente del catálogo
+ * ({@link com.deofis.tiendaapirest.productos.domain.CambioCatalogo}) como un feed de cambios, para que los
+ * clientes que mantienen una copia local del catálogo la sincronicen sin volver a descargarlo completo.
+ */
+public interface SincronizacionCatalogoService {
+
+    /**
+     * Obtiene los cambios del catálogo posteriores a una versión, con el estado actual de cada entidad modificada.
+     * @param desde Long versión ya sincronizada por el cliente ('hasta' de la consulta anterior), o null/0 para
+     *              leer el log desde el principio. Si esos cambios ya se depuraron del log, la respuesta lo indica
+     *              con 'reiniciar'.
+     * @param limite Integer opcional con la cantidad máxima de registros del log a leer.
+     * @return CambiosCatalogo con los cambios y la versión hasta la que se leyó.
+     */
+    CambiosCatalogo obtenerCambios(Long desde, Integer limite);
+}
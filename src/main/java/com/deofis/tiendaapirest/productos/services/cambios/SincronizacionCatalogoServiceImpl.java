@@ -0,0 +1,126 @@
+package com.deofis.tiendaapirest.productos.services.cambios;
+
+import com.deofis.tiendaapirest.config.CatalogoProperties;
+import com.deofis.tiendaapirest.productos.domain.*;
+import com.deofis.tiendaapirest.productos.dto.CambiosCatalogo;
+import com.deofis.tiendaapirest.productos.repositories.*;
+import com.deofis.tiendaapirest.productos.utils.GrafoProductoUtils;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@AllArgsConstructor
+public class SincronizacionCatalogoServiceImpl implements SincronizacionCatalogoService {
+
+    private final CambioCatalogoRepository cambioCatalogoRepository;
+    private final ProductoRepository productoRepository;
+    private final SkuRepository skuRepository;
+    private final PromocionRepository promocionRepository;
+    private final MarcaRepository marcaRepository;
+    private final SubcategoriaRepository subcategoriaRepository;
+    private final CatalogoProperties catalogoProperties;
+
+    @Transactional(readOnly = true)
+    @Override
+    public CambiosCatalogo obtenerCambios(Long desde, Integer limite) {
+        CatalogoProperties.Cambios propiedades = this.catalogoProperties.getCambios();
+        long version = desde != null ? Math.max(desde, 0L) : 0L;
+
+        Long primera = this.cambioCatalogoRepository.findPrimeraVersion();
+        if (primera != null && version < primera - 1) {
+            return CambiosCatalogo.builder()
+                    .desde(version)
+                    .hasta(primera - 1)
+                    .hayMas(true)
+                    .reiniciar(true)
+                    .productos(Collections.emptyList())
+                    .skus(Collections.emptyList())
+                    .promociones(Collections.emptyList())
+                    .marcas(Collections.emptyList())
+                    .subcategorias(Collections.emptyList())
+                    .eliminados(new EnumMap<>(EntidadCatalogo.class)).build();
+        }
+
+        Slice<CambioCatalogo> cambios = this.cambioCatalogoRepository.findAllByIdGreaterThanOrderByIdAsc(version,
+                PageRequest.of(0, propiedades.limite(limite)));
+
+        // Los ids se asignan antes de confirmar: un cambio con id menor a la versión puede haberse confirmado
+        // después de que el cliente la leyó. Se vuelve a leer lo registrado dentro del margen anterior a la
+        // versión; lo que el cliente ya tenía se repite con su estado actual.
+        List<CambioCatalogo> leidos = new ArrayList<>();
+        Date fechaVersion = version > 0 ? this.cambioCatalogoRepository.findFechaVersion(version) : null;
+        if (fechaVersion != null)
+            leidos.addAll(this.cambioCatalogoRepository.findAllByIdLessThanEqualAndFechaGreaterThanEqualOrderByIdAsc(
+                    version, new Date(fechaVersion.getTime() - propiedades.getMargen().toMillis())));
+        leidos.addAll(cambios.getContent());
+
+        // Último estado de cada entidad dentro del intervalo leído.
+        Map<EntidadCatalogo, Set<Long>> modificados = new EnumMap<>(EntidadCatalogo.class);
+        Map<EntidadCatalogo, Set<Long>> eliminados = new EnumMap<>(EntidadCatalogo.class);
+        long hasta = version;
+
+        for (CambioCatalogo cambio: leidos) {
+            Map<EntidadCatalogo, Set<Long>> destino = cambio.isEliminado() ? eliminados : modificados;
+            Map<EntidadCatalogo, Set<Long>> otro = cambio.isEliminado() ? modificados : eliminados;
+
+            otro.getOrDefault(cambio.getEntidad(), new HashSet<>()).remove(cambio.getEntidadId());
+            destino.computeIfAbsent(cambio.getEntidad(), e -> new LinkedHashSet<>()).add(cambio.getEntidadId());
+            hasta = Math.max(hasta, cambio.getId());
+        }
+
+        CambiosCatalogo.CambiosCatalogoBuilder resultado = CambiosCatalogo.builder()
+                .desde(version)
+                .hasta(hasta)
+                .hayMas(cambios.hasNext())
+                .productos(this.actuales(EntidadCatalogo.PRODUCTO, modificados, eliminados,
+                        ids -> this.productoRepository.findAllDetalleByIdIn(ids).stream()
+                                .map(GrafoProductoUtils::inicializar).collect(Collectors.toList()),
+                        Producto::getId))
+                .skus(this.actuales(EntidadCatalogo.SKU, modificados, eliminados,
+                        ids -> this.skuRepository.findAllDetalleByIdIn(ids).stream()
+                                .map(GrafoProductoUtils::inicializarConProducto).collect(Collectors.toList()),
+                        Sku::getId))
+                .promociones(this.actuales(EntidadCatalogo.PROMOCION, modificados, eliminados,
+                        this.promocionRepository::findAllById, Promocion::getId))
+                .marcas(this.actuales(EntidadCatalogo.MARCA, modificados, eliminados,
+                        this.marcaRepository::findAllById, Marca::getId))
+                .subcategorias(this.actuales(EntidadCatalogo.SUBCATEGORIA, modificados, eliminados,
+                        ids -> this.subcategoriaRepository.findAllById(ids).stream()
+                                .map(GrafoProductoUtils::inicializar).collect(Collectors.toList()),
+                        Subcategoria::getId))
+                .eliminados(eliminados);
+
+        eliminados.values().removeIf(Set::isEmpty);
+        return resultado.build();
+    }
+
+    /**
+     * Lee el estado actual de las entidades modificadas de un tipo, en orden de id. Las que ya no existen (fueron
+     * eliminadas luego del intervalo leído) se informan como eliminadas.
+     */
+    private <T> List<T> actuales(EntidadCatalogo entidad,
+                                 Map<EntidadCatalogo, Set<Long>> modificados,
+                                 Map<EntidadCatalogo, Set<Long>> eliminados,
+                                 Function<Collection<Long>, List<T>> buscar,
+                                 Function<T, Long> id) {
+        Set<Long> ids = modificados.getOrDefault(entidad, Collections.emptySet());
+        if (ids.isEmpty()) return Collections.emptyList();
+
+        List<T> actuales = new ArrayList<>(buscar.apply(ids));
+        actuales.sort(Comparator.comparing(id));
+
+        Set<Long> encontrados = actuales.stream().map(id).collect(Collectors.toSet());
+        ids.stream()
+                .filter(entidadId -> !encontrados.contains(entidadId))
+                .forEach(entidadId -> eliminados.computeIfAbsent(entidad, e -> new LinkedHashSet<>()).add(entidadId));
+
+        return actuales;
+    }
+}
@@ -0,0 +1,26 @@
+package com.deofis.tiendaapirest.productos.services.cambios;
+
+/**
+ * Servicio que mantiene un contador de versión por {@link RecursoVersionado}, incrementado por los servicios
+ * de escritura, y genera a partir de él los ETags de las respuestas públicas.
+ * <br>
+ * Calcular el ETag no accede a la base de datos, por lo que un GET condicional puede responderse con
+ * 304 Not Modified antes de ejecutar consultas o serializar la respuesta.
+ */
+public interface VersionCatalogoService {
+
+    /**
+     * Obtiene el ETag fuerte de la versión actual del recurso.
+     * Ej.: "catalogo-kfz3a1b2-42".
+     * @param recurso RecursoVersionado a consultar.
+     * @return String ETag (entre comillas) de la versión actual.
+     */
+    String etag(RecursoVersionado recurso);
+
+    /**
+     * Registra que el recurso fue modificado. Si hay una transacción activa, la versión se incrementa luego
+     * de su commit, de modo que ninguna lectura de datos viejos quede asociada a la versión nueva.
+     * @param recurso RecursoVersionado modificado.
+     */
+    void registrarCambio(RecursoVersionado recurso);
+}
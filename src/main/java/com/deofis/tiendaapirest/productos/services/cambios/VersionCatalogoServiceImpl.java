@@ -0,0 +1,152 @@
+package com.deofis.tiendaapirest.productos.services.cambios;
+
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.domain.Promocion;
+import com.deofis.tiendaapirest.productos.domain.Sku;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class VersionCatalogoServiceImpl implements VersionCatalogoService, ObservadorCatalogo {
+
+    /**
+     * Identifica a esta instancia de la aplicación: los contadores empiezan de cero en cada arranque, por lo que
+     * un ETag emitido antes de reiniciar (o por otra instancia) no debe coincidir con uno actual.
+     */
+    private final String instancia = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final Map<RecursoVersionado, AtomicLong> versiones = new EnumMap<>(RecursoVersionado.class);
+
+    /**
+     * Instantes (ms) en que alguna promoción empieza o deja de estar vigente, con la cantidad de promociones
+     * que cambian en ese instante. La vigencia se serializa en los productos (Promocion#getEstaVigente), por
+     * lo que la respuesta cambia aunque nadie modifique el catálogo.
+     */
+    private final NavigableMap<Long, Integer> limitesPromociones = new TreeMap<>();
+    private final Map<Long, List<Long>> limitesPorProducto = new HashMap<>();
+    private volatile long proximoLimite = Long.MAX_VALUE;
+
+    public VersionCatalogoServiceImpl() {
+        for (RecursoVersionado recurso: RecursoVersionado.values()) {
+            this.versiones.put(recurso, new AtomicLong());
+        }
+    }
+
+    @Override
+    public String etag(RecursoVersionado recurso) {
+        if (recurso == RecursoVersionado.CATALOGO) this.verificarVigenciaPromociones();
+
+        return "\"" + recurso.name().toLowerCase() + "-" + this.instancia + "-"
+                + this.versiones.get(recurso).get() + "\"";
+    }
+
+    @Override
+    public void registrarCambio(RecursoVersionado recurso) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            this.incrementar(recurso);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                incrementar(recurso);
+            }
+        });
+    }
+
+    @Override
+    public synchronized void catalogoCargado(List<Producto> productos) {
+        this.limitesPromociones.clear();
+        this.limitesPorProducto.clear();
+        productos.forEach(this::agregarLimites);
+
+        this.incrementar(RecursoVersionado.CATALOGO);
+        this.calcularProximoLimite(System.currentTimeMillis());
+    }
+
+    @Override
+    public synchronized void productoActualizado(Producto producto) {
+        this.quitarLimites(producto.getId());
+        this.agregarLimites(producto);
+
+        this.incrementar(RecursoVersionado.CATALOGO);
+        this.calcularProximoLimite(System.currentTimeMillis());
+    }
+
+    @Override
+    public synchronized void productoEliminado(Long productoId) {
+        this.quitarLimites(productoId);
+
+        this.incrementar(RecursoVersionado.CATALOGO);
+        this.calcularProximoLimite(System.currentTimeMillis());
+    }
+
+    private void incrementar(RecursoVersionado recurso) {
+        long version = this.versiones.get(recurso).incrementAndGet();
+        log.debug("Nueva versión de " + recurso + ": " + version);
+    }
+
+    /**
+     * Si desde la última versión alguna promoción empezó o terminó, incrementa la versión del catálogo.
+     * El caso habitual (ningún límite alcanzado) es una única lectura volátil, sin sincronización.
+     */
+    private void verificarVigenciaPromociones() {
+        long ahora = System.currentTimeMillis();
+        if (ahora < this.proximoLimite) return;
+
+        synchronized (this) {
+            if (ahora < this.proximoLimite) return;
+
+            this.incrementar(RecursoVersionado.CATALOGO);
+            this.calcularProximoLimite(ahora);
+        }
+    }
+
+    private void calcularProximoLimite(long ahora) {
+        // Los límites ya alcanzados quedan reflejados en la versión actual y no vuelven a necesitarse.
+        this.limitesPromociones.headMap(ahora, true).clear();
+        this.proximoLimite = this.limitesPromociones.isEmpty() ? Long.MAX_VALUE : this.limitesPromociones.firstKey();
+    }
+
+    private void agregarLimites(Producto producto) {
+        List<Long> limites = new ArrayList<>();
+        this.limitesDePromocion(producto.getPromocion(), limites);
+
+        if (producto.getSkus() != null) {
+            for (Sku sku: producto.getSkus()) {
+                this.limitesDePromocion(sku.getPromocion(), limites);
+            }
+        }
+
+        if (producto.getDefaultSku() != null) this.limitesDePromocion(producto.getDefaultSku().getPromocion(), limites);
+
+        if (limites.isEmpty()) return;
+
+        limites.forEach(limite -> this.limitesPromociones.merge(limite, 1, Integer::sum));
+        this.limitesPorProducto.put(producto.getId(), limites);
+    }
+
+    private void limitesDePromocion(Promocion promocion, List<Long> limites) {
+        if (promocion == null || promocion.getFechaDesde() == null || promocion.getFechaHasta() == null) return;
+
+        // getEstaVigente() compara con after(fechaDesde) y before(fechaHasta): el primer instante vigente es
+        // fechaDesde + 1 ms y el primero no vigente es fechaHasta.
+        limites.add(promocion.getFechaDesde().getTime() + 1);
+        limites.add(promocion.getFechaHasta().getTime());
+    }
+
+    private void quitarLimites(Long productoId) {
+        List<Long> limites = this.limitesPorProducto.remove(productoId);
+        if (limites == null) return;
+
+        // Los límites ya alcanzados pudieron haberse descartado en calcularProximoLimite.
+        limites.forEach(limite -> this.limitesPromociones.computeIfPresent(limite,
+                (l, cantidad) -> cantidad > 1 ? cantidad - 1 : null));
+    }
+}
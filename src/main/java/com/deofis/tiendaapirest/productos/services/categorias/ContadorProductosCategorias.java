@@ -0,0 +1,23 @@
+package com.deofis.tiendaapirest.productos.services.categorias;
+
+import java.util.Map;
+
+/**
+ * Cantidad de productos activos de cada subcategoría, mantenida en memoria a partir de los cambios del catálogo
+ * (alta, baja, activación y cambio de subcategoría de un producto), sin consultas COUNT por solicitud. La
+ * cantidad de una categoría es la suma de las de sus subcategorías.
+ */
+public interface ContadorProductosCategorias {
+
+    /**
+     * @return true si ya se cargó el catálogo al iniciar la aplicación; antes de eso las cantidades no son válidas.
+     */
+    boolean cargado();
+
+    /**
+     * Obtiene las cantidades actuales de todas las subcategorías con algún producto activo.
+     * @return Map de id de subcategoría a cantidad de productos activos. Las subcategorías sin productos
+     * activos no están.
+     */
+    Map<Long, Integer> productosActivosPorSubcategoria();
+}
@@ -0,0 +1,67 @@
+package com.deofis.tiendaapirest.productos.services.categorias;
+
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.services.cambios.ObservadorCatalogo;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class ContadorProductosCategoriasImpl implements ContadorProductosCategorias, ObservadorCatalogo {
+
+    /** Id producto activo --> id de su subcategoría. Los inactivos no cuentan y no se guardan. */
+    private final Map<Long, Long> subcategoriaPorProducto = new HashMap<>();
+    /** Id subcategoría --> cantidad de productos activos. */
+    private final Map<Long, Integer> cantidades = new HashMap<>();
+    private boolean cargado = false;
+
+    @Override
+    public synchronized boolean cargado() {
+        return this.cargado;
+    }
+
+    @Override
+    public synchronized Map<Long, Integer> productosActivosPorSubcategoria() {
+        return new HashMap<>(this.cantidades);
+    }
+
+    @Override
+    public synchronized void catalogoCargado(List<Producto> productos) {
+        this.subcategoriaPorProducto.clear();
+        this.cantidades.clear();
+        productos.forEach(this::contar);
+        this.cargado = true;
+    }
+
+    /**
+     * Cubre el alta, la activación o desactivación y el cambio de subcategoría: se descuenta donde estaba
+     * contado y se vuelve a contar con su estado actual.
+     */
+    @Override
+    public synchronized void productoActualizado(Producto producto) {
+        this.descontar(producto.getId());
+        this.contar(producto);
+    }
+
+    @Override
+    public synchronized void productoEliminado(Long productoId) {
+        this.descontar(productoId);
+    }
+
+    private void contar(Producto producto) {
+        if (!producto.isActivo() || producto.getSubcategoria() == null) return;
+
+        Long subcategoriaId = producto.getSubcategoria().getId();
+        this.subcategoriaPorProducto.put(producto.getId(), subcategoriaId);
+        this.cantidades.merge(subcategoriaId, 1, Integer::sum);
+    }
+
+    private void descontar(Long productoId) {
+        Long subcategoriaId = this.subcategoriaPorProducto.remove(productoId);
+        if (subcategoriaId == null) return;
+
+        this.cantidades.computeIfPresent(subcategoriaId, (id, cantidad) -> cantidad > 1 ? cantidad - 1 : null);
+    }
+}
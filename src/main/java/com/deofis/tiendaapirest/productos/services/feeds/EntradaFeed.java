@@ -0,0 +1,69 @@
+package com.deofis.tiendaapirest.productos.services.feeds;
+
+import com.deofis.tiendaapirest.config.CatalogoProperties;
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.domain.Promocion;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Datos de un producto tal como se publican en los feeds, ya formateados. Se arma dentro de la transacción que
+ * lee el producto, por lo que los formatos no acceden a la entidad.
+ */
+@Data
+@Builder
+public class EntradaFeed {
+
+    /** Google Merchant acepta descripciones de hasta 5000 caracteres. */
+    private static final int LARGO_MAXIMO_DESCRIPCION = 5_000;
+
+    private Long id;
+    private String titulo;
+    private String descripcion;
+    private String url;
+    private String imagenUrl;
+    private boolean disponible;
+    /** Precio con moneda. Ej.: "1500.00 ARS". */
+    private String precio;
+    /** Precio de oferta con moneda, o null si el producto no tiene promoción (vigente o futura). */
+    private String precioOferta;
+    /** Vigencia de la oferta en ISO 8601: "desde/hasta". */
+    private String vigenciaOferta;
+    private String marca;
+    private String tipo;
+
+    public static EntradaFeed de(Producto producto, CatalogoProperties.Feeds propiedades) {
+        Promocion promocion = producto.getPromocion();
+        boolean conOferta = promocion != null && promocion.getPrecioOferta() != null
+                && promocion.getFechaHasta() != null && promocion.getFechaHasta().after(new Date());
+        String descripcion = producto.getDescripcion() != null && !producto.getDescripcion().isBlank()
+                ? producto.getDescripcion() : producto.getNombre();
+
+        return EntradaFeed.builder()
+                .id(producto.getId())
+                .titulo(producto.getNombre())
+                .descripcion(descripcion.length() > LARGO_MAXIMO_DESCRIPCION
+                        ? descripcion.substring(0, LARGO_MAXIMO_DESCRIPCION) : descripcion)
+                .url(propiedades.getUrlProducto().replace("{id}", String.valueOf(producto.getId())))
+                .imagenUrl(producto.getFoto() != null ? producto.getFoto().getImageUrl() : null)
+                .disponible(producto.getDisponibilidadGeneral() != null && producto.getDisponibilidadGeneral() > 0)
+                .precio(precio(producto.getPrecio(), propiedades.getMoneda()))
+                .precioOferta(conOferta ? precio(promocion.getPrecioOferta(), propiedades.getMoneda()) : null)
+                .vigenciaOferta(conOferta ? fecha(promocion.getFechaDesde()) + "/" + fecha(promocion.getFechaHasta()) : null)
+                .marca(producto.getMarca() != null ? producto.getMarca().getNombre() : null)
+                .tipo(producto.getSubcategoria() != null ? producto.getSubcategoria().getNombre() : null).build();
+    }
+
+    private static String precio(Double precio, String moneda) {
+        return String.format(Locale.ROOT, "%.2f %s", precio != null ? precio : 0.0, moneda);
+    }
+
+    private static String fecha(Date fecha) {
+        return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(fecha.toInstant().atOffset(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,66 @@
+package com.deofis.tiendaapirest.productos.services.feeds;
+
+import com.deofis.tiendaapirest.config.EndpointProperties;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import static com.deofis.tiendaapirest.productos.services.feeds.FormatoFeed.escaparXml;
+
+/**
+ * Feed de productos para Google Merchant Center (RSS 2.0 con el namespace 'g').
+ */
+@Component
+@AllArgsConstructor
+public class FeedGoogleMerchant implements FormatoFeed {
+
+    private final EndpointProperties endpointProperties;
+
+    @Override
+    public String archivo() {
+        return "productos.xml";
+    }
+
+    @Override
+    public String encabezado() {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<rss version=\"2.0\" xmlns:g=\"http://base.google.com/ns/1.0\">\n" +
+                "<channel>\n" +
+                "<title>Productos</title>\n" +
+                "<link>" + escaparXml(this.endpointProperties.getClientUrl()) + "</link>\n" +
+                "<description>Catálogo de productos</description>\n";
+    }
+
+    @Override
+    public String entrada(EntradaFeed entrada) {
+        StringBuilder item = new StringBuilder("<item>")
+                .append("<g:id>").append(entrada.getId()).append("</g:id>")
+                .append("<g:title>").append(escaparXml(entrada.getTitulo())).append("</g:title>")
+                .append("<g:description>").append(escaparXml(entrada.getDescripcion())).append("</g:description>")
+                .append("<g:link>").append(escaparXml(entrada.getUrl())).append("</g:link>");
+
+        if (entrada.getImagenUrl() != null)
+            item.append("<g:image_link>").append(escaparXml(entrada.getImagenUrl())).append("</g:image_link>");
+
+        item.append("<g:availability>").append(entrada.isDisponible() ? "in_stock" : "out_of_stock").append("</g:availability>")
+                .append("<g:condition>new</g:condition>")
+                .append("<g:price>").append(entrada.getPrecio()).append("</g:price>");
+
+        if (entrada.getPrecioOferta() != null)
+            item.append("<g:sale_price>").append(entrada.getPrecioOferta()).append("</g:sale_price>")
+                    .append("<g:sale_price_effective_date>").append(entrada.getVigenciaOferta())
+                    .append("</g:sale_price_effective_date>");
+
+        if (entrada.getMarca() != null)
+            item.append("<g:brand>").append(escaparXml(entrada.getMarca())).append("</g:brand>");
+
+        if (entrada.getTipo() != null)
+            item.append("<g:product_type>").append(escaparXml(entrada.getTipo())).append("</g:product_type>");
+
+        return item.append("</item>\n").toString();
+    }
+
+    @Override
+    public String pie() {
+        return "</channel>\n</rss>\n";
+    }
+}
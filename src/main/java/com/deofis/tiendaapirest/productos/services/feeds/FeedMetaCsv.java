@@ -0,0 +1,52 @@
+package com.deofis.tiendaapirest.productos.services.feeds;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Feed de productos en CSV para catálogos de Meta (Facebook / Instagram).
+ */
+@Component
+public class FeedMetaCsv implements FormatoFeed {
+
+    @Override
+    public String archivo() {
+        return "productos.csv";
+    }
+
+    @Override
+    public String encabezado() {
+        return "id,title,description,availability,condition,price,link,image_link,brand,sale_price," +
+                "sale_price_effective_date,product_type\n";
+    }
+
+    @Override
+    public String entrada(EntradaFeed entrada) {
+        return String.join(",",
+                String.valueOf(entrada.getId()),
+                this.campo(entrada.getTitulo()),
+                this.campo(entrada.getDescripcion()),
+                entrada.isDisponible() ? "in stock" : "out of stock",
+                "new",
+                entrada.getPrecio(),
+                this.campo(entrada.getUrl()),
+                this.campo(entrada.getImagenUrl()),
+                this.campo(entrada.getMarca()),
+                this.campo(entrada.getPrecioOferta()),
+                this.campo(entrada.getVigenciaOferta()),
+                this.campo(entrada.getTipo())) + "\n";
+    }
+
+    @Override
+    public String pie() {
+        return "";
+    }
+
+    /** Campo CSV (RFC 4180): entre comillas si contiene separadores, comillas o saltos de línea. */
+    private String campo(String valor) {
+        if (valor == null) return "";
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0)
+            return valor;
+
+        return "\"" + valor.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,47 @@
+package com.deofis.tiendaapirest.productos.services.feeds;
+
+/**
+ * Formato de archivo de feed. Cada formato genera un archivo compuesto por un encabezado, una entrada por
+ * producto activo (en orden de id) y un pie.
+ * <br>
+ * Para agregar un formato alcanza con registrar otro componente que implemente esta interfaz.
+ */
+public interface FormatoFeed {
+
+    /**
+     * Nombre del archivo generado, servido en ~/feeds/{archivo}.
+     * @return String nombre del archivo. Ej.: "sitemap.xml".
+     */
+    String archivo();
+
+    String encabezado();
+
+    /**
+     * Entrada de un producto, incluyendo el salto de línea final.
+     * @param entrada EntradaFeed datos del producto.
+     * @return String entrada del producto en el formato.
+     */
+    String entrada(EntradaFeed entrada);
+
+    String pie();
+
+    static String escaparXml(String texto) {
+        if (texto == null) return "";
+
+        StringBuilder escapado = new StringBuilder(texto.length());
+        for (char c: texto.toCharArray()) {
+            switch (c) {
+                case '<': escapado.append("&lt;"); break;
+                case '>': escapado.append("&gt;"); break;
+                case '&': escapado.append("&amp;"); break;
+                case '"': escapado.append("&quot;"); break;
+                case '\'': escapado.append("&apos;"); break;
+                default:
+                    // Los caracteres de control (salvo tab y saltos de línea) no son válidos en XML 1.0.
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') escapado.append(c);
+            }
+        }
+
+        return escapado.toString();
+    }
+}
@@ -0,0 +1,24 @@
+package com.deofis.tiendaapirest.productos.services.feeds;
+
+/**
+ * Genera los feeds de productos ({@link FormatoFeed}: Google Merchant, Meta, sitemap) como archivos en disco,
+ * servidos estáticamente en ~/feeds/ con Last-Modified.
+ * <br>
+ * Los productos se agrupan en segmentos por rango de id. La primera generación recorre todo el catálogo en
+ * bloques ordenados por id; las siguientes solo vuelven a leer y escribir los segmentos con productos, skus o
+ * promociones modificados, y rearman los archivos concatenando los segmentos.
+ */
+public interface GeneradorFeeds {
+
+    /**
+     * Actualiza los feeds con los cambios del catálogo desde la última generación. Si los feeds todavía no se
+     * generaron desde que inició la aplicación, los genera completos. Se ejecuta periódicamente
+     * (catalogo.feeds.intervalo).
+     */
+    void actualizar();
+
+    /**
+     * Genera los feeds completos, recorriendo todo el catálogo.
+     */
+    void regenerar();
+}
@@ -0,0 +1,256 @@
+package com.deofis.tiendaapirest.productos.services.feeds;
+
+import com.deofis.tiendaapirest.config.CatalogoProperties;
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.exceptions.FileException;
+import com.deofis.tiendaapirest.productos.repositories.ProductoRepository;
+import com.deofis.tiendaapirest.productos.services.cambios.ObservadorCatalogo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class GeneradorFeedsImpl implements GeneradorFeeds, ObservadorCatalogo {
+
+    private static final String DIRECTORIO_SEGMENTOS = "segmentos";
+    private static final String EXTENSION_SEGMENTO = ".part";
+    private static final String EXTENSION_TEMPORAL = ".tmp";
+
+    private final ProductoRepository productoRepository;
+    private final List<FormatoFeed> formatos;
+    private final CatalogoProperties.Feeds propiedades;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Segmentos con algún producto modificado desde la última generación. */
+    private final Set<Long> segmentosPendientes = ConcurrentHashMap.newKeySet();
+    private boolean generados = false;
+
+    public GeneradorFeedsImpl(ProductoRepository productoRepository,
+                              List<FormatoFeed> formatos,
+                              CatalogoProperties catalogoProperties,
+                              PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.formatos = formatos;
+        this.propiedades = catalogoProperties.getFeeds();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Scheduled(fixedDelayString = "#{@catalogoProperties.feeds.intervalo.toMillis()}")
+    public void actualizarProgramado() {
+        try {
+            this.actualizar();
+        } catch (RuntimeException e) {
+            log.error("Error al actualizar los feeds de productos", e);
+        }
+    }
+
+    @Override
+    public synchronized void actualizar() {
+        if (!this.generados) {
+            this.regenerar();
+            return;
+        }
+
+        if (this.segmentosPendientes.isEmpty()) return;
+
+        Set<Long> segmentos = new TreeSet<>();
+        for (Long segmento: new ArrayList<>(this.segmentosPendientes)) {
+            this.segmentosPendientes.remove(segmento);
+            segmentos.add(segmento);
+        }
+
+        for (Long segmento: segmentos) {
+            long desde = segmento * this.propiedades.getTamanioSegmento();
+            List<EntradaFeed> entradas = this.transactionTemplate.execute(status -> this.entradas(
+                    this.productoRepository.findAllDetalleByIdBetweenOrderByIdAsc(
+                            desde, desde + this.propiedades.getTamanioSegmento() - 1)));
+
+            this.escribirSegmento(segmento, Objects.requireNonNull(entradas));
+        }
+
+        this.ensamblar();
+        log.info("Feeds de productos actualizados: " + segmentos.size() + " segmentos modificados");
+    }
+
+    @Override
+    public synchronized void regenerar() {
+        // Lo que cambie durante la generación completa vuelve a marcarse y se escribe en la próxima actualización.
+        this.segmentosPendientes.clear();
+        this.vaciarSegmentos();
+
+        Long ultimoId = 0L;
+        Long segmentoActual = null;
+        List<EntradaFeed> entradasSegmento = new ArrayList<>();
+        Slice<Producto> bloque;
+        int totalProductos = 0;
+
+        do {
+            Long desde = ultimoId;
+            List<EntradaFeed> entradas = new ArrayList<>();
+            bloque = this.transactionTemplate.execute(status -> {
+                Slice<Producto> productos = this.productoRepository.findDetalleByIdGreaterThanOrderByIdAsc(
+                        desde, PageRequest.of(0, this.propiedades.getTamanioSegmento()));
+                entradas.addAll(this.entradas(productos.getContent()));
+                return productos;
+            });
+
+            for (EntradaFeed entrada: entradas) {
+                long segmento = this.segmento(entrada.getId());
+                if (segmentoActual != null && segmentoActual != segmento) {
+                    this.escribirSegmento(segmentoActual, entradasSegmento);
+                    entradasSegmento.clear();
+                }
+
+                segmentoActual = segmento;
+                entradasSegmento.add(entrada);
+                totalProductos++;
+            }
+
+            if (Objects.requireNonNull(bloque).hasContent())
+                ultimoId = bloque.getContent().get(bloque.getNumberOfElements() - 1).getId();
+        } while (bloque.hasNext());
+
+        if (segmentoActual != null) this.escribirSegmento(segmentoActual, entradasSegmento);
+
+        this.ensamblar();
+        this.generados = true;
+        log.info("Feeds de productos generados: " + totalProductos + " productos activos");
+    }
+
+    @Override
+    public void catalogoCargado(List<Producto> productos) {
+        // La primera actualización programada genera los feeds completos, en bloques, desde la base de datos.
+    }
+
+    @Override
+    public void productoActualizado(Producto producto) {
+        this.segmentosPendientes.add(this.segmento(producto.getId()));
+    }
+
+    @Override
+    public void productoEliminado(Long productoId) {
+        this.segmentosPendientes.add(this.segmento(productoId));
+    }
+
+    private long segmento(Long productoId) {
+        return productoId / this.propiedades.getTamanioSegmento();
+    }
+
+    private List<EntradaFeed> entradas(List<Producto> productos) {
+        return productos.stream()
+                .filter(Producto::isActivo)
+                .map(producto -> EntradaFeed.de(producto, this.propiedades))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Escribe el segmento de cada formato con las entradas dadas, o lo elimina si no tiene productos activos.
+     */
+    private void escribirSegmento(long segmento, List<EntradaFeed> entradas) {
+        for (FormatoFeed formato: this.formatos) {
+            Path archivo = this.directorioSegmentos().resolve(
+                    String.format("%s.%010d%s", formato.archivo(), segmento, EXTENSION_SEGMENTO));
+
+            try {
+                if (entradas.isEmpty()) {
+                    Files.deleteIfExists(archivo);
+                    continue;
+                }
+
+                Path temporal = archivo.resolveSibling(archivo.getFileName() + EXTENSION_TEMPORAL);
+                try (BufferedWriter salida = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+                    for (EntradaFeed entrada: entradas) {
+                        salida.write(formato.entrada(entrada));
+                    }
+                }
+                Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new FileException("Error al escribir el segmento " + segmento + " de " + formato.archivo()
+                        + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Arma cada archivo de feed concatenando encabezado, segmentos (en orden de id) y pie, y lo reemplaza de
+     * forma atómica: quien lo está descargando nunca ve un archivo a medio escribir.
+     */
+    private void ensamblar() {
+        for (FormatoFeed formato: this.formatos) {
+            Path archivo = this.directorio().resolve(formato.archivo());
+            // El temporal queda fuera de lo publicado, pero en el mismo sistema de archivos para poder moverlo.
+            Path temporal = this.directorioSegmentos().resolve(formato.archivo() + EXTENSION_TEMPORAL);
+
+            try (OutputStream salida = Files.newOutputStream(temporal)) {
+                salida.write(formato.encabezado().getBytes(StandardCharsets.UTF_8));
+                for (Path segmento: this.segmentos(formato)) {
+                    Files.copy(segmento, salida);
+                }
+                salida.write(formato.pie().getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new FileException("Error al generar el feed " + formato.archivo() + ": " + e.getMessage());
+            }
+
+            try {
+                Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new FileException("Error al publicar el feed " + formato.archivo() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private List<Path> segmentos(FormatoFeed formato) throws IOException {
+        String prefijo = formato.archivo() + ".";
+
+        try (Stream<Path> archivos = Files.list(this.directorioSegmentos())) {
+            // El número de segmento tiene ancho fijo, por lo que el orden alfabético es el orden por id.
+            return archivos
+                    .filter(archivo -> {
+                        String nombre = archivo.getFileName().toString();
+                        return nombre.startsWith(prefijo) && nombre.endsWith(EXTENSION_SEGMENTO);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private void vaciarSegmentos() {
+        try (Stream<Path> archivos = Files.list(this.directorioSegmentos())) {
+            for (Path archivo: archivos.collect(Collectors.toList())) {
+                Files.delete(archivo);
+            }
+        } catch (IOException e) {
+            throw new FileException("Error al vaciar los segmentos de los feeds: " + e.getMessage());
+        }
+    }
+
+    private Path directorio() {
+        return Paths.get(this.propiedades.getDirectorio());
+    }
+
+    private Path directorioSegmentos() {
+        Path directorio = this.directorio().resolve(DIRECTORIO_SEGMENTOS);
+
+        try {
+            return Files.createDirectories(directorio);
+        } catch (IOException e) {
+            throw new FileException("No se pudo crear el directorio de los feeds " + directorio + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.deofis.tiendaapirest.productos.services.feeds;
+
+import org.springframework.stereotype.Component;
+
+import static com.deofis.tiendaapirest.productos.services.feeds.FormatoFeed.escaparXml;
+
+/**
+ * Sitemap con la URL de cada producto activo.
+ */
+@Component
+public class SitemapXml implements FormatoFeed {
+
+    @Override
+    public String archivo() {
+        return "sitemap.xml";
+    }
+
+    @Override
+    public String encabezado() {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n";
+    }
+
+    @Override
+    public String entrada(EntradaFeed entrada) {
+        return "<url><loc>" + escaparXml(entrada.getUrl()) + "</loc></url>\n";
+    }
+
+    @Override
+    public String pie() {
+        return "</urlset>\n";
+    }
+}
@@ -0,0 +1,35 @@
+package com.deofis.tiendaapirest.productos.services.replica;
+
+import java.util.Optional;
+
+/**
+ * Archivo binario versionado con el catálogo completo (productos, skus, promociones, marcas, subcategorías y
+ * propiedades), para que una instancia que inicia cargue el catálogo en memoria sin leerlo de la base de datos.
+ * <br>
+ * El archivo se lee mapeándolo en memoria. Corresponde a una versión del catálogo (ver
+ * {@link com.deofis.tiendaapirest.productos.domain.CambioCatalogo}): quien lo lee debe luego releer de la base
+ * de datos solo los productos modificados desde esa versión.
+ */
+public interface ArchivoCatalogo {
+
+    /**
+     * Vuelve a escribir el archivo con el catálogo de la base de datos, si cambió desde la última vez. El archivo
+     * se reemplaza de forma atómica, por lo que puede leerse mientras se escribe.
+     */
+    void actualizar();
+
+    /**
+     * Lee el archivo.
+     * @return Optional con el catálogo archivado, o vacío si no existe, es de otro formato o está dañado.
+     */
+    Optional<CatalogoArchivado> leer();
+
+    /**
+     * Elimina del log del catálogo los cambios ya incluidos en el último archivo escrito o leído, registrados
+     * antes de su margen y de la retención del log (ver
+     * {@link com.deofis.tiendaapirest.config.CatalogoProperties.Cambios#getRetencion()}). Siempre se conserva el
+     * último cambio, que indica la versión actual.
+     * @return int cantidad de cambios eliminados.
+     */
+    int depurarCambios();
+}
@@ -0,0 +1,197 @@
+package com.deofis.tiendaapirest.productos.services.replica;
+
+import com.deofis.tiendaapirest.config.CatalogoProperties;
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.exceptions.FileException;
+import com.deofis.tiendaapirest.productos.repositories.CambioCatalogoRepository;
+import com.deofis.tiendaapirest.productos.repositories.ProductoRepository;
+import com.deofis.tiendaapirest.productos.utils.GrafoProductoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Optional;
+
+@Service
+@Slf4j
+public class ArchivoCatalogoImpl implements ArchivoCatalogo {
+
+    private static final int TAMANIO_BLOQUE = 500;
+    private static final String EXTENSION_TEMPORAL = ".tmp";
+
+    private final ProductoRepository productoRepository;
+    private final CambioCatalogoRepository cambioCatalogoRepository;
+    private final CatalogoProperties.Archivo propiedades;
+    private final CatalogoProperties.Cambios propiedadesCambios;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate transactionTemplateEscritura;
+
+    /** Versión y fecha del último archivo escrito o leído por esta instancia. */
+    private volatile Long versionArchivo;
+    private volatile Date fechaArchivo;
+
+    public ArchivoCatalogoImpl(ProductoRepository productoRepository,
+                               CambioCatalogoRepository cambioCatalogoRepository,
+                               CatalogoProperties catalogoProperties,
+                               PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.cambioCatalogoRepository = cambioCatalogoRepository;
+        this.propiedades = catalogoProperties.getArchivo();
+        this.propiedadesCambios = catalogoProperties.getCambios();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplateEscritura = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "#{@catalogoProperties.archivo.intervalo.toMillis()}",
+            initialDelayString = "#{@catalogoProperties.archivo.intervalo.toMillis()}")
+    public void actualizarProgramado() {
+        try {
+            this.actualizar();
+        } catch (RuntimeException e) {
+            log.error("Error al escribir el archivo del catálogo", e);
+        }
+    }
+
+    @Override
+    public synchronized void actualizar() {
+        // La fecha se toma antes que la versión: lo registrado desde ese momento se relee al poner al día.
+        Date fecha = new Date();
+        long version = this.versionActual();
+        Path archivo = Paths.get(this.propiedades.getRuta());
+
+        if (Objects.equals(this.versionArchivo, version) && Files.exists(archivo)) return;
+
+        Path directorio = archivo.toAbsolutePath().getParent();
+        Path temporal = null;
+        int cantidad;
+
+        try {
+            Files.createDirectories(directorio);
+            // Nombre único en el mismo directorio (mismo sistema de archivos, para el reemplazo atómico): otra
+            // instancia que comparte el directorio puede estar escribiendo su propio temporal.
+            temporal = Files.createTempFile(directorio, archivo.getFileName().toString(), EXTENSION_TEMPORAL);
+
+            try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(temporal))) {
+                FormatoArchivoCatalogo.Escritor escritor = new FormatoArchivoCatalogo.Escritor(salida, version, fecha);
+                this.escribirProductos(escritor);
+                escritor.terminar();
+                cantidad = escritor.cantidad();
+            }
+
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            this.eliminarTemporal(temporal);
+            throw new FileException("Error al escribir el archivo del catálogo " + archivo + ": " + e.getMessage());
+        }
+
+        this.versionArchivo = version;
+        this.fechaArchivo = fecha;
+        log.info("Archivo del catálogo escrito (versión " + version + "): " + cantidad + " productos");
+    }
+
+    @Override
+    public Optional<CatalogoArchivado> leer() {
+        Path archivo = Paths.get(this.propiedades.getRuta());
+        if (!Files.isReadable(archivo)) return Optional.empty();
+
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            MappedByteBuffer contenido = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            CatalogoArchivado catalogo = new FormatoArchivoCatalogo.Lector(contenido).leer();
+
+            if (catalogo == null) {
+                log.info("El archivo del catálogo " + archivo + " es de otro formato: se ignora");
+                return Optional.empty();
+            }
+
+            this.versionArchivo = catalogo.getVersion();
+            this.fechaArchivo = catalogo.getFecha();
+            return Optional.of(catalogo);
+        } catch (IOException | RuntimeException e) {
+            // Un archivo ilegible no impide iniciar: el catálogo se carga de la base de datos.
+            log.warn("No se pudo leer el archivo del catálogo " + archivo + ": " + e);
+            return Optional.empty();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "#{@catalogoProperties.archivo.intervalo.toMillis()}",
+            initialDelayString = "#{@catalogoProperties.archivo.intervalo.toMillis()}")
+    public void depurarCambiosProgramado() {
+        try {
+            int eliminados = this.depurarCambios();
+            if (eliminados > 0) log.info("Log del catálogo depurado: " + eliminados + " cambios eliminados");
+        } catch (RuntimeException e) {
+            log.error("Error al depurar el log del catálogo", e);
+        }
+    }
+
+    @Override
+    public int depurarCambios() {
+        Long versionArchivo = this.versionArchivo;
+        Date fechaArchivo = this.fechaArchivo;
+        if (versionArchivo == null || fechaArchivo == null) return 0;
+
+        // Lo registrado dentro del margen del archivo puede no estar incluido en él (ver leer/poner al día).
+        Date limite = new Date(Math.min(fechaArchivo.getTime() - this.propiedades.getMargen().toMillis(),
+                System.currentTimeMillis() - this.propiedadesCambios.getRetencion().toMillis()));
+
+        return Objects.requireNonNull(this.transactionTemplateEscritura.execute(status -> {
+            Long ultima = this.cambioCatalogoRepository.findUltimaVersion();
+            if (ultima == null) return 0;
+
+            return this.cambioCatalogoRepository.deleteAnteriores(Math.min(versionArchivo, ultima - 1), limite);
+        }));
+    }
+
+    private void eliminarTemporal(Path temporal) {
+        if (temporal == null) return;
+
+        try {
+            Files.deleteIfExists(temporal);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar el archivo temporal " + temporal + ": " + e);
+        }
+    }
+
+    private long versionActual() {
+        Long version = this.transactionTemplate.execute(status -> this.cambioCatalogoRepository.findUltimaVersion());
+        return version != null ? version : 0L;
+    }
+
+    /**
+     * Escribe todos los productos en orden de id, leídos en bloques, cada uno en su propia transacción: nunca
+     * está todo el catálogo en memoria.
+     */
+    private void escribirProductos(FormatoArchivoCatalogo.Escritor escritor) throws IOException {
+        Long ultimoId = 0L;
+        Slice<Producto> bloque;
+
+        do {
+            Long desde = ultimoId;
+            bloque = Objects.requireNonNull(this.transactionTemplate.execute(status -> {
+                Slice<Producto> productos = this.productoRepository.findDetalleByIdGreaterThanOrderByIdAsc(
+                        desde, PageRequest.of(0, TAMANIO_BLOQUE));
+                productos.forEach(GrafoProductoUtils::inicializar);
+                return productos;
+            }));
+
+            for (Producto producto: bloque) {
+                escritor.escribir(producto);
+            }
+
+            if (bloque.hasContent()) ultimoId = bloque.getContent().get(bloque.getNumberOfElements() - 1).getId();
+        } while (bloque.hasNext());
+    }
+}
@@ -0,0 +1,23 @@
+package com.deofis.tiendaapirest.productos.services.replica;
+
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Catálogo leído del archivo, tal como estaba en la versión en que se escribió.
+ */
+@Data
+@AllArgsConstructor
+public class CatalogoArchivado {
+
+    /** Versión del catálogo (id del último {@link com.deofis.tiendaapirest.productos.domain.CambioCatalogo}). */
+    private long version;
+    /** Momento en que se leyó la versión, antes de leer los productos. */
+    private Date fecha;
+    /** Todos los productos (activos e inactivos), con su grafo completo y desvinculados de la sesión. */
+    private List<Producto> productos;
+}
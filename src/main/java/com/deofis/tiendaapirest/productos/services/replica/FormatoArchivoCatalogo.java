@@ -0,0 +1,392 @@
+package com.deofis.tiendaapirest.productos.services.replica;
+
+import com.deofis.tiendaapirest.productos.domain.*;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Formato binario del archivo del catálogo:
+ * <pre>
+ * encabezado: MAGIA (int), FORMATO (short), versión del catálogo (long), fecha (long)
+ * productos:  PRODUCTO (byte) + producto, repetido
+ * fin:        FIN (byte), cantidad de productos (int)
+ * </pre>
+ * Las entidades compartidas entre productos (marcas, subcategorías, propiedades, valores, imágenes, promociones y
+ * unidades de medida) se escriben completas la primera vez que aparecen y luego solo por id, por lo que al leer
+ * se comparten las mismas instancias, como en una sesión de Hibernate. Los skus se escriben dentro de su producto.
+ * <br>
+ * Si cambian las entidades o su codificación debe incrementarse {@link #FORMATO}: un archivo de otro formato se
+ * ignora y el catálogo se carga de la base de datos.
+ */
+final class FormatoArchivoCatalogo {
+
+    static final int MAGIA = 0x44434154;
+    static final short FORMATO = 1;
+
+    private static final byte PRODUCTO = 1;
+    private static final byte FIN = 0;
+    private static final long SIN_FECHA = Long.MIN_VALUE;
+
+    private FormatoArchivoCatalogo() {
+    }
+
+    static final class Escritor {
+        private final DataOutputStream salida;
+        private final Map<Class<?>, Set<Long>> escritos = new HashMap<>();
+        private int cantidad = 0;
+
+        Escritor(OutputStream salida, long version, Date fecha) throws IOException {
+            this.salida = new DataOutputStream(salida);
+            this.salida.writeInt(MAGIA);
+            this.salida.writeShort(FORMATO);
+            this.salida.writeLong(version);
+            this.salida.writeLong(fecha.getTime());
+        }
+
+        void escribir(Producto producto) throws IOException {
+            this.salida.writeByte(PRODUCTO);
+            this.salida.writeLong(producto.getId());
+            this.texto(producto.getNombre());
+            this.texto(producto.getDescripcion());
+            this.decimal(producto.getPrecio());
+            this.promocion(producto.getPromocion());
+            this.entero(producto.getDisponibilidadGeneral());
+            this.fecha(producto.getFechaCreacion());
+            this.imagen(producto.getFoto());
+            this.lista(producto.getImagenes(), this::imagen);
+            this.salida.writeBoolean(producto.isActivo());
+            this.salida.writeBoolean(producto.isDestacado());
+            this.subcategoria(producto.getSubcategoria());
+            this.marca(producto.getMarca());
+            this.unidadMedida(producto.getUnidadMedida());
+            this.lista(producto.getPropiedades(), this::propiedad);
+
+            this.salida.writeBoolean(producto.getDefaultSku() != null);
+            if (producto.getDefaultSku() != null) this.sku(producto.getDefaultSku());
+            this.lista(producto.getSkus(), this::sku);
+            this.cantidad++;
+        }
+
+        void terminar() throws IOException {
+            this.salida.writeByte(FIN);
+            this.salida.writeInt(this.cantidad);
+            this.salida.flush();
+        }
+
+        int cantidad() {
+            return this.cantidad;
+        }
+
+        private void sku(Sku sku) throws IOException {
+            this.salida.writeLong(sku.getId());
+            this.texto(sku.getNombre());
+            this.texto(sku.getDescripcion());
+            this.decimal(sku.getPrecio());
+            this.entero(sku.getDisponibilidad());
+            this.promocion(sku.getPromocion());
+            this.fecha(sku.getFechaCreacion());
+            this.imagen(sku.getFoto());
+            this.texto(sku.getValoresData());
+            this.lista(sku.getValores(), this::valor);
+        }
+
+        private void subcategoria(Subcategoria subcategoria) throws IOException {
+            if (!this.referencia(Subcategoria.class, subcategoria != null ? subcategoria.getId() : null)) return;
+
+            this.texto(subcategoria.getNombre());
+            this.texto(subcategoria.getCodigo());
+            this.imagen(subcategoria.getFoto());
+            this.lista(subcategoria.getPropiedades(), this::propiedad);
+        }
+
+        private void propiedad(PropiedadProducto propiedad) throws IOException {
+            if (!this.referencia(PropiedadProducto.class, propiedad.getId())) return;
+
+            this.texto(propiedad.getNombre());
+            this.salida.writeBoolean(propiedad.isVariable());
+            this.lista(propiedad.getValores(), this::valor);
+        }
+
+        private void valor(ValorPropiedadProducto valor) throws IOException {
+            if (!this.referencia(ValorPropiedadProducto.class, valor.getId())) return;
+
+            this.texto(valor.getValor());
+        }
+
+        private void marca(Marca marca) throws IOException {
+            if (!this.referencia(Marca.class, marca != null ? marca.getId() : null)) return;
+
+            this.texto(marca.getNombre());
+        }
+
+        private void unidadMedida(UnidadMedida unidadMedida) throws IOException {
+            if (!this.referencia(UnidadMedida.class, unidadMedida != null ? unidadMedida.getId() : null)) return;
+
+            this.texto(unidadMedida.getNombre());
+            this.texto(unidadMedida.getCodigo());
+        }
+
+        private void promocion(Promocion promocion) throws IOException {
+            if (!this.referencia(Promocion.class, promocion != null ? promocion.getId() : null)) return;
+
+            this.fecha(promocion.getFechaDesde());
+            this.fecha(promocion.getFechaHasta());
+            this.decimal(promocion.getPrecioOferta());
+            this.decimal(promocion.getPorcentaje());
+        }
+
+        private void imagen(Imagen imagen) throws IOException {
+            if (!this.referencia(Imagen.class, imagen != null ? imagen.getId() : null)) return;
+
+            this.texto(imagen.getImageUrl());
+            this.texto(imagen.getPath());
+        }
+
+        /**
+         * Escribe la referencia a una entidad compartida: su id (0 si es null) y si se define a continuación.
+         * @return true si es la primera aparición y hay que escribir sus datos.
+         */
+        private boolean referencia(Class<?> tipo, Long id) throws IOException {
+            if (id == null) {
+                this.salida.writeLong(0L);
+                return false;
+            }
+
+            boolean nueva = this.escritos.computeIfAbsent(tipo, t -> new HashSet<>()).add(id);
+            this.salida.writeLong(id);
+            this.salida.writeBoolean(nueva);
+            return nueva;
+        }
+
+        private <T> void lista(List<T> elementos, Elemento<T> elemento) throws IOException {
+            if (elementos == null) {
+                this.salida.writeInt(-1);
+                return;
+            }
+
+            this.salida.writeInt(elementos.size());
+            for (T e: elementos) {
+                elemento.escribir(e);
+            }
+        }
+
+        private void texto(String texto) throws IOException {
+            if (texto == null) {
+                this.salida.writeInt(-1);
+                return;
+            }
+
+            // Sin el límite de 64 KB de writeUTF: las descripciones son LOBs.
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            this.salida.writeInt(bytes.length);
+            this.salida.write(bytes);
+        }
+
+        private void decimal(Double decimal) throws IOException {
+            this.salida.writeBoolean(decimal != null);
+            if (decimal != null) this.salida.writeDouble(decimal);
+        }
+
+        private void entero(Integer entero) throws IOException {
+            this.salida.writeBoolean(entero != null);
+            if (entero != null) this.salida.writeInt(entero);
+        }
+
+        private void fecha(Date fecha) throws IOException {
+            this.salida.writeLong(fecha != null ? fecha.getTime() : SIN_FECHA);
+        }
+
+        private interface Elemento<T> {
+            void escribir(T elemento) throws IOException;
+        }
+    }
+
+    static final class Lector {
+        private final ByteBuffer entrada;
+        private final Map<Long, Subcategoria> subcategorias = new HashMap<>();
+        private final Map<Long, PropiedadProducto> propiedades = new HashMap<>();
+        private final Map<Long, ValorPropiedadProducto> valores = new HashMap<>();
+        private final Map<Long, Marca> marcas = new HashMap<>();
+        private final Map<Long, UnidadMedida> unidadesMedida = new HashMap<>();
+        private final Map<Long, Promocion> promociones = new HashMap<>();
+        private final Map<Long, Imagen> imagenes = new HashMap<>();
+
+        Lector(ByteBuffer entrada) {
+            this.entrada = entrada;
+        }
+
+        /**
+         * Lee el archivo completo.
+         * @return CatalogoArchivado leído, o null si el archivo es de otro formato.
+         * @throws IllegalStateException si el archivo está truncado o dañado.
+         */
+        CatalogoArchivado leer() {
+            if (this.entrada.getInt() != MAGIA || this.entrada.getShort() != FORMATO) return null;
+
+            long version = this.entrada.getLong();
+            Date fecha = new Date(this.entrada.getLong());
+            List<Producto> productos = new ArrayList<>();
+
+            byte registro;
+            while ((registro = this.entrada.get()) == PRODUCTO) {
+                productos.add(this.producto());
+            }
+
+            if (registro != FIN || this.entrada.getInt() != productos.size())
+                throw new IllegalStateException("Archivo del catálogo incompleto o dañado");
+
+            return new CatalogoArchivado(version, fecha, productos);
+        }
+
+        private Producto producto() {
+            Producto producto = Producto.builder()
+                    .id(this.entrada.getLong())
+                    .nombre(this.texto())
+                    .descripcion(this.texto())
+                    .precio(this.decimal())
+                    .promocion(this.promocion())
+                    .disponibilidadGeneral(this.entero())
+                    .fechaCreacion(this.fecha())
+                    .foto(this.imagen())
+                    .imagenes(this.lista(this::imagen))
+                    .activo(this.entrada.get() != 0)
+                    .destacado(this.entrada.get() != 0)
+                    .subcategoria(this.subcategoria())
+                    .marca(this.marca())
+                    .unidadMedida(this.unidadMedida())
+                    .propiedades(this.lista(this::propiedad)).build();
+
+            if (this.entrada.get() != 0) {
+                Sku defaultSku = this.sku();
+                defaultSku.setDefaultProducto(producto);
+                producto.setDefaultSku(defaultSku);
+            }
+
+            producto.setSkus(this.lista(this::sku));
+            if (producto.getSkus() != null) producto.getSkus().forEach(sku -> sku.setProducto(producto));
+            return producto;
+        }
+
+        private Sku sku() {
+            return Sku.builder()
+                    .id(this.entrada.getLong())
+                    .nombre(this.texto())
+                    .descripcion(this.texto())
+                    .precio(this.decimal())
+                    .disponibilidad(this.entero())
+                    .promocion(this.promocion())
+                    .fechaCreacion(this.fecha())
+                    .foto(this.imagen())
+                    .valoresData(this.texto())
+                    .valores(this.lista(this::valor)).build();
+        }
+
+        private Subcategoria subcategoria() {
+            return this.referencia(this.subcategorias, id -> Subcategoria.builder()
+                    .id(id)
+                    .nombre(this.texto())
+                    .codigo(this.texto())
+                    .foto(this.imagen())
+                    .propiedades(this.lista(this::propiedad)).build());
+        }
+
+        private PropiedadProducto propiedad() {
+            return this.referencia(this.propiedades, id -> PropiedadProducto.builder()
+                    .id(id)
+                    .nombre(this.texto())
+                    .variable(this.entrada.get() != 0)
+                    .valores(this.lista(this::valor)).build());
+        }
+
+        private ValorPropiedadProducto valor() {
+            return this.referencia(this.valores, id -> ValorPropiedadProducto.builder()
+                    .id(id)
+                    .valor(this.texto()).build());
+        }
+
+        private Marca marca() {
+            return this.referencia(this.marcas, id -> Marca.builder()
+                    .id(id)
+                    .nombre(this.texto()).build());
+        }
+
+        private UnidadMedida unidadMedida() {
+            return this.referencia(this.unidadesMedida, id -> UnidadMedida.builder()
+                    .id(id)
+                    .nombre(this.texto())
+                    .codigo(this.texto()).build());
+        }
+
+        private Promocion promocion() {
+            return this.referencia(this.promociones, id -> Promocion.builder()
+                    .id(id)
+                    .fechaDesde(this.fecha())
+                    .fechaHasta(this.fecha())
+                    .precioOferta(this.decimal())
+                    .porcentaje(this.decimal()).build());
+        }
+
+        private Imagen imagen() {
+            return this.referencia(this.imagenes, id -> Imagen.builder()
+                    .id(id)
+                    .imageUrl(this.texto())
+                    .path(this.texto()).build());
+        }
+
+        private <T> T referencia(Map<Long, T> leidas, Function<Long, T> definicion) {
+            long id = this.entrada.getLong();
+            if (id == 0L) return null;
+
+            if (this.entrada.get() == 0) {
+                T entidad = leidas.get(id);
+                if (entidad == null) throw new IllegalStateException("Referencia a una entidad no definida: " + id);
+                return entidad;
+            }
+
+            T entidad = definicion.apply(id);
+            leidas.put(id, entidad);
+            return entidad;
+        }
+
+        private <T> List<T> lista(Supplier<T> elemento) {
+            int cantidad = this.entrada.getInt();
+            if (cantidad < 0) return null;
+
+            List<T> elementos = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                elementos.add(elemento.get());
+            }
+
+            return elementos;
+        }
+
+        private String texto() {
+            int longitud = this.entrada.getInt();
+            if (longitud < 0) return null;
+
+            byte[] bytes = new byte[longitud];
+            this.entrada.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private Double decimal() {
+            return this.entrada.get() != 0 ? this.entrada.getDouble() : null;
+        }
+
+        private Integer entero() {
+            return this.entrada.get() != 0 ? this.entrada.getInt() : null;
+        }
+
+        private Date fecha() {
+            long instante = this.entrada.getLong();
+            return instante != SIN_FECHA ? new Date(instante) : null;
+        }
+    }
+}
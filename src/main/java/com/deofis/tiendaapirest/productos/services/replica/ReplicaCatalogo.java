@@ -0,0 +1,17 @@
+package com.deofis.tiendaapirest.productos.services.replica;
+
+/**
+ * Réplica en memoria del catálogo para las lecturas de la tienda (detalle, destacados y listados por subcategoría
+ * y por marca), sin locks ni consultas a la base de datos.
+ * <br>
+ * Cada cambio confirmado del catálogo publica, de forma atómica, un {@link SnapshotCatalogo} nuevo: quien ya
+ * obtuvo el anterior sigue leyéndolo sin ver el cambio a medias, y las lecturas siguientes ven el nuevo.
+ */
+public interface ReplicaCatalogo {
+
+    /**
+     * Obtiene el snapshot vigente. Una solicitud debe obtenerlo una sola vez y leer todo de él.
+     * @return SnapshotCatalogo vigente, o null si el catálogo todavía no se cargó (al iniciar la aplicación).
+     */
+    SnapshotCatalogo snapshot();
+}
@@ -0,0 +1,55 @@
+package com.deofis.tiendaapirest.productos.services.replica;
+
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.services.cambios.ObservadorCatalogo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Primer observador en ser notificado: los que construyen algo a partir de la réplica (ver
+ * RespuestasSerializadasImpl) ya la encuentran actualizada.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class ReplicaCatalogoImpl implements ReplicaCatalogo, ObservadorCatalogo {
+
+    /** Solo se reemplaza, nunca se modifica: leerlo no necesita lock. */
+    private volatile SnapshotCatalogo snapshot;
+
+    @Override
+    public SnapshotCatalogo snapshot() {
+        return this.snapshot;
+    }
+
+    @Override
+    public synchronized void catalogoCargado(List<Producto> productos) {
+        this.snapshot = SnapshotCatalogo.de(productos);
+        log.info("Réplica del catálogo publicada: " + this.snapshot.cantidad() + " productos");
+    }
+
+    @Override
+    public synchronized void productoActualizado(Producto producto) {
+        // Los cambios anteriores a la carga inicial ya están incluidos en ella.
+        if (this.snapshot != null) this.snapshot = this.snapshot.con(producto);
+    }
+
+    @Override
+    public synchronized void productoEliminado(Long productoId) {
+        if (this.snapshot != null) this.snapshot = this.snapshot.sin(productoId);
+    }
+
+    /**
+     * Todos los cambios de la transacción se publican en un solo snapshot, en lugar de copiar las columnas una
+     * vez por producto.
+     */
+    @Override
+    public synchronized void productosCambiados(List<Producto> actualizados, Collection<Long> eliminados) {
+        if (this.snapshot != null) this.snapshot = this.snapshot.con(actualizados, eliminados);
+    }
+}
@@ -0,0 +1,359 @@
+package com.deofis.tiendaapirest.productos.services.replica;
+
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.domain.Promocion;
+import com.deofis.tiendaapirest.productos.dto.PaginaProductos;
+import com.deofis.tiendaapirest.productos.dto.ProductoListado;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.*;
+
+/**
+ * Copia inmutable del catálogo que lee la tienda. Los datos de las tarjetas de producto se guardan por columnas
+ * (arreglos paralelos, ordenados por id de producto), con precios, disponibilidad y fechas como primitivos y los
+ * nombres de marca internados. Los listados por subcategoría y por marca son arreglos de ids ordenados.
+ * <br>
+ * Nunca se modifica: los cambios de cada transacción arman un único snapshot nuevo a partir del anterior
+ * ({@link #con(List, Collection)}), copiando las columnas y solo los índices afectados. Por eso puede leerse desde cualquier
+ * hilo sin locks, y una misma solicitud ve siempre un catálogo consistente.
+ */
+public final class SnapshotCatalogo {
+
+    private static final long SIN_FECHA = Long.MIN_VALUE;
+
+    private final long[] ids;
+    /** Productos con su grafo inicializado, para el detalle. Compartidos: de solo lectura. */
+    private final Producto[] productos;
+    private final String[] nombres;
+    private final double[] precios;
+    private final int[] disponibilidades;
+    private final String[] fotos;
+    private final String[] marcas;
+    /** Precio de oferta de la promoción del producto, o NaN si no tiene. */
+    private final double[] preciosOferta;
+    private final double[] porcentajesOferta;
+    private final long[] promocionesDesde;
+    private final long[] promocionesHasta;
+
+    /** Id subcategoría --> ids (ordenados) de sus productos activos. */
+    private final Map<Long, long[]> porSubcategoria;
+    /** Id marca --> ids (ordenados) de sus productos activos. */
+    private final Map<Long, long[]> porMarca;
+    private final List<Producto> destacados;
+
+    private SnapshotCatalogo(int cantidad, Map<Long, long[]> porSubcategoria, Map<Long, long[]> porMarca,
+                             List<Producto> destacados) {
+        this.ids = new long[cantidad];
+        this.productos = new Producto[cantidad];
+        this.nombres = new String[cantidad];
+        this.precios = new double[cantidad];
+        this.disponibilidades = new int[cantidad];
+        this.fotos = new String[cantidad];
+        this.marcas = new String[cantidad];
+        this.preciosOferta = new double[cantidad];
+        this.porcentajesOferta = new double[cantidad];
+        this.promocionesDesde = new long[cantidad];
+        this.promocionesHasta = new long[cantidad];
+        this.porSubcategoria = Collections.unmodifiableMap(porSubcategoria);
+        this.porMarca = Collections.unmodifiableMap(porMarca);
+        this.destacados = Collections.unmodifiableList(destacados);
+    }
+
+    /**
+     * Arma el snapshot completo del catálogo.
+     * @param productos List todos los productos (activos e inactivos), con su grafo inicializado.
+     * @return SnapshotCatalogo con los productos.
+     */
+    public static SnapshotCatalogo de(List<Producto> productos) {
+        List<Producto> ordenados = new ArrayList<>(productos);
+        ordenados.sort(Comparator.comparing(Producto::getId));
+
+        Map<Long, List<Long>> porSubcategoria = new HashMap<>();
+        Map<Long, List<Long>> porMarca = new HashMap<>();
+        List<Producto> destacados = new ArrayList<>();
+
+        for (Producto producto: ordenados) {
+            Long subcategoriaId = subcategoria(producto);
+            if (subcategoriaId != null)
+                porSubcategoria.computeIfAbsent(subcategoriaId, id -> new ArrayList<>()).add(producto.getId());
+
+            Long marcaId = marca(producto);
+            if (marcaId != null) porMarca.computeIfAbsent(marcaId, id -> new ArrayList<>()).add(producto.getId());
+
+            if (destacado(producto)) destacados.add(producto);
+        }
+
+        SnapshotCatalogo snapshot = new SnapshotCatalogo(ordenados.size(), arreglos(porSubcategoria),
+                arreglos(porMarca), destacados);
+        for (int i = 0; i < ordenados.size(); i++) {
+            snapshot.escribir(i, ordenados.get(i));
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Arma un snapshot nuevo con el producto agregado o, si ya estaba, reemplazado.
+     * @param producto Producto en su estado actual, con su grafo inicializado.
+     * @return SnapshotCatalogo nuevo; este no cambia.
+     */
+    public SnapshotCatalogo con(Producto producto) {
+        return this.con(Collections.singletonList(producto), Collections.emptyList());
+    }
+
+    /**
+     * Arma un snapshot nuevo sin el producto.
+     * @param productoId Long id del producto a quitar.
+     * @return SnapshotCatalogo nuevo, o este mismo si el producto no estaba.
+     */
+    public SnapshotCatalogo sin(Long productoId) {
+        return this.con(Collections.emptyList(), Collections.singletonList(productoId));
+    }
+
+    /**
+     * Arma un único snapshot nuevo con todos los cambios: las columnas se copian una sola vez, por tramos entre
+     * los productos cambiados, en lugar de una vez por producto.
+     * @param actualizados List productos agregados o modificados, con su grafo inicializado.
+     * @param eliminados Collection ids de los productos a quitar. Si un id también está entre los actualizados,
+     *                   prevalece la actualización.
+     * @return SnapshotCatalogo nuevo, o este mismo si no hay nada que cambiar.
+     */
+    public SnapshotCatalogo con(List<Producto> actualizados, Collection<Long> eliminados) {
+        // Id --> estado nuevo del producto (null si se elimina), en orden de id para recorrerlo junto a las columnas.
+        NavigableMap<Long, Producto> cambios = new TreeMap<>();
+        for (Long productoId: eliminados) {
+            if (Arrays.binarySearch(this.ids, productoId) >= 0) cambios.put(productoId, null);
+        }
+        actualizados.forEach(producto -> cambios.put(producto.getId(), producto));
+        if (cambios.isEmpty()) return this;
+
+        Map<Long, long[]> porSubcategoria = new HashMap<>(this.porSubcategoria);
+        Map<Long, long[]> porMarca = new HashMap<>(this.porMarca);
+        int cantidad = this.ids.length;
+
+        for (Map.Entry<Long, Producto> cambio: cambios.entrySet()) {
+            int posicion = Arrays.binarySearch(this.ids, cambio.getKey());
+            Producto anterior = posicion >= 0 ? this.productos[posicion] : null;
+            Producto nuevo = cambio.getValue();
+
+            if (anterior == null) cantidad++;
+            if (nuevo == null) cantidad--;
+
+            reindexar(porSubcategoria, cambio.getKey(), subcategoria(anterior), subcategoria(nuevo));
+            reindexar(porMarca, cambio.getKey(), marca(anterior), marca(nuevo));
+        }
+
+        SnapshotCatalogo snapshot = new SnapshotCatalogo(cantidad, porSubcategoria, porMarca,
+                this.destacados(cambios));
+
+        int leida = 0;
+        int escrita = 0;
+        for (Map.Entry<Long, Producto> cambio: cambios.entrySet()) {
+            int posicion = Arrays.binarySearch(this.ids, cambio.getKey());
+            int hasta = posicion >= 0 ? posicion : -posicion - 1;
+
+            this.copiar(snapshot, leida, escrita, hasta - leida);
+            escrita += hasta - leida;
+            leida = posicion >= 0 ? posicion + 1 : hasta;
+
+            if (cambio.getValue() != null) snapshot.escribir(escrita++, cambio.getValue());
+        }
+
+        this.copiar(snapshot, leida, escrita, this.ids.length - leida);
+        return snapshot;
+    }
+
+    public int cantidad() {
+        return this.ids.length;
+    }
+
+    /**
+     * @param productoId Long id del producto.
+     * @return Optional con el producto (activo o no), o vacío si no existe.
+     */
+    public Optional<Producto> producto(Long productoId) {
+        int posicion = Arrays.binarySearch(this.ids, productoId);
+        return posicion >= 0 ? Optional.of(this.productos[posicion]) : Optional.empty();
+    }
+
+    /**
+     * @return List productos activos y destacados, ordenados por id.
+     */
+    public List<Producto> destacados() {
+        return this.destacados;
+    }
+
+    /**
+     * @param subcategoriaId Long id de la subcategoría.
+     * @return true si la subcategoría tiene algún producto activo.
+     */
+    public boolean tieneSubcategoria(Long subcategoriaId) {
+        return this.porSubcategoria.containsKey(subcategoriaId);
+    }
+
+    /**
+     * @param marcaId Long id de la marca.
+     * @return true si la marca tiene algún producto activo.
+     */
+    public boolean tieneMarca(Long marcaId) {
+        return this.porMarca.containsKey(marcaId);
+    }
+
+    /**
+     * Página de los productos activos de la subcategoría, ordenados por id, posteriores al id dado.
+     */
+    public PaginaProductos<ProductoListado> productosPorSubcategoria(Long subcategoriaId, Long idDesde, int tamanio) {
+        return this.pagina(this.porSubcategoria.getOrDefault(subcategoriaId, new long[0]), idDesde, tamanio);
+    }
+
+    /**
+     * Página de los productos activos de la marca, ordenados por id, posteriores al id dado.
+     */
+    public PaginaProductos<ProductoListado> productosPorMarca(Long marcaId, Long idDesde, int tamanio) {
+        return this.pagina(this.porMarca.getOrDefault(marcaId, new long[0]), idDesde, tamanio);
+    }
+
+    private PaginaProductos<ProductoListado> pagina(long[] listado, Long idDesde, int tamanio) {
+        int inicio = Arrays.binarySearch(listado, idDesde);
+        inicio = inicio >= 0 ? inicio + 1 : -inicio - 1;
+        int fin = (int) Math.min(listado.length, (long) inicio + tamanio);
+
+        List<ProductoListado> pagina = new ArrayList<>(fin - inicio);
+        for (int i = inicio; i < fin; i++) {
+            pagina.add(this.listado(Arrays.binarySearch(this.ids, listado[i])));
+        }
+
+        return PaginaProductos.de(new SliceImpl<>(pagina, PageRequest.of(0, tamanio), fin < listado.length),
+                ProductoListado::getId, producto -> null);
+    }
+
+    /**
+     * Arma la tarjeta del producto en cada lectura: si la promoción está vigente depende del momento.
+     */
+    private ProductoListado listado(int posicion) {
+        boolean conPromocion = !Double.isNaN(this.preciosOferta[posicion]);
+
+        return new ProductoListado(this.ids[posicion], this.nombres[posicion], this.precios[posicion],
+                this.disponibilidades[posicion], this.fotos[posicion], this.marcas[posicion],
+                conPromocion ? this.preciosOferta[posicion] : null,
+                conPromocion && !Double.isNaN(this.porcentajesOferta[posicion]) ? this.porcentajesOferta[posicion] : null,
+                fecha(this.promocionesDesde[posicion]), fecha(this.promocionesHasta[posicion]));
+    }
+
+    private void escribir(int posicion, Producto producto) {
+        Promocion promocion = producto.getPromocion();
+
+        this.ids[posicion] = producto.getId();
+        this.productos[posicion] = producto;
+        this.nombres[posicion] = producto.getNombre();
+        this.precios[posicion] = producto.getPrecio() != null ? producto.getPrecio() : 0.0;
+        this.disponibilidades[posicion] = producto.getDisponibilidadGeneral() != null
+                ? producto.getDisponibilidadGeneral() : 0;
+        this.fotos[posicion] = producto.getFoto() != null ? producto.getFoto().getImageUrl() : null;
+        // Muchos productos comparten marca: una sola instancia de cada nombre.
+        this.marcas[posicion] = producto.getMarca() != null && producto.getMarca().getNombre() != null
+                ? producto.getMarca().getNombre().intern() : null;
+        this.preciosOferta[posicion] = promocion != null && promocion.getPrecioOferta() != null
+                ? promocion.getPrecioOferta() : Double.NaN;
+        this.porcentajesOferta[posicion] = promocion != null && promocion.getPorcentaje() != null
+                ? promocion.getPorcentaje() : Double.NaN;
+        this.promocionesDesde[posicion] = promocion != null && promocion.getFechaDesde() != null
+                ? promocion.getFechaDesde().getTime() : SIN_FECHA;
+        this.promocionesHasta[posicion] = promocion != null && promocion.getFechaHasta() != null
+                ? promocion.getFechaHasta().getTime() : SIN_FECHA;
+    }
+
+    private void copiar(SnapshotCatalogo destino, int desde, int hasta, int cantidad) {
+        System.arraycopy(this.ids, desde, destino.ids, hasta, cantidad);
+        System.arraycopy(this.productos, desde, destino.productos, hasta, cantidad);
+        System.arraycopy(this.nombres, desde, destino.nombres, hasta, cantidad);
+        System.arraycopy(this.precios, desde, destino.precios, hasta, cantidad);
+        System.arraycopy(this.disponibilidades, desde, destino.disponibilidades, hasta, cantidad);
+        System.arraycopy(this.fotos, desde, destino.fotos, hasta, cantidad);
+        System.arraycopy(this.marcas, desde, destino.marcas, hasta, cantidad);
+        System.arraycopy(this.preciosOferta, desde, destino.preciosOferta, hasta, cantidad);
+        System.arraycopy(this.porcentajesOferta, desde, destino.porcentajesOferta, hasta, cantidad);
+        System.arraycopy(this.promocionesDesde, desde, destino.promocionesDesde, hasta, cantidad);
+        System.arraycopy(this.promocionesHasta, desde, destino.promocionesHasta, hasta, cantidad);
+    }
+
+    /** Destacados sin los productos cambiados y con los que quedan destacados, manteniendo el orden por id. */
+    private List<Producto> destacados(Map<Long, Producto> cambios) {
+        List<Producto> destacados = new ArrayList<>(this.destacados.size() + cambios.size());
+        for (Producto producto: this.destacados) {
+            if (!cambios.containsKey(producto.getId())) destacados.add(producto);
+        }
+
+        for (Producto nuevo: cambios.values()) {
+            if (nuevo != null && destacado(nuevo)) destacados.add(nuevo);
+        }
+
+        destacados.sort(Comparator.comparing(Producto::getId));
+        return destacados;
+    }
+
+    /**
+     * Cambia en el índice solo las entradas de la clave anterior y la nueva del producto; el resto de los arreglos
+     * se comparte con el snapshot anterior.
+     */
+    private static void reindexar(Map<Long, long[]> indice, Long productoId, Long claveAnterior, Long claveNueva) {
+        if (claveAnterior != null) {
+            long[] ids = sinId(indice.get(claveAnterior), productoId);
+            if (ids.length == 0) indice.remove(claveAnterior);
+            else indice.put(claveAnterior, ids);
+        }
+
+        if (claveNueva != null) indice.put(claveNueva, conId(indice.get(claveNueva), productoId));
+    }
+
+    private static long[] sinId(long[] ids, long id) {
+        int posicion = Arrays.binarySearch(ids, id);
+        if (posicion < 0) return ids;
+
+        long[] resultado = new long[ids.length - 1];
+        System.arraycopy(ids, 0, resultado, 0, posicion);
+        System.arraycopy(ids, posicion + 1, resultado, posicion, ids.length - posicion - 1);
+        return resultado;
+    }
+
+    private static long[] conId(long[] ids, long id) {
+        if (ids == null) return new long[] {id};
+
+        int posicion = Arrays.binarySearch(ids, id);
+        if (posicion >= 0) return ids;
+
+        posicion = -posicion - 1;
+        long[] resultado = new long[ids.length + 1];
+        System.arraycopy(ids, 0, resultado, 0, posicion);
+        resultado[posicion] = id;
+        System.arraycopy(ids, posicion, resultado, posicion + 1, ids.length - posicion);
+        return resultado;
+    }
+
+    private static Map<Long, long[]> arreglos(Map<Long, List<Long>> listas) {
+        Map<Long, long[]> arreglos = new HashMap<>();
+        listas.forEach((clave, ids) -> arreglos.put(clave, ids.stream().mapToLong(Long::longValue).toArray()));
+        return arreglos;
+    }
+
+    /** Subcategoría bajo la que se lista el producto, o null si no se lista (inactivo). */
+    private static Long subcategoria(Producto producto) {
+        return producto != null && producto.isActivo() && producto.getSubcategoria() != null
+                ? producto.getSubcategoria().getId() : null;
+    }
+
+    /** Marca bajo la que se lista el producto, o null si no se lista (inactivo). */
+    private static Long marca(Producto producto) {
+        return producto != null && producto.isActivo() && producto.getMarca() != null
+                ? producto.getMarca().getId() : null;
+    }
+
+    private static boolean destacado(Producto producto) {
+        return producto.isActivo() && producto.isDestacado();
+    }
+
+    private static Date fecha(long instante) {
+        return instante == SIN_FECHA ? null : new Date(instante);
+    }
+}
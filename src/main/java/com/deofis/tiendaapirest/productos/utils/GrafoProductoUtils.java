@@ -0,0 +1,91 @@
+package com.deofis.tiendaapirest.productos.utils;
+
+import com.deofis.tiendaapirest.globalservices.FiltroCampos;
+import com.deofis.tiendaapirest.productos.domain.Categoria;
+import com.deofis.tiendaapirest.productos.domain.Producto;
+import com.deofis.tiendaapirest.productos.domain.PropiedadProducto;
+import com.deofis.tiendaapirest.productos.domain.Sku;
+import com.deofis.tiendaapirest.productos.domain.Subcategoria;
+import org.hibernate.Hibernate;
+
+import java.util.Set;
+
+/**
+ * Inicializa, dentro de la transacción, todo lo que la serialización de un {@link Producto} recorre, para
+ * poder usarlo fuera de la sesión (sin open-session-in-view). Lo mismo para las entidades del catálogo que los
+ * endpoints devuelven solas: skus, categorías, subcategorías y propiedades. Las colecciones LAZY tienen @BatchSize, por lo
+ * que inicializar varios productos de la misma sesión cuesta una consulta por colección y no por producto.
+ */
+public class GrafoProductoUtils {
+
+    public static Producto inicializar(Producto producto) {
+        Hibernate.initialize(producto.getFoto());
+        Hibernate.initialize(producto.getImagenes());
+        Hibernate.initialize(producto.getUnidadMedida());
+        inicializar(producto.getSubcategoria());
+
+        producto.getPropiedades().forEach(GrafoProductoUtils::inicializar);
+
+        inicializar(producto.getDefaultSku());
+        Hibernate.initialize(producto.getSkus());
+        producto.getSkus().forEach(GrafoProductoUtils::inicializar);
+        return producto;
+    }
+
+    /**
+     * Inicializa solo las asociaciones LAZY del producto que se van a serializar para los campos pedidos con
+     * 'fields' ({@link FiltroCampos}); sin campos, el producto completo.
+     */
+    public static Producto inicializar(Producto producto, Set<String> campos) {
+        if (campos.isEmpty()) return inicializar(producto);
+
+        if (FiltroCampos.incluye(campos, "foto")) Hibernate.initialize(producto.getFoto());
+        if (FiltroCampos.incluye(campos, "imagenes")) Hibernate.initialize(producto.getImagenes());
+        if (FiltroCampos.incluye(campos, "unidadMedida")) Hibernate.initialize(producto.getUnidadMedida());
+        if (FiltroCampos.incluye(campos, "subcategoria")) inicializar(producto.getSubcategoria());
+        if (FiltroCampos.incluye(campos, "propiedades"))
+            producto.getPropiedades().forEach(GrafoProductoUtils::inicializar);
+        if (FiltroCampos.incluye(campos, "defaultSku")) inicializar(producto.getDefaultSku());
+        if (FiltroCampos.incluye(campos, "skus")) {
+            Hibernate.initialize(producto.getSkus());
+            producto.getSkus().forEach(GrafoProductoUtils::inicializar);
+        }
+        return producto;
+    }
+
+    public static Sku inicializar(Sku sku) {
+        if (sku == null) return null;
+        Hibernate.initialize(sku.getFoto());
+        Hibernate.initialize(sku.getValores());
+        return sku;
+    }
+
+    /**
+     * Inicializa el sku junto con el producto al que pertenece, que se serializa con él.
+     */
+    public static Sku inicializarConProducto(Sku sku) {
+        inicializar(sku);
+        if (sku.getProducto() != null) inicializar(sku.getProducto());
+        if (sku.getDefaultProducto() != null) inicializar(sku.getDefaultProducto());
+        return sku;
+    }
+
+    public static Subcategoria inicializar(Subcategoria subcategoria) {
+        Hibernate.initialize(subcategoria.getFoto());
+        Hibernate.initialize(subcategoria.getPropiedades());
+        subcategoria.getPropiedades().forEach(GrafoProductoUtils::inicializar);
+        return subcategoria;
+    }
+
+    public static Categoria inicializar(Categoria categoria) {
+        Hibernate.initialize(categoria.getFoto());
+        Hibernate.initialize(categoria.getSubcategorias());
+        categoria.getSubcategorias().forEach(GrafoProductoUtils::inicializar);
+        return categoria;
+    }
+
+    public static PropiedadProducto inicializar(PropiedadProducto propiedad) {
+        Hibernate.initialize(propiedad.getValores());
+        return propiedad;
+    }
+}
@@ -0,0 +1,47 @@
+package com.deofis.tiendaapirest.productos.utils;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Utilidades para obtener entidades por lote de ids con una sola consulta (findAllBy...IdIn), que devuelve las
+ * filas en cualquier orden.
+ */
+public class LoteUtils {
+
+    /**
+     * Quita los ids nulos y repetidos, conservando el orden del primero de cada uno.
+     * Ej.: [3, 1, 3, null, 2] --> [3, 1, 2].
+     * @param ids Collection de ids solicitados (puede ser null).
+     * @return List de ids distintos, en el orden solicitado.
+     */
+    public static List<Long> distintos(Collection<Long> ids) {
+        if (ids == null) return new ArrayList<>();
+
+        Set<Long> distintos = new LinkedHashSet<>(ids);
+        distintos.remove(null);
+        return new ArrayList<>(distintos);
+    }
+
+    /**
+     * Ordena los elementos encontrados según los ids solicitados. Los ids sin elemento se omiten.
+     * @param ids List de ids en el orden solicitado.
+     * @param encontrados Collection de elementos obtenidos, en cualquier orden.
+     * @param id Function que obtiene el id de un elemento.
+     * @return List de elementos en el orden de los ids.
+     */
+    public static <T> List<T> enOrden(List<Long> ids, Collection<T> encontrados, Function<T, Long> id) {
+        Map<Long, T> porId = new HashMap<>();
+        for (T elemento: encontrados) {
+            porId.put(id.apply(elemento), elemento);
+        }
+
+        List<T> ordenados = new ArrayList<>(ids.size());
+        for (Long solicitado: ids) {
+            T elemento = porId.get(solicitado);
+            if (elemento != null) ordenados.add(elemento);
+        }
+
+        return ordenados;
+    }
+}
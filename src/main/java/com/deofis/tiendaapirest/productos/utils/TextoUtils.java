@@ -0,0 +1,107 @@
+package com.deofis.tiendaapirest.productos.utils;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Utilidades de texto para indexar y buscar productos: normalización (minúsculas y sin acentos),
+ * tokenización y una singularización mínima para el español.
+ */
+public class TextoUtils {
+
+    private static final Locale LOCALE_ES = new Locale("es", "AR");
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    private static final Set<String> STOPWORDS = new HashSet<>(Arrays.asList(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los", "para", "por", "sin",
+            "su", "sus", "un", "una", "y", "o"));
+
+    /**
+     * Pasa el texto a minúsculas y elimina tildes/diéresis. La 'ñ' se pliega a 'n'.
+     * Ej.: "Portugués Turístico" --> "portugues turistico".
+     * @param texto String texto a normalizar.
+     * @return String normalizado, o vacío si el texto es null.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) return "";
+
+        String descompuesto = Normalizer.normalize(texto.toLowerCase(LOCALE_ES), Normalizer.Form.NFD);
+        return MARCAS_DIACRITICAS.matcher(descompuesto).replaceAll("");
+    }
+
+    /**
+     * Normaliza y separa el texto en términos, descartando stopwords y llevando cada término a
+     * su forma singular. El orden y las repeticiones de los términos se conservan.
+     * @param texto String texto a tokenizar.
+     * @return List con los términos del texto.
+     */
+    public static List<String> tokenizar(String texto) {
+        List<String> tokens = new ArrayList<>();
+
+        for (String token: SEPARADORES.split(normalizar(texto))) {
+            if (token.isEmpty() || STOPWORDS.contains(token)) continue;
+            tokens.add(singularizar(token));
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Singularización mínima para el español: "celulares" --> "celular", "remeras" --> "remera".
+     * No pretende ser un stemmer completo, solo que plural y singular coincidan en el índice.
+     * @param token String término normalizado.
+     * @return String término en singular.
+     */
+    public static String singularizar(String token) {
+        if (token.length() <= 3 || !token.endsWith("s")) return token;
+
+        if (token.endsWith("es") && token.length() > 4 && "lrndzj".indexOf(token.charAt(token.length() - 3)) >= 0)
+            return token.substring(0, token.length() - 2);
+
+        return token.substring(0, token.length() - 1);
+    }
+
+    /**
+     * Distancia de edición (Damerau-Levenshtein restringida: inserción, borrado, sustitución y transposición de
+     * caracteres adyacentes) acotada. Deja de calcular apenas la distancia supera el máximo.
+     * Ej.: distanciaEdicion("remra", "remera", 2) --> 1.
+     * @param a String primer término.
+     * @param b String segundo término.
+     * @param maximo int distancia máxima de interés.
+     * @return int distancia entre los términos, o maximo + 1 si es mayor al máximo.
+     */
+    public static int distanciaEdicion(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) return maximo + 1;
+
+        int[] anterior2 = new int[b.length() + 1];
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) anterior[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minimoFila = actual[0];
+
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                actual[j] = Math.min(Math.min(anterior[j] + 1, actual[j - 1] + 1), anterior[j - 1] + costo);
+
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1))
+                    actual[j] = Math.min(actual[j], anterior2[j - 2] + 1);
+
+                minimoFila = Math.min(minimoFila, actual[j]);
+            }
+
+            if (minimoFila > maximo) return maximo + 1;
+
+            int[] descartada = anterior2;
+            anterior2 = anterior;
+            anterior = actual;
+            actual = descartada;
+        }
+
+        return Math.min(anterior[b.length()], maximo + 1);
+    }
+}
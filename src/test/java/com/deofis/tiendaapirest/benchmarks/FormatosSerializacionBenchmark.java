@@ -0,0 +1,149 @@
+package com.deofis.tiendaapirest.benchmarks;
+
+import com.deofis.tiendaapirest.clientes.domain.Cliente;
+import com.deofis.tiendaapirest.globalservices.FiltroCampos;
+import com.deofis.tiendaapirest.operaciones.domain.DetalleOperacion;
+import com.deofis.tiendaapirest.operaciones.domain.EstadoOperacion;
+import com.deofis.tiendaapirest.operaciones.domain.Operacion;
+import com.deofis.tiendaapirest.productos.domain.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compara JSON, CBOR y Smile para las respuestas de mayor volumen (listado de productos con sus skus y listado
+ * de ventas con sus items): bytes de la respuesta, bytes con gzip y tiempo de CPU por serialización. Los
+ * ObjectMapper se arman igual que los de los convertidores de la API (ver WebConfig).
+ * <br>
+ * No es un test: se ejecuta a mano con el classpath de test. Ej.:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.deofis.tiendaapirest.benchmarks.FormatosSerializacionBenchmark
+ */
+public class FormatosSerializacionBenchmark {
+
+    private static final int CALENTAMIENTO = 200;
+    private static final int MEDICIONES = 500;
+
+    public static void main(String[] args) throws IOException {
+        Map<String, ObjectMapper> formatos = new LinkedHashMap<>();
+        formatos.put("json", FiltroCampos.registrar(Jackson2ObjectMapperBuilder.json().build()));
+        formatos.put("cbor", FiltroCampos.registrar(Jackson2ObjectMapperBuilder.cbor().build()));
+        formatos.put("smile", FiltroCampos.registrar(Jackson2ObjectMapperBuilder.smile().build()));
+
+        Map<String, Object> respuestas = new LinkedHashMap<>();
+        respuestas.put("productos (100)", Collections.singletonMap("productos", productos(100)));
+        respuestas.put("ventas (500)", Collections.singletonMap("ventas", ventas(500)));
+
+        System.out.printf("%-16s %-6s %10s %10s %12s%n", "respuesta", "formato", "bytes", "gzip", "cpu us/op");
+        for (Map.Entry<String, Object> respuesta: respuestas.entrySet()) {
+            for (Map.Entry<String, ObjectMapper> formato: formatos.entrySet()) {
+                byte[] bytes = formato.getValue().writeValueAsBytes(respuesta.getValue());
+                System.out.printf("%-16s %-6s %10d %10d %12.1f%n", respuesta.getKey(), formato.getKey(),
+                        bytes.length, gzip(bytes).length, cpuPorSerializacion(formato.getValue(), respuesta.getValue()));
+            }
+        }
+    }
+
+    /**
+     * @return double mediana del tiempo de CPU del hilo por serialización, en microsegundos.
+     */
+    private static double cpuPorSerializacion(ObjectMapper mapper, Object respuesta) throws IOException {
+        ThreadMXBean hilo = ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            mapper.writeValueAsBytes(respuesta);
+        }
+
+        long[] tiempos = new long[MEDICIONES];
+        for (int i = 0; i < MEDICIONES; i++) {
+            long inicio = hilo.getCurrentThreadCpuTime();
+            mapper.writeValueAsBytes(respuesta);
+            tiempos[i] = hilo.getCurrentThreadCpuTime() - inicio;
+        }
+
+        Arrays.sort(tiempos);
+        return tiempos[MEDICIONES / 2] / 1_000.0;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(bytes);
+        }
+
+        return salida.toByteArray();
+    }
+
+    private static List<Producto> productos(int cantidad) {
+        Random random = new Random(1);
+        Marca marca = Marca.builder().id(1L).nombre("Samsung").build();
+        Subcategoria subcategoria = Subcategoria.builder().id(1L).nombre("Celulares").codigo("CEL")
+                .propiedades(new ArrayList<>()).build();
+        UnidadMedida unidad = UnidadMedida.builder().id(1L).nombre("Unidad").codigo("UN").build();
+        List<Producto> productos = new ArrayList<>();
+
+        for (long id = 1; id <= cantidad; id++) {
+            double precio = 1_000 + random.nextInt(100_000);
+            Promocion promocion = Promocion.builder().id(id).fechaDesde(new Date(0))
+                    .fechaHasta(new Date(System.currentTimeMillis() + 86_400_000L))
+                    .precioOferta(precio * 0.8).porcentaje(20.0).build();
+            List<Imagen> imagenes = new ArrayList<>();
+            for (long i = 0; i < 3; i++) {
+                imagenes.add(Imagen.builder().id(id * 10 + i).path("productos/" + id + "/" + i + ".jpg")
+                        .imageUrl("https://deofis-tienda.s3.amazonaws.com/productos/" + id + "/" + i + ".jpg").build());
+            }
+
+            Producto producto = Producto.builder().id(id).nombre("Celular Galaxy A" + id)
+                    .descripcion("Pantalla de 6.5 pulgadas, 128 GB de almacenamiento y 4 GB de memoria RAM.")
+                    .precio(precio).promocion(promocion).disponibilidadGeneral(random.nextInt(500))
+                    .fechaCreacion(new Date()).foto(imagenes.get(0)).imagenes(imagenes).activo(true)
+                    .destacado(id % 7 == 0).subcategoria(subcategoria).marca(marca).unidadMedida(unidad)
+                    .propiedades(new ArrayList<>()).skus(new ArrayList<>()).build();
+
+            producto.setDefaultSku(sku(id * 100, producto.getNombre(), precio, producto, true));
+            for (long s = 1; s <= 3; s++) {
+                producto.getSkus().add(sku(id * 100 + s, producto.getNombre() + " - Color " + s, precio, producto, false));
+            }
+
+            productos.add(producto);
+        }
+
+        return productos;
+    }
+
+    private static Sku sku(Long id, String nombre, double precio, Producto producto, boolean porDefecto) {
+        return Sku.builder().id(id).nombre(nombre).descripcion(producto.getDescripcion()).precio(precio)
+                .disponibilidad(50).fechaCreacion(new Date()).valoresData(porDefecto ? null : "color:" + id)
+                .valores(new ArrayList<>())
+                .defaultProducto(porDefecto ? producto : null).producto(porDefecto ? null : producto).build();
+    }
+
+    private static List<Operacion> ventas(int cantidad) {
+        List<Producto> productos = productos(20);
+        List<Operacion> ventas = new ArrayList<>();
+
+        for (long nro = 1; nro <= cantidad; nro++) {
+            Cliente cliente = Cliente.builder().id(nro % 50).nombre("Juan").apellido("Pérez").dni(30_000_000L + nro)
+                    .email("cliente" + nro % 50 + "@mail.com").telefono("3794000000").build();
+            List<DetalleOperacion> items = new ArrayList<>();
+            double total = 0;
+
+            for (int i = 0; i < 3; i++) {
+                Sku sku = productos.get((int) ((nro + i) % productos.size())).getSkus().get(i);
+                items.add(DetalleOperacion.builder().id(nro * 10 + i).sku(sku).cantidad(1 + i)
+                        .precioVenta(sku.getPrecio()).subtotal(sku.getPrecio() * (1 + i)).build());
+                total += sku.getPrecio() * (1 + i);
+            }
+
+            ventas.add(Operacion.builder().nroOperacion(nro).fechaOperacion(new Date()).estado(EstadoOperacion.PAYMENT_DONE)
+                    .cliente(cliente).items(items).total(total).build());
+        }
+
+        return ventas;
+    }
+}
@@ -0,0 +1,161 @@
+package com.deofis.tiendaapirest.operaciones.services;
+
+import com.deofis.tiendaapirest.autenticacion.services.AutenticacionService;
+import com.deofis.tiendaapirest.checkout.services.CheckoutService;
+import com.deofis.tiendaapirest.config.CacheConfig;
+import com.deofis.tiendaapirest.config.CatalogoProperties;
+import com.deofis.tiendaapirest.emails.services.MailService;
+import com.deofis.tiendaapirest.globalservices.RoundService;
+import com.deofis.tiendaapirest.notificaciones.services.NotificacionService;
+import com.deofis.tiendaapirest.operaciones.domain.DetalleOperacion;
+import com.deofis.tiendaapirest.operaciones.domain.Operacion;
+import com.deofis.tiendaapirest.operaciones.dto.FaltanteStock;
+import com.deofis.tiendaapirest.operaciones.exceptions.StockInsuficienteException;
+import com.deofis.tiendaapirest.pagos.domain.MedioPago;
+import com.deofis.tiendaapirest.pagos.domain.MedioPagoEnum;
+import com.deofis.tiendaapirest.pagos.factory.OperacionPagoMapping;
+import com.deofis.tiendaapirest.pagos.repositories.MedioPagoRepository;
+import com.deofis.tiendaapirest.perfiles.services.AdministradorService;
+import com.deofis.tiendaapirest.perfiles.services.PerfilService;
+import com.deofis.tiendaapirest.perfiles.services.ValidadorItems;
+import com.deofis.tiendaapirest.productos.domain.Sku;
+import com.deofis.tiendaapirest.productos.repositories.SkuRepository;
+import com.deofis.tiendaapirest.productos.services.GeneradorSkus;
+import com.deofis.tiendaapirest.productos.services.SkuServiceImpl;
+import com.deofis.tiendaapirest.productos.services.cambios.NotificadorCambiosCatalogo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compra sin disponibilidad suficiente sobre H2. Cada test corre sin transacción propia: la compra abre y
+ * revierte la suya, como en la aplicación.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OperacionServiceImpl.class, SkuServiceImpl.class, CatalogoProperties.class, CacheConfig.class})
+class OperacionServiceStockTests {
+
+    @Autowired
+    private OperacionService operacionService;
+    @Autowired
+    private SkuRepository skuRepository;
+    @Autowired
+    private MedioPagoRepository medioPagoRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private NotificadorCambiosCatalogo notificadorCambiosCatalogo;
+    @MockBean
+    private StateMachineService stateMachineService;
+    @MockBean
+    private AutenticacionService autenticacionService;
+    @MockBean
+    private AdministradorService administradorService;
+    @MockBean
+    private MailService mailService;
+    @MockBean
+    private NotificacionService notificacionService;
+    @MockBean
+    private PerfilService perfilService;
+    @MockBean
+    private CheckoutService checkoutService;
+    @MockBean
+    private OperacionPagoMapping operacionPagoMapping;
+    @MockBean
+    private RoundService roundService;
+    @MockBean
+    private ValidadorItems validadorItems;
+    @MockBean
+    private ReservaStockService reservaStockService;
+    @MockBean
+    private GeneradorSkus generadorSkus;
+
+    private MedioPago efectivo;
+
+    @BeforeEach
+    void crearDatos() {
+        when(this.autenticacionService.estaLogueado()).thenReturn(true);
+        this.efectivo = this.medioPagoRepository.save(new MedioPago(null, MedioPagoEnum.EFECTIVO));
+    }
+
+    @AfterEach
+    void borrarDatos() {
+        this.jdbcTemplate.update("delete from skus");
+        this.jdbcTemplate.update("delete from medios_pago");
+    }
+
+    @Test
+    void informaCadaSkuSinDisponibilidadYNoDescuentaNinguno() {
+        Long remera = this.crearSku("Remera", 5);
+        Long buzo = this.crearSku("Buzo", 1);
+        Long gorra = this.crearSku("Gorra", 0);
+
+        StockInsuficienteException e = assertThrows(StockInsuficienteException.class,
+                () -> this.operacionService.registrarNuevaOperacion(this.operacion(
+                        this.item(remera, 2), this.item(buzo, 2), this.item(buzo, 1), this.item(gorra, 1))));
+
+        // Un faltante por sku, con la cantidad pedida sumando todos sus items.
+        assertEquals(new HashSet<>(Arrays.asList(
+                FaltanteStock.builder().skuId(buzo).nombre("Buzo").cantidad(3).disponibilidad(1).build(),
+                FaltanteStock.builder().skuId(gorra).nombre("Gorra").cantidad(1).disponibilidad(0).build())),
+                new HashSet<>(e.getFaltantes()));
+
+        // La compra se revierte completa: tampoco se descuenta la remera, que sí tenía disponibilidad.
+        assertEquals(5, this.disponibilidad(remera));
+        assertEquals(1, this.disponibilidad(buzo));
+        assertEquals(0, this.disponibilidad(gorra));
+        assertEquals(0, this.jdbcTemplate.queryForObject("select count(*) from operaciones", Integer.class));
+        verify(this.notificadorCambiosCatalogo, never()).ventaRegistrada(any(), anyInt());
+    }
+
+    private Operacion operacion(DetalleOperacion... items) {
+        return Operacion.builder()
+                .medioPago(this.efectivo)
+                .items(new ArrayList<>(Arrays.asList(items))).build();
+    }
+
+    private DetalleOperacion item(Long skuId, int cantidad) {
+        Sku sku = new Sku();
+        sku.setId(skuId);
+        return DetalleOperacion.builder()
+                .sku(sku)
+                .cantidad(cantidad).build();
+    }
+
+    private Long crearSku(String nombre, int disponibilidad) {
+        return this.skuRepository.save(Sku.builder()
+                .nombre(nombre)
+                .precio(100.0)
+                .disponibilidad(disponibilidad).build()).getId();
+    }
+
+    private int disponibilidad(Long skuId) {
+        Integer disponibilidad = this.jdbcTemplate.queryForObject("select disponibilidad from skus where id = ?",
+                Integer.class, skuId);
+        return disponibilidad != null ? disponibilidad : -1;
+    }
+}
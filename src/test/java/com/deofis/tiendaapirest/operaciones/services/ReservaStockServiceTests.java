@@ -0,0 +1,247 @@
+package com.deofis.tiendaapirest.operaciones.services;
+
+import com.deofis.tiendaapirest.config.CacheConfig;
+import com.deofis.tiendaapirest.config.CatalogoProperties;
+import com.deofis.tiendaapirest.config.OperacionesProperties;
+import com.deofis.tiendaapirest.globalservices.RoundService;
+import com.deofis.tiendaapirest.operaciones.domain.DetalleOperacion;
+import com.deofis.tiendaapirest.operaciones.domain.EstadoOperacion;
+import com.deofis.tiendaapirest.operaciones.domain.EstadoReserva;
+import com.deofis.tiendaapirest.operaciones.domain.Operacion;
+import com.deofis.tiendaapirest.operaciones.exceptions.OperacionException;
+import com.deofis.tiendaapirest.operaciones.repositories.OperacionRepository;
+import com.deofis.tiendaapirest.pagos.domain.MedioPago;
+import com.deofis.tiendaapirest.pagos.domain.MedioPagoEnum;
+import com.deofis.tiendaapirest.productos.domain.Sku;
+import com.deofis.tiendaapirest.productos.services.GeneradorSkus;
+import com.deofis.tiendaapirest.productos.services.SkuService;
+import com.deofis.tiendaapirest.productos.services.SkuServiceImpl;
+import com.deofis.tiendaapirest.productos.services.cambios.NotificadorCambiosCatalogo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Reservas de stock de las operaciones pendientes de pago sobre H2: sus transiciones y la liberación en lote de
+ * las vencidas. El lote se achica a 2 operaciones para que la liberación recorra varios.
+ */
+@DataJpaTest(properties = "operaciones.reservas.tamanio-lote=2")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ReservaStockServiceImpl.class, SkuServiceImpl.class, ReservaStockServiceTests.Propiedades.class,
+        CatalogoProperties.class, CacheConfig.class})
+class ReservaStockServiceTests {
+
+    @Autowired
+    private ReservaStockService reservaStockService;
+    @Autowired
+    private SkuService skuService;
+    @Autowired
+    private OperacionRepository operacionRepository;
+    @Autowired
+    private OperacionesProperties operacionesProperties;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private NotificadorCambiosCatalogo notificadorCambiosCatalogo;
+    @MockBean
+    private GeneradorSkus generadorSkus;
+    @MockBean
+    private RoundService roundService;
+
+    private MedioPago paypal;
+    private MedioPago efectivo;
+    private Long remera;
+
+    @BeforeEach
+    void crearDatos() {
+        this.paypal = this.entityManager.persist(new MedioPago(null, MedioPagoEnum.PAYPAL));
+        this.efectivo = this.entityManager.persist(new MedioPago(null, MedioPagoEnum.EFECTIVO));
+        this.remera = this.entityManager.persistAndFlush(Sku.builder()
+                .nombre("Remera")
+                .precio(100.0)
+                .disponibilidad(20).build()).getId();
+    }
+
+    @Test
+    void reservaConVencimientoSegunElMedioDePago() {
+        long antes = System.currentTimeMillis();
+        Operacion conPaypal = this.registrar(this.paypal, 2);
+        Operacion enEfectivo = this.registrar(this.efectivo, 2);
+
+        assertEquals(EstadoReserva.ACTIVA, conPaypal.getReservaStock());
+        assertTrue(conPaypal.getVencimientoReserva().getTime()
+                >= antes + this.operacionesProperties.getReservas().getTtl().toMillis());
+        assertEquals(EstadoReserva.ACTIVA, enEfectivo.getReservaStock());
+        assertNull(enEfectivo.getVencimientoReserva());
+        assertEquals(16, this.disponibilidad());
+    }
+
+    @Test
+    void confirmaLaReservaAlPagar() {
+        Operacion operacion = this.registrar(this.paypal, 3);
+
+        this.reservaStockService.confirmar(operacion);
+
+        assertEquals(EstadoReserva.CONFIRMADA, this.reserva(operacion));
+        assertNull(operacion.getVencimientoReserva());
+        // El stock queda descontado, y cancelar una operación ya pagada no lo repone.
+        this.reservaStockService.liberar(operacion);
+        assertEquals(EstadoReserva.CONFIRMADA, this.reserva(operacion));
+        assertEquals(17, this.disponibilidad());
+    }
+
+    @Test
+    void liberaLaReservaUnaSolaVezAlCancelar() {
+        Operacion operacion = this.registrar(this.paypal, 3);
+
+        this.reservaStockService.liberar(operacion);
+        this.reservaStockService.liberar(operacion);
+
+        assertEquals(EstadoReserva.LIBERADA, this.reserva(operacion));
+        assertEquals(20, this.disponibilidad());
+    }
+
+    @Test
+    void reponeLaDisponibilidadDescontada() {
+        assertTrue(this.skuService.descontarDisponibilidad(Map.of(this.remera, 4)).isEmpty());
+
+        this.skuService.reponerDisponibilidad(Map.of(this.remera, 4));
+
+        assertEquals(20, this.disponibilidad());
+        // Las unidades repuestas se notifican con signo negativo, para restarlas de las ventas del sku.
+        verify(this.notificadorCambiosCatalogo).ventaRegistrada(argThat(sku -> sku.getId().equals(this.remera)),
+                eq(-4));
+    }
+
+    @Test
+    void noConfirmaUnaReservaLiberada() {
+        Operacion operacion = this.registrar(this.paypal, 3);
+        this.reservaStockService.liberar(operacion);
+
+        assertThrows(OperacionException.class, () -> this.reservaStockService.confirmar(operacion));
+        assertEquals(EstadoReserva.LIBERADA, this.reserva(operacion));
+    }
+
+    @Test
+    void liberaEnLotesLasReservasVencidas() {
+        List<Operacion> vencidas = new ArrayList<>();
+        for (int i = 0; i < 3; i++) vencidas.add(this.registrar(this.paypal, 2));
+        Operacion pagada = this.registrar(this.paypal, 2);
+        Operacion vigente = this.registrar(this.paypal, 2);
+        Operacion enEfectivo = this.registrar(this.efectivo, 2);
+
+        this.reservaStockService.confirmar(pagada);
+        vencidas.forEach(this::vencer);
+        this.vencer(pagada);
+
+        assertEquals(3, this.reservaStockService.liberarVencidas());
+        // Se repone el stock de las 3 vencidas; el resto sigue descontado.
+        assertEquals(14, this.disponibilidad());
+
+        this.entityManager.clear();
+        for (Operacion operacion: vencidas) {
+            Operacion actual = this.operacionRepository.findById(operacion.getNroOperacion()).orElseThrow();
+            assertEquals(EstadoOperacion.CANCELLED, actual.getEstado());
+            assertEquals(EstadoReserva.LIBERADA, actual.getReservaStock());
+        }
+        assertEquals(EstadoReserva.CONFIRMADA, this.reserva(pagada));
+        assertEquals(EstadoReserva.ACTIVA, this.reserva(vigente));
+        assertEquals(EstadoReserva.ACTIVA, this.reserva(enEfectivo));
+        assertEquals(0, this.reservaStockService.liberarVencidas());
+    }
+
+    @Test
+    void noLiberaLasOperacionesQueYaNoEstanPendientesDePago() {
+        // Un lote completo: la liberación no debe volver a encontrarlas en el lote siguiente.
+        List<Operacion> canceladas = new ArrayList<>();
+        for (int i = 0; i < 2; i++) canceladas.add(this.registrar(this.paypal, 2));
+        for (Operacion operacion: canceladas) {
+            this.jdbcTemplate.update("update operaciones set estado = ? where nro_operacion = ?",
+                    EstadoOperacion.CANCELLED.name(), operacion.getNroOperacion());
+            this.vencer(operacion);
+        }
+
+        assertEquals(0, this.reservaStockService.liberarVencidas());
+        for (Operacion operacion: canceladas) assertEquals(EstadoReserva.ACTIVA, this.reserva(operacion));
+        assertEquals(16, this.disponibilidad());
+    }
+
+    /**
+     * Registra una operación pendiente de pago como lo hace la compra: descuenta el stock y lo reserva.
+     */
+    private Operacion registrar(MedioPago medioPago, int cantidad) {
+        assertTrue(this.skuService.descontarDisponibilidad(Map.of(this.remera, cantidad)).isEmpty());
+
+        Operacion operacion = Operacion.builder()
+                .fechaOperacion(new Date())
+                .estado(EstadoOperacion.PAYMENT_PENDING)
+                .medioPago(medioPago)
+                .total(100.0 * cantidad)
+                .items(new ArrayList<>(Collections.singletonList(DetalleOperacion.builder()
+                        .sku(this.entityManager.find(Sku.class, this.remera))
+                        .cantidad(cantidad)
+                        .precioVenta(100.0)
+                        .subtotal(100.0 * cantidad).build()))).build();
+        this.reservaStockService.reservar(operacion);
+
+        Operacion guardada = this.operacionRepository.save(operacion);
+        this.entityManager.flush();
+        return guardada;
+    }
+
+    private void vencer(Operacion operacion) {
+        this.jdbcTemplate.update("update operaciones set vencimiento_reserva = ? where nro_operacion = ?",
+                new Date(System.currentTimeMillis() - 1000), operacion.getNroOperacion());
+    }
+
+    /**
+     * Las transiciones son UPDATEs sin Hibernate: se leen con JDBC.
+     */
+    private EstadoReserva reserva(Operacion operacion) {
+        return EstadoReserva.valueOf(this.jdbcTemplate.queryForObject(
+                "select reserva_stock from operaciones where nro_operacion = ?", String.class,
+                operacion.getNroOperacion()));
+    }
+
+    /**
+     * Las propiedades se registran con el nombre que usa el @Scheduled de la liberación de vencidas.
+     */
+    @TestConfiguration
+    static class Propiedades {
+
+        @Bean
+        public OperacionesProperties operacionesProperties() {
+            return new OperacionesProperties();
+        }
+    }
+
+    private int disponibilidad() {
+        Integer disponibilidad = this.jdbcTemplate.queryForObject("select disponibilidad from skus where id = ?",
+                Integer.class, this.remera);
+        return disponibilidad != null ? disponibilidad : -1;
+    }
+}
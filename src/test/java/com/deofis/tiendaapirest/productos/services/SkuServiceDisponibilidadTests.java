@@ -0,0 +1,131 @@
+package com.deofis.tiendaapirest.productos.services;
+
+import com.deofis.tiendaapirest.config.CacheConfig;
+import com.deofis.tiendaapirest.config.CatalogoProperties;
+import com.deofis.tiendaapirest.globalservices.RoundService;
+import com.deofis.tiendaapirest.productos.domain.Sku;
+import com.deofis.tiendaapirest.productos.services.cambios.NotificadorCambiosCatalogo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Descuento de disponibilidad de la compra (UPDATE condicionado por sku) sobre H2.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SkuServiceImpl.class, CatalogoProperties.class, CacheConfig.class})
+class SkuServiceDisponibilidadTests {
+
+    @Autowired
+    private SkuService skuService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private NotificadorCambiosCatalogo notificadorCambiosCatalogo;
+    @MockBean
+    private GeneradorSkus generadorSkus;
+    @MockBean
+    private RoundService roundService;
+
+    @Test
+    void descuentaLaCantidadDeCadaSku() {
+        Long remera = this.crearSku("Remera", 5);
+        Long buzo = this.crearSku("Buzo", 2);
+
+        Map<Long, Integer> faltantes = this.skuService.descontarDisponibilidad(cantidades(remera, 3, buzo, 2));
+
+        assertTrue(faltantes.isEmpty());
+        assertEquals(2, this.disponibilidad(remera));
+        assertEquals(0, this.disponibilidad(buzo));
+        verify(this.notificadorCambiosCatalogo).ventaRegistrada(argThat(sku -> sku.getId().equals(remera)), eq(3));
+        verify(this.notificadorCambiosCatalogo).ventaRegistrada(argThat(sku -> sku.getId().equals(buzo)), eq(2));
+    }
+
+    @Test
+    void informaCadaSkuSinDisponibilidadSuficiente() {
+        Long remera = this.crearSku("Remera", 5);
+        Long buzo = this.crearSku("Buzo", 1);
+        Long gorra = this.crearSku("Gorra", 0);
+
+        Map<Long, Integer> faltantes = this.skuService.descontarDisponibilidad(
+                cantidades(remera, 2, buzo, 3, gorra, 1));
+
+        // Solo los skus que no alcanzan, con la disponibilidad que tenían: el de la remera sí se descontó, y la
+        // compra revierte la transacción.
+        assertEquals(cantidades(buzo, 1, gorra, 0), faltantes);
+        assertEquals(1, this.disponibilidad(buzo));
+        assertEquals(0, this.disponibilidad(gorra));
+        verify(this.notificadorCambiosCatalogo, never()).ventaRegistrada(any(), anyInt());
+    }
+
+    @Test
+    void noDescuentaMasDeLoDisponible() {
+        Long remera = this.crearSku("Remera", 3);
+
+        assertTrue(this.skuService.descontarDisponibilidad(cantidades(remera, 3)).isEmpty());
+        assertEquals(cantidades(remera, 0), this.skuService.descontarDisponibilidad(cantidades(remera, 1)));
+        assertEquals(0, this.disponibilidad(remera));
+    }
+
+    @Test
+    void informaUnSkuInexistenteSinDisponibilidad() {
+        assertEquals(cantidades(-1L, 0), this.skuService.descontarDisponibilidad(cantidades(-1L, 1)));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void requiereLaTransaccionDeLaCompra() {
+        assertThrows(IllegalTransactionStateException.class,
+                () -> this.skuService.descontarDisponibilidad(cantidades(1L, 1)));
+    }
+
+    private Long crearSku(String nombre, int disponibilidad) {
+        Sku sku = Sku.builder()
+                .nombre(nombre)
+                .precio(100.0)
+                .disponibilidad(disponibilidad).build();
+        return this.entityManager.persistAndFlush(sku).getId();
+    }
+
+    /**
+     * Se lee con JDBC: el descuento no pasa por Hibernate, por lo que el sku cargado en la sesión no cambia.
+     */
+    private int disponibilidad(Long skuId) {
+        Integer disponibilidad = this.jdbcTemplate.queryForObject("select disponibilidad from skus where id = ?",
+                Integer.class, skuId);
+        return disponibilidad != null ? disponibilidad : -1;
+    }
+
+    private static Map<Long, Integer> cantidades(Object... skusYCantidades) {
+        Map<Long, Integer> cantidades = new HashMap<>();
+        for (int i = 0; i < skusYCantidades.length; i += 2) {
+            cantidades.put((Long) skusYCantidades[i], (Integer) skusYCantidades[i + 1]);
+        }
+        return cantidades;
+    }
+}